@@ -0,0 +1,294 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static org.finos.waltz.common.Checks.checkNotEmpty;
+import static org.finos.waltz.common.Checks.checkNotNull;
+import static org.finos.waltz.common.Checks.checkTrue;
+
+
+/**
+ * Bounded, in-process write-behind buffer.
+ * <p>
+ * Callers {@link #offer(Object)} items without blocking, a single background
+ * thread drains the buffer and hands the items to the <code>batchWriter</code>
+ * in lists of at most <code>batchSize</code>.  A flush happens every
+ * <code>flushIntervalMillis</code>, or sooner once a full batch is waiting.
+ * <p>
+ * When the buffer is full the {@link OverflowPolicy} decides whether the item
+ * is dropped or written synchronously on the calling thread.  Items offered
+ * after {@link #close()} are always written synchronously so nothing is lost
+ * during shutdown.
+ * <p>
+ * Failed batches are logged and counted but not retried.
+ *
+ * @param <T> type of item being buffered
+ */
+public class WriteBehindQueue<T> implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriteBehindQueue.class);
+    private static final long DROP_WARNING_INTERVAL = 1000;
+
+    public enum OverflowPolicy {
+        /** discard the offered item, it is counted in {@link #getDroppedCount()} **/
+        DROP,
+        /** write the offered item immediately on the calling thread **/
+        WRITE_THROUGH
+    }
+
+    private final String name;
+    private final int capacity;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final Consumer<List<T>> batchWriter;
+    private final BlockingQueue<T> queue;
+    private final ScheduledExecutorService executor;
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    private final LongAdder offeredCount = new LongAdder();
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder writeThroughCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder failedBatchCount = new LongAdder();
+    private final AtomicLong lastFlushMillis = new AtomicLong();
+    private final AtomicLong maxFlushMillis = new AtomicLong();
+
+
+    public WriteBehindQueue(String name,
+                            int capacity,
+                            int batchSize,
+                            long flushIntervalMillis,
+                            OverflowPolicy overflowPolicy,
+                            Consumer<List<T>> batchWriter) {
+        checkNotEmpty(name, "name cannot be empty");
+        checkTrue(capacity > 0, "capacity must be positive");
+        checkTrue(batchSize > 0, "batchSize must be positive");
+        checkTrue(flushIntervalMillis > 0, "flushIntervalMillis must be positive");
+        checkNotNull(overflowPolicy, "overflowPolicy cannot be null");
+        checkNotNull(batchWriter, "batchWriter cannot be null");
+
+        this.name = name;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.batchWriter = batchWriter;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread t = new Thread(runnable, "Write Behind: " + name);
+            t.setDaemon(true);
+            return t;
+        });
+
+        executor.scheduleWithFixedDelay(
+                this::scheduledFlush,
+                flushIntervalMillis,
+                flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+
+    /**
+     * Adds the item to the buffer without blocking.
+     *
+     * @return true if the item was buffered or written, false if it was dropped
+     */
+    public boolean offer(T item) {
+        checkNotNull(item, "item cannot be null");
+        offeredCount.increment();
+
+        if (closed.get()) {
+            writeThrough(item);
+            return true;
+        }
+
+        if (queue.offer(item)) {
+            if (queue.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+                executor.execute(this::scheduledFlush);
+            }
+            return true;
+        }
+
+        if (overflowPolicy == OverflowPolicy.WRITE_THROUGH) {
+            writeThrough(item);
+            return true;
+        }
+
+        droppedCount.increment();
+        long dropped = droppedCount.sum();
+        if (dropped == 1 || dropped % DROP_WARNING_INTERVAL == 0) {
+            LOG.warn("Write behind queue '{}' is full (capacity: {}), {} item(s) dropped so far", name, capacity, dropped);
+        }
+        return false;
+    }
+
+
+    /**
+     * Drains everything currently buffered, writing it in batches on the calling thread.
+     *
+     * @return number of items successfully written
+     */
+    public synchronized int flush() {
+        int written = 0;
+        List<T> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            written += write(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+        return written;
+    }
+
+
+    /**
+     * Stops the background thread and writes anything still buffered.
+     */
+    @Override
+    public void close() {
+        if (! closed.compareAndSet(false, true)) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int written = flush();
+        LOG.info("Closed write behind queue '{}', flushed {} item(s)", name, written);
+    }
+
+
+    public String getName() {
+        return name;
+    }
+
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+
+    public long getOfferedCount() {
+        return offeredCount.sum();
+    }
+
+
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+
+    public long getWriteThroughCount() {
+        return writeThroughCount.sum();
+    }
+
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+
+    public long getFailedBatchCount() {
+        return failedBatchCount.sum();
+    }
+
+
+    public long getLastFlushMillis() {
+        return lastFlushMillis.get();
+    }
+
+
+    public long getMaxFlushMillis() {
+        return maxFlushMillis.get();
+    }
+
+
+    // -- helpers ----
+
+    private void scheduledFlush() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (Exception e) {
+            // never let an exception cancel the scheduled task
+            LOG.error("Unexpected error flushing write behind queue '{}'", name, e);
+        }
+    }
+
+
+    private void writeThrough(T item) {
+        writeThroughCount.increment();
+        write(Collections.singletonList(item));
+    }
+
+
+    private int write(List<T> batch) {
+        long start = System.currentTimeMillis();
+        try {
+            batchWriter.accept(batch);
+            writtenCount.add(batch.size());
+            return batch.size();
+        } catch (Exception e) {
+            failedCount.add(batch.size());
+            failedBatchCount.increment();
+            LOG.error("Write behind queue '{}' failed to write batch of {} item(s)", name, batch.size(), e);
+            return 0;
+        } finally {
+            long duration = System.currentTimeMillis() - start;
+            batchCount.increment();
+            lastFlushMillis.set(duration);
+            maxFlushMillis.accumulateAndGet(duration, Math::max);
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindQueueTest {
+
+    private static final long LONG_INTERVAL = 60_000;
+
+
+    @Test
+    public void flushWritesBufferedItemsInBatches() {
+        List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+        WriteBehindQueue<Integer> q = new WriteBehindQueue<>("test", 100, 2, LONG_INTERVAL, WriteBehindQueue.OverflowPolicy.DROP, batches::add);
+
+        // hold the lock so the size triggered flush cannot run before we check
+        synchronized (q) {
+            q.offer(1);
+            q.offer(2);
+            q.offer(3);
+            assertEquals(3, q.getPendingCount());
+            assertEquals(3, q.flush());
+        }
+
+        assertEquals(0, q.getPendingCount());
+        assertEquals(3, q.getWrittenCount());
+        assertTrue(batches.stream().allMatch(b -> b.size() <= 2));
+        q.close();
+    }
+
+
+    @Test
+    public void itemsAreDroppedWhenFullWithDropPolicy() {
+        WriteBehindQueue<Integer> q = new WriteBehindQueue<>("test", 2, 10, LONG_INTERVAL, WriteBehindQueue.OverflowPolicy.DROP, b -> {});
+
+        assertTrue(q.offer(1));
+        assertTrue(q.offer(2));
+        assertFalse(q.offer(3));
+        assertEquals(1, q.getDroppedCount());
+        assertEquals(3, q.getOfferedCount());
+        q.close();
+    }
+
+
+    @Test
+    public void itemsAreWrittenImmediatelyWhenFullWithWriteThroughPolicy() {
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        WriteBehindQueue<Integer> q = new WriteBehindQueue<>("test", 1, 10, LONG_INTERVAL, WriteBehindQueue.OverflowPolicy.WRITE_THROUGH, written::addAll);
+
+        q.offer(1);
+        q.offer(2);
+        assertEquals(ListUtilities.newArrayList(2), written);
+        assertEquals(1, q.getWriteThroughCount());
+        assertEquals(0, q.getDroppedCount());
+        q.close();
+    }
+
+
+    @Test
+    public void closeFlushesPendingItemsAndLaterOffersAreWrittenDirectly() {
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        WriteBehindQueue<Integer> q = new WriteBehindQueue<>("test", 10, 10, LONG_INTERVAL, WriteBehindQueue.OverflowPolicy.DROP, written::addAll);
+
+        q.offer(1);
+        q.offer(2);
+        q.close();
+        assertEquals(ListUtilities.newArrayList(1, 2), written);
+
+        q.offer(3);
+        assertEquals(ListUtilities.newArrayList(1, 2, 3), written);
+    }
+
+
+    @Test
+    public void failedBatchesAreCountedNotRethrown() {
+        WriteBehindQueue<Integer> q = new WriteBehindQueue<>("test", 10, 10, LONG_INTERVAL, WriteBehindQueue.OverflowPolicy.DROP, b -> { throw new IllegalStateException("boom"); });
+
+        q.offer(1);
+        q.offer(2);
+        assertEquals(0, q.flush());
+        assertEquals(2, q.getFailedCount());
+        assertEquals(1, q.getFailedBatchCount());
+        q.close();
+    }
+
+
+    @Test
+    public void intervalFlushWritesWithoutExplicitFlush() throws InterruptedException {
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        WriteBehindQueue<Integer> q = new WriteBehindQueue<>("test", 10, 10, 20, WriteBehindQueue.OverflowPolicy.DROP, written::addAll);
+
+        q.offer(1);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (written.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(ListUtilities.newArrayList(1), written);
+        q.close();
+    }
+
+}
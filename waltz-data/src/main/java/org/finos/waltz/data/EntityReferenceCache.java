@@ -0,0 +1,229 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.data;
+
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.EntityLifecycleStatus;
+import org.finos.waltz.model.EntityReference;
+import org.finos.waltz.model.ImmutableEntityReference;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.jooq.lambda.tuple.Tuple3;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toSet;
+import static org.finos.waltz.common.Checks.checkNotNull;
+import static org.finos.waltz.common.EnumUtilities.readEnum;
+import static org.finos.waltz.model.EntityReference.mkRef;
+
+/**
+ * Shared, in-memory, lookup of entity names, external ids and lifecycle statuses.
+ *
+ * DAOs which return polymorphic references can fetch the bare (kind, id) pairs and
+ * decorate them afterwards via this cache, rather than embedding the correlated
+ * sub-selects from {@link InlineSelectFieldFactory} into every row of the query.
+ *
+ * Entries are loaded lazily, per kind, in batches of ids on first request.  Entities
+ * which do not exist are remembered as such.  Callers (typically change log listeners
+ * in the service layer) are responsible for invalidating entries when entities change.
+ */
+@Repository
+public class EntityReferenceCache {
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    /** a kind is cleared, rather than allowed to grow without bound, once it holds this many entries */
+    private static final int MAX_ENTRIES_PER_KIND = 100_000;
+
+    private static final EntityReference NOT_FOUND = mkRef(EntityKind.ENTITY_NAMED_NOTE, -1L);
+
+
+    private final DSLContext dsl;
+
+    private final Map<EntityKind, Map<Long, EntityReference>> entriesByKind = new ConcurrentHashMap<>();
+
+
+    @Autowired
+    public EntityReferenceCache(DSLContext dsl) {
+        checkNotNull(dsl, "dsl cannot be null");
+        this.dsl = dsl;
+    }
+
+
+    /**
+     * @param kind  entity kind
+     * @return true if names/external ids/lifecycles can be resolved for this kind
+     */
+    public static boolean isSupported(EntityKind kind) {
+        return InlineSelectFieldFactory.NAME_RESOLVER.findMapping(kind).isPresent()
+                || InlineSelectFieldFactory.EXTERNAL_ID_RESOLVER.findMapping(kind).isPresent()
+                || InlineSelectFieldFactory.LIFECYCLE_RESOLVER.findMapping(kind).isPresent();
+    }
+
+
+    /**
+     * Resolves the given references to fully populated references (name, external id
+     * and lifecycle status).
+     *
+     * @param refs  references to resolve, only the kind and id are considered
+     * @return resolved references keyed by the bare <code>mkRef(kind, id)</code> of each
+     *   input.  References which do not exist, or are of an unsupported kind, are absent.
+     */
+    public Map<EntityReference, EntityReference> resolve(Collection<EntityReference> refs) {
+        checkNotNull(refs, "refs cannot be null");
+
+        Map<EntityKind, Set<Long>> idsByKind = refs
+                .stream()
+                .filter(r -> isSupported(r.kind()))
+                .collect(groupingBy(
+                        EntityReference::kind,
+                        mapping(EntityReference::id, toSet())));
+
+        Map<EntityReference, EntityReference> result = new HashMap<>();
+        idsByKind.forEach((kind, ids) -> {
+            Map<Long, EntityReference> entries = getEntries(kind, ids);
+            ids.forEach(id -> {
+                EntityReference entry = entries.get(id);
+                if (entry != null && entry != NOT_FOUND) {
+                    result.put(mkRef(kind, id), entry);
+                }
+            });
+        });
+
+        return result;
+    }
+
+
+    public Optional<EntityReference> resolve(EntityReference ref) {
+        checkNotNull(ref, "ref cannot be null");
+        return Optional.ofNullable(resolve(Collections.singleton(ref)).get(mkRef(ref.kind(), ref.id())));
+    }
+
+
+    public void invalidate(EntityKind kind, long id) {
+        Map<Long, EntityReference> entries = entriesByKind.get(kind);
+        if (entries != null) {
+            entries.remove(id);
+        }
+    }
+
+
+    public void invalidate(EntityKind kind) {
+        entriesByKind.remove(kind);
+    }
+
+
+    public void invalidateAll() {
+        entriesByKind.clear();
+    }
+
+
+    // --- helpers ---
+
+    private Map<Long, EntityReference> getEntries(EntityKind kind, Set<Long> ids) {
+        Map<Long, EntityReference> entries = entriesByKind.computeIfAbsent(kind, k -> new ConcurrentHashMap<>());
+
+        Map<Long, EntityReference> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            EntityReference entry = entries.get(id);
+            if (entry == null) {
+                missing.add(id);
+            } else {
+                result.put(id, entry);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        if (entries.size() + missing.size() > MAX_ENTRIES_PER_KIND) {
+            entries.clear();
+        }
+
+        for (int i = 0; i < missing.size(); i += LOAD_BATCH_SIZE) {
+            List<Long> batch = missing.subList(i, Math.min(missing.size(), i + LOAD_BATCH_SIZE));
+            Map<Long, EntityReference> loaded = load(kind, batch);
+            batch.forEach(id -> loaded.putIfAbsent(id, NOT_FOUND));
+            entries.putAll(loaded);
+            result.putAll(loaded);
+        }
+
+        return result;
+    }
+
+
+    private Map<Long, EntityReference> load(EntityKind kind, Collection<Long> ids) {
+        Optional<Tuple3<Table, Field<Long>, Field<String>>> nameMapping = InlineSelectFieldFactory.NAME_RESOLVER.findMapping(kind);
+        Optional<Tuple3<Table, Field<Long>, Field<String>>> externalIdMapping = InlineSelectFieldFactory.EXTERNAL_ID_RESOLVER.findMapping(kind);
+        Optional<Tuple3<Table, Field<Long>, Field<String>>> lifecycleMapping = InlineSelectFieldFactory.LIFECYCLE_RESOLVER.findMapping(kind);
+
+        // every mapping for a kind refers to the same table
+        Tuple3<Table, Field<Long>, Field<String>> tableMapping = nameMapping
+                .orElseGet(() -> externalIdMapping
+                        .orElseGet(() -> lifecycleMapping
+                                .orElseThrow(() -> new IllegalArgumentException("Unsupported kind: " + kind))));
+
+        Field<Long> idField = tableMapping.v2();
+        Field<String> nameField = valueField(nameMapping, "ref_name");
+        Field<String> externalIdField = valueField(externalIdMapping, "ref_external_id");
+        Field<String> lifecycleField = valueField(lifecycleMapping, "ref_lifecycle");
+
+        Map<Long, EntityReference> result = new HashMap<>();
+        for (Record r : dsl
+                .select(idField, nameField, externalIdField, lifecycleField)
+                .from(tableMapping.v1())
+                .where(idField.in(ids))
+                .fetch()) {
+            Long id = r.get(idField);
+            result.put(id, ImmutableEntityReference
+                    .builder()
+                    .kind(kind)
+                    .id(id)
+                    .name(Optional.ofNullable(r.get(nameField)))
+                    .externalId(Optional.ofNullable(r.get(externalIdField)))
+                    .entityLifecycleStatus(readEnum(
+                            r.get(lifecycleField),
+                            EntityLifecycleStatus.class,
+                            s -> EntityLifecycleStatus.ACTIVE))
+                    .build());
+        }
+        return result;
+    }
+
+
+    private static Field<String> valueField(Optional<Tuple3<Table, Field<Long>, Field<String>>> mapping,
+                                            String alias) {
+        return mapping
+                .map(Tuple3::v3)
+                .orElse(DSL.inline(null, String.class))
+                .as(alias);
+    }
+
+}
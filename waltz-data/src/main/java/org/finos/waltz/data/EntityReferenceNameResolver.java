@@ -18,21 +18,17 @@
 
 package org.finos.waltz.data;
 
-import org.finos.waltz.common.ListUtilities;
-import org.finos.waltz.model.EntityKind;
 import org.finos.waltz.model.EntityReference;
-import org.jooq.*;
-import org.jooq.impl.DSL;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static java.util.stream.Collectors.toList;
 import static org.finos.waltz.common.Checks.checkNotNull;
 import static org.finos.waltz.common.CollectionUtilities.maybeFirst;
-import static org.finos.waltz.common.ListUtilities.map;
 import static org.finos.waltz.common.ListUtilities.newArrayList;
 import static org.finos.waltz.model.EntityReference.mkRef;
 
@@ -43,11 +39,12 @@ import static org.finos.waltz.model.EntityReference.mkRef;
 @Repository
 public class EntityReferenceNameResolver {
 
-    private final DSLContext dsl;
+    private final EntityReferenceCache entityReferenceCache;
 
     @Autowired
-    public EntityReferenceNameResolver(DSLContext dsl) {
-        this.dsl = dsl;
+    public EntityReferenceNameResolver(EntityReferenceCache entityReferenceCache) {
+        checkNotNull(entityReferenceCache, "entityReferenceCache cannot be null");
+        this.entityReferenceCache = entityReferenceCache;
     }
 
     public Optional<EntityReference> resolve(EntityReference ref) {
@@ -56,40 +53,20 @@ public class EntityReferenceNameResolver {
 
     public List<EntityReference> resolve(List<EntityReference> refs) {
         checkNotNull(refs, "refs cannot be null");
-        
-        Field<Long> idField = DSL.field("tref_id", Long.class);
-        Field<String> kindField = DSL.field("tref_kind", String.class);
-
-        Field<String> nameField = InlineSelectFieldFactory.mkNameField(
-                idField,
-                kindField);
-
-        List<SelectSelectStep<Record2<String, Long>>> parts = map(
-                refs,
-                r -> DSL.select(
-                        DSL.val(r.kind().name()).as(kindField),
-                        DSL.val(r.id()).as(idField)));
-
-
-        if (parts.size() > 0) {
-            SelectSelectStep<Record2<String, Long>> firstPart = parts.get(0);
-            if (parts.size() > 1) {
-                List<SelectSelectStep<Record2<String, Long>>> tail = ListUtilities.drop(parts, 1);
-                tail.forEach(firstPart::union);
-            }
-
-            Table<Record2<String, Long>> tempRefs = firstPart.asTable("temp_refs");
-            return dsl
-                    .select(idField, kindField, nameField)
-                    .from(tempRefs)
-                    .fetch(r -> mkRef(
-                            EntityKind.valueOf(r.get(kindField)),
-                            r.get(idField),
-                            r.get(nameField)));
-        } else {
-            return Collections.emptyList();
-        }
 
+        Map<EntityReference, EntityReference> resolved = entityReferenceCache.resolve(refs);
+
+        return refs
+                .stream()
+                .map(r -> mkRef(r.kind(), r.id()))
+                .distinct()
+                .map(r -> mkRef(
+                        r.kind(),
+                        r.id(),
+                        Optional.ofNullable(resolved.get(r))
+                                .flatMap(EntityReference::name)
+                                .orElse(null)))
+                .collect(toList());
     }
 
 }
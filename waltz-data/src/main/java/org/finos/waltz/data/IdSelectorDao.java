@@ -0,0 +1,102 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.data;
+
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record1;
+import org.jooq.Row1;
+import org.jooq.Select;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.Arrays;
+
+import static org.finos.waltz.common.Checks.checkNotNull;
+
+/**
+ * Resolves id selectors (as produced by the various <code>IdSelectorFactory</code>s)
+ * into concrete ids and turns id sets back into selectors.
+ */
+@Repository
+public class IdSelectorDao {
+
+    private final DSLContext dsl;
+
+
+    @Autowired
+    public IdSelectorDao(DSLContext dsl) {
+        checkNotNull(dsl, "dsl cannot be null");
+        this.dsl = dsl;
+    }
+
+
+    /**
+     * Executes the selector, returning at most <code>limit</code> + 1 distinct ids
+     * (sorted).  The extra id allows callers to detect that the selector exceeds the limit
+     * without fetching the entire result.
+     */
+    public long[] fetchIds(Select<Record1<Long>> selector, int limit) {
+        checkNotNull(selector, "selector cannot be null");
+
+        Table<Record1<Long>> selected = selector.asTable("selected_ids", "id");
+        Field<Long> id = selected.field("id", Long.class);
+
+        long[] ids = dsl
+                .selectDistinct(id)
+                .from(selected)
+                .limit(limit + 1)
+                .fetch(id)
+                .stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+
+        Arrays.sort(ids);
+        return ids;
+    }
+
+
+    /**
+     * Creates a selector over a fixed list of ids.  Ids are inlined (via a values table)
+     * rather than bound so large lists do not run into bind parameter limits.
+     */
+    public static Select<Record1<Long>> mkIdListSelector(long[] ids) {
+        checkNotNull(ids, "ids cannot be null");
+
+        if (ids.length == 0) {
+            return DSL
+                    .select(DSL.inline(0L))
+                    .where(DSL.falseCondition());
+        }
+
+        @SuppressWarnings("unchecked")
+        Row1<Long>[] rows = Arrays
+                .stream(ids)
+                .mapToObj(id -> DSL.row(DSL.inline(id)))
+                .toArray(Row1[]::new);
+
+        Table<Record1<Long>> values = DSL.values(rows).as("id_list", "id");
+        return DSL
+                .select(values.field("id", Long.class))
+                .from(values);
+    }
+
+}
@@ -90,9 +90,9 @@ public class InlineSelectFieldFactory {
 
     // --- Internals ----------------------
 
-    private static final InlineSelectFieldFactory NAME_RESOLVER = new InlineSelectFieldFactory(mkNameFieldMappings());
-    private static final InlineSelectFieldFactory EXTERNAL_ID_RESOLVER = new InlineSelectFieldFactory(mkExternalIdMappings());
-    private static final InlineSelectFieldFactory LIFECYCLE_RESOLVER = new InlineSelectFieldFactory(mkLifecycleFieldMappings());
+    static final InlineSelectFieldFactory NAME_RESOLVER = new InlineSelectFieldFactory(mkNameFieldMappings());
+    static final InlineSelectFieldFactory EXTERNAL_ID_RESOLVER = new InlineSelectFieldFactory(mkExternalIdMappings());
+    static final InlineSelectFieldFactory LIFECYCLE_RESOLVER = new InlineSelectFieldFactory(mkLifecycleFieldMappings());
 
     private static Map<EntityKind, Tuple3<Table, Field<Long>, Field<String>>> mkNameFieldMappings() {
         Map<EntityKind, Tuple3<Table, Field<Long>, Field<String>>> mappings = new HashMap<>();
@@ -262,7 +262,19 @@ public class InlineSelectFieldFactory {
     }
 
 
-    private Set<EntityKind> getSupportedEntityKinds() {
+    Set<EntityKind> getSupportedEntityKinds() {
         return mappings.keySet();
     }
+
+
+    /**
+     * Gives direct access to the (table, id field, value field) mapping for a kind,
+     * so values can be fetched outside of a correlated sub-select.
+     *
+     * @param kind  entity kind to look up
+     * @return mapping for the kind, or empty if the kind is not supported
+     */
+    Optional<Tuple3<Table, Field<Long>, Field<String>>> findMapping(EntityKind kind) {
+        return Optional.ofNullable(mappings.get(kind));
+    }
 }
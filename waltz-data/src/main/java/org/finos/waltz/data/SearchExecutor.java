@@ -0,0 +1,160 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.data;
+
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.jooq.impl.DefaultExecuteListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.finos.waltz.common.Checks.checkNotNull;
+import static org.finos.waltz.common.Checks.checkTrue;
+
+/**
+ * Executes the (many, small) queries which make up an entity search.
+ *
+ * Searches fan out per entity kind and, for some kinds, per search strategy
+ * (e.g. name, alias, full text).  Rather than submitting nested tasks to the
+ * shared <code>DBExecutorPool</code> and blocking on them, which can starve
+ * that pool, the queries are composed as <code>CompletableFuture</code>s on a
+ * dedicated, bounded pool.  No task waits on another task, so the pool cannot
+ * deadlock on itself.  When the pool and its queue are full further tasks
+ * fail immediately rather than queueing without limit.
+ *
+ * The overall search deadline is held here so callers can give up on slow
+ * kinds and return partial results.  Giving up (or cancelling the future)
+ * does not stop a thread blocked in JDBC, so the listener returned by
+ * {@link #mkQueryTimeoutListener()} must be registered with the
+ * <code>DSLContext</code>; it sets a statement timeout on every query issued
+ * by a search task, which lets the driver cancel statements which overrun and
+ * frees both the thread and its connection.
+ */
+public class SearchExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SearchExecutor.class);
+
+    // set for the duration of each search task, read by the query timeout listener
+    private static final ThreadLocal<Integer> QUERY_TIMEOUT_SECONDS = new ThreadLocal<>();
+
+    private final ExecutorService executor;
+    private final long timeoutMillis;
+    private final int queryTimeoutSeconds;
+
+
+    public SearchExecutor(int threads,
+                          long timeoutMillis) {
+        checkTrue(threads > 0, "threads must be positive");
+        checkTrue(timeoutMillis > 0, "timeoutMillis must be positive");
+
+        AtomicInteger threadCount = new AtomicInteger();
+
+        this.timeoutMillis = timeoutMillis;
+        this.queryTimeoutSeconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis + 999));
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 16),
+                (runnable) -> {
+                    Thread t = new Thread(runnable, "Search Executor " + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+
+    /**
+     * Runs the task on the search pool.  If the pool is saturated the
+     * returned future is already completed exceptionally.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        checkNotNull(task, "task cannot be null");
+        try {
+            return CompletableFuture.supplyAsync(() -> runWithQueryTimeout(task), executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
+    }
+
+
+    /**
+     * @return the number of milliseconds a search may take before incomplete parts are abandoned
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+
+    /**
+     * Creates a listener which applies the search timeout (rounded up to
+     * whole seconds) as the jdbc statement timeout of queries executed by
+     * search tasks.  Queries executed on other threads are unaffected.
+     */
+    public ExecuteListener mkQueryTimeoutListener() {
+        return new DefaultExecuteListener() {
+            @Override
+            public void prepareEnd(ExecuteContext ctx) {
+                super.prepareEnd(ctx);
+                Integer timeout = QUERY_TIMEOUT_SECONDS.get();
+                if (timeout == null || ctx.statement() == null) {
+                    return;
+                }
+                try {
+                    ctx.statement().setQueryTimeout(timeout);
+                } catch (SQLException e) {
+                    LOG.warn("Could not set query timeout on search statement", e);
+                }
+            }
+        };
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+        LOG.info("Shutting down search executor");
+        executor.shutdownNow();
+    }
+
+
+    private <T> T runWithQueryTimeout(Supplier<T> task) {
+        QUERY_TIMEOUT_SECONDS.set(queryTimeoutSeconds);
+        try {
+            return task.get();
+        } finally {
+            QUERY_TIMEOUT_SECONDS.remove();
+        }
+    }
+
+}
@@ -33,8 +33,11 @@ import org.springframework.stereotype.Repository;
 
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.finos.waltz.schema.tables.AccessLog.ACCESS_LOG;
 
@@ -80,6 +83,23 @@ public class AccessLogDao {
     }
 
 
+    public int writeAll(Collection<AccessLog> logEntries) {
+        List<AccessLogRecord> records = logEntries
+                .stream()
+                .map(logEntry -> {
+                    AccessLogRecord record = dsl.newRecord(ACCESS_LOG);
+                    record.setParams(logEntry.params());
+                    record.setState(logEntry.state());
+                    record.setUserId(logEntry.userId());
+                    record.setCreatedAt(Timestamp.valueOf(logEntry.createdAt()));
+                    return record;
+                })
+                .collect(Collectors.toList());
+
+        return IntStream.of(dsl.batchInsert(records).execute()).sum();
+    }
+
+
     public List<AccessLog> findForUserId(String userId,
                                          Optional<Integer> limit) {
         return dsl.select(ACCESS_LOG.fields())
@@ -27,15 +27,12 @@ import org.finos.waltz.model.entity_search.EntitySearchOptions;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
 import org.jooq.SQLDialect;
-import org.jooq.lambda.Unchecked;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.Future;
-import java.util.function.Supplier;
+import java.util.concurrent.CompletableFuture;
 
 import static org.finos.waltz.schema.tables.Application.APPLICATION;
 import static org.finos.waltz.schema.tables.EntityAlias.ENTITY_ALIAS;
@@ -50,25 +47,34 @@ public class ApplicationSearchDao implements SearchDao<Application> {
 
     private final DSLContext dsl;
     private final FullTextSearch<Application> searcher;
-    private final DBExecutorPoolInterface dbExecutorPool;
+    private final SearchExecutor searchExecutor;
 
 
     @Autowired
-    public ApplicationSearchDao(DSLContext dsl, DBExecutorPoolInterface dbExecutorPool) {
+    public ApplicationSearchDao(DSLContext dsl, SearchExecutor searchExecutor) {
         this.dsl = dsl;
-        this.dbExecutorPool = dbExecutorPool;
+        this.searchExecutor = searchExecutor;
         this.searcher = determineSearcher(dsl.dialect());
     }
 
 
     @Override
     public List<Application> search(EntitySearchOptions options) {
+        return searchAsync(options).join();
+    }
+
+
+    /**
+     * Searches via asset code, alias, name and full text concurrently, the
+     * returned future completes once all strategies have completed.
+     */
+    public CompletableFuture<List<Application>> searchAsync(EntitySearchOptions options) {
         checkNotNull(options, "options cannot be null");
 
         List<String> terms = SearchUtilities.mkTerms(options.searchQuery());
 
         if (terms.isEmpty()) {
-            return emptyList();
+            return CompletableFuture.completedFuture(emptyList());
         }
 
         Condition lifecycleCondition = APPLICATION.ENTITY_LIFECYCLE_STATUS.in(options.entityLifecycleStatuses());
@@ -77,7 +83,7 @@ public class ApplicationSearchDao implements SearchDao<Application> {
         Condition aliasCondition = ENTITY_ALIAS.KIND.eq(EntityKind.APPLICATION.name())
                 .and(JooqUtilities.mkBasicTermSearch(ENTITY_ALIAS.ALIAS, terms));
 
-        Future<List<Application>> appsViaAssetCode = dbExecutorPool.submit(() -> dsl
+        CompletableFuture<List<Application>> appsViaAssetCode = searchExecutor.supply(() -> dsl
                 .select(APPLICATION.fields())
                 .from(APPLICATION)
                 .where(assetCodeCondition)
@@ -86,7 +92,7 @@ public class ApplicationSearchDao implements SearchDao<Application> {
                 .limit(options.limit())
                 .fetch(ApplicationDao.TO_DOMAIN_MAPPER));
 
-        Future<List<Application>> appsViaAlias = dbExecutorPool.submit(() -> dsl
+        CompletableFuture<List<Application>> appsViaAlias = searchExecutor.supply(() -> dsl
                 .selectDistinct(APPLICATION.fields())
                 .from(APPLICATION)
                 .innerJoin(ENTITY_ALIAS)
@@ -97,7 +103,7 @@ public class ApplicationSearchDao implements SearchDao<Application> {
                 .limit(options.limit())
                 .fetch(ApplicationDao.TO_DOMAIN_MAPPER));
 
-        Future<List<Application>> appsViaName = dbExecutorPool.submit(() -> sort(
+        CompletableFuture<List<Application>> appsViaName = searchExecutor.supply(() -> sort(
                 dsl
                     .select(APPLICATION.fields())
                     .from(APPLICATION)
@@ -108,15 +114,15 @@ public class ApplicationSearchDao implements SearchDao<Application> {
                     .fetch(ApplicationDao.TO_DOMAIN_MAPPER),
                 SearchUtilities.mkRelevancyComparator(NameProvider::name, terms.get(0))));
 
-        Future<List<Application>> appsViaFullText = dbExecutorPool.submit(() -> searcher.searchFullText(dsl, options));
-
-        Supplier<Set<Application>> result = Unchecked.supplier(() -> orderedUnion(
-                appsViaAssetCode.get(),
-                appsViaName.get(),
-                appsViaAlias.get(),
-                appsViaFullText.get()));
+        CompletableFuture<List<Application>> appsViaFullText = searchExecutor.supply(() -> searcher.searchFullText(dsl, options));
 
-        return new ArrayList<>(result.get());
+        return CompletableFuture
+                .allOf(appsViaAssetCode, appsViaName, appsViaAlias, appsViaFullText)
+                .thenApply(x -> new ArrayList<>(orderedUnion(
+                        appsViaAssetCode.join(),
+                        appsViaName.join(),
+                        appsViaAlias.join(),
+                        appsViaFullText.join())));
     }
 
 
@@ -238,16 +238,27 @@ public class AssessmentRatingDao {
     }
 
     public int add(Set<AssessmentRating> assessmentRatings) {
-        Set<AssessmentRatingRecord> recordsToStore = mkAssessmentRatingRecords(assessmentRatings);
-         return dsl.batchInsert(recordsToStore).execute().length;
+        return add(dsl, assessmentRatings);
+    }
+
 
+    public int add(DSLContext tx, Set<AssessmentRating> assessmentRatings) {
+        Set<AssessmentRatingRecord> recordsToStore = mkAssessmentRatingRecords(assessmentRatings);
+        return tx.batchInsert(recordsToStore).execute().length;
     }
 
+
     public int update(Set<AssessmentRating> assessmentRatings) {
-            Set<AssessmentRatingRecord> recordsToUpdate = mkAssessmentRatingRecords(assessmentRatings);
-            return dsl.batchUpdate(recordsToUpdate).execute().length;
+        return update(dsl, assessmentRatings);
     }
 
+
+    public int update(DSLContext tx, Set<AssessmentRating> assessmentRatings) {
+        Set<AssessmentRatingRecord> recordsToUpdate = mkAssessmentRatingRecords(assessmentRatings);
+        return tx.batchUpdate(recordsToUpdate).execute().length;
+    }
+
+
     public int remove(Set<AssessmentRating> assessmentRatings) {
         Set<AssessmentRatingRecord> ratingsToRemove = mkAssessmentRatingRecords(assessmentRatings);
         return dsl.batchDelete(ratingsToRemove).execute().length;
@@ -26,6 +26,7 @@ import org.finos.waltz.model.EntityReference;
 import org.finos.waltz.model.application.ApplicationKind;
 import org.finos.waltz.model.application.LifecyclePhase;
 import org.finos.waltz.model.attestation.*;
+import org.finos.waltz.schema.tables.records.AttestationInstanceRecipientRecord;
 import org.finos.waltz.schema.tables.records.AttestationInstanceRecord;
 import org.jooq.*;
 import org.jooq.impl.DSL;
@@ -39,6 +40,8 @@ import org.springframework.stereotype.Repository;
 
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -48,6 +51,7 @@ import static java.lang.String.format;
 import static java.util.stream.Collectors.*;
 import static org.finos.waltz.common.Checks.checkNotNull;
 import static org.finos.waltz.common.ListUtilities.newArrayList;
+import static org.finos.waltz.common.SetUtilities.union;
 import static org.finos.waltz.common.StringUtilities.splitThenMap;
 import static org.finos.waltz.model.EntityReference.mkRef;
 import static org.finos.waltz.schema.Tables.*;
@@ -121,6 +125,126 @@ public class AttestationInstanceDao {
     }
 
 
+    /**
+     * Creates the given instances, and their recipients, in a single transaction
+     * using batched inserts.
+     * <p>
+     * Generated instance ids are matched back by parent entity and attested kind,
+     * therefore the run must not already have instances for any of those combinations
+     * (see {@link #findInstanceKeysForRun(long)}).  If it does the transaction is rolled back.
+     *
+     * @param attestationRunId  run the instances belong to
+     * @param issuances  instances to create, along with their recipients
+     * @return number of instances created
+     */
+    public int createInstancesAndRecipients(long attestationRunId,
+                                            Collection<AttestationInstanceIssuance> issuances) {
+        checkNotNull(issuances, "issuances cannot be null");
+
+        if (issuances.isEmpty()) {
+            return 0;
+        }
+
+        return dsl.transactionResult(configuration -> {
+            DSLContext txDsl = DSL.using(configuration);
+
+            Map<Tuple3<EntityKind, Long, EntityKind>, AttestationInstanceIssuance> issuancesByKey = issuances
+                    .stream()
+                    .collect(toMap(
+                            issuance -> mkInstanceKey(issuance.attestationInstance()),
+                            issuance -> issuance,
+                            (a, b) -> ImmutableAttestationInstanceIssuance
+                                    .copyOf(a)
+                                    .withRecipientUserIds(union(a.recipientUserIds(), b.recipientUserIds())),
+                            LinkedHashMap::new));
+
+            List<AttestationInstanceRecord> instanceRecords = issuancesByKey
+                    .keySet()
+                    .stream()
+                    .map(key -> {
+                        AttestationInstanceRecord record = txDsl.newRecord(ATTESTATION_INSTANCE);
+                        record.setAttestationRunId(attestationRunId);
+                        record.setParentEntityKind(key.v1.name());
+                        record.setParentEntityId(key.v2);
+                        record.setAttestedEntityKind(key.v3.name());
+                        return record;
+                    })
+                    .collect(toList());
+
+            txDsl.batchInsert(instanceRecords).execute();
+
+            Set<Long> parentIds = issuancesByKey
+                    .keySet()
+                    .stream()
+                    .map(Tuple3::v2)
+                    .collect(toSet());
+
+            Map<Tuple3<EntityKind, Long, EntityKind>, List<Long>> instanceIdsByKey = txDsl
+                    .select(ATTESTATION_INSTANCE.ID,
+                            ATTESTATION_INSTANCE.PARENT_ENTITY_KIND,
+                            ATTESTATION_INSTANCE.PARENT_ENTITY_ID,
+                            ATTESTATION_INSTANCE.ATTESTED_ENTITY_KIND)
+                    .from(ATTESTATION_INSTANCE)
+                    .where(ATTESTATION_INSTANCE.ATTESTATION_RUN_ID.eq(attestationRunId))
+                    .and(ATTESTATION_INSTANCE.PARENT_ENTITY_ID.in(parentIds))
+                    .fetch()
+                    .stream()
+                    .collect(groupingBy(
+                            r -> tuple(
+                                    EntityKind.valueOf(r.get(ATTESTATION_INSTANCE.PARENT_ENTITY_KIND)),
+                                    r.get(ATTESTATION_INSTANCE.PARENT_ENTITY_ID),
+                                    EntityKind.valueOf(r.get(ATTESTATION_INSTANCE.ATTESTED_ENTITY_KIND))),
+                            mapping(r -> r.get(ATTESTATION_INSTANCE.ID), toList())));
+
+            List<AttestationInstanceRecipientRecord> recipientRecords = issuancesByKey
+                    .entrySet()
+                    .stream()
+                    .flatMap(e -> {
+                        List<Long> instanceIds = instanceIdsByKey.getOrDefault(e.getKey(), newArrayList());
+                        if (instanceIds.size() != 1) {
+                            throw new IllegalStateException(format(
+                                    "Expected one attestation instance for %s in run: %d, but found %d",
+                                    e.getKey(),
+                                    attestationRunId,
+                                    instanceIds.size()));
+                        }
+                        Long instanceId = instanceIds.get(0);
+                        return e.getValue()
+                                .recipientUserIds()
+                                .stream()
+                                .map(userId -> {
+                                    AttestationInstanceRecipientRecord record = txDsl.newRecord(ATTESTATION_INSTANCE_RECIPIENT);
+                                    record.setAttestationInstanceId(instanceId);
+                                    record.setUserId(userId);
+                                    return record;
+                                });
+                    })
+                    .collect(toList());
+
+            txDsl.batchInsert(recipientRecords).execute();
+
+            return instanceRecords.size();
+        });
+    }
+
+
+    /**
+     * Returns the (parent entity, attested entity kind) of each instance already
+     * issued for the given run.  Used to resume an interrupted issuance.
+     */
+    public Set<Tuple2<EntityReference, EntityKind>> findInstanceKeysForRun(long attestationRunId) {
+        return dsl
+                .select(ATTESTATION_INSTANCE.PARENT_ENTITY_KIND,
+                        ATTESTATION_INSTANCE.PARENT_ENTITY_ID,
+                        ATTESTATION_INSTANCE.ATTESTED_ENTITY_KIND)
+                .from(ATTESTATION_INSTANCE)
+                .where(ATTESTATION_INSTANCE.ATTESTATION_RUN_ID.eq(attestationRunId))
+                .fetchSet(r -> tuple(
+                        mkRef(EntityKind.valueOf(r.get(ATTESTATION_INSTANCE.PARENT_ENTITY_KIND)), r.get(ATTESTATION_INSTANCE.PARENT_ENTITY_ID)),
+                        EntityKind.valueOf(r.get(ATTESTATION_INSTANCE.ATTESTED_ENTITY_KIND))));
+    }
+
+
     public List<AttestationInstance> findByRecipient(String userId, boolean unattestedOnly) {
         Condition condition = ATTESTATION_INSTANCE_RECIPIENT.USER_ID.eq(userId);
         if(unattestedOnly) {
@@ -701,4 +825,11 @@ public class AttestationInstanceDao {
                         .where(ATTESTATION_INSTANCE.ATTESTED_AT.isNull()));
     }
 
-}
\ No newline at end of file
+
+    private static Tuple3<EntityKind, Long, EntityKind> mkInstanceKey(AttestationInstance instance) {
+        return tuple(
+                instance.parentEntity().kind(),
+                instance.parentEntity().id(),
+                instance.attestedEntityKind());
+    }
+}
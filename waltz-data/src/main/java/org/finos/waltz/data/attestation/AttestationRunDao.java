@@ -229,12 +229,18 @@ public class AttestationRunDao {
 
 
     public Set<AttestationRun> findPendingRuns() {
+        return findRunsWithStatus(AttestationStatus.PENDING);
+    }
+
+
+    public Set<AttestationRun> findRunsWithStatus(AttestationStatus status) {
+        checkNotNull(status, "status cannot be null");
         return dsl
                 .select(ATTESTATION_RUN.fields())
                 .select(ENTITY_NAME_FIELD)
                 .select(ATTESTED_ENTITY_NAME_FIELD)
                 .from(ATTESTATION_RUN)
-                .where(ATTESTATION_RUN.STATUS.eq(AttestationStatus.PENDING.name()))
+                .where(ATTESTATION_RUN.STATUS.eq(status.name()))
                 .fetchSet(TO_DOMAIN_MAPPER);
     }
 
@@ -308,6 +308,12 @@ public class ChangeLogDao {
 
 
     public int[] write(Collection<ChangeLog> changeLogs) {
+        return write(dsl, changeLogs);
+    }
+
+
+    public int[] write(DSLContext tx, Collection<ChangeLog> changeLogs) {
+        checkNotNull(tx, "tx must not be null");
         checkNotNull(changeLogs, "changeLogs must not be null");
 
         Query[] queries = changeLogs
@@ -322,7 +328,7 @@ public class ChangeLogDao {
                         .set(CHANGE_LOG.OPERATION, changeLog.operation().name())
                         .set(CHANGE_LOG.CREATED_AT, Timestamp.valueOf(changeLog.createdAt())))
                 .toArray(Query[]::new);
-        return dsl.batch(queries).execute();
+        return tx.batch(queries).execute();
     }
 
 
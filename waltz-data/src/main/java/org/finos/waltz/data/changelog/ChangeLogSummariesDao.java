@@ -19,7 +19,7 @@
 package org.finos.waltz.data.changelog;
 
 import org.finos.waltz.data.GenericSelector;
-import org.finos.waltz.data.InlineSelectFieldFactory;
+import org.finos.waltz.data.EntityReferenceCache;
 import org.finos.waltz.model.EntityKind;
 import org.finos.waltz.model.EntityReference;
 import org.finos.waltz.model.tally.ChangeLogTally;
@@ -33,11 +33,12 @@ import org.springframework.stereotype.Repository;
 
 import java.sql.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.finos.waltz.schema.tables.ChangeLog.CHANGE_LOG;
 import static org.finos.waltz.common.Checks.checkNotNull;
-import static org.finos.waltz.common.ListUtilities.newArrayList;
+import static org.finos.waltz.common.ListUtilities.map;
 import static org.finos.waltz.data.JooqUtilities.mkDateRangeCondition;
 import static org.finos.waltz.model.EntityReference.mkRef;
 
@@ -46,12 +47,7 @@ import static org.finos.waltz.model.EntityReference.mkRef;
 public class ChangeLogSummariesDao {
 
     private final DSLContext dsl;
-
-    private static final Field<String> ENTITY_NAME_FIELD = InlineSelectFieldFactory.mkNameField(
-            CHANGE_LOG.PARENT_ID,
-            CHANGE_LOG.PARENT_KIND,
-            newArrayList(EntityKind.APPLICATION))
-            .as("entity_name");
+    private final EntityReferenceCache entityReferenceCache;
 
 
     private static final RecordMapper<Record2<Date,Integer>, DateTally> TO_DATE_TALLY_MAPPER = record -> {
@@ -65,13 +61,13 @@ public class ChangeLogSummariesDao {
     };
 
 
-    private static final RecordMapper<Record5<Long, String, String, String, Integer>, ChangeLogTally> TO_CHANGE_LOG_TALLY_MAPPER = record -> {
+    private static final RecordMapper<Record4<Long, String, String, Integer>, ChangeLogTally> TO_CHANGE_LOG_TALLY_MAPPER = record -> {
 
         EntityKind parentKind = EntityKind.valueOf(record.value2());
-        EntityKind childKind = (record.value4() != null) ? EntityKind.valueOf(record.value4()) : null;
-        Integer count = record.value5();
+        EntityKind childKind = (record.value3() != null) ? EntityKind.valueOf(record.value3()) : null;
+        Integer count = record.value4();
 
-        EntityReference ref = mkRef(parentKind, record.value1(), record.value3());
+        EntityReference ref = mkRef(parentKind, record.value1());
 
         return ImmutableChangeLogTally.builder()
                 .ref(ref)
@@ -82,9 +78,12 @@ public class ChangeLogSummariesDao {
 
 
     @Autowired
-    public ChangeLogSummariesDao(DSLContext dsl) {
+    public ChangeLogSummariesDao(DSLContext dsl,
+                                 EntityReferenceCache entityReferenceCache) {
         checkNotNull(dsl, "dsl must not be null");
+        checkNotNull(entityReferenceCache, "entityReferenceCache must not be null");
         this.dsl = dsl;
+        this.entityReferenceCache = entityReferenceCache;
     }
 
 
@@ -115,10 +114,9 @@ public class ChangeLogSummariesDao {
         AggregateFunction<Integer> count = DSL.count(CHANGE_LOG.ID);
         Condition dateRangeCondition = mkDateRangeCondition(CHANGE_LOG.CREATED_AT, startDate, endDate);
 
-        return dsl
+        List<ChangeLogTally> tallies = dsl
                 .select(CHANGE_LOG.PARENT_ID,
                         CHANGE_LOG.PARENT_KIND,
-                        ENTITY_NAME_FIELD,
                         CHANGE_LOG.CHILD_KIND,
                         count)
                 .from(CHANGE_LOG)
@@ -130,6 +128,19 @@ public class ChangeLogSummariesDao {
                 .orderBy(count.desc())
                 .limit(limit.orElse(Integer.MAX_VALUE))
                 .fetch(TO_CHANGE_LOG_TALLY_MAPPER);
+
+        Map<EntityReference, EntityReference> resolved = entityReferenceCache.resolve(map(tallies, ChangeLogTally::ref));
+
+        return map(
+                tallies,
+                t -> ImmutableChangeLogTally
+                        .copyOf(t)
+                        .withRef(mkRef(
+                                t.ref().kind(),
+                                t.ref().id(),
+                                Optional.ofNullable(resolved.get(t.ref()))
+                                        .flatMap(EntityReference::name)
+                                        .orElse(null))));
     }
 
 }
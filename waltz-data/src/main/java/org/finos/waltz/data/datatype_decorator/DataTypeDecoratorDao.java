@@ -42,7 +42,7 @@ public abstract class DataTypeDecoratorDao {
 
     public abstract List<DataTypeDecorator> findByDataTypeIdSelector(Select<Record1<Long>> dataTypeIdSelector);
 
-    //only implemented for logical flows
+    // entity ids are flow ids for logical flows and specification ids for physical specifications
     public abstract List<DataTypeDecorator> findByFlowIds(Collection<Long> flowIds);
 
     public abstract int[] addDecorators(Collection<DataTypeDecorator> dataTypeDecorators);
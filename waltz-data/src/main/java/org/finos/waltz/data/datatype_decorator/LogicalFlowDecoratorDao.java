@@ -20,7 +20,6 @@ package org.finos.waltz.data.datatype_decorator;
 
 import org.finos.waltz.schema.tables.LogicalFlowDecorator;
 import org.finos.waltz.schema.tables.records.LogicalFlowDecoratorRecord;
-import org.finos.waltz.common.SetUtilities;
 import org.finos.waltz.data.InlineSelectFieldFactory;
 import org.finos.waltz.model.EntityKind;
 import org.finos.waltz.model.EntityLifecycleStatus;
@@ -29,7 +28,10 @@ import org.finos.waltz.model.datatype.DataTypeDecorator;
 import org.finos.waltz.model.datatype.DataTypeUsageCharacteristics;
 import org.finos.waltz.model.datatype.ImmutableDataTypeDecorator;
 import org.finos.waltz.model.datatype.ImmutableDataTypeUsageCharacteristics;
+import org.finos.waltz.model.flow_classification_rule.FlowClassificationRatingCandidate;
+import org.finos.waltz.model.flow_classification_rule.FlowClassificationRule;
 import org.finos.waltz.model.flow_classification_rule.FlowClassificationRuleVantagePoint;
+import org.finos.waltz.model.flow_classification_rule.ImmutableFlowClassificationRatingCandidate;
 import org.finos.waltz.model.rating.AuthoritativenessRatingValue;
 import org.jooq.*;
 import org.jooq.impl.DSL;
@@ -41,8 +43,8 @@ import java.sql.Timestamp;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import static org.finos.waltz.schema.Tables.PHYSICAL_FLOW;
 import static org.finos.waltz.schema.tables.Application.APPLICATION;
@@ -105,6 +107,22 @@ public class LogicalFlowDecoratorDao extends DataTypeDecoratorDao {
         return r;
     };
 
+    private static final RecordMapper<Record, FlowClassificationRatingCandidate> TO_RATING_CANDIDATE_MAPPER = r -> ImmutableFlowClassificationRatingCandidate
+            .builder()
+            .decoratorId(r.get(LOGICAL_FLOW_DECORATOR.ID))
+            .dataTypeId(r.get(LOGICAL_FLOW_DECORATOR.DECORATOR_ENTITY_ID))
+            .source(mkRef(
+                    EntityKind.valueOf(r.get(LOGICAL_FLOW.SOURCE_ENTITY_KIND)),
+                    r.get(LOGICAL_FLOW.SOURCE_ENTITY_ID)))
+            .target(mkRef(
+                    EntityKind.valueOf(r.get(LOGICAL_FLOW.TARGET_ENTITY_KIND)),
+                    r.get(LOGICAL_FLOW.TARGET_ENTITY_ID)))
+            .targetOrgUnitId(Optional.ofNullable(r.get(APPLICATION.ORGANISATIONAL_UNIT_ID)))
+            .rating(AuthoritativenessRatingValue.ofNullable(r.get(LOGICAL_FLOW_DECORATOR.RATING)))
+            .flowClassificationRuleId(Optional.ofNullable(r.get(LOGICAL_FLOW_DECORATOR.FLOW_CLASSIFICATION_RULE_ID)))
+            .build();
+
+
     private final DSLContext dsl;
 
     @Autowired
@@ -247,12 +265,6 @@ public class LogicalFlowDecoratorDao extends DataTypeDecoratorDao {
     }
 
 
-    public int[] updateDecorators(Set<DataTypeDecorator> decorators) {
-        Set<LogicalFlowDecoratorRecord> records = SetUtilities.map(decorators, TO_RECORD);
-        return dsl.batchUpdate(records).execute();
-    }
-
-
     public int updateDecoratorsForFlowClassificationRule(FlowClassificationRuleVantagePoint flowClassificationRuleVantagePoint) {
         LogicalFlowDecorator lfd = LOGICAL_FLOW_DECORATOR.as("lfd");
 
@@ -312,6 +324,95 @@ public class LogicalFlowDecoratorDao extends DataTypeDecoratorDao {
     }
 
 
+    /**
+     * Returns every (data type) decorator on an active logical flow, along
+     * with the flow details needed to calculate its flow classification rating.
+     */
+    public List<FlowClassificationRatingCandidate> findFlowClassificationRatingCandidates() {
+        return findFlowClassificationRatingCandidates(DSL.trueCondition());
+    }
+
+
+    /**
+     * Returns the decorators whose rating may be affected by the given rule.
+     * For org unit rules this is every flow targeting an app within the org unit (or below),
+     * for point-to-point rules it is only flows between the rule's app and the parent.
+     * In both cases the decorator must be for the rule's data type (or one of its descendants).
+     */
+    public List<FlowClassificationRatingCandidate> findFlowClassificationRatingCandidatesForRule(FlowClassificationRule rule) {
+        checkNotNull(rule, "rule cannot be null");
+
+        EntityReference parentRef = rule.parentReference();
+
+        Condition dataTypeCondition = LOGICAL_FLOW_DECORATOR.DECORATOR_ENTITY_ID.in(DSL
+                .select(ENTITY_HIERARCHY.ID)
+                .from(ENTITY_HIERARCHY)
+                .where(ENTITY_HIERARCHY.KIND.eq(DATA_TYPE.name()))
+                .and(ENTITY_HIERARCHY.ANCESTOR_ID.eq(rule.dataTypeId())));
+
+        Condition flowCondition = parentRef.kind() == EntityKind.ORG_UNIT
+                ? APPLICATION.ORGANISATIONAL_UNIT_ID.in(DSL
+                    .select(ENTITY_HIERARCHY.ID)
+                    .from(ENTITY_HIERARCHY)
+                    .where(ENTITY_HIERARCHY.KIND.eq(EntityKind.ORG_UNIT.name()))
+                    .and(ENTITY_HIERARCHY.ANCESTOR_ID.eq(parentRef.id())))
+                : LOGICAL_FLOW.TARGET_ENTITY_KIND.eq(parentRef.kind().name())
+                    .and(LOGICAL_FLOW.TARGET_ENTITY_ID.eq(parentRef.id()))
+                    .and(LOGICAL_FLOW.SOURCE_ENTITY_KIND.eq(EntityKind.APPLICATION.name()))
+                    .and(LOGICAL_FLOW.SOURCE_ENTITY_ID.eq(rule.applicationReference().id()));
+
+        return findFlowClassificationRatingCandidates(dataTypeCondition.and(flowCondition));
+    }
+
+
+    /**
+     * Writes the rating and flow classification rule id of each candidate to
+     * the corresponding decorator, using a single batch.
+     */
+    public int updateFlowClassificationRatings(Collection<FlowClassificationRatingCandidate> candidates) {
+        checkNotNull(candidates, "candidates cannot be null");
+
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        Query[] queries = candidates
+                .stream()
+                .map(c -> dsl
+                        .update(LOGICAL_FLOW_DECORATOR)
+                        .set(LOGICAL_FLOW_DECORATOR.RATING, c.rating().map(AuthoritativenessRatingValue::value).orElse(null))
+                        .set(LOGICAL_FLOW_DECORATOR.FLOW_CLASSIFICATION_RULE_ID, c.flowClassificationRuleId().orElse(null))
+                        .where(LOGICAL_FLOW_DECORATOR.ID.eq(c.decoratorId())))
+                .toArray(Query[]::new);
+
+        return IntStream.of(dsl.batch(queries).execute()).sum();
+    }
+
+
+    private List<FlowClassificationRatingCandidate> findFlowClassificationRatingCandidates(Condition condition) {
+        return dsl
+                .select(LOGICAL_FLOW_DECORATOR.ID,
+                        LOGICAL_FLOW_DECORATOR.DECORATOR_ENTITY_ID,
+                        LOGICAL_FLOW_DECORATOR.RATING,
+                        LOGICAL_FLOW_DECORATOR.FLOW_CLASSIFICATION_RULE_ID,
+                        LOGICAL_FLOW.SOURCE_ENTITY_KIND,
+                        LOGICAL_FLOW.SOURCE_ENTITY_ID,
+                        LOGICAL_FLOW.TARGET_ENTITY_KIND,
+                        LOGICAL_FLOW.TARGET_ENTITY_ID,
+                        APPLICATION.ORGANISATIONAL_UNIT_ID)
+                .from(LOGICAL_FLOW_DECORATOR)
+                .innerJoin(LOGICAL_FLOW)
+                .on(LOGICAL_FLOW.ID.eq(LOGICAL_FLOW_DECORATOR.LOGICAL_FLOW_ID))
+                .leftJoin(APPLICATION)
+                .on(APPLICATION.ID.eq(LOGICAL_FLOW.TARGET_ENTITY_ID)
+                        .and(LOGICAL_FLOW.TARGET_ENTITY_KIND.eq(EntityKind.APPLICATION.name())))
+                .where(LOGICAL_FLOW_DECORATOR.DECORATOR_ENTITY_KIND.eq(DATA_TYPE.name()))
+                .and(LOGICAL_NOT_REMOVED)
+                .and(condition)
+                .fetch(TO_RATING_CANDIDATE_MAPPER);
+    }
+
+
     @Override
     public List<DataTypeUsageCharacteristics> findDatatypeUsageCharacteristics(EntityReference ref) {
 
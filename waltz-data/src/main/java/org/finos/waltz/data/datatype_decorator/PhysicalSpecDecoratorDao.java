@@ -135,8 +135,14 @@ public class PhysicalSpecDecoratorDao extends DataTypeDecoratorDao {
 
 
     @Override
-    public List<DataTypeDecorator> findByFlowIds(Collection<Long> flowIds) {
-        throw new UnsupportedOperationException("method not supported for " + PHYSICAL_SPECIFICATION.prettyName());
+    public List<DataTypeDecorator> findByFlowIds(Collection<Long> specIds) {
+        checkNotNull(specIds, "specIds cannot be null");
+
+        return dsl
+                .select(PHYSICAL_SPEC_DATA_TYPE.fields())
+                .from(PHYSICAL_SPEC_DATA_TYPE)
+                .where(PHYSICAL_SPEC_DATA_TYPE.SPECIFICATION_ID.in(specIds))
+                .fetch(TO_DOMAIN_MAPPER);
     }
 
 
@@ -20,6 +20,7 @@ package org.finos.waltz.data.entity_alias;
 
 import org.finos.waltz.schema.tables.records.EntityAliasRecord;
 import org.finos.waltz.common.SetUtilities;
+import org.finos.waltz.model.EntityKind;
 import org.finos.waltz.model.EntityReference;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
@@ -30,6 +31,7 @@ import org.springframework.stereotype.Repository;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -61,6 +63,14 @@ public class EntityAliasDao {
     }
 
 
+    public Map<Long, List<String>> findAliasesByKind(EntityKind kind) {
+        return dsl.select(ENTITY_ALIAS.ID, ENTITY_ALIAS.ALIAS)
+                .from(ENTITY_ALIAS)
+                .where(ENTITY_ALIAS.KIND.eq(kind.name()))
+                .fetchGroups(ENTITY_ALIAS.ID, ENTITY_ALIAS.ALIAS);
+    }
+
+
     public int[] updateAliases(EntityReference ref, Collection<String> aliases) {
 
         LOG.info("Updating aliases for entity: {}, aliases: {}", ref, aliases);
@@ -28,20 +28,23 @@ import org.finos.waltz.model.entity_hierarchy.ImmutableEntityHierarchyItem;
 import org.finos.waltz.model.tally.Tally;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.Query;
 import org.jooq.Record;
 import org.jooq.RecordMapper;
 import org.jooq.impl.DSL;
+import org.jooq.lambda.tuple.Tuple2;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
+import java.util.*;
 import java.util.function.Function;
 
 import static org.finos.waltz.schema.tables.EntityHierarchy.ENTITY_HIERARCHY;
 import static org.finos.waltz.common.Checks.checkNotNull;
 import static org.finos.waltz.common.ListUtilities.map;
+import static org.jooq.lambda.tuple.Tuple.tuple;
 
 @Repository
 public class EntityHierarchyDao {
@@ -120,6 +123,94 @@ public class EntityHierarchyDao {
     }
 
 
+    /**
+     * Brings the stored hierarchy in line with the given set of hierarchy
+     * items by applying only the differences.  Existing rows (restricted by
+     * the scope filter) are compared with the required items by
+     * (id, ancestor_id).  Missing rows are inserted, surplus rows deleted and
+     * rows whose levels differ are updated.  Unlike {@link #replaceHierarchy}
+     * unchanged rows are left untouched, so a small change (e.g. a single
+     * re-parent) only writes the rows of the affected subtree.
+     *
+     * @param kind  then entity kind of the hierarchy to synchronise
+     * @param hierarchyItems  the items making up the required hierarchy
+     * @param scopeFilter  restricts the existing rows considered (e.g. to a single measurable category)
+     * @return number of hierarchy records inserted, updated or deleted
+     */
+    public int syncHierarchy(EntityKind kind,
+                             List<EntityHierarchyItem> hierarchyItems,
+                             Condition scopeFilter) {
+        checkNotNull(kind, "kind cannot be null");
+        checkNotNull(hierarchyItems, "hierarchyItems cannot be null");
+
+        Map<Tuple2<Long, Long>, EntityHierarchyRecord> required = new HashMap<>(hierarchyItems.size());
+        hierarchyItems
+                .stream()
+                .map(ITEM_TO_RECORD_MAPPER)
+                .forEach(r -> required.put(tuple(r.getId(), r.getAncestorId()), r));
+
+        return dsl.transactionResult(configuration -> {
+            DSLContext txDsl = DSL.using(configuration);
+
+            Map<Tuple2<Long, Long>, List<Tuple2<Integer, Integer>>> existing = txDsl
+                    .select(eh.ID, eh.ANCESTOR_ID, eh.LEVEL, eh.DESCENDANT_LEVEL)
+                    .from(eh)
+                    .where(eh.KIND.eq(kind.name()))
+                    .and(scopeFilter)
+                    .fetchGroups(
+                            r -> tuple(r.get(eh.ID), r.get(eh.ANCESTOR_ID)),
+                            r -> tuple(r.get(eh.LEVEL), r.get(eh.DESCENDANT_LEVEL)));
+
+            List<Query> deletes = new ArrayList<>();
+            List<Query> updates = new ArrayList<>();
+            List<EntityHierarchyRecord> inserts = new ArrayList<>();
+
+            existing.forEach((key, levels) -> {
+                EntityHierarchyRecord requiredRecord = required.get(key);
+                if (requiredRecord == null || levels.size() > 1) {
+                    // surplus, or duplicated, rows are removed (and re-inserted if still required)
+                    deletes.add(txDsl
+                            .deleteFrom(eh)
+                            .where(matchesKey(kind, key)));
+                } else if (! isSameLevels(levels.get(0), requiredRecord)) {
+                    updates.add(txDsl
+                            .update(eh)
+                            .set(eh.LEVEL, requiredRecord.getLevel())
+                            .set(eh.DESCENDANT_LEVEL, requiredRecord.getDescendantLevel())
+                            .where(matchesKey(kind, key)));
+                }
+            });
+
+            required.forEach((key, record) -> {
+                List<Tuple2<Integer, Integer>> levels = existing.get(key);
+                if (levels == null || levels.size() > 1) {
+                    inserts.add(record);
+                }
+            });
+
+            LOG.info(
+                    "Synchronising hierarchy items for kind: {}, required: {}, inserts: {}, updates: {}, deletes: {}",
+                    kind,
+                    required.size(),
+                    inserts.size(),
+                    updates.size(),
+                    deletes.size());
+
+            if (! deletes.isEmpty()) {
+                txDsl.batch(deletes).execute();
+            }
+            if (! updates.isEmpty()) {
+                txDsl.batch(updates).execute();
+            }
+            if (! inserts.isEmpty()) {
+                txDsl.batchInsert(inserts).execute();
+            }
+
+            return inserts.size() + updates.size() + deletes.size();
+        });
+    }
+
+
     public List<Tally<String>> tallyByKind() {
         return JooqUtilities.calculateStringTallies(dsl, eh, eh.KIND, DSL.trueCondition());
     }
@@ -135,6 +226,22 @@ public class EntityHierarchyDao {
     }
 
 
+    private static Condition matchesKey(EntityKind kind, Tuple2<Long, Long> key) {
+        return eh.KIND.eq(kind.name())
+                .and(eh.ID.eq(key.v1))
+                .and(key.v2 == null
+                        ? eh.ANCESTOR_ID.isNull()
+                        : eh.ANCESTOR_ID.eq(key.v2));
+    }
+
+
+    private static boolean isSameLevels(Tuple2<Integer, Integer> levels,
+                                        EntityHierarchyRecord record) {
+        return Objects.equals(levels.v1, record.getLevel())
+                && Objects.equals(levels.v2, record.getDescendantLevel());
+    }
+
+
     public List<EntityHierarchyItem> findDesendents(EntityReference ref) {
         checkNotNull(ref, "ref cannot be null");
         return dsl
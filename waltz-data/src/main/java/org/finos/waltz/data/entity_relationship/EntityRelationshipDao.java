@@ -20,7 +20,7 @@ package org.finos.waltz.data.entity_relationship;
 
 import org.finos.waltz.common.DateTimeUtilities;
 import org.finos.waltz.data.GenericSelector;
-import org.finos.waltz.data.InlineSelectFieldFactory;
+import org.finos.waltz.data.EntityReferenceCache;
 import org.finos.waltz.model.EntityKind;
 import org.finos.waltz.model.EntityReference;
 import org.finos.waltz.model.ImmutableEntityReference;
@@ -38,10 +38,11 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.finos.waltz.common.Checks.checkNotNull;
 import static org.finos.waltz.common.DateTimeUtilities.toLocalDateTime;
-import static org.finos.waltz.common.ListUtilities.newArrayList;
+import static org.finos.waltz.model.EntityReference.mkRef;
 import static org.finos.waltz.schema.tables.EntityRelationship.ENTITY_RELATIONSHIP;
 
 
@@ -49,54 +50,12 @@ import static org.finos.waltz.schema.tables.EntityRelationship.ENTITY_RELATIONSH
 public class EntityRelationshipDao {
 
 
-    private static final List<EntityKind> POSSIBLE_ENTITIES = newArrayList(
-            EntityKind.APPLICATION,
-            EntityKind.APP_GROUP,
-            EntityKind.ACTOR,
-            EntityKind.MEASURABLE,
-            EntityKind.CHANGE_INITIATIVE);
-
-
-    private static final Field<String> NAME_A = InlineSelectFieldFactory.mkNameField(
-            ENTITY_RELATIONSHIP.ID_A,
-            ENTITY_RELATIONSHIP.KIND_A,
-            POSSIBLE_ENTITIES);
-
-
-    private static final Field<String> NAME_B = InlineSelectFieldFactory.mkNameField(
-            ENTITY_RELATIONSHIP.ID_B,
-            ENTITY_RELATIONSHIP.KIND_B,
-            POSSIBLE_ENTITIES);
-
-
-    private static final Field<String> EXT_ID_A = InlineSelectFieldFactory.mkExternalIdField(
-            ENTITY_RELATIONSHIP.ID_A,
-            ENTITY_RELATIONSHIP.KIND_A,
-            POSSIBLE_ENTITIES);
-
-
-    private static final Field<String> EXT_ID_B = InlineSelectFieldFactory.mkExternalIdField(
-            ENTITY_RELATIONSHIP.ID_B,
-            ENTITY_RELATIONSHIP.KIND_B,
-            POSSIBLE_ENTITIES);
-
-
     private static final RecordMapper<Record, EntityRelationship> TO_DOMAIN_MAPPER = r -> {
         EntityRelationshipRecord record = r.into(ENTITY_RELATIONSHIP);
         return ImmutableEntityRelationship.builder()
                 .id(record.getId())
-                .a(ImmutableEntityReference.builder()
-                        .kind(EntityKind.valueOf(record.getKindA()))
-                        .id(record.getIdA())
-                        .name(Optional.ofNullable(r.get(NAME_A)).orElse("_Removed_"))
-                        .externalId(Optional.ofNullable(r.get(EXT_ID_A)))
-                        .build())
-                .b(ImmutableEntityReference.builder()
-                        .kind(EntityKind.valueOf(record.getKindB()))
-                        .id(record.getIdB())
-                        .name(Optional.ofNullable(r.get(NAME_B)).orElse("_Removed_"))
-                        .externalId(Optional.ofNullable(r.get(EXT_ID_B)))
-                        .build())
+                .a(mkRef(EntityKind.valueOf(record.getKindA()), record.getIdA()))
+                .b(mkRef(EntityKind.valueOf(record.getKindB()), record.getIdB()))
                 .provenance(record.getProvenance())
                 .relationship(record.getRelationship())
                 .description(record.getDescription())
@@ -122,12 +81,16 @@ public class EntityRelationshipDao {
 
 
     private final DSLContext dsl;
+    private final EntityReferenceCache entityReferenceCache;
 
 
     @Autowired
-    public EntityRelationshipDao(DSLContext dsl) {
+    public EntityRelationshipDao(DSLContext dsl,
+                                 EntityReferenceCache entityReferenceCache) {
         checkNotNull(dsl, "dsl cannot be null");
+        checkNotNull(entityReferenceCache, "entityReferenceCache cannot be null");
         this.dsl = dsl;
+        this.entityReferenceCache = entityReferenceCache;
     }
 
 
@@ -167,13 +130,10 @@ public class EntityRelationshipDao {
 
 
     public EntityRelationship getById(Long id){
-        return dsl
-                .select(ENTITY_RELATIONSHIP.fields())
-                .select(NAME_A, NAME_B)
-                .select(EXT_ID_A, EXT_ID_B)
-                .from(ENTITY_RELATIONSHIP)
-                .where(ENTITY_RELATIONSHIP.ID.eq(id))
-                .fetchOne(TO_DOMAIN_MAPPER);
+        return doQuery(ENTITY_RELATIONSHIP.ID.eq(id))
+                .stream()
+                .findFirst()
+                .orElse(null);
     }
 
 
@@ -239,13 +199,37 @@ public class EntityRelationshipDao {
 
 
     private Collection<EntityRelationship> doQuery(Condition condition) {
-        return dsl
+        List<EntityRelationship> relationships = dsl
                 .select(ENTITY_RELATIONSHIP.fields())
-                .select(NAME_A, NAME_B)
-                .select(EXT_ID_A, EXT_ID_B)
                 .from(ENTITY_RELATIONSHIP)
                 .where(condition)
                 .fetch(TO_DOMAIN_MAPPER);
+
+        Map<EntityReference, EntityReference> resolved = entityReferenceCache.resolve(relationships
+                .stream()
+                .flatMap(rel -> Stream.of(rel.a(), rel.b()))
+                .collect(Collectors.toSet()));
+
+        return relationships
+                .stream()
+                .map(rel -> ImmutableEntityRelationship
+                        .copyOf(rel)
+                        .withA(decorate(rel.a(), resolved))
+                        .withB(decorate(rel.b(), resolved)))
+                .collect(Collectors.toList());
+    }
+
+
+    private static EntityReference decorate(EntityReference ref,
+                                            Map<EntityReference, EntityReference> resolved) {
+        EntityReference resolvedRef = resolved.get(ref);
+        return ImmutableEntityReference
+                .copyOf(ref)
+                .withName(Optional.ofNullable(resolvedRef)
+                        .flatMap(EntityReference::name)
+                        .orElse("_Removed_"))
+                .withExternalId(Optional.ofNullable(resolvedRef)
+                        .flatMap(EntityReference::externalId));
     }
 
 
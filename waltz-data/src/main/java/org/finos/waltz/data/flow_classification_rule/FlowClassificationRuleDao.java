@@ -302,6 +302,20 @@ public class FlowClassificationRuleDao {
 
 
     public List<FlowClassificationRuleVantagePoint> findExpandedFlowClassificationRuleVantagePoints(Set<Long> orgIds) {
+        return findExpandedFlowClassificationRuleVantagePoints(ehOrgUnit.ID.in(orgIds));
+    }
+
+
+    /**
+     * Returns the vantage points for every org unit (expanded over both the
+     * org unit and data type hierarchies), used to build shared resolvers.
+     */
+    public List<FlowClassificationRuleVantagePoint> findAllExpandedFlowClassificationRuleVantagePoints() {
+        return findExpandedFlowClassificationRuleVantagePoints(DSL.trueCondition());
+    }
+
+
+    private List<FlowClassificationRuleVantagePoint> findExpandedFlowClassificationRuleVantagePoints(Condition orgUnitCondition) {
         SelectSeekStep3<Record7<Long, Integer, Long, Integer, Long, String, Long>, Integer, Integer, Long> select = dsl
                 .select(targetOrgUnitId,
                         declaredOrgUnitLevel,
@@ -320,7 +334,7 @@ public class FlowClassificationRuleDao {
                 .innerJoin(impliedDataType)
                     .on(impliedDataType.ID.eq(ehDataType.ID).and(ehDataType.KIND.eq(EntityKind.DATA_TYPE.name())))
                 .innerJoin(FLOW_CLASSIFICATION).on(FLOW_CLASSIFICATION_RULE.FLOW_CLASSIFICATION_ID.eq(FLOW_CLASSIFICATION.ID))
-                .where(ehOrgUnit.ID.in(orgIds))
+                .where(orgUnitCondition)
                 .orderBy(ehOrgUnit.LEVEL.desc(), ehDataType.LEVEL.desc(), ehOrgUnit.ID);
 
         return select
@@ -528,6 +542,46 @@ public class FlowClassificationRuleDao {
     }
 
 
+    /**
+     * Returns the vantage points for point-to-point rules (i.e. those declared
+     * against an app or actor rather than an org unit).  The vantage point is
+     * the rule's parent and the data types are expanded to include descendants,
+     * the data type rank is the level of the declared data type.
+     */
+    public List<FlowClassificationRuleVantagePoint> findPointToPointFlowClassificationRuleVantagePoints() {
+        return dsl
+                .select(FLOW_CLASSIFICATION_RULE.PARENT_KIND,
+                        FLOW_CLASSIFICATION_RULE.PARENT_ID,
+                        child_dt.ID,
+                        level.LEVEL,
+                        FLOW_CLASSIFICATION_RULE.APPLICATION_ID,
+                        FLOW_CLASSIFICATION.CODE,
+                        FLOW_CLASSIFICATION_RULE.ID)
+                .from(FLOW_CLASSIFICATION_RULE)
+                .innerJoin(parent_dt).on(FLOW_CLASSIFICATION_RULE.DATA_TYPE_ID.eq(parent_dt.ID))
+                .innerJoin(ENTITY_HIERARCHY).on(parent_dt.ID.eq(ENTITY_HIERARCHY.ANCESTOR_ID)
+                        .and(ENTITY_HIERARCHY.KIND.eq(EntityKind.DATA_TYPE.name())))
+                .innerJoin(child_dt).on(ENTITY_HIERARCHY.ID.eq(child_dt.ID))
+                .innerJoin(level).on(level.ID.eq(parent_dt.ID)
+                        .and(level.ID.eq(level.ANCESTOR_ID)
+                        .and(level.KIND.eq(EntityKind.DATA_TYPE.name()))))
+                .innerJoin(FLOW_CLASSIFICATION).on(FLOW_CLASSIFICATION_RULE.FLOW_CLASSIFICATION_ID.eq(FLOW_CLASSIFICATION.ID))
+                .where(FLOW_CLASSIFICATION_RULE.PARENT_KIND.in(EntityKind.APPLICATION.name(), EntityKind.ACTOR.name()))
+                .fetch(r -> ImmutableFlowClassificationRuleVantagePoint
+                        .builder()
+                        .vantagePoint(mkRef(
+                                EntityKind.valueOf(r.get(FLOW_CLASSIFICATION_RULE.PARENT_KIND)),
+                                r.get(FLOW_CLASSIFICATION_RULE.PARENT_ID)))
+                        .vantagePointRank(0)
+                        .dataType(mkRef(EntityKind.DATA_TYPE, r.get(child_dt.ID)))
+                        .dataTypeRank(r.get(level.LEVEL))
+                        .applicationId(r.get(FLOW_CLASSIFICATION_RULE.APPLICATION_ID))
+                        .classificationCode(r.get(FLOW_CLASSIFICATION.CODE))
+                        .ruleId(r.get(FLOW_CLASSIFICATION_RULE.ID))
+                        .build());
+    }
+
+
     public Set<FlowClassificationRule> findCompanionAppRules(long ruleId) {
         SelectConditionStep<Record1<Long>> sourceAppId = DSL
                 .select(FLOW_CLASSIFICATION_RULE.APPLICATION_ID)
@@ -20,7 +20,7 @@ package org.finos.waltz.data.flow_diagram;
 
 import org.finos.waltz.schema.tables.records.FlowDiagramEntityRecord;
 import org.finos.waltz.data.GenericSelector;
-import org.finos.waltz.data.InlineSelectFieldFactory;
+import org.finos.waltz.data.EntityReferenceCache;
 import org.finos.waltz.model.EntityKind;
 import org.finos.waltz.model.EntityLifecycleStatus;
 import org.finos.waltz.model.EntityReference;
@@ -31,16 +31,14 @@ import org.jooq.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.function.Function;
 
 import static org.finos.waltz.schema.tables.FlowDiagramEntity.FLOW_DIAGRAM_ENTITY;
 import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
 import static org.finos.waltz.common.Checks.checkNotNull;
-import static org.finos.waltz.common.EnumUtilities.readEnum;
 import static org.finos.waltz.common.ListUtilities.*;
 import static org.finos.waltz.model.EntityReference.mkRef;
 
@@ -50,45 +48,13 @@ public class FlowDiagramEntityDao {
 
     private static final org.finos.waltz.schema.tables.FlowDiagramEntity fde = FLOW_DIAGRAM_ENTITY.as("fde");
 
-    private static final ArrayList<EntityKind> POSSIBLE_ENTITY_KINDS = newArrayList(
-            EntityKind.APPLICATION,
-            EntityKind.ACTOR,
-            EntityKind.CHANGE_INITIATIVE,
-            EntityKind.DATA_TYPE,
-            EntityKind.LOGICAL_DATA_FLOW,
-            EntityKind.MEASURABLE,
-            EntityKind.PHYSICAL_FLOW);
-
-    private static Field<String> ENTITY_NAME_FIELD = InlineSelectFieldFactory.mkNameField(
-            fde.ENTITY_ID,
-            fde.ENTITY_KIND,
-            POSSIBLE_ENTITY_KINDS);
-
-
-    private static Field<String> ENTITY_LIFECYCLE_PHASE_FIELD = InlineSelectFieldFactory.mkEntityLifecycleField(
-            fde.ENTITY_ID,
-            fde.ENTITY_KIND,
-            POSSIBLE_ENTITY_KINDS);
-
-
-
     private static final RecordMapper<Record, FlowDiagramEntity> TO_DOMAIN_MAPPER = r -> {
         FlowDiagramEntityRecord record = r.into(FLOW_DIAGRAM_ENTITY);
-        EntityReference ref = mkRef(
-                EntityKind.valueOf(record.getEntityKind()),
-                record.getEntityId(),
-                Optional.ofNullable(r.getValue(ENTITY_NAME_FIELD)).orElse(format("Deleted %s", record.getEntityKind())));
-
-        EntityLifecycleStatus entityLifecycleStatus = readEnum(
-                r.getValue(ENTITY_LIFECYCLE_PHASE_FIELD),
-                EntityLifecycleStatus.class,
-                t -> EntityLifecycleStatus.REMOVED);
-
         return ImmutableFlowDiagramEntity.builder()
                 .diagramId(record.getDiagramId())
-                .entityReference(ImmutableEntityReference
-                        .copyOf(ref)
-                        .withEntityLifecycleStatus(entityLifecycleStatus))
+                .entityReference(mkRef(
+                        EntityKind.valueOf(record.getEntityKind()),
+                        record.getEntityId()))
                 .isNotable(record.getIsNotable())
                 .build();
     };
@@ -108,12 +74,16 @@ public class FlowDiagramEntityDao {
 
 
     private final DSLContext dsl;
+    private final EntityReferenceCache entityReferenceCache;
 
 
     @Autowired
-    public FlowDiagramEntityDao(DSLContext dsl) {
+    public FlowDiagramEntityDao(DSLContext dsl,
+                                EntityReferenceCache entityReferenceCache) {
         checkNotNull(dsl, "dsl cannot be null");
+        checkNotNull(entityReferenceCache, "entityReferenceCache cannot be null");
         this.dsl = dsl;
+        this.entityReferenceCache = entityReferenceCache;
     }
 
 
@@ -221,13 +191,36 @@ public class FlowDiagramEntityDao {
     // --- helpers
 
     private List<FlowDiagramEntity> doBasicQuery(Condition condition) {
-        return dsl
+        List<FlowDiagramEntity> entities = dsl
                 .select(fde.fields())
-                .select(ENTITY_NAME_FIELD)
-                .select(ENTITY_LIFECYCLE_PHASE_FIELD)
                 .from(fde)
                 .where(condition)
                 .fetch(TO_DOMAIN_MAPPER);
+
+        Map<EntityReference, EntityReference> resolved = entityReferenceCache.resolve(map(
+                entities,
+                FlowDiagramEntity::entityReference));
+
+        return map(
+                entities,
+                e -> ImmutableFlowDiagramEntity
+                        .copyOf(e)
+                        .withEntityReference(decorate(e.entityReference(), resolved)));
+    }
+
+
+    private static EntityReference decorate(EntityReference ref,
+                                            Map<EntityReference, EntityReference> resolved) {
+        EntityReference resolvedRef = resolved.get(ref);
+        return resolvedRef == null
+                ? ImmutableEntityReference
+                    .copyOf(ref)
+                    .withName(format("Deleted %s", ref.kind().name()))
+                    .withEntityLifecycleStatus(EntityLifecycleStatus.REMOVED)
+                : ImmutableEntityReference
+                    .copyOf(ref)
+                    .withName(resolvedRef.name())
+                    .withEntityLifecycleStatus(resolvedRef.entityLifecycleStatus());
     }
 
 
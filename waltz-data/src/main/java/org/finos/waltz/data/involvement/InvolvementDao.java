@@ -19,7 +19,7 @@
 package org.finos.waltz.data.involvement;
 
 import org.finos.waltz.data.GenericSelector;
-import org.finos.waltz.data.InlineSelectFieldFactory;
+import org.finos.waltz.data.EntityReferenceCache;
 import org.finos.waltz.data.person.PersonDao;
 import org.finos.waltz.model.EntityKind;
 import org.finos.waltz.model.EntityReference;
@@ -36,12 +36,12 @@ import org.springframework.stereotype.Repository;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 
 import static java.util.stream.Collectors.*;
 import static org.finos.waltz.common.Checks.checkNotNull;
-import static org.finos.waltz.common.ListUtilities.newArrayList;
 import static org.finos.waltz.schema.Tables.CHANGE_INITIATIVE;
 import static org.finos.waltz.schema.Tables.END_USER_APPLICATION;
 import static org.finos.waltz.schema.tables.Involvement.INVOLVEMENT;
@@ -53,6 +53,7 @@ import static org.finos.waltz.schema.tables.PersonHierarchy.PERSON_HIERARCHY;
 public class InvolvementDao {
 
     private final DSLContext dsl;
+    private final EntityReferenceCache entityReferenceCache;
 
     private final RecordMapper<Record, Involvement> TO_MODEL_MAPPER = r -> {
         InvolvementRecord involvementRecord = r.into(InvolvementRecord.class);
@@ -82,10 +83,13 @@ public class InvolvementDao {
 
 
     @Autowired
-    public InvolvementDao(DSLContext dsl) {
+    public InvolvementDao(DSLContext dsl,
+                          EntityReferenceCache entityReferenceCache) {
         checkNotNull(dsl, "dsl must not be null");
+        checkNotNull(entityReferenceCache, "entityReferenceCache must not be null");
 
         this.dsl = dsl;
+        this.entityReferenceCache = entityReferenceCache;
     }
 
 
@@ -160,16 +164,9 @@ public class InvolvementDao {
             Select<Record1<Long>> entityIdSelector,
             Set<Long> involvementKindIds) {
 
-        Field<String> entityName = InlineSelectFieldFactory.mkNameField(
-                    INVOLVEMENT.ENTITY_ID,
-                    INVOLVEMENT.ENTITY_KIND,
-                    newArrayList(entityKind))
-                .as("entity_name");
-
-        return dsl.selectDistinct()
+        Map<EntityReference, List<Person>> peopleByEntity = dsl.selectDistinct()
                 .select(PERSON.fields())
                 .select(INVOLVEMENT.fields())
-                .select(entityName)
                 .from(PERSON)
                 .innerJoin(INVOLVEMENT)
                 .on(INVOLVEMENT.EMPLOYEE_ID.eq(PERSON.EMPLOYEE_ID))
@@ -182,9 +179,22 @@ public class InvolvementDao {
                 .collect(groupingBy(
                             r -> EntityReference.mkRef(
                                     entityKind,
-                                    r.getValue(INVOLVEMENT.ENTITY_ID),
-                                    r.getValue(entityName)),
+                                    r.getValue(INVOLVEMENT.ENTITY_ID)),
                             mapping(PersonDao.personMapper::map, toList())));
+
+        Map<EntityReference, EntityReference> resolved = entityReferenceCache.resolve(peopleByEntity.keySet());
+
+        return peopleByEntity
+                .entrySet()
+                .stream()
+                .collect(toMap(
+                        e -> EntityReference.mkRef(
+                                entityKind,
+                                e.getKey().id(),
+                                Optional.ofNullable(resolved.get(e.getKey()))
+                                        .flatMap(EntityReference::name)
+                                        .orElse(null)),
+                        Map.Entry::getValue));
     }
 
 
@@ -241,18 +241,21 @@ public class LogicalFlowDao {
                 existingFlows,
                 f -> tuple(f.source(), f.target()));
 
-        List<LogicalFlow> addedFlows = flows
+        List<LogicalFlow> flowsToAdd = flows
                 .stream()
                 .filter(f -> !existing.containsKey(tuple(f.source(), f.target())))
-                .map(f -> {
-                    LogicalFlowRecord record = TO_RECORD_MAPPER.apply(f, dsl);
-                    record.store();
-                    return ImmutableLogicalFlow
-                            .copyOf(f)
-                            .withId(record.getId());
-                })
                 .collect(toList());
 
+        // batch insert then read back, so the generated ids are available to the caller
+        if (! flowsToAdd.isEmpty()) {
+            dsl.batchInsert(map(flowsToAdd, f -> TO_RECORD_MAPPER.apply(f, dsl)))
+                    .execute();
+        }
+
+        List<LogicalFlow> addedFlows = new ArrayList<>(findBySourcesAndTargets(flowsToAdd
+                .stream()
+                .map(f -> tuple(f.source(), f.target()))
+                .collect(toList())));
 
         addedFlows.addAll(removedFlows);
 
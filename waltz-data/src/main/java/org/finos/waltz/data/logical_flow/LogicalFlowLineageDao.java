@@ -0,0 +1,158 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.data.logical_flow;
+
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.EntityLifecycleStatus;
+import org.finos.waltz.model.lineage.ImmutableLineageEdge;
+import org.finos.waltz.model.lineage.LineageEdge;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.impl.DSL;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static java.util.stream.Collectors.*;
+import static org.finos.waltz.common.Checks.checkNotNull;
+import static org.finos.waltz.model.EntityReference.mkRef;
+import static org.finos.waltz.schema.tables.LogicalFlow.LOGICAL_FLOW;
+import static org.finos.waltz.schema.tables.LogicalFlowDecorator.LOGICAL_FLOW_DECORATOR;
+
+/**
+ * Loads logical flows, with their data type decorations, as edges for the in-memory lineage graph.
+ */
+@Repository
+public class LogicalFlowLineageDao {
+
+    private final DSLContext dsl;
+
+
+    @Autowired
+    public LogicalFlowLineageDao(DSLContext dsl) {
+        checkNotNull(dsl, "dsl cannot be null");
+        this.dsl = dsl;
+    }
+
+
+    /**
+     * @return edges for all flows which have not been removed
+     */
+    public List<LineageEdge> findAllActive() {
+        return findForCondition(LogicalFlowDao.LOGICAL_NOT_REMOVED);
+    }
+
+
+    /**
+     * Removed flows are returned (with a lifecycle status of <code>REMOVED</code>) so
+     * callers can tell them apart from flows which no longer exist at all.
+     *
+     * @param flowIds  flows to load
+     * @return edges for the given flows, regardless of their lifecycle status
+     */
+    public List<LineageEdge> findByFlowIds(Collection<Long> flowIds) {
+        if (flowIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return findForCondition(LOGICAL_FLOW.ID.in(flowIds));
+    }
+
+
+    /**
+     * @param since  inclusive lower bound of the last update time
+     * @return edges, regardless of lifecycle status, for flows which have been updated,
+     * or have had a decoration updated, since the given time
+     */
+    public List<LineageEdge> findUpdatedSince(LocalDateTime since) {
+        Timestamp ts = Timestamp.valueOf(since);
+
+        Condition flowUpdated = LOGICAL_FLOW.LAST_UPDATED_AT.ge(ts);
+        Condition decorationUpdated = LOGICAL_FLOW.ID.in(DSL
+                .select(LOGICAL_FLOW_DECORATOR.LOGICAL_FLOW_ID)
+                .from(LOGICAL_FLOW_DECORATOR)
+                .where(LOGICAL_FLOW_DECORATOR.LAST_UPDATED_AT.ge(ts)));
+
+        return findForCondition(flowUpdated.or(decorationUpdated));
+    }
+
+
+    /**
+     * @return the most recent update time across all flows and flow decorations
+     */
+    public Optional<LocalDateTime> findLatestUpdateTime() {
+        Field<Timestamp> latestFlowUpdate = DSL.max(LOGICAL_FLOW.LAST_UPDATED_AT).as("latest_flow_update");
+        Field<Timestamp> latestDecorationUpdate = DSL.max(LOGICAL_FLOW_DECORATOR.LAST_UPDATED_AT).as("latest_decoration_update");
+
+        Timestamp flowTs = dsl.select(latestFlowUpdate).from(LOGICAL_FLOW).fetchOne(latestFlowUpdate);
+        Timestamp decorationTs = dsl.select(latestDecorationUpdate).from(LOGICAL_FLOW_DECORATOR).fetchOne(latestDecorationUpdate);
+
+        return Optional
+                .ofNullable(flowTs == null || (decorationTs != null && decorationTs.after(flowTs))
+                        ? decorationTs
+                        : flowTs)
+                .map(Timestamp::toLocalDateTime);
+    }
+
+
+    // --- helpers ---
+
+    private List<LineageEdge> findForCondition(Condition condition) {
+        Map<Long, Set<Long>> dataTypeIdsByFlowId = dsl
+                .select(LOGICAL_FLOW_DECORATOR.LOGICAL_FLOW_ID, LOGICAL_FLOW_DECORATOR.DECORATOR_ENTITY_ID)
+                .from(LOGICAL_FLOW_DECORATOR)
+                .innerJoin(LOGICAL_FLOW).on(LOGICAL_FLOW.ID.eq(LOGICAL_FLOW_DECORATOR.LOGICAL_FLOW_ID))
+                .where(LOGICAL_FLOW_DECORATOR.DECORATOR_ENTITY_KIND.eq(EntityKind.DATA_TYPE.name()))
+                .and(condition)
+                .fetch()
+                .stream()
+                .collect(groupingBy(
+                        r -> r.get(LOGICAL_FLOW_DECORATOR.LOGICAL_FLOW_ID),
+                        mapping(r -> r.get(LOGICAL_FLOW_DECORATOR.DECORATOR_ENTITY_ID), toSet())));
+
+        return dsl
+                .select(LOGICAL_FLOW.ID,
+                        LOGICAL_FLOW.SOURCE_ENTITY_KIND,
+                        LOGICAL_FLOW.SOURCE_ENTITY_ID,
+                        LOGICAL_FLOW.TARGET_ENTITY_KIND,
+                        LOGICAL_FLOW.TARGET_ENTITY_ID,
+                        LOGICAL_FLOW.ENTITY_LIFECYCLE_STATUS,
+                        LOGICAL_FLOW.IS_REMOVED)
+                .from(LOGICAL_FLOW)
+                .where(condition)
+                .fetch(r -> ImmutableLineageEdge
+                        .builder()
+                        .flowId(r.get(LOGICAL_FLOW.ID))
+                        .source(mkRef(
+                                EntityKind.valueOf(r.get(LOGICAL_FLOW.SOURCE_ENTITY_KIND)),
+                                r.get(LOGICAL_FLOW.SOURCE_ENTITY_ID)))
+                        .target(mkRef(
+                                EntityKind.valueOf(r.get(LOGICAL_FLOW.TARGET_ENTITY_KIND)),
+                                r.get(LOGICAL_FLOW.TARGET_ENTITY_ID)))
+                        .lifecycleStatus(r.get(LOGICAL_FLOW.IS_REMOVED)
+                                ? EntityLifecycleStatus.REMOVED
+                                : EntityLifecycleStatus.valueOf(r.get(LOGICAL_FLOW.ENTITY_LIFECYCLE_STATUS)))
+                        .dataTypeIds(dataTypeIdsByFlowId.getOrDefault(r.get(LOGICAL_FLOW.ID), Collections.emptySet()))
+                        .build());
+    }
+
+}
@@ -18,8 +18,8 @@
 
 package org.finos.waltz.data.person.search;
 
-import org.finos.waltz.data.DBExecutorPoolInterface;
 import org.finos.waltz.data.SearchDao;
+import org.finos.waltz.data.SearchExecutor;
 import org.finos.waltz.data.person.PersonDao;
 import org.finos.waltz.model.EntityLifecycleStatus;
 import org.finos.waltz.model.entity_search.EntitySearchOptions;
@@ -27,14 +27,13 @@ import org.finos.waltz.model.person.Person;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
 import org.jooq.impl.DSL;
-import org.jooq.lambda.Unchecked;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 
 import static org.finos.waltz.schema.tables.Person.PERSON;
 import static org.finos.waltz.common.SetUtilities.orderedUnion;
@@ -45,33 +44,36 @@ import static org.finos.waltz.data.SearchUtilities.mkTerms;
 public class PersonSearchDao implements SearchDao<Person> {
 
     private final DSLContext dsl;
-    private final DBExecutorPoolInterface dbExecutorPool;
+    private final SearchExecutor searchExecutor;
 
 
     @Autowired
-    public PersonSearchDao(DSLContext dsl, DBExecutorPoolInterface dbExecutorPool) {
+    public PersonSearchDao(DSLContext dsl, SearchExecutor searchExecutor) {
         this.dsl = dsl;
-        this.dbExecutorPool = dbExecutorPool;
+        this.searchExecutor = searchExecutor;
     }
 
 
     @Override
     public List<Person> search(EntitySearchOptions options) {
+        return searchAsync(options).join();
+    }
+
+
+    public CompletableFuture<List<Person>> searchAsync(EntitySearchOptions options) {
         List<String> terms = mkTerms(options.searchQuery());
         if (terms.isEmpty()) {
-            return Collections.emptyList();
+            return CompletableFuture.completedFuture(Collections.emptyList());
         }
 
         Condition displayNameCondition = mkBasicTermSearch(PERSON.DISPLAY_NAME, terms);
 
-        Future<List<Person>> peopleViaEmail = dbExecutorPool.submit(() -> executeWithCondition(options, PERSON.EMAIL.startsWithIgnoreCase(options.searchQuery())));
-        Future<List<Person>> peopleViaName = dbExecutorPool.submit(() -> executeWithCondition(options, displayNameCondition));
+        CompletableFuture<List<Person>> peopleViaEmail = searchExecutor.supply(() -> executeWithCondition(options, PERSON.EMAIL.startsWithIgnoreCase(options.searchQuery())));
+        CompletableFuture<List<Person>> peopleViaName = searchExecutor.supply(() -> executeWithCondition(options, displayNameCondition));
 
-        return new ArrayList<>(Unchecked.supplier(() ->
-                orderedUnion(
-                        peopleViaEmail.get(),
-                        peopleViaName.get()))
-                .get());
+        return peopleViaEmail.thenCombine(
+                peopleViaName,
+                (viaEmail, viaName) -> new ArrayList<>(orderedUnion(viaEmail, viaName)));
     }
 
 
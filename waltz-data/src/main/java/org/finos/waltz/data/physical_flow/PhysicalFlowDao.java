@@ -18,6 +18,7 @@
 
 package org.finos.waltz.data.physical_flow;
 
+import org.finos.waltz.common.SetUtilities;
 import org.finos.waltz.data.InlineSelectFieldFactory;
 import org.finos.waltz.data.enum_value.EnumValueDao;
 import org.finos.waltz.model.*;
@@ -27,16 +28,16 @@ import org.finos.waltz.schema.tables.PhysicalSpecDataType;
 import org.finos.waltz.schema.tables.records.PhysicalFlowRecord;
 import org.jooq.*;
 import org.jooq.impl.DSL;
+import org.jooq.lambda.tuple.Tuple10;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Timestamp;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static java.util.Collections.emptyList;
 import static org.finos.waltz.common.Checks.checkFalse;
@@ -50,6 +51,7 @@ import static org.finos.waltz.schema.Tables.*;
 import static org.finos.waltz.schema.tables.LogicalFlow.LOGICAL_FLOW;
 import static org.finos.waltz.schema.tables.PhysicalFlow.PHYSICAL_FLOW;
 import static org.finos.waltz.schema.tables.PhysicalSpecification.PHYSICAL_SPECIFICATION;
+import static org.jooq.lambda.tuple.Tuple.tuple;
 
 
 @Repository
@@ -57,6 +59,8 @@ public class PhysicalFlowDao {
 
     private static final Logger LOG = LoggerFactory.getLogger(PhysicalFlowDao.class);
 
+    private static final int PARSED_FLOW_CHUNK_SIZE = 500;
+
     public static final RecordMapper<Record, PhysicalFlow> TO_DOMAIN_MAPPER = r -> {
         PhysicalFlowRecord record = r.into(PHYSICAL_FLOW);
         return ImmutablePhysicalFlow.builder()
@@ -224,6 +228,86 @@ public class PhysicalFlowDao {
     }
 
 
+    /**
+     * Set based equivalent of {@link #getByParsedFlow(PhysicalFlowParsed)}.  Candidate
+     * flows are fetched (in chunks) using the source, target and specification names
+     * and then matched against the parsed flows in memory.
+     *
+     * @param flows  parsed flows to find matches for
+     * @return map of parsed flow to matching (active) physical flow, parsed flows without a match are omitted
+     */
+    public Map<PhysicalFlowParsed, PhysicalFlow> findByParsedFlows(Collection<PhysicalFlowParsed> flows) {
+        checkNotNull(flows, "flows cannot be null");
+
+        List<PhysicalFlowParsed> flowList = new ArrayList<>(flows);
+        Map<PhysicalFlowParsed, PhysicalFlow> matches = new HashMap<>();
+
+        for (int i = 0; i < flowList.size(); i += PARSED_FLOW_CHUNK_SIZE) {
+            List<PhysicalFlowParsed> chunk = flowList.subList(i, Math.min(i + PARSED_FLOW_CHUNK_SIZE, flowList.size()));
+
+            Condition candidateCondition = LOGICAL_FLOW.SOURCE_ENTITY_ID.in(SetUtilities.map(chunk, f -> f.source().id()))
+                    .and(LOGICAL_FLOW.TARGET_ENTITY_ID.in(SetUtilities.map(chunk, f -> f.target().id())))
+                    .and(PHYSICAL_SPECIFICATION.NAME.in(SetUtilities.map(chunk, PhysicalFlowParsed::name)))
+                    .and(LOGICAL_FLOW.ENTITY_LIFECYCLE_STATUS.ne(REMOVED.name()))
+                    .and(PHYSICAL_SPECIFICATION.IS_REMOVED.isFalse())
+                    .and(PHYSICAL_FLOW_NOT_REMOVED);
+
+            Map<Tuple10<EntityReference, EntityReference, EntityReference, String, String, Long, Integer, String, String, String>, PhysicalFlow> candidatesByKey = new HashMap<>();
+
+            dsl.select(PHYSICAL_FLOW.fields())
+                    .select(LOGICAL_FLOW.SOURCE_ENTITY_KIND,
+                            LOGICAL_FLOW.SOURCE_ENTITY_ID,
+                            LOGICAL_FLOW.TARGET_ENTITY_KIND,
+                            LOGICAL_FLOW.TARGET_ENTITY_ID,
+                            PHYSICAL_SPECIFICATION.OWNING_ENTITY_KIND,
+                            PHYSICAL_SPECIFICATION.OWNING_ENTITY_ID,
+                            PHYSICAL_SPECIFICATION.FORMAT,
+                            PHYSICAL_SPECIFICATION.NAME,
+                            PhysicalSpecDataType.PHYSICAL_SPEC_DATA_TYPE.DATA_TYPE_ID)
+                    .from(PHYSICAL_FLOW)
+                    .join(LOGICAL_FLOW).on(LOGICAL_FLOW.ID.eq(PHYSICAL_FLOW.LOGICAL_FLOW_ID))
+                    .join(PHYSICAL_SPECIFICATION).on(PHYSICAL_SPECIFICATION.ID.eq(PHYSICAL_FLOW.SPECIFICATION_ID))
+                    .join(PhysicalSpecDataType.PHYSICAL_SPEC_DATA_TYPE).on(PhysicalSpecDataType.PHYSICAL_SPEC_DATA_TYPE.SPECIFICATION_ID.eq(PHYSICAL_SPECIFICATION.ID))
+                    .where(candidateCondition)
+                    .forEach(r -> {
+                        PhysicalFlow physicalFlow = TO_DOMAIN_MAPPER.map(r);
+                        candidatesByKey.putIfAbsent(
+                                tuple(mkRef(EntityKind.valueOf(r.get(LOGICAL_FLOW.SOURCE_ENTITY_KIND)), r.get(LOGICAL_FLOW.SOURCE_ENTITY_ID)),
+                                        mkRef(EntityKind.valueOf(r.get(LOGICAL_FLOW.TARGET_ENTITY_KIND)), r.get(LOGICAL_FLOW.TARGET_ENTITY_ID)),
+                                        mkRef(EntityKind.valueOf(r.get(PHYSICAL_SPECIFICATION.OWNING_ENTITY_KIND)), r.get(PHYSICAL_SPECIFICATION.OWNING_ENTITY_ID)),
+                                        r.get(PHYSICAL_SPECIFICATION.FORMAT),
+                                        r.get(PHYSICAL_SPECIFICATION.NAME),
+                                        r.get(PhysicalSpecDataType.PHYSICAL_SPEC_DATA_TYPE.DATA_TYPE_ID),
+                                        physicalFlow.basisOffset(),
+                                        physicalFlow.frequency().value(),
+                                        physicalFlow.transport().value(),
+                                        physicalFlow.criticality().value()),
+                                physicalFlow);
+                    });
+
+            chunk.forEach(f -> {
+                // match on kind and id only, parsed refs may carry a lifecycle status (e.g. PENDING apps)
+                PhysicalFlow match = candidatesByKey.get(tuple(
+                        mkRef(f.source().kind(), f.source().id()),
+                        mkRef(f.target().kind(), f.target().id()),
+                        mkRef(f.owner().kind(), f.owner().id()),
+                        f.format().value(),
+                        f.name(),
+                        f.dataType().id(),
+                        f.basisOffset(),
+                        f.frequency().value(),
+                        f.transport().value(),
+                        f.criticality().value()));
+                if (match != null) {
+                    matches.put(f, match);
+                }
+            });
+        }
+
+        return matches;
+    }
+
+
     /**
      * Returns the flow in the database that matches the parameter based on all attributes except possibly id
      *
@@ -278,6 +362,35 @@ public class PhysicalFlowDao {
         checkNotNull(flow, "flow cannot be null");
         checkFalse(flow.id().isPresent(), "flow must not have an id");
 
+        PhysicalFlowRecord record = mkRecord(flow);
+        record.store();
+        return record.getId();
+    }
+
+
+    /**
+     * Inserts all the given flows using a single batch.  Generated ids are
+     * not returned, use {@link #findByParsedFlows(Collection)} (or similar)
+     * to retrieve the stored flows.
+     */
+    public int createAll(Collection<PhysicalFlow> flows) {
+        checkNotNull(flows, "flows cannot be null");
+        flows.forEach(f -> checkFalse(f.id().isPresent(), "flows must not have ids"));
+
+        if (flows.isEmpty()) {
+            return 0;
+        }
+
+        List<PhysicalFlowRecord> records = flows
+                .stream()
+                .map(this::mkRecord)
+                .collect(Collectors.toList());
+
+        return IntStream.of(dsl.batchInsert(records).execute()).sum();
+    }
+
+
+    private PhysicalFlowRecord mkRecord(PhysicalFlow flow) {
         PhysicalFlowRecord record = dsl.newRecord(PHYSICAL_FLOW);
         record.setLogicalFlowId(flow.logicalFlowId());
 
@@ -300,8 +413,7 @@ public class PhysicalFlowDao {
         record.setCreatedAt(flow.created().map(UserTimestamp::atTimestamp).orElse(Timestamp.valueOf(flow.lastUpdatedAt())));
         record.setCreatedBy(flow.created().map(UserTimestamp::by).orElse(flow.lastUpdatedBy()));
 
-        record.store();
-        return record.getId();
+        return record;
     }
 
 
@@ -18,6 +18,7 @@
 
 package org.finos.waltz.data.physical_specification;
 
+import org.finos.waltz.common.SetUtilities;
 import org.finos.waltz.data.InlineSelectFieldFactory;
 import org.finos.waltz.model.*;
 import org.finos.waltz.model.physical_flow.PhysicalFlowParsed;
@@ -29,13 +30,14 @@ import org.finos.waltz.schema.tables.*;
 import org.finos.waltz.schema.tables.records.PhysicalSpecificationRecord;
 import org.jooq.*;
 import org.jooq.impl.DSL;
+import org.jooq.lambda.tuple.Tuple3;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Timestamp;
-import java.util.Collection;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.finos.waltz.common.Checks.checkFalse;
 import static org.finos.waltz.common.Checks.checkNotNull;
@@ -51,6 +53,7 @@ import static org.finos.waltz.schema.tables.PhysicalFlow.PHYSICAL_FLOW;
 import static org.finos.waltz.schema.tables.PhysicalSpecDataType.PHYSICAL_SPEC_DATA_TYPE;
 import static org.finos.waltz.schema.tables.PhysicalSpecification.PHYSICAL_SPECIFICATION;
 import static org.jooq.impl.DSL.*;
+import static org.jooq.lambda.tuple.Tuple.tuple;
 
 @Repository
 public class PhysicalSpecificationDao {
@@ -61,6 +64,8 @@ public class PhysicalSpecificationDao {
     private static final LogicalFlowDecorator lfd = LOGICAL_FLOW_DECORATOR;
     private static final PhysicalFlow pf = PHYSICAL_FLOW;
 
+    private static final int PARSED_FLOW_CHUNK_SIZE = 500;
+
     public static final Field<String> owningEntityNameField = InlineSelectFieldFactory.mkNameField(
                 PHYSICAL_SPECIFICATION.OWNING_ENTITY_ID,
                 PHYSICAL_SPECIFICATION.OWNING_ENTITY_KIND,
@@ -159,6 +164,46 @@ public class PhysicalSpecificationDao {
     }
 
 
+    /**
+     * Set based equivalent of {@link #getByParsedFlow(PhysicalFlowParsed)}, candidate
+     * specifications are fetched (in chunks) by owner and name and then matched in memory.
+     *
+     * @param flows  parsed flows to find specifications for
+     * @return map of parsed flow to matching (active) specification, parsed flows without a match are omitted
+     */
+    public Map<PhysicalFlowParsed, PhysicalSpecification> findByParsedFlows(Collection<PhysicalFlowParsed> flows) {
+        checkNotNull(flows, "flows cannot be null");
+
+        List<PhysicalFlowParsed> flowList = new ArrayList<>(flows);
+        Map<PhysicalFlowParsed, PhysicalSpecification> matches = new HashMap<>();
+
+        for (int i = 0; i < flowList.size(); i += PARSED_FLOW_CHUNK_SIZE) {
+            List<PhysicalFlowParsed> chunk = flowList.subList(i, Math.min(i + PARSED_FLOW_CHUNK_SIZE, flowList.size()));
+
+            Condition condition = PHYSICAL_SPECIFICATION.OWNING_ENTITY_ID.in(SetUtilities.map(chunk, f -> f.owner().id()))
+                    .and(PHYSICAL_SPECIFICATION.NAME.in(SetUtilities.map(chunk, PhysicalFlowParsed::name)))
+                    .and(PHYSICAL_SPEC_NOT_REMOVED);
+
+            Map<Tuple3<EntityReference, DataFormatKindValue, String>, PhysicalSpecification> candidatesByKey = new HashMap<>();
+            basicSelectByCondition(condition)
+                    .fetch(TO_DOMAIN_MAPPER)
+                    .forEach(spec -> candidatesByKey.putIfAbsent(
+                            tuple(mkRef(spec.owningEntity().kind(), spec.owningEntity().id()), spec.format(), spec.name()),
+                            spec));
+
+            chunk.forEach(f -> {
+                // match on kind and id only, parsed refs may carry a lifecycle status (e.g. PENDING apps)
+                PhysicalSpecification match = candidatesByKey.get(tuple(mkRef(f.owner().kind(), f.owner().id()), f.format(), f.name()));
+                if (match != null) {
+                    matches.put(f, match);
+                }
+            });
+        }
+
+        return matches;
+    }
+
+
     public boolean isUsed(long id) {
         Field<Boolean> specUsed = DSL.when(
                     exists(select(PHYSICAL_FLOW.ID)
@@ -179,6 +224,34 @@ public class PhysicalSpecificationDao {
         checkNotNull(specification, "specification cannot be null");
         checkFalse(specification.id().isPresent(), "specification must not have an id");
 
+        PhysicalSpecificationRecord record = mkRecord(specification);
+        record.store();
+        return record.getId();
+    }
+
+
+    /**
+     * Inserts all the given specifications using a single batch.  Generated ids
+     * are not returned, use {@link #findByParsedFlows(Collection)} to retrieve them.
+     */
+    public int createAll(Collection<PhysicalSpecification> specifications) {
+        checkNotNull(specifications, "specifications cannot be null");
+        specifications.forEach(s -> checkFalse(s.id().isPresent(), "specifications must not have ids"));
+
+        if (specifications.isEmpty()) {
+            return 0;
+        }
+
+        List<PhysicalSpecificationRecord> records = specifications
+                .stream()
+                .map(this::mkRecord)
+                .collect(Collectors.toList());
+
+        return IntStream.of(dsl.batchInsert(records).execute()).sum();
+    }
+
+
+    private PhysicalSpecificationRecord mkRecord(PhysicalSpecification specification) {
         PhysicalSpecificationRecord record = dsl.newRecord(PHYSICAL_SPECIFICATION);
         record.setOwningEntityKind(specification.owningEntity().kind().name());
         record.setOwningEntityId(specification.owningEntity().id());
@@ -195,8 +268,7 @@ public class PhysicalSpecificationDao {
         record.setCreatedAt(specification.created().get().atTimestamp());
         record.setCreatedBy(specification.created().get().by());
 
-        record.store();
-        return record.getId();
+        return record;
     }
 
 
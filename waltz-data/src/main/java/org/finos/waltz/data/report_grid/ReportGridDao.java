@@ -23,7 +23,6 @@ import org.finos.waltz.common.DateTimeUtilities;
 import org.finos.waltz.data.GenericSelector;
 import org.finos.waltz.data.InlineSelectFieldFactory;
 import org.finos.waltz.model.EntityKind;
-import org.finos.waltz.model.EntityReference;
 import org.finos.waltz.model.entity_field_reference.EntityFieldReference;
 import org.finos.waltz.model.entity_field_reference.ImmutableEntityFieldReference;
 import org.finos.waltz.model.report_grid.*;
@@ -43,15 +42,17 @@ import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.Comparator;
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.function.ToIntFunction;
 import java.util.stream.IntStream;
 
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptySet;
-import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.*;
+import static org.finos.waltz.common.Checks.checkNotNull;
 import static org.finos.waltz.common.CollectionUtilities.first;
 import static org.finos.waltz.common.DateTimeUtilities.toLocalDate;
 import static org.finos.waltz.common.DateTimeUtilities.toLocalDateTime;
@@ -59,7 +60,6 @@ import static org.finos.waltz.common.ListUtilities.newArrayList;
 import static org.finos.waltz.common.MapUtilities.groupBy;
 import static org.finos.waltz.common.SetUtilities.*;
 import static org.finos.waltz.common.StringUtilities.join;
-import static org.finos.waltz.model.EntityReference.mkRef;
 import static org.finos.waltz.model.survey.SurveyInstanceStatus.APPROVED;
 import static org.finos.waltz.model.survey.SurveyInstanceStatus.COMPLETED;
 import static org.finos.waltz.schema.Tables.*;
@@ -72,6 +72,8 @@ import static org.jooq.lambda.tuple.Tuple.tuple;
 public class ReportGridDao {
 
     private final DSLContext dsl;
+    private final DSLContext familyDsl;  // used for the column family queries, carries the family query timeout
+    private final ReportGridFetchExecutor fetchExecutor;
 
     private final org.finos.waltz.schema.tables.Measurable m = MEASURABLE.as("m");
     private final org.finos.waltz.schema.tables.MeasurableRating mr = MEASURABLE_RATING.as("mr");
@@ -106,8 +108,14 @@ public class ReportGridDao {
             .as("entity_name");
 
     @Autowired
-    public ReportGridDao(DSLContext dsl) {
+    public ReportGridDao(DSLContext dsl,
+                         ReportGridFetchExecutor fetchExecutor) {
+        checkNotNull(dsl, "dsl cannot be null");
+        checkNotNull(fetchExecutor, "fetchExecutor cannot be null");
+
         this.dsl = dsl;
+        this.familyDsl = fetchExecutor.withQueryTimeout(dsl);
+        this.fetchExecutor = fetchExecutor;
     }
 
 
@@ -130,14 +138,14 @@ public class ReportGridDao {
     }
 
 
-    public Set<ReportGridCell> findCellDataByGridId(long id,
-                                                    GenericSelector genericSelector) {
+    public ColumnarReportGridCells findCellDataByGridId(long id,
+                                                        GenericSelector genericSelector) {
         return findCellDataByGridCondition(rg.ID.eq(id), genericSelector);
     }
 
 
-    public Set<ReportGridCell> findCellDataByGridExternalId(String externalId,
-                                                            GenericSelector genericSelector) {
+    public ColumnarReportGridCells findCellDataByGridExternalId(String externalId,
+                                                                GenericSelector genericSelector) {
         return findCellDataByGridCondition(rg.EXTERNAL_ID.eq(externalId), genericSelector);
     }
 
@@ -205,13 +213,19 @@ public class ReportGridDao {
     }
 
     public long update(long id, ReportGridUpdateCommand updateCommand, String username) {
-        return dsl
+        UpdateSetMoreStep<ReportGridRecord> qry = dsl
                 .update(rg)
                 .set(rg.NAME, updateCommand.name())
                 .set(rg.DESCRIPTION, updateCommand.description())
                 .set(rg.KIND, updateCommand.kind().name())
                 .set(rg.LAST_UPDATED_AT, DateTimeUtilities.nowUtcTimestamp())
-                .set(rg.LAST_UPDATED_BY, username)
+                .set(rg.LAST_UPDATED_BY, username);
+
+        if (updateCommand.materialized() != null) {
+            qry = qry.set(rg.IS_MATERIALIZED, updateCommand.materialized());
+        }
+
+        return qry
                 .where(rg.ID.eq(id))
                 .execute();
     }
@@ -401,13 +415,13 @@ public class ReportGridDao {
     }
 
 
-    private Set<ReportGridCell> findCellDataByGridCondition(Condition gridCondition,
-                                                            GenericSelector genericSelector) {
+    private ColumnarReportGridCells findCellDataByGridCondition(Condition gridCondition,
+                                                                GenericSelector genericSelector) {
 
         ReportGridDefinition gridDefn = getGridDefinitionByCondition(gridCondition);
 
         if (gridDefn == null) {
-            return emptySet();
+            return ColumnarReportGridCells.empty();
 
         } else {
 
@@ -504,29 +518,34 @@ public class ReportGridDao {
             Set<Tuple2<ReportGridColumnDefinition, EntityFieldReference>> requiredChangeInitiativeColumns = complexColsByKind
                     .getOrDefault(EntityKind.CHANGE_INITIATIVE, emptySet());
 
-            return union(
-                    fetchSummaryMeasurableData(genericSelector, summaryMeasurableIdsUsingHighest, summaryMeasurableIdsUsingLowest),
-                    fetchAssessmentData(genericSelector, requiredAssessmentDefinitions),
-                    fetchExactMeasurableData(genericSelector, exactMeasurableIds),
-                    fetchCostData(genericSelector, requiredCostKinds),
-                    fetchInvolvementData(genericSelector, requiredInvolvementKinds),
-                    fetchSurveyQuestionResponseData(genericSelector, requiredSurveyQuestionIds),
-                    fetchAppGroupData(genericSelector, requiredAppGroupIds),
-                    fetchSurveyFieldReferenceData(genericSelector, requiredSurveyTemplateIds),
-                    fetchApplicationFieldReferenceData(genericSelector, requiredApplicationColumns),
-                    fetchChangeInitiativeFieldReferenceData(genericSelector, requiredChangeInitiativeColumns),
-                    fetchExactDataTypeData(genericSelector, requiredExactDataTypeIds),
-                    fetchSummaryDataTypeData(genericSelector, requiredSummaryDataTypeIds));
+            // each family is independent, the executor decides whether to run them serially or concurrently
+            Map<String, Supplier<ColumnarReportGridCells>> families = new LinkedHashMap<>();
+            families.put("SUMMARY_MEASURABLE", () -> fetchSummaryMeasurableData(genericSelector, summaryMeasurableIdsUsingHighest, summaryMeasurableIdsUsingLowest));
+            families.put("ASSESSMENT", () -> fetchAssessmentData(genericSelector, requiredAssessmentDefinitions));
+            families.put("EXACT_MEASURABLE", () -> fetchExactMeasurableData(genericSelector, exactMeasurableIds));
+            families.put("COST", () -> fetchCostData(genericSelector, requiredCostKinds));
+            families.put("INVOLVEMENT", () -> fetchInvolvementData(genericSelector, requiredInvolvementKinds));
+            families.put("SURVEY_QUESTION", () -> fetchSurveyQuestionResponseData(genericSelector, requiredSurveyQuestionIds));
+            families.put("APP_GROUP", () -> fetchAppGroupData(genericSelector, requiredAppGroupIds));
+            families.put("SURVEY_FIELD_REFERENCE", () -> fetchSurveyFieldReferenceData(genericSelector, requiredSurveyTemplateIds));
+            families.put("APPLICATION_FIELD_REFERENCE", () -> fetchApplicationFieldReferenceData(genericSelector, requiredApplicationColumns));
+            families.put("CHANGE_INITIATIVE_FIELD_REFERENCE", () -> fetchChangeInitiativeFieldReferenceData(genericSelector, requiredChangeInitiativeColumns));
+            families.put("EXACT_DATA_TYPE", () -> fetchExactDataTypeData(genericSelector, requiredExactDataTypeIds));
+            families.put("SUMMARY_DATA_TYPE", () -> fetchSummaryDataTypeData(genericSelector, requiredSummaryDataTypeIds));
+
+            return fetchExecutor.fetchAll(gridDefn.name(), families);
         }
     }
 
 
-    private Set<ReportGridCell> fetchExactDataTypeData(GenericSelector genericSelector,
-                                                       Set<Long> requiredDataTypeIds) {
+    private ColumnarReportGridCells fetchExactDataTypeData(GenericSelector genericSelector,
+                                                           Set<Long> requiredDataTypeIds) {
         if (requiredDataTypeIds.isEmpty()) {
-            return Collections.emptySet();
+            return ColumnarReportGridCells.empty();
         } else {
-             return dsl
+            ColumnarReportGridCells.Builder cells = ColumnarReportGridCells.builder();
+
+            familyDsl
                     .select(dtu.ENTITY_ID,
                             dtu.DATA_TYPE_ID,
                             dtu.USAGE_KIND)
@@ -534,29 +553,26 @@ public class ReportGridDao {
                     .where(dtu.ENTITY_KIND.eq(EntityKind.APPLICATION.name()))
                     .and(dtu.ENTITY_ID.in(genericSelector.selector()))
                     .and(dtu.DATA_TYPE_ID.in(requiredDataTypeIds))
-                    .fetchGroups(r -> tuple(
-                            r.get(dtu.ENTITY_ID),
-                            r.get(dtu.DATA_TYPE_ID)))
-                     .entrySet()
-                     .stream()
-                     .map(entry -> {
-                         Set<UsageKind> usageKinds = map(
-                             entry.getValue(),
-                             d -> UsageKind.valueOf(d.get(dtu.USAGE_KIND)));
-
-                         return mkDataTypeUsageCell(entry.getKey(), usageKinds);
-                     })
-                    .collect(toSet());
+                    .fetchGroups(
+                            r -> tuple(
+                                    r.get(dtu.ENTITY_ID),
+                                    r.get(dtu.DATA_TYPE_ID)),
+                            r -> UsageKind.valueOf(r.get(dtu.USAGE_KIND)))
+                    .forEach((key, usageKinds) -> addDataTypeUsageCell(cells, key, usageKinds));
+
+            return cells.build();
         }
     }
 
 
-    private Set<ReportGridCell> fetchSummaryDataTypeData(GenericSelector genericSelector,
-                                                         Set<Long> requiredDataTypeIds) {
+    private ColumnarReportGridCells fetchSummaryDataTypeData(GenericSelector genericSelector,
+                                                             Set<Long> requiredDataTypeIds) {
         if (requiredDataTypeIds.isEmpty()) {
-            return Collections.emptySet();
+            return ColumnarReportGridCells.empty();
         } else {
-            return dsl
+            ColumnarReportGridCells.Builder cells = ColumnarReportGridCells.builder();
+
+            familyDsl
                     .select(dtu.ENTITY_ID,
                             dtu.DATA_TYPE_ID,
                             dtu.USAGE_KIND,
@@ -567,63 +583,58 @@ public class ReportGridDao {
                     .where(dtu.ENTITY_KIND.eq(EntityKind.APPLICATION.name()))
                     .and(dtu.ENTITY_ID.in(genericSelector.selector()))
                     .and(eh.ANCESTOR_ID.in(requiredDataTypeIds))
-                    .fetchGroups(r -> tuple(
-                            r.get(dtu.ENTITY_ID),
-                            r.get(eh.ANCESTOR_ID)))
-                    .entrySet()
-                    .stream()
-                    .map(entry -> {
-                        Set<UsageKind> usageKinds = map(
-                                entry.getValue(),
-                                d -> UsageKind.valueOf(d.get(dtu.USAGE_KIND)));
-
-                        return mkDataTypeUsageCell(entry.getKey(), usageKinds);
-                    })
-                    .collect(toSet());
+                    .fetchGroups(
+                            r -> tuple(
+                                    r.get(dtu.ENTITY_ID),
+                                    r.get(eh.ANCESTOR_ID)),
+                            r -> UsageKind.valueOf(r.get(dtu.USAGE_KIND)))
+                    .forEach((key, usageKinds) -> addDataTypeUsageCell(cells, key, usageKinds));
+
+            return cells.build();
         }
     }
 
 
-    private ImmutableReportGridCell mkDataTypeUsageCell(Tuple2<Long, Long> key,
-                                                        Set<UsageKind> usageKinds) {
-        UsageKind derivedUsage = deriveUsage(usageKinds);
+    private void addDataTypeUsageCell(ColumnarReportGridCells.Builder cells,
+                                      Tuple2<Long, Long> key,
+                                      List<UsageKind> usageKinds) {
+        UsageKind derivedUsage = deriveUsage(fromCollection(usageKinds));
 
-        return ImmutableReportGridCell
-                .builder()
-                .subjectId(key.v1)
-                .columnEntityId(key.v2)
-                .columnEntityKind(EntityKind.DATA_TYPE)
-                .text(derivedUsage.name())
-                .entityFieldReferenceId(null)
-                .build();
+        cells.add(
+                key.v1,
+                EntityKind.DATA_TYPE,
+                key.v2,
+                null,
+                null,
+                null,
+                derivedUsage.name(),
+                null);
     }
 
 
-    private Set<ReportGridCell> fetchAppGroupData(GenericSelector genericSelector,
-                                                  Set<Long> requiredAppGroupIds) {
+    private ColumnarReportGridCells fetchAppGroupData(GenericSelector genericSelector,
+                                                      Set<Long> requiredAppGroupIds) {
         if (requiredAppGroupIds.isEmpty()) {
-            return emptySet();
+            return ColumnarReportGridCells.empty();
         } else {
             SelectOrderByStep<Record3<Long, Long, Timestamp>> appGroupInfoSelect = determineAppGroupQuery(genericSelector, requiredAppGroupIds);
 
-            return dsl
-                    .fetch(appGroupInfoSelect)
-                    .stream()
-                    .map(r -> {
+            return collectCells(
+                    familyDsl.fetchLazy(appGroupInfoSelect),
+                    (cells, r) -> {
                         Long subjectId = r.get("subject_id", Long.class);
                         Timestamp created_at = r.get("created_at", Timestamp.class);
 
-                        return ImmutableReportGridCell
-                                .builder()
-                                .subjectId(subjectId)
-                                .columnEntityId(r.get(ag.ID))
-                                .columnEntityKind(EntityKind.APP_GROUP)
-                                .text("Y")
-                                .comment(format("Created at: %s", toLocalDate(created_at).toString()))
-                                .entityFieldReferenceId(null)
-                                .build();
-                    })
-                    .collect(toSet());
+                        cells.add(
+                                subjectId,
+                                EntityKind.APP_GROUP,
+                                r.get(ag.ID),
+                                null,
+                                null,
+                                null,
+                                "Y",
+                                format("Created at: %s", toLocalDate(created_at).toString()));
+                    });
         }
     }
 
@@ -644,7 +655,7 @@ public class ReportGridDao {
 
     private SelectOrderByStep<Record3<Long, Long, Timestamp>> mkChangeInitiativeAppGroupSelect(GenericSelector selector, Set<Long> requiredAppGroupIds) {
 
-        SelectConditionStep<Record3<Long, Long, Timestamp>> groupASelect = dsl
+        SelectConditionStep<Record3<Long, Long, Timestamp>> groupASelect = familyDsl
                 .select(ci.ID.as("subject_id"),
                         ag.ID,
                         er.LAST_UPDATED_AT.as("created_at"))
@@ -656,7 +667,7 @@ public class ReportGridDao {
                 .and(ci.ID.in(selector.selector()))
                 .and(ag.ID.in(requiredAppGroupIds));
 
-        SelectConditionStep<Record3<Long, Long, Timestamp>> groupBSelect = dsl
+        SelectConditionStep<Record3<Long, Long, Timestamp>> groupBSelect = familyDsl
                 .select(ci.ID.as("subject_id"),
                         ag.ID,
                         er.LAST_UPDATED_AT.as("created_at"))
@@ -702,11 +713,11 @@ public class ReportGridDao {
     }
 
 
-    private Set<ReportGridCell> fetchApplicationFieldReferenceData(GenericSelector selector,
-                                                                  Set<Tuple2<ReportGridColumnDefinition, EntityFieldReference>> requiredApplicationColumns) {
+    private ColumnarReportGridCells fetchApplicationFieldReferenceData(GenericSelector selector,
+                                                                      Set<Tuple2<ReportGridColumnDefinition, EntityFieldReference>> requiredApplicationColumns) {
 
         if (requiredApplicationColumns.isEmpty()) {
-            return emptySet();
+            return ColumnarReportGridCells.empty();
         } else {
 
             Set<String> fields = map(requiredApplicationColumns, d -> d.v2.fieldName());
@@ -715,39 +726,37 @@ public class ReportGridDao {
                     .stream()
                     .collect(toMap(k -> k.v2.fieldName(), v -> v.v1));
 
-            return dsl
-                    .select(APPLICATION.fields())
-                    .from(APPLICATION)
-                    .where(APPLICATION.ID.in(selector.selector()))
-                    .fetch()
-                    .stream()
-                    .flatMap(appRecord -> fields
-                            .stream()
-                            .map(fieldName -> {
+            return collectCells(
+                    familyDsl
+                        .select(APPLICATION.fields())
+                        .from(APPLICATION)
+                        .where(APPLICATION.ID.in(selector.selector()))
+                        .fetchLazy(),
+                    (cells, appRecord) -> fields
+                            .forEach(fieldName -> {
                                 ReportGridColumnDefinition colDefn = columnDefinitionsByFieldReference.get(fieldName);
 
                                 Field<?> field = APPLICATION.field(fieldName);
                                 Object rawValue = appRecord.get(field);
 
+                                if (rawValue == null) {
+                                    return;
+                                }
+
                                 String textValue = isTimestampField(field)
                                         ? String.valueOf(DateTimeUtilities.toLocalDate((Timestamp) rawValue))
                                         : String.valueOf(rawValue);
 
-                                if (rawValue == null) {
-                                    return null;
-                                }
-
-                                return ImmutableReportGridCell
-                                        .builder()
-                                        .subjectId(appRecord.get(APPLICATION.ID))
-                                        .columnEntityId(colDefn.columnEntityId())
-                                        .columnEntityKind(EntityKind.APPLICATION)
-                                        .text(textValue)
-                                        .entityFieldReferenceId(colDefn.entityFieldReference().id().get())
-                                        .build();
-                            }))
-                    .filter(Objects::nonNull)
-                    .collect(toSet());
+                                cells.add(
+                                        appRecord.get(APPLICATION.ID),
+                                        EntityKind.APPLICATION,
+                                        colDefn.columnEntityId(),
+                                        colDefn.entityFieldReference().id().get(),
+                                        null,
+                                        null,
+                                        textValue,
+                                        null);
+                            }));
         }
     }
 
@@ -758,11 +767,11 @@ public class ReportGridDao {
     }
 
 
-    private Set<ReportGridCell> fetchChangeInitiativeFieldReferenceData(GenericSelector selector,
-                                                                        Set<Tuple2<ReportGridColumnDefinition, EntityFieldReference>> requiredChangeInitiativeColumns) {
+    private ColumnarReportGridCells fetchChangeInitiativeFieldReferenceData(GenericSelector selector,
+                                                                            Set<Tuple2<ReportGridColumnDefinition, EntityFieldReference>> requiredChangeInitiativeColumns) {
 
         if (requiredChangeInitiativeColumns.isEmpty()) {
-            return emptySet();
+            return ColumnarReportGridCells.empty();
         } else {
 
             Set<String> fields = map(requiredChangeInitiativeColumns, d -> d.v2.fieldName());
@@ -771,42 +780,40 @@ public class ReportGridDao {
                     .stream()
                     .collect(toMap(k -> k.v2.fieldName(), v -> v.v1));
 
-            return dsl
-                    .select(CHANGE_INITIATIVE.fields())
-                    .from(CHANGE_INITIATIVE)
-                    .where(CHANGE_INITIATIVE.ID.in(selector.selector()))
-                    .fetch()
-                    .stream()
-                    .flatMap(ciRecord -> fields
-                            .stream()
-                            .map(fieldName -> {
+            return collectCells(
+                    familyDsl
+                        .select(CHANGE_INITIATIVE.fields())
+                        .from(CHANGE_INITIATIVE)
+                        .where(CHANGE_INITIATIVE.ID.in(selector.selector()))
+                        .fetchLazy(),
+                    (cells, ciRecord) -> fields
+                            .forEach(fieldName -> {
                                 ReportGridColumnDefinition colDefn = columnDefinitionsByFieldReference.get(fieldName);
 
                                 Object value = ciRecord.get(CHANGE_INITIATIVE.field(fieldName));
 
                                 if (value == null) {
-                                    return null;
+                                    return;
                                 }
 
-                                return ImmutableReportGridCell
-                                        .builder()
-                                        .subjectId(ciRecord.get(CHANGE_INITIATIVE.ID))
-                                        .columnEntityId(colDefn.columnEntityId())
-                                        .columnEntityKind(EntityKind.CHANGE_INITIATIVE)
-                                        .text(String.valueOf(value))
-                                        .entityFieldReferenceId(colDefn.entityFieldReference().id().get())
-                                        .build();
-                            }))
-                    .filter(Objects::nonNull)
-                    .collect(toSet());
+                                cells.add(
+                                        ciRecord.get(CHANGE_INITIATIVE.ID),
+                                        EntityKind.CHANGE_INITIATIVE,
+                                        colDefn.columnEntityId(),
+                                        colDefn.entityFieldReference().id().get(),
+                                        null,
+                                        null,
+                                        String.valueOf(value),
+                                        null);
+                            }));
         }
     }
 
 
-    private Set<ReportGridCell> fetchSurveyFieldReferenceData(GenericSelector selector,
-                                                             Set<Tuple2<ReportGridColumnDefinition, EntityFieldReference>> surveyInstanceInfo) {
+    private ColumnarReportGridCells fetchSurveyFieldReferenceData(GenericSelector selector,
+                                                                  Set<Tuple2<ReportGridColumnDefinition, EntityFieldReference>> surveyInstanceInfo) {
         if (surveyInstanceInfo.isEmpty()) {
-            return emptySet();
+            return ColumnarReportGridCells.empty();
         } else {
 
             Field<Long> latestInstance = DSL
@@ -824,7 +831,7 @@ public class ReportGridDao {
 
             Set<Long> surveyTemplateIds = map(surveyInstanceInfo, d -> d.v1.columnEntityId());
 
-            Table<Record> surveyInfo = dsl
+            Table<Record> surveyInfo = familyDsl
                     .select(latestInstance)
                     .select(SURVEY_INSTANCE.ID.as("sid"),
                             SURVEY_INSTANCE.STATUS,
@@ -845,57 +852,56 @@ public class ReportGridDao {
                                             .and(SURVEY_INSTANCE.ORIGINAL_INSTANCE_ID.isNull()))))
                     .asTable();
 
-            SelectConditionStep<Record> surveyInfoForLatestInstance = dsl
+            SelectConditionStep<Record> surveyInfoForLatestInstance = familyDsl
                     .select(surveyInfo.fields())
                     .from(surveyInfo)
                     .where(surveyInfo.field(latestInstance)
                             .eq(surveyInfo.field("sid", Long.class)));
 
-            return surveyInfoForLatestInstance
-                    .fetch()
-                    .stream()
-                    .flatMap(surveyRecord -> {
+            return collectCells(
+                    surveyInfoForLatestInstance.fetchLazy(),
+                    (cells, surveyRecord) -> {
                         Long templateId = surveyRecord.get(SURVEY_RUN.SURVEY_TEMPLATE_ID);
 
-                        return fieldReferencesByTemplateId
+                        fieldReferencesByTemplateId
                                 .getOrDefault(templateId, emptySet())
-                                .stream()
-                                .map(fieldRef -> {
+                                .forEach(fieldRef -> {
 
                                     Field<?> field = SURVEY_INSTANCE.field(fieldRef.fieldName());
                                     Object rawValue = surveyRecord.get(field);
 
+                                    if (rawValue == null) {
+                                        return;
+                                    }
+
                                     String textValue = isTimestampField(field)
                                             ? String.valueOf(DateTimeUtilities.toLocalDate((Timestamp) rawValue))
                                             : String.valueOf(rawValue);
 
-                                    if (rawValue == null) {
-                                        return null;
-                                    }
-
-                                    return ImmutableReportGridCell
-                                            .builder()
-                                            .subjectId(surveyRecord.get(SURVEY_INSTANCE.ENTITY_ID))
-                                            .columnEntityId(templateId)
-                                            .columnEntityKind(EntityKind.SURVEY_TEMPLATE)
-                                            .text(textValue)
-                                            .entityFieldReferenceId(fieldRef.id().get())
-                                            .build();
+                                    cells.add(
+                                            surveyRecord.get(SURVEY_INSTANCE.ENTITY_ID),
+                                            EntityKind.SURVEY_TEMPLATE,
+                                            templateId,
+                                            fieldRef.id().get(),
+                                            null,
+                                            null,
+                                            textValue,
+                                            null);
                                 });
-                    })
-                    .filter(Objects::nonNull)
-                    .collect(toSet());
+                    });
         }
     }
 
 
-    private Set<ReportGridCell> fetchInvolvementData(GenericSelector selector,
-                                                     Set<Long> requiredInvolvementKinds) {
+    private ColumnarReportGridCells fetchInvolvementData(GenericSelector selector,
+                                                         Set<Long> requiredInvolvementKinds) {
         if (requiredInvolvementKinds.isEmpty()) {
-            return emptySet();
+            return ColumnarReportGridCells.empty();
         } else {
-            return fromCollection(dsl
-                    .select(
+            ColumnarReportGridCells.Builder cells = ColumnarReportGridCells.builder();
+
+            familyDsl
+                    .selectDistinct(
                             inv.ENTITY_ID,
                             inv.KIND_ID,
                             p.EMAIL)
@@ -905,71 +911,72 @@ public class ReportGridDao {
                     .and(inv.ENTITY_ID.in(selector.selector()))
                     .and(inv.KIND_ID.in(requiredInvolvementKinds))
                     .and(p.IS_REMOVED.isFalse())
-                    .fetchSet(r -> ImmutableReportGridCell
-                            .builder()
-                            .subjectId(r.get(inv.ENTITY_ID))
-                            .columnEntityId(r.get(inv.KIND_ID))
-                            .columnEntityKind(EntityKind.INVOLVEMENT_KIND)
-                            .text(r.get(p.EMAIL))
-                            .entityFieldReferenceId(null)
-                            .build())
-                    // we now convert to a map so we can merge text values of cells with the same coordinates (appId, entId)
-                    .stream()
-                    .collect(toMap(
-                            c -> tuple(c.subjectId(), c.columnEntityId()),
-                            identity(),
-                            (a, b) -> ImmutableReportGridCell
-                                    .copyOf(a)
-                                    .withText(a.text() + "; " + b.text())))
-                    // and then we simply return the values of that temporary map.
-                    .values());
+                    // we group so we can merge text values of cells with the same coordinates (appId, entId)
+                    .fetchGroups(
+                            r -> tuple(r.get(inv.ENTITY_ID), r.get(inv.KIND_ID)),
+                            r -> r.get(p.EMAIL))
+                    .forEach((key, emails) -> cells.add(
+                            key.v1,
+                            EntityKind.INVOLVEMENT_KIND,
+                            key.v2,
+                            null,
+                            null,
+                            null,
+                            join(emails, "; "),
+                            null));
+
+            return cells.build();
         }
     }
 
 
-    private Set<ReportGridCell> fetchCostData(GenericSelector selector,
-                                              Set<Long> requiredCostKinds) {
+    private ColumnarReportGridCells fetchCostData(GenericSelector selector,
+                                                  Set<Long> requiredCostKinds) {
 
         if (requiredCostKinds.isEmpty()) {
-            return emptySet();
+            return ColumnarReportGridCells.empty();
         } else {
 
-            SelectHavingStep<Record2<Long, Integer>> costKindLastestYear = dsl
+            SelectHavingStep<Record2<Long, Integer>> costKindLastestYear = familyDsl
                     .select(COST.COST_KIND_ID, DSL.max(COST.YEAR).as("latest_year"))
                     .from(COST)
-                    .where(dsl.renderInlined(COST.ENTITY_ID.in(selector.selector())
+                    .where(familyDsl.renderInlined(COST.ENTITY_ID.in(selector.selector())
                             .and(COST.ENTITY_KIND.eq(selector.kind().name()))))
                     .groupBy(COST.COST_KIND_ID);
 
             Condition latestYearForKind = c.COST_KIND_ID.eq(costKindLastestYear.field(COST.COST_KIND_ID))
                     .and(c.YEAR.eq(costKindLastestYear.field("latest_year", Integer.class)));
 
-            return dsl
-                    .select(c.ENTITY_ID,
-                            c.COST_KIND_ID,
-                            c.AMOUNT)
-                    .from(c)
-                    .innerJoin(costKindLastestYear).on(latestYearForKind)
-                    .where(dsl.renderInlined(c.COST_KIND_ID.in(requiredCostKinds)
-                            .and(c.ENTITY_KIND.eq(selector.kind().name()))
-                            .and(c.ENTITY_ID.in(selector.selector()))))
-                    .fetchSet(r -> ImmutableReportGridCell.builder()
-                            .subjectId(r.get(c.ENTITY_ID))
-                            .columnEntityId(r.get(c.COST_KIND_ID))
-                            .columnEntityKind(EntityKind.COST_KIND)
-                            .value(r.get(c.AMOUNT))
-                            .entityFieldReferenceId(null)
-                            .build());
+            return collectCells(
+                    familyDsl
+                        .select(c.ENTITY_ID,
+                                c.COST_KIND_ID,
+                                c.AMOUNT)
+                        .from(c)
+                        .innerJoin(costKindLastestYear).on(latestYearForKind)
+                        .where(familyDsl.renderInlined(c.COST_KIND_ID.in(requiredCostKinds)
+                                .and(c.ENTITY_KIND.eq(selector.kind().name()))
+                                .and(c.ENTITY_ID.in(selector.selector()))))
+                        .fetchLazy(),
+                    (cells, r) -> cells.add(
+                            r.get(c.ENTITY_ID),
+                            EntityKind.COST_KIND,
+                            r.get(c.COST_KIND_ID),
+                            null,
+                            null,
+                            r.get(c.AMOUNT),
+                            null,
+                            null));
         }
     }
 
 
-    private Set<ReportGridCell> fetchSummaryMeasurableData(GenericSelector selector,
-                                                           Set<Long> measurableIdsUsingHighest,
-                                                           Set<Long> measurableIdsUsingLowest) {
+    private ColumnarReportGridCells fetchSummaryMeasurableData(GenericSelector selector,
+                                                               Set<Long> measurableIdsUsingHighest,
+                                                               Set<Long> measurableIdsUsingLowest) {
 
         if (measurableIdsUsingHighest.isEmpty() && measurableIdsUsingLowest.isEmpty()) {
-            return emptySet();
+            return ColumnarReportGridCells.empty();
         }
 
         Table<Record5<Long, String, Long, Integer, String>> ratingSchemeItems = DSL
@@ -1003,24 +1010,22 @@ public class ReportGridDao {
                         .and(mr.ENTITY_ID.in(selector.selector()))
                         .and(m.ID.in(union(measurableIdsUsingHighest, measurableIdsUsingLowest))));
 
-        return dsl
-                .resultQuery(dsl.renderInlined(ratings))
+        ColumnarReportGridCells.Builder cells = ColumnarReportGridCells.builder();
+
+        familyDsl
+                .resultQuery(familyDsl.renderInlined(ratings))
                 .fetchGroups(
                         r -> tuple(
-                                mkRef(selector.kind(), r.get(mr.ENTITY_ID)),
+                                r.get(mr.ENTITY_ID),
                                 r.get(m.ID)),
                         r -> tuple(
                                 r.get("rsiId", Long.class),
                                 r.get("rsiPos", Integer.class),
                                 r.get("rsiName", String.class)))
-                .entrySet()
-                .stream()
-                .map(e -> {
+                .forEach((entityAndMeasurable, ratingsForEntityAndMeasurable) -> {
 
-                    Tuple2<EntityReference, Long> entityAndMeasurable = e.getKey();
+                    long entityId = entityAndMeasurable.v1();
                     Long measurableId = entityAndMeasurable.v2();
-                    long entityId = entityAndMeasurable.v1().id();
-                    List<Tuple3<Long, Integer, String>> ratingsForEntityAndMeasurable = e.getValue();
 
                     ToIntFunction<Tuple3<Long, Integer, String>> compareByPositionAsc = t -> t.v2;
                     ToIntFunction<Tuple3<Long, Integer, String>> compareByPositionDesc = t -> t.v2 * -1;
@@ -1032,32 +1037,32 @@ public class ReportGridDao {
                                     : compareByPositionDesc)
                             .thenComparing(compareByName);
 
-                    return ratingsForEntityAndMeasurable
+                    ratingsForEntityAndMeasurable
                             .stream()
                             .min(cmp)
-                            .map(t -> ImmutableReportGridCell
-                                    .builder()
-                                    .subjectId(entityId)
-                                    .columnEntityId(measurableId)
-                                    .columnEntityKind(EntityKind.MEASURABLE)
-                                    .ratingId(t.v1)
-                                    .entityFieldReferenceId(null)
-                                    .build())
-                            .orElse(null);
-                })
-                .filter(Objects::nonNull)
-                .collect(toSet());
+                            .ifPresent(t -> cells.add(
+                                    entityId,
+                                    EntityKind.MEASURABLE,
+                                    measurableId,
+                                    null,
+                                    t.v1,
+                                    null,
+                                    null,
+                                    null));
+                });
+
+        return cells.build();
     }
 
 
-    private Set<ReportGridCell> fetchExactMeasurableData(GenericSelector selector,
-                                                         Set<Long> exactMeasurableIds) {
+    private ColumnarReportGridCells fetchExactMeasurableData(GenericSelector selector,
+                                                             Set<Long> exactMeasurableIds) {
 
         if (exactMeasurableIds.isEmpty()) {
-            return emptySet();
+            return ColumnarReportGridCells.empty();
         }
 
-        SelectConditionStep<Record4<Long, Long, Long, String>> qry = dsl
+        SelectConditionStep<Record4<Long, Long, Long, String>> qry = familyDsl
                 .select(mr.ENTITY_ID,
                         mr.MEASURABLE_ID,
                         rsi.ID,
@@ -1070,49 +1075,55 @@ public class ReportGridDao {
                 .and(mr.ENTITY_ID.in(selector.selector()))
                 .and(mr.ENTITY_KIND.eq(selector.kind().name()));
 
-        return  dsl
-                .resultQuery(dsl.renderInlined(qry))
-                .fetchSet(r -> ImmutableReportGridCell.builder()
-                        .subjectId(r.get(mr.ENTITY_ID))
-                        .columnEntityId(r.get(mr.MEASURABLE_ID))
-                        .columnEntityKind(EntityKind.MEASURABLE)
-                        .ratingId(r.get(rsi.ID))
-                        .comment(r.get(mr.DESCRIPTION))
-                        .entityFieldReferenceId(null)
-                        .build());
+        return collectCells(
+                familyDsl
+                    .resultQuery(familyDsl.renderInlined(qry))
+                    .fetchLazy(),
+                (cells, r) -> cells.add(
+                        r.get(mr.ENTITY_ID),
+                        EntityKind.MEASURABLE,
+                        r.get(mr.MEASURABLE_ID),
+                        null,
+                        r.get(rsi.ID),
+                        null,
+                        null,
+                        r.get(mr.DESCRIPTION)));
     }
 
 
-    private Set<ReportGridCell> fetchAssessmentData(GenericSelector selector,
-                                                    Set<Long> requiredAssessmentDefinitionIds) {
+    private ColumnarReportGridCells fetchAssessmentData(GenericSelector selector,
+                                                        Set<Long> requiredAssessmentDefinitionIds) {
         if (requiredAssessmentDefinitionIds.isEmpty()) {
-            return emptySet();
+            return ColumnarReportGridCells.empty();
         } else {
-            return dsl
-                    .select(ar.ENTITY_ID,
-                            ar.ASSESSMENT_DEFINITION_ID,
-                            ar.RATING_ID,
-                            ar.DESCRIPTION)
-                    .from(ar)
-                    .where(ar.ASSESSMENT_DEFINITION_ID.in(requiredAssessmentDefinitionIds)
-                            .and(ar.ENTITY_KIND.eq(selector.kind().name()))
-                            .and(ar.ENTITY_ID.in(selector.selector())))
-                    .fetchSet(r -> ImmutableReportGridCell.builder()
-                            .subjectId(r.get(ar.ENTITY_ID))
-                            .columnEntityId(r.get(ar.ASSESSMENT_DEFINITION_ID))
-                            .columnEntityKind(EntityKind.ASSESSMENT_DEFINITION)
-                            .ratingId(r.get(ar.RATING_ID))
-                            .comment(r.get(ar.DESCRIPTION))
-                            .entityFieldReferenceId(null)
-                            .build());
+            return collectCells(
+                    familyDsl
+                        .select(ar.ENTITY_ID,
+                                ar.ASSESSMENT_DEFINITION_ID,
+                                ar.RATING_ID,
+                                ar.DESCRIPTION)
+                        .from(ar)
+                        .where(ar.ASSESSMENT_DEFINITION_ID.in(requiredAssessmentDefinitionIds)
+                                .and(ar.ENTITY_KIND.eq(selector.kind().name()))
+                                .and(ar.ENTITY_ID.in(selector.selector())))
+                        .fetchLazy(),
+                    (cells, r) -> cells.add(
+                            r.get(ar.ENTITY_ID),
+                            EntityKind.ASSESSMENT_DEFINITION,
+                            r.get(ar.ASSESSMENT_DEFINITION_ID),
+                            null,
+                            r.get(ar.RATING_ID),
+                            null,
+                            null,
+                            r.get(ar.DESCRIPTION)));
         }
     }
 
 
-    private Set<ReportGridCell> fetchSurveyQuestionResponseData(GenericSelector selector,
-                                                                Set<Long> requiredSurveyQuestionIds) {
+    private ColumnarReportGridCells fetchSurveyQuestionResponseData(GenericSelector selector,
+                                                                    Set<Long> requiredSurveyQuestionIds) {
         if (requiredSurveyQuestionIds.isEmpty()) {
-            return emptySet();
+            return ColumnarReportGridCells.empty();
         } else {
 
             Field<Long> latestInstance = DSL
@@ -1122,7 +1133,7 @@ public class ReportGridDao {
                     .orderBy(SURVEY_INSTANCE.SUBMITTED_AT.desc().nullsLast())
                     .as("latest_instance");
 
-            Table<Record> responsesWithQuestionTypeAndEntity = dsl
+            Table<Record> responsesWithQuestionTypeAndEntity = familyDsl
                     .select(latestInstance)
                     .select(SURVEY_INSTANCE.ID.as("sid"),
                             SURVEY_INSTANCE.ENTITY_ID,
@@ -1151,7 +1162,7 @@ public class ReportGridDao {
                     .asTable();
 
 
-            Map<Tuple2<Long, Long>, List<String>> responsesByInstanceQuestionKey = dsl
+            Map<Tuple2<Long, Long>, List<String>> responsesByInstanceQuestionKey = familyDsl
                     .select(SURVEY_QUESTION_LIST_RESPONSE.SURVEY_INSTANCE_ID,
                             SURVEY_QUESTION_LIST_RESPONSE.QUESTION_ID,
                             SURVEY_QUESTION_LIST_RESPONSE.RESPONSE)
@@ -1164,14 +1175,15 @@ public class ReportGridDao {
                             k -> tuple(k.get(SURVEY_QUESTION_LIST_RESPONSE.SURVEY_INSTANCE_ID), k.get(SURVEY_QUESTION_LIST_RESPONSE.QUESTION_ID)),
                             v -> v.get(SURVEY_QUESTION_LIST_RESPONSE.RESPONSE));
 
-            SelectConditionStep<Record> qry = dsl
+            SelectConditionStep<Record> qry = familyDsl
                     .select(responsesWithQuestionTypeAndEntity.fields())
                     .from(responsesWithQuestionTypeAndEntity)
                     .where(responsesWithQuestionTypeAndEntity.field(latestInstance)
                             .eq(responsesWithQuestionTypeAndEntity.field("sid", Long.class)));
 
-            return qry
-                    .fetchSet(r -> {
+            return collectCells(
+                    qry.fetchLazy(),
+                    (cells, r) -> {
                         String fieldType = r.get(SURVEY_QUESTION.FIELD_TYPE);
 
                         Long instanceId = r.get("sid", Long.class);
@@ -1181,14 +1193,15 @@ public class ReportGridDao {
 
                         List<String> listResponses = responsesByInstanceQuestionKey.getOrDefault(tuple(instanceId, questionId), emptyList());
 
-                        return ImmutableReportGridCell.builder()
-                                .subjectId(r.get(SURVEY_INSTANCE.ENTITY_ID))
-                                .columnEntityId(questionId)
-                                .columnEntityKind(EntityKind.SURVEY_QUESTION)
-                                .text(determineDisplayText(fieldType, entityName, response, listResponses))
-                                .comment(r.get(SURVEY_QUESTION_RESPONSE.COMMENT))
-                                .entityFieldReferenceId(null)
-                                .build();
+                        cells.add(
+                                r.get(SURVEY_INSTANCE.ENTITY_ID),
+                                EntityKind.SURVEY_QUESTION,
+                                questionId,
+                                null,
+                                null,
+                                null,
+                                determineDisplayText(fieldType, entityName, response, listResponses),
+                                r.get(SURVEY_QUESTION_RESPONSE.COMMENT));
                     });
         }
     }
@@ -1224,12 +1237,27 @@ public class ReportGridDao {
                 .columnDefinitions(getColumnDefinitions(condition))
                 .subjectKind(EntityKind.valueOf(r.get(rg.SUBJECT_KIND)))
                 .kind(ReportGridKind.valueOf(r.get(rg.KIND)))
+                .materialized(r.get(rg.IS_MATERIALIZED))
                 .build();
     }
 
 
 
 
+    /**
+     * Reads the cursor row by row, letting the handler append cells to the builder,
+     * so no intermediate result or cell objects are created.  The cursor is closed once read.
+     */
+    private static <R extends Record> ColumnarReportGridCells collectCells(Cursor<R> cursor,
+                                                                         BiConsumer<ColumnarReportGridCells.Builder, R> rowHandler) {
+        ColumnarReportGridCells.Builder cells = ColumnarReportGridCells.builder();
+        try (Cursor<R> rows = cursor) {
+            rows.forEach(r -> rowHandler.accept(cells, r));
+        }
+        return cells.build();
+    }
+
+
     private UsageKind deriveUsage(Set<UsageKind> usageKinds) {
         if (usageKinds.contains(UsageKind.MODIFIER)) {
             return UsageKind.MODIFIER;
@@ -0,0 +1,251 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.data.report_grid;
+
+import org.finos.waltz.model.report_grid.ColumnarReportGridCells;
+import org.jooq.DSLContext;
+import org.jooq.conf.Settings;
+import org.jooq.lambda.tuple.Tuple3;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+import static org.finos.waltz.common.Checks.checkNotNull;
+import static org.finos.waltz.common.Checks.checkTrue;
+import static org.jooq.lambda.tuple.Tuple.tuple;
+
+/**
+ * Runs the independent column family queries which make up a report grid.
+ *
+ * In parallel mode each family is submitted to a small, dedicated, bounded
+ * pool (deliberately separate from the shared <code>DBExecutorPool</code>) and
+ * results are merged into the final cells as each family completes.
+ * Every family is subject to its own timeout, measured from when the family
+ * starts executing (so time spent queued behind other families does not count),
+ * and timings are logged per family.
+ *
+ * Interrupting a thread blocked in JDBC does not stop the statement, so the
+ * family queries should be issued via {@link #withQueryTimeout(DSLContext)}
+ * which lets the driver cancel statements which overrun.
+ *
+ * In serial mode the families are executed one after another on the calling
+ * thread, this mirrors the historical behaviour.
+ */
+public class ReportGridFetchExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReportGridFetchExecutor.class);
+
+    private final boolean parallel;
+    private final int familyTimeoutSeconds;
+    private final long familyTimeoutMillis;
+    private final ExecutorService executor;
+
+
+    public ReportGridFetchExecutor(boolean parallel,
+                                   int threads,
+                                   int familyTimeoutSeconds) {
+        checkTrue(threads > 0, "threads must be positive");
+        checkTrue(familyTimeoutSeconds > 0, "familyTimeoutSeconds must be positive");
+
+        this.parallel = parallel;
+        this.familyTimeoutSeconds = familyTimeoutSeconds;
+        this.familyTimeoutMillis = TimeUnit.SECONDS.toMillis(familyTimeoutSeconds);
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 16),
+                (runnable) -> {
+                    Thread t = new Thread(runnable, "Report Grid Fetch");
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+
+    /**
+     * Derives a context whose statements carry a jdbc query timeout equal to
+     * the family timeout.  Use it for the family queries so that a timed out
+     * family also releases its connection.
+     */
+    public DSLContext withQueryTimeout(DSLContext dsl) {
+        Settings settings = ((Settings) dsl.settings().clone())
+                .withQueryTimeout(familyTimeoutSeconds);
+
+        return dsl
+                .configuration()
+                .derive(settings)
+                .dsl();
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+        LOG.info("Shutting down report grid fetch pool");
+        executor.shutdownNow();
+    }
+
+
+    /**
+     * Executes all the given families and returns the combination of their results.
+     *
+     * @param context  description used when logging (e.g. the grid identifier)
+     * @param families  map of family name to the query which fetches that family
+     * @return the cells of all families
+     * @throws QueryTimeoutException if any family does not complete within the family timeout
+     */
+    public ColumnarReportGridCells fetchAll(String context,
+                                            Map<String, Supplier<ColumnarReportGridCells>> families) {
+        checkNotNull(families, "families cannot be null");
+
+        return parallel
+                ? fetchInParallel(context, families)
+                : fetchSerially(context, families);
+    }
+
+
+    // --- helpers ---
+
+    private ColumnarReportGridCells fetchSerially(String context,
+                                                  Map<String, Supplier<ColumnarReportGridCells>> families) {
+        ColumnarReportGridCells.Builder merged = ColumnarReportGridCells.builder();
+        families.forEach((name, fetcher) -> {
+            Tuple3<String, ColumnarReportGridCells, Long> result = timed(name, fetcher);
+            logTiming(context, result);
+            merged.addAll(result.v2);
+        });
+        return merged.build();
+    }
+
+
+    private ColumnarReportGridCells fetchInParallel(String context,
+                                                    Map<String, Supplier<ColumnarReportGridCells>> families) {
+        long start = System.currentTimeMillis();
+
+        CompletionService<Tuple3<String, ColumnarReportGridCells, Long>> completionService = new ExecutorCompletionService<>(executor);
+        Map<String, Future<Tuple3<String, ColumnarReportGridCells, Long>>> outstanding = new HashMap<>();
+        Map<String, Long> startedAt = new ConcurrentHashMap<>();
+
+        families.forEach((name, fetcher) -> outstanding.put(
+                name,
+                completionService.submit(() -> {
+                    startedAt.put(name, System.currentTimeMillis());
+                    return timed(name, fetcher);
+                })));
+
+        ColumnarReportGridCells.Builder merged = ColumnarReportGridCells.builder();
+
+        try {
+            while (! outstanding.isEmpty()) {
+                long now = System.currentTimeMillis();
+
+                // families still queued have not started their clock, re-check once the earliest started family is due
+                long nextDeadline = outstanding
+                        .keySet()
+                        .stream()
+                        .mapToLong(name -> startedAt.getOrDefault(name, now) + familyTimeoutMillis)
+                        .min()
+                        .orElse(now);
+
+                if (nextDeadline <= now) {
+                    throw new QueryTimeoutException(format(
+                            "Report grid [%s] families: %s did not complete within %dms",
+                            context,
+                            overdue(outstanding.keySet(), startedAt, now),
+                            familyTimeoutMillis));
+                }
+
+                Future<Tuple3<String, ColumnarReportGridCells, Long>> completed = completionService.poll(
+                        nextDeadline - now,
+                        TimeUnit.MILLISECONDS);
+
+                if (completed != null) {
+                    Tuple3<String, ColumnarReportGridCells, Long> result = completed.get();
+                    outstanding.remove(result.v1);
+                    logTiming(context, result);
+                    merged.addAll(result.v2);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(format("Interrupted whilst fetching report grid [%s]", context), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException
+                    ? (RuntimeException) cause
+                    : new IllegalStateException(format("Failed to fetch report grid [%s]", context), cause);
+        } finally {
+            outstanding.values().forEach(f -> f.cancel(true));
+        }
+
+        LOG.debug(
+                "Report grid [{}]: fetched {} families in {}ms",
+                context,
+                families.size(),
+                System.currentTimeMillis() - start);
+
+        return merged.build();
+    }
+
+
+    private Set<String> overdue(Set<String> outstanding,
+                                Map<String, Long> startedAt,
+                                long now) {
+        return outstanding
+                .stream()
+                .filter(name -> startedAt.containsKey(name) && startedAt.get(name) + familyTimeoutMillis <= now)
+                .collect(Collectors.toSet());
+    }
+
+
+    private static Tuple3<String, ColumnarReportGridCells, Long> timed(String name,
+                                                                       Supplier<ColumnarReportGridCells> fetcher) {
+        long st = System.currentTimeMillis();
+        ColumnarReportGridCells result = fetcher.get();
+        return tuple(name, result, System.currentTimeMillis() - st);
+    }
+
+
+    private static void logTiming(String context,
+                                  Tuple3<String, ColumnarReportGridCells, Long> result) {
+        LOG.debug(
+                "Report grid [{}]: family [{}] returned {} cells in {}ms",
+                context,
+                result.v1,
+                result.v2.size(),
+                result.v3);
+    }
+
+}
@@ -22,10 +22,12 @@ import org.finos.waltz.common.CollectionUtilities;
 import org.finos.waltz.data.InlineSelectFieldFactory;
 import org.finos.waltz.model.EntityKind;
 import org.finos.waltz.model.survey.*;
+import org.finos.waltz.schema.tables.records.SurveyInstanceOwnerRecord;
 import org.finos.waltz.schema.tables.records.SurveyInstanceRecipientRecord;
 import org.finos.waltz.schema.tables.records.SurveyInstanceRecord;
 import org.jooq.*;
 import org.jooq.impl.DSL;
+import org.jooq.lambda.tuple.Tuple2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
@@ -42,6 +44,7 @@ import static org.finos.waltz.common.ListUtilities.newArrayList;
 import static org.finos.waltz.data.JooqUtilities.maybeReadRef;
 import static org.finos.waltz.model.EntityReference.mkRef;
 import static org.finos.waltz.schema.Tables.*;
+import static org.jooq.lambda.tuple.Tuple.tuple;
 
 @Repository
 public class SurveyInstanceDao {
@@ -155,6 +158,116 @@ public class SurveyInstanceDao {
     }
 
 
+    /**
+     * Creates the given instances, along with their recipients and owners, in a
+     * single transaction using batched inserts.
+     * <p>
+     * Generated instance ids are matched back to the issuances by entity, ignoring
+     * any instances the run already had for those entities (e.g. written by an
+     * earlier chunk of the same issuance).  Callers may therefore split the
+     * instances for an entity across several calls.
+     *
+     * @param surveyRunId  run the instances belong to
+     * @param issuances  instances to create, along with their recipients and owners
+     * @return number of instances created
+     */
+    public int createInstancesRecipientsAndOwners(long surveyRunId,
+                                                  Collection<SurveyInstanceIssuance> issuances) {
+        checkNotNull(issuances, "issuances cannot be null");
+
+        if (issuances.isEmpty()) {
+            return 0;
+        }
+
+        return dsl.transactionResult(configuration -> {
+            DSLContext txDsl = DSL.using(configuration);
+
+            Map<Tuple2<EntityKind, Long>, List<SurveyInstanceIssuance>> issuancesByEntity = issuances
+                    .stream()
+                    .collect(Collectors.groupingBy(
+                            issuance -> tuple(issuance.surveyInstance().surveyEntity().kind(), issuance.surveyInstance().surveyEntity().id()),
+                            LinkedHashMap::new,
+                            Collectors.toList()));
+
+            Set<Long> existingInstanceIds = findOriginalInstanceIdsByEntity(
+                    txDsl,
+                    surveyRunId,
+                    issuancesByEntity.keySet())
+                    .values()
+                    .stream()
+                    .flatMap(Collection::stream)
+                    .collect(Collectors.toSet());
+
+            List<SurveyInstanceRecord> instanceRecords = issuances
+                    .stream()
+                    .map(issuance -> {
+                        SurveyInstance instance = issuance.surveyInstance();
+                        SurveyInstanceRecord record = txDsl.newRecord(si);
+                        record.setSurveyRunId(surveyRunId);
+                        record.setEntityKind(instance.surveyEntity().kind().name());
+                        record.setEntityId(instance.surveyEntity().id());
+                        record.setStatus(instance.status().name());
+                        record.setDueDate(toSqlDate(instance.dueDate()));
+                        record.setApprovalDueDate(toSqlDate(instance.approvalDueDate()));
+                        record.setOwningRole(instance.owningRole());
+                        return record;
+                    })
+                    .collect(Collectors.toList());
+
+            txDsl.batchInsert(instanceRecords).execute();
+
+            Map<Tuple2<EntityKind, Long>, List<Long>> instanceIdsByEntity = findOriginalInstanceIdsByEntity(
+                    txDsl,
+                    surveyRunId,
+                    issuancesByEntity.keySet());
+
+            List<SurveyInstanceRecipientRecord> recipientRecords = new ArrayList<>();
+            List<SurveyInstanceOwnerRecord> ownerRecords = new ArrayList<>();
+
+            issuancesByEntity.forEach((entity, entityIssuances) -> {
+                List<Long> instanceIds = instanceIdsByEntity
+                        .getOrDefault(entity, Collections.emptyList())
+                        .stream()
+                        .filter(id -> !existingInstanceIds.contains(id))
+                        .collect(Collectors.toList());
+                if (instanceIds.size() != entityIssuances.size()) {
+                    throw new IllegalStateException(String.format(
+                            "Expected %d new survey instances for %s in run: %d, but found %d",
+                            entityIssuances.size(),
+                            entity,
+                            surveyRunId,
+                            instanceIds.size()));
+                }
+
+                // the instances for an entity are identical, so any pairing of ids to issuances is correct
+                for (int i = 0; i < instanceIds.size(); i++) {
+                    Long instanceId = instanceIds.get(i);
+                    SurveyInstanceIssuance issuance = entityIssuances.get(i);
+
+                    issuance.recipientPersonIds().forEach(personId -> {
+                        SurveyInstanceRecipientRecord record = txDsl.newRecord(SURVEY_INSTANCE_RECIPIENT);
+                        record.setSurveyInstanceId(instanceId);
+                        record.setPersonId(personId);
+                        recipientRecords.add(record);
+                    });
+
+                    issuance.ownerPersonIds().forEach(personId -> {
+                        SurveyInstanceOwnerRecord record = txDsl.newRecord(SURVEY_INSTANCE_OWNER);
+                        record.setSurveyInstanceId(instanceId);
+                        record.setPersonId(personId);
+                        ownerRecords.add(record);
+                    });
+                }
+            });
+
+            txDsl.batchInsert(recipientRecords).execute();
+            txDsl.batchInsert(ownerRecords).execute();
+
+            return instanceRecords.size();
+        });
+    }
+
+
     public long createPreviousVersion(SurveyInstance currentInstance) {
         checkNotNull(currentInstance, "currentInstance cannot be null");
 
@@ -413,4 +526,32 @@ public class SurveyInstanceDao {
                 .and(IS_ORIGINAL_INSTANCE_CONDITION)
                 .fetchSet(TO_DOMAIN_MAPPER);
     }
+
+
+    private static Map<Tuple2<EntityKind, Long>, List<Long>> findOriginalInstanceIdsByEntity(DSLContext txDsl,
+                                                                                          long surveyRunId,
+                                                                                          Set<Tuple2<EntityKind, Long>> entities) {
+        Condition entityCondition = entities
+                .stream()
+                .collect(Collectors.groupingBy(
+                        Tuple2::v1,
+                        Collectors.mapping(Tuple2::v2, Collectors.toSet())))
+                .entrySet()
+                .stream()
+                .map(e -> si.ENTITY_KIND.eq(e.getKey().name()).and(si.ENTITY_ID.in(e.getValue())))
+                .reduce(DSL.falseCondition(), Condition::or);
+
+        return txDsl
+                .select(si.ID, si.ENTITY_KIND, si.ENTITY_ID)
+                .from(si)
+                .where(si.SURVEY_RUN_ID.eq(surveyRunId))
+                .and(IS_ORIGINAL_INSTANCE_CONDITION)
+                .and(entityCondition)
+                .orderBy(si.ID)
+                .fetch()
+                .stream()
+                .collect(Collectors.groupingBy(
+                        r -> tuple(EntityKind.valueOf(r.get(si.ENTITY_KIND)), r.get(si.ENTITY_ID)),
+                        Collectors.mapping(r -> r.get(si.ID), Collectors.toList())));
+    }
 }
@@ -28,8 +28,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.finos.waltz.schema.tables.UserAgentInfo.USER_AGENT_INFO;
 import static org.finos.waltz.common.Checks.checkNotNull;
@@ -82,6 +85,16 @@ public class UserAgentInfoDao {
     }
 
 
+    public int saveAll(Collection<UserAgentInfo> userAgentInfos) {
+        checkNotNull(userAgentInfos, "userAgentInfos cannot be null");
+        List<UserAgentInfoRecord> records = userAgentInfos
+                .stream()
+                .map(TO_RECORD_MAPPER)
+                .collect(Collectors.toList());
+        return IntStream.of(dsl.batchInsert(records).execute()).sum();
+    }
+
+
     public List<UserAgentInfo> findLoginsForUser(String userName, int limit) {
         return dsl.select(uai.fields())
                 .from(uai)
@@ -6,6 +6,10 @@ import liquibase.integration.spring.SpringLiquibase;
 import org.finos.waltz.common.ExcludeFromIntegrationTesting;
 import org.finos.waltz.data.DBExecutorPool;
 import org.finos.waltz.data.DBExecutorPoolInterface;
+import org.finos.waltz.data.SearchExecutor;
+import org.finos.waltz.data.report_grid.ReportGridFetchExecutor;
+import org.finos.waltz.service.sql_stats.SqlStatisticsListener;
+import org.finos.waltz.service.sql_stats.SqlStatisticsRegistry;
 import org.jooq.DSLContext;
 import org.jooq.SQLDialect;
 import org.jooq.conf.RenderQuotedNames;
@@ -35,6 +39,24 @@ public class DIInMemoryTestConfiguration {
     }
 
 
+    @Bean
+    public SearchExecutor searchExecutor() {
+        return new SearchExecutor(2, 60_000);
+    }
+
+
+    @Bean
+    public ReportGridFetchExecutor reportGridFetchExecutor() {
+        return new ReportGridFetchExecutor(true, 2, 60);
+    }
+
+
+    @Bean
+    public SqlStatisticsRegistry sqlStatisticsRegistry() {
+        return new SqlStatisticsRegistry(500);
+    }
+
+
 
     @Bean
     public DataSource dataSource() {
@@ -52,7 +74,9 @@ public class DIInMemoryTestConfiguration {
 
     @Bean
     @Autowired
-    public DSLContext dsl(DataSource dataSource) {
+    public DSLContext dsl(DataSource dataSource,
+                          SqlStatisticsRegistry sqlStatisticsRegistry,
+                          SearchExecutor searchExecutor) {
         Settings dslSettings = new Settings()
                 .withRenderFormatted(true)
                 .withDebugInfoOnStackTrace(true)
@@ -62,7 +86,9 @@ public class DIInMemoryTestConfiguration {
         org.jooq.Configuration configuration = new DefaultConfiguration()
                 .set(dataSource)
                 .set(dslSettings)
-                .set(SQLDialect.H2);
+                .set(SQLDialect.H2)
+                .set(new SqlStatisticsListener(sqlStatisticsRegistry, true),
+                        searchExecutor.mkQueryTimeoutListener());
 
         return DSL.using(configuration);
     }
@@ -0,0 +1,81 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.integration_test.inmem.dao;
+
+import org.finos.waltz.data.EntityReferenceCache;
+import org.finos.waltz.integration_test.inmem.BaseInMemoryIntegrationTest;
+import org.finos.waltz.integration_test.inmem.helpers.AppHelper;
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.EntityReference;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Map;
+
+import static org.finos.waltz.common.ListUtilities.asList;
+import static org.finos.waltz.integration_test.inmem.helpers.NameHelper.mkName;
+import static org.finos.waltz.model.EntityReference.mkRef;
+import static org.finos.waltz.schema.tables.Application.APPLICATION;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityReferenceCacheTest extends BaseInMemoryIntegrationTest {
+
+    @Autowired
+    private EntityReferenceCache cache;
+
+    @Autowired
+    private AppHelper appHelper;
+
+    @Autowired
+    private DSLContext dsl;
+
+
+    @Test
+    public void resolvesNamesOfExistingEntities() {
+        String name = mkName("resolvesNamesOfExistingEntities");
+        EntityReference app = appHelper.createNewApp(name, ouIds.a);
+        EntityReference missing = mkRef(EntityKind.APPLICATION, -1L);
+
+        Map<EntityReference, EntityReference> resolved = cache.resolve(asList(app, missing));
+
+        assertEquals(1, resolved.size(), "missing entities should not be resolved");
+        EntityReference resolvedApp = resolved.get(mkRef(EntityKind.APPLICATION, app.id()));
+        assertEquals(name, resolvedApp.name().orElse(null));
+    }
+
+
+    @Test
+    public void entriesAreRetainedUntilInvalidated() {
+        EntityReference app = appHelper.createNewApp(mkName("entriesAreRetainedUntilInvalidated"), ouIds.a);
+        String originalName = cache.resolve(app).flatMap(EntityReference::name).orElse(null);
+
+        String updatedName = mkName("renamed");
+        dsl.update(APPLICATION)
+                .set(APPLICATION.NAME, updatedName)
+                .where(APPLICATION.ID.eq(app.id()))
+                .execute();
+
+        assertEquals(originalName, cache.resolve(app).flatMap(EntityReference::name).orElse(null));
+
+        cache.invalidate(EntityKind.APPLICATION, app.id());
+        assertEquals(updatedName, cache.resolve(app).flatMap(EntityReference::name).orElse(null));
+    }
+
+}
@@ -28,6 +28,7 @@ import org.finos.waltz.model.EntityReference;
 import org.finos.waltz.model.logical_flow.LogicalFlow;
 import org.finos.waltz.schema.Tables;
 import org.finos.waltz.service.attestation.AttestationPreCheckService;
+import org.finos.waltz.service.settings.SettingsService;
 import org.jooq.DSLContext;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -35,10 +36,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.List;
 
+import static java.util.Collections.singletonList;
 import static org.finos.waltz.common.SetUtilities.asSet;
 import static org.finos.waltz.integration_test.inmem.helpers.NameHelper.mkName;
 import static org.finos.waltz.schema.tables.ApplicationGroup.APPLICATION_GROUP;
 import static org.finos.waltz.schema.tables.DataType.DATA_TYPE;
+import static org.finos.waltz.schema.tables.Settings.SETTINGS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -59,6 +63,9 @@ public class AttestationPreCheckServiceTest extends BaseInMemoryIntegrationTest
     @Autowired
     private AppGroupHelper appGroupHelper;
 
+    @Autowired
+    private SettingsService settingsService;
+
 
     @Test
     public void notAllowedToAttestAttestIfNoFlows() {
@@ -156,6 +163,42 @@ public class AttestationPreCheckServiceTest extends BaseInMemoryIntegrationTest
     }
 
 
+    @Test
+    public void failureMessagesFollowChangesToTheTemplateSettings() {
+        EntityReference appRef = mkNewAppRef();
+        String countTemplateKey = "attestation.logical-flow.fail.count";
+
+        assertEquals(
+                singletonList("Cannot attest as there are no recorded relevant flows"),
+                aipcSvc.calcLogicalFlowPreCheckFailures(appRef),
+                "default message used when no template is configured");
+
+        try {
+            dsl.insertInto(SETTINGS)
+                    .set(SETTINGS.NAME, countTemplateKey)
+                    .set(SETTINGS.VALUE, "No flows recorded (%d)")
+                    .set(SETTINGS.RESTRICTED, false)
+                    .execute();
+            settingsService.refresh();
+
+            assertEquals(
+                    singletonList("No flows recorded (0)"),
+                    aipcSvc.calcLogicalFlowPreCheckFailures(appRef),
+                    "configured template should be picked up once the settings are refreshed");
+        } finally {
+            dsl.deleteFrom(SETTINGS)
+                    .where(SETTINGS.NAME.eq(countTemplateKey))
+                    .execute();
+            settingsService.refresh();
+        }
+
+        assertEquals(
+                singletonList("Cannot attest as there are no recorded relevant flows"),
+                aipcSvc.calcLogicalFlowPreCheckFailures(appRef),
+                "default message used again once the template is removed");
+    }
+
+
     private void createGroupWithApps(String extId, EntityReference appRef) throws InsufficientPrivelegeException {
         Long groupId = appGroupHelper.createAppGroupWithAppRefs(mkName(extId), asSet(appRef));
 
@@ -0,0 +1,180 @@
+package org.finos.waltz.integration_test.inmem.service;
+
+import org.finos.waltz.common.SetUtilities;
+import org.finos.waltz.data.ImmutableGenericSelector;
+import org.finos.waltz.integration_test.inmem.BaseInMemoryIntegrationTest;
+import org.finos.waltz.integration_test.inmem.helpers.AppHelper;
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.EntityReference;
+import org.finos.waltz.schema.tables.AssessmentDefinition;
+import org.finos.waltz.schema.tables.AssessmentRating;
+import org.finos.waltz.schema.tables.RatingScheme;
+import org.finos.waltz.schema.tables.RatingSchemeItem;
+import org.finos.waltz.schema.tables.records.AssessmentDefinitionRecord;
+import org.finos.waltz.schema.tables.records.AssessmentRatingRecord;
+import org.finos.waltz.schema.tables.records.RatingSchemeItemRecord;
+import org.finos.waltz.schema.tables.records.RatingSchemeRecord;
+import org.finos.waltz.service.workflow.*;
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Set;
+
+import static java.lang.String.format;
+import static org.finos.waltz.common.ListUtilities.asList;
+import static org.finos.waltz.integration_test.inmem.helpers.NameHelper.mkName;
+import static org.finos.waltz.schema.tables.Application.APPLICATION;
+import static org.finos.waltz.service.workflow.ContextVariableReference.mkVarRef;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+
+public class BulkWorkflowEvaluatorTest extends BaseInMemoryIntegrationTest {
+
+    private static final AssessmentRating ar = AssessmentRating.ASSESSMENT_RATING;
+    private static final RatingScheme rs = RatingScheme.RATING_SCHEME;
+    private static final RatingSchemeItem rsi = RatingSchemeItem.RATING_SCHEME_ITEM;
+    private static final AssessmentDefinition ad = AssessmentDefinition.ASSESSMENT_DEFINITION;
+
+    @Autowired
+    private BulkWorkflowEvaluator evaluator;
+
+    @Autowired
+    private AppHelper appHelper;
+
+    @Autowired
+    private DSLContext dsl;
+
+
+    @Test
+    public void firstMatchingTransitionFiresAndOnlyChangesAreWritten() {
+        EntityReference a1 = appHelper.createNewApp(mkName("a1"), ouIds.a);
+        EntityReference a2 = appHelper.createNewApp(mkName("a2"), ouIds.a);
+        EntityReference a3 = appHelper.createNewApp(mkName("a3"), ouIds.a);
+
+        RatingSchemeRecord scheme = dsl.newRecord(rs);
+        scheme.setName(mkName("scheme"));
+        scheme.setDescription("desc");
+        scheme.store();
+
+        RatingSchemeItemRecord x = mkRatingItem(scheme, "x", "X");
+        RatingSchemeItemRecord y = mkRatingItem(scheme, "y", "Y");
+        RatingSchemeItemRecord yes = mkRatingItem(scheme, "yes", "T");
+        RatingSchemeItemRecord no = mkRatingItem(scheme, "no", "F");
+
+        AssessmentDefinitionRecord sourceDef = mkAssessmentDef("source", scheme);
+        AssessmentDefinitionRecord targetDef = mkAssessmentDef("target", scheme);
+
+        mkRating(a1, sourceDef, x);
+        mkRating(a2, sourceDef, y);
+        mkRating(a2, targetDef, no);
+
+        List<TransitionDefinition> transitions = asList(
+                mkTransition("approve", "src != null && src.ratingCode == 'X'", targetDef, yes),
+                mkTransition("reject", "src != null", targetDef, no));
+
+        Set<ContextVariableDeclaration> declarations = SetUtilities.asSet(ImmutableContextVariableDeclaration
+                .builder()
+                .name("src")
+                .ref(mkVarRef(EntityKind.ASSESSMENT_DEFINITION, sourceDef.getExternalId()))
+                .build());
+
+        ImmutableGenericSelector selector = ImmutableGenericSelector.builder()
+                .kind(EntityKind.APPLICATION)
+                .selector(DSL
+                        .select(APPLICATION.ID)
+                        .from(APPLICATION)
+                        .where(APPLICATION.ID.in(a1.id(), a2.id(), a3.id())))
+                .build();
+
+        BulkEvaluationResult dryRun = evaluator.evaluate(transitions, declarations, selector, "admin", true);
+        assertEquals(1, dryRun.addedCount(), "dry run should report the change");
+        assertNull(findRatingId(a1, targetDef), "dry run should not write the change");
+
+        BulkEvaluationResult result = evaluator.evaluate(transitions, declarations, selector, "admin", false);
+        assertEquals(3, result.evaluatedCount());
+        assertEquals(2, result.matchedCount(), "a3 has no source rating so should not match");
+        assertEquals(0, result.errorCount());
+        assertEquals(2, result.sideEffectCount());
+        assertEquals(1, result.addedCount(), "a1 should gain a target rating");
+        assertEquals(0, result.updatedCount(), "a2 already has the target rating of the fired transition");
+        assertEquals(yes.getId(), findRatingId(a1, targetDef));
+        assertEquals(no.getId(), findRatingId(a2, targetDef));
+
+        BulkEvaluationResult rerun = evaluator.evaluate(transitions, declarations, selector, "admin", false);
+        assertEquals(0, rerun.changedCount(), "re-evaluating should not produce further changes");
+    }
+
+
+    private TransitionDefinition mkTransition(String name,
+                                              String predicate,
+                                              AssessmentDefinitionRecord def,
+                                              RatingSchemeItemRecord rating) {
+        return ImmutableTransitionDefinition
+                .builder()
+                .name(name)
+                .predicate(predicate)
+                .initialState("IN_PROGRESS")
+                .targetState("COMPLETED")
+                .addSideEffects(format("assessment:update('%s', '%s')", def.getExternalId(), rating.getExternalId()))
+                .build();
+    }
+
+
+    private Long findRatingId(EntityReference ref, AssessmentDefinitionRecord def) {
+        return dsl
+                .select(ar.RATING_ID)
+                .from(ar)
+                .where(ar.ENTITY_KIND.eq(ref.kind().name()))
+                .and(ar.ENTITY_ID.eq(ref.id()))
+                .and(ar.ASSESSMENT_DEFINITION_ID.eq(def.getId()))
+                .fetchOne(ar.RATING_ID);
+    }
+
+
+    private RatingSchemeItemRecord mkRatingItem(RatingSchemeRecord scheme,
+                                                String name,
+                                                String code) {
+        RatingSchemeItemRecord rating = dsl.newRecord(rsi);
+        rating.setName(mkName(name));
+        rating.setSchemeId(scheme.getId());
+        rating.setCode(code);
+        rating.setExternalId(mkName(name, "extId"));
+        rating.setDescription("Desc: " + name + " / " + code);
+        rating.setColor("red");
+        rating.store();
+        return rating;
+    }
+
+
+    private AssessmentDefinitionRecord mkAssessmentDef(String defName,
+                                                       RatingSchemeRecord scheme) {
+        AssessmentDefinitionRecord def = dsl.newRecord(ad);
+        def.setName(mkName(defName));
+        def.setRatingSchemeId(scheme.getId());
+        def.setEntityKind(EntityKind.APPLICATION.name());
+        def.setLastUpdatedBy("admin");
+        def.setProvenance("waltz");
+        def.setExternalId(mkName(defName, "extId"));
+        def.store();
+        return def;
+    }
+
+
+    private void mkRating(EntityReference appRef,
+                          AssessmentDefinitionRecord defRecord,
+                          RatingSchemeItemRecord ratingRecord) {
+        AssessmentRatingRecord record = dsl.newRecord(ar);
+        record.setEntityKind(appRef.kind().name());
+        record.setEntityId(appRef.id());
+        record.setAssessmentDefinitionId(defRecord.getId());
+        record.setRatingId(ratingRecord.getId());
+        record.setLastUpdatedBy("admin");
+        record.setProvenance("prov");
+        record.store();
+    }
+
+}
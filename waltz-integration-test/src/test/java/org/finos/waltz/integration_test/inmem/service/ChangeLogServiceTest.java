@@ -0,0 +1,105 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.integration_test.inmem.service;
+
+import org.finos.waltz.integration_test.inmem.BaseInMemoryIntegrationTest;
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.EntityReference;
+import org.finos.waltz.model.Operation;
+import org.finos.waltz.model.changelog.ChangeLog;
+import org.finos.waltz.model.changelog.ImmutableChangeLog;
+import org.finos.waltz.service.changelog.ChangeLogService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Optional;
+
+import static org.finos.waltz.model.EntityReference.mkRef;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class ChangeLogServiceTest extends BaseInMemoryIntegrationTest {
+
+    @Autowired
+    private ChangeLogService svc;
+
+
+    @Test
+    public void batchedEntriesAreWrittenWhenTheBatchCompletes() {
+        EntityReference ref = mkRef(EntityKind.APPLICATION, counter.incrementAndGet());
+
+        svc.batched(() -> {
+            svc.write(mkChangeLog(ref, "one"));
+            svc.write(mkChangeLog(ref, "two"));
+            assertEquals(0, countFor(ref), "nothing is written until the batch completes");
+            return null;
+        });
+
+        assertEquals(2, countFor(ref));
+    }
+
+
+    @Test
+    public void duplicateEntriesWithinABatchAreOnlyWrittenOnce() {
+        EntityReference ref = mkRef(EntityKind.APPLICATION, counter.incrementAndGet());
+
+        svc.batched(() -> svc.write(mkChangeLog(ref, "dupe")));
+        assertEquals(1, countFor(ref));
+
+        svc.batched(() -> {
+            svc.write(mkChangeLog(ref, "dupe"));
+            svc.write(mkChangeLog(ref, "dupe"));
+            return svc.batched(() -> svc.write(mkChangeLog(ref, "dupe")));
+        });
+
+        assertEquals(2, countFor(ref), "one entry from each batch");
+    }
+
+
+    @Test
+    public void batchedEntriesAreWrittenEvenIfTheWorkFails() {
+        EntityReference ref = mkRef(EntityKind.APPLICATION, counter.incrementAndGet());
+
+        assertThrows(IllegalStateException.class, () -> svc.batched(() -> {
+            svc.write(mkChangeLog(ref, "before failure"));
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(1, countFor(ref));
+    }
+
+
+    // -- helpers --
+
+    private ChangeLog mkChangeLog(EntityReference ref, String message) {
+        return ImmutableChangeLog.builder()
+                .parentReference(ref)
+                .message(message)
+                .userId("test")
+                .operation(Operation.UPDATE)
+                .build();
+    }
+
+
+    private int countFor(EntityReference ref) {
+        return svc.findByParentReference(ref, Optional.empty(), Optional.empty()).size();
+    }
+
+}
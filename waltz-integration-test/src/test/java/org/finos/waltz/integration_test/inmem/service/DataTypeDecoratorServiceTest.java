@@ -110,10 +110,15 @@ public class DataTypeDecoratorServiceTest extends BaseInMemoryIntegrationTest {
         assertEquals(asSet(dtId, dtId2, dtId3), map(multipleDecorators, DataTypeDecorator::dataTypeId),
                 "Returns all decorators for the flow");
 
-        assertThrows(
-                UnsupportedOperationException.class,
-                () -> dtdSvc.findByFlowIds(asSet(dtId), EntityKind.PHYSICAL_SPECIFICATION),
-                "Find by flow ids is only supported for logical flows");
+        Long psId = psHelper.createPhysicalSpec(a, "findByFlowIds");
+        EntityReference specRef = mkRef(EntityKind.PHYSICAL_SPECIFICATION, psId);
+        assertEquals(emptyList(), dtdSvc.findByFlowIds(asList(psId), EntityKind.PHYSICAL_SPECIFICATION),
+                "spec has no decorators");
+
+        dtdSvc.updateDecorators(username, specRef, asSet(dtId, dtId2), emptySet());
+        Collection<DataTypeDecorator> specDecorators = dtdSvc.findByFlowIds(asList(psId), EntityKind.PHYSICAL_SPECIFICATION);
+        assertEquals(asSet(dtId, dtId2), map(specDecorators, DataTypeDecorator::dataTypeId),
+                "Returns all decorators for the spec");
     }
 
 
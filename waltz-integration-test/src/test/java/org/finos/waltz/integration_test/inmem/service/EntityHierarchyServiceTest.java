@@ -0,0 +1,91 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.integration_test.inmem.service;
+
+import org.finos.waltz.integration_test.inmem.BaseInMemoryIntegrationTest;
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.service.entity_hierarchy.EntityHierarchyService;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Map;
+
+import static org.finos.waltz.common.MapUtilities.newHashMap;
+import static org.finos.waltz.schema.Tables.ENTITY_HIERARCHY;
+import static org.finos.waltz.schema.Tables.ORGANISATIONAL_UNIT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EntityHierarchyServiceTest extends BaseInMemoryIntegrationTest {
+
+    @Autowired
+    private EntityHierarchyService svc;
+
+    @Autowired
+    private DSLContext dsl;
+
+
+    @Test
+    public void rebuildingAnUnchangedHierarchyWritesNothing() {
+        assertEquals(0, svc.buildFor(EntityKind.ORG_UNIT));
+    }
+
+
+    @Test
+    public void rebuildAfterReparentOnlyTouchesAffectedRows() {
+        dsl.update(ORGANISATIONAL_UNIT)
+                .set(ORGANISATIONAL_UNIT.PARENT_ID, ouIds.b)
+                .where(ORGANISATIONAL_UNIT.ID.eq(ouIds.a1))
+                .execute();
+
+        // a1 loses 'a' as an ancestor and gains 'b', all other rows are unaffected
+        assertEquals(2, svc.buildFor(EntityKind.ORG_UNIT));
+
+        assertEquals(
+                newHashMap(ouIds.root, 1, ouIds.b, 2, ouIds.a1, 3),
+                findAncestorLevels(ouIds.a1));
+    }
+
+
+    @Test
+    public void staleRowsAreRemoved() {
+        dsl.insertInto(ENTITY_HIERARCHY)
+                .set(ENTITY_HIERARCHY.KIND, EntityKind.ORG_UNIT.name())
+                .set(ENTITY_HIERARCHY.ID, ouIds.b)
+                .set(ENTITY_HIERARCHY.ANCESTOR_ID, ouIds.a)
+                .set(ENTITY_HIERARCHY.LEVEL, 2)
+                .set(ENTITY_HIERARCHY.DESCENDANT_LEVEL, 2)
+                .execute();
+
+        assertEquals(1, svc.buildFor(EntityKind.ORG_UNIT));
+        assertEquals(
+                newHashMap(ouIds.root, 1, ouIds.b, 2),
+                findAncestorLevels(ouIds.b));
+    }
+
+
+    private Map<Long, Integer> findAncestorLevels(long id) {
+        return dsl
+                .select(ENTITY_HIERARCHY.ANCESTOR_ID, ENTITY_HIERARCHY.LEVEL)
+                .from(ENTITY_HIERARCHY)
+                .where(ENTITY_HIERARCHY.KIND.eq(EntityKind.ORG_UNIT.name()))
+                .and(ENTITY_HIERARCHY.ID.eq(id))
+                .fetchMap(ENTITY_HIERARCHY.ANCESTOR_ID, ENTITY_HIERARCHY.LEVEL);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.integration_test.inmem.service;
+
+import org.finos.waltz.data.flow_classification_rule.FlowClassificationRuleDao;
+import org.finos.waltz.integration_test.inmem.BaseInMemoryIntegrationTest;
+import org.finos.waltz.integration_test.inmem.helpers.AppHelper;
+import org.finos.waltz.integration_test.inmem.helpers.DataTypeHelper;
+import org.finos.waltz.integration_test.inmem.helpers.LogicalFlowHelper;
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.EntityReference;
+import org.finos.waltz.model.datatype.DataTypeDecorator;
+import org.finos.waltz.model.flow_classification_rule.FlowClassificationRule;
+import org.finos.waltz.model.flow_classification_rule.ImmutableFlowClassificationRuleCreateCommand;
+import org.finos.waltz.model.logical_flow.LogicalFlow;
+import org.finos.waltz.model.rating.AuthoritativenessRatingValue;
+import org.finos.waltz.schema.tables.records.FlowClassificationRecord;
+import org.finos.waltz.service.flow_classification_rule.FlowClassificationRatingRecalculator;
+import org.finos.waltz.service.flow_classification_rule.FlowClassificationRuleResolverCache;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Optional;
+
+import static org.finos.waltz.common.CollectionUtilities.first;
+import static org.finos.waltz.common.SetUtilities.asSet;
+import static org.finos.waltz.integration_test.inmem.helpers.NameHelper.mkName;
+import static org.finos.waltz.schema.Tables.FLOW_CLASSIFICATION;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FlowClassificationRatingRecalculatorTest extends BaseInMemoryIntegrationTest {
+
+    @Autowired
+    private DSLContext dsl;
+
+    @Autowired
+    private FlowClassificationRatingRecalculator recalculator;
+
+    @Autowired
+    private FlowClassificationRuleResolverCache resolverCache;
+
+    @Autowired
+    private FlowClassificationRuleDao ruleDao;
+
+    @Autowired
+    private AppHelper appHelper;
+
+    @Autowired
+    private DataTypeHelper dataTypeHelper;
+
+    @Autowired
+    private LogicalFlowHelper lfHelper;
+
+
+    @Test
+    public void ruleRatesMatchingSourceDiscouragesOthersAndHasNoOpinionOutsideItsScope() {
+        String stem = "fcrrt_ratings";
+        Fixture f = setupFixture(stem);
+
+        FlowClassificationRule rule = createRule(f, stem);
+
+        recalculator.recalculateForRule(rule);
+        recalculator.recalculateAll();
+
+        DataTypeDecorator rated = fetchDecorator(f.ratedFlow);
+        DataTypeDecorator discouraged = fetchDecorator(f.discouragedFlow);
+        DataTypeDecorator noOpinion = fetchDecorator(f.outOfScopeFlow);
+
+        assertEquals(Optional.of(AuthoritativenessRatingValue.of(f.classificationCode)), rated.rating(), "source named by the rule takes the rule's rating");
+        assertEquals(rule.id(), rated.flowClassificationRuleId(), "rated decorator records the rule");
+
+        assertEquals(Optional.of(AuthoritativenessRatingValue.DISCOURAGED), discouraged.rating(), "other sources for the same data type and org unit are discouraged");
+        assertEquals(Optional.empty(), discouraged.flowClassificationRuleId(), "discouraged decorators do not record a rule");
+
+        assertEquals(Optional.of(AuthoritativenessRatingValue.NO_OPINION), noOpinion.rating(), "targets outside the rule's org unit have no opinion");
+        assertEquals(Optional.empty(), noOpinion.flowClassificationRuleId(), "no opinion decorators do not record a rule");
+    }
+
+
+    @Test
+    public void removingTheRuleRevertsToNoOpinionAndClearsTheRuleId() {
+        String stem = "fcrrt_removal";
+        Fixture f = setupFixture(stem);
+
+        FlowClassificationRule rule = createRule(f, stem);
+        recalculator.recalculateForRule(rule);
+        assertEquals(rule.id(), fetchDecorator(f.ratedFlow).flowClassificationRuleId());
+
+        ruleDao.remove(rule.id().get());
+        resolverCache.invalidate();
+        recalculator.recalculateForRule(rule);
+
+        DataTypeDecorator previouslyRated = fetchDecorator(f.ratedFlow);
+        DataTypeDecorator previouslyDiscouraged = fetchDecorator(f.discouragedFlow);
+
+        assertEquals(Optional.of(AuthoritativenessRatingValue.NO_OPINION), previouslyRated.rating());
+        assertEquals(Optional.empty(), previouslyRated.flowClassificationRuleId(), "rule id is no longer recorded once the rule has gone");
+        assertEquals(Optional.of(AuthoritativenessRatingValue.NO_OPINION), previouslyDiscouraged.rating());
+    }
+
+
+    // --- helpers ---
+
+    private static class Fixture {
+        private Long dataTypeId;
+        private Long classificationId;
+        private String classificationCode;
+        private EntityReference ruleSource;
+        private LogicalFlow ratedFlow;
+        private LogicalFlow discouragedFlow;
+        private LogicalFlow outOfScopeFlow;
+    }
+
+
+    /**
+     * Rules are declared against org unit 'a', so flows into 'a1' are in scope and
+     * flows into 'b' are not.
+     */
+    private Fixture setupFixture(String stem) {
+        Fixture f = new Fixture();
+        f.dataTypeId = dataTypeHelper.createDataType(mkName(stem, "dt"));
+        rebuildHierarchy(EntityKind.DATA_TYPE);
+
+        f.classificationCode = mkName(stem, "code");
+        FlowClassificationRecord classification = dsl.newRecord(FLOW_CLASSIFICATION);
+        classification.setName(mkName(stem, "classification"));
+        classification.setCode(f.classificationCode);
+        classification.setColor("green");
+        classification.store();
+        f.classificationId = classification.getId();
+
+        f.ruleSource = appHelper.createNewApp(mkName(stem, "ruleSource"), ouIds.root);
+        EntityReference otherSource = appHelper.createNewApp(mkName(stem, "otherSource"), ouIds.root);
+        EntityReference targetInScope = appHelper.createNewApp(mkName(stem, "targetInScope"), ouIds.a1);
+        EntityReference targetOutOfScope = appHelper.createNewApp(mkName(stem, "targetOutOfScope"), ouIds.b);
+
+        f.ratedFlow = mkDecoratedFlow(f.ruleSource, targetInScope, f.dataTypeId);
+        f.discouragedFlow = mkDecoratedFlow(otherSource, targetInScope, f.dataTypeId);
+        f.outOfScopeFlow = mkDecoratedFlow(f.ruleSource, targetOutOfScope, f.dataTypeId);
+        return f;
+    }
+
+
+    private FlowClassificationRule createRule(Fixture f, String stem) {
+        long ruleId = ruleDao.insert(
+                ImmutableFlowClassificationRuleCreateCommand.builder()
+                        .classificationId(f.classificationId)
+                        .dataTypeId(f.dataTypeId)
+                        .applicationId(f.ruleSource.id())
+                        .parentReference(EntityReference.mkRef(EntityKind.ORG_UNIT, ouIds.a))
+                        .description(mkName(stem, "rule"))
+                        .build(),
+                "admin");
+        resolverCache.invalidate();
+        return ruleDao.getById(ruleId);
+    }
+
+
+    private LogicalFlow mkDecoratedFlow(EntityReference source, EntityReference target, Long dataTypeId) {
+        LogicalFlow flow = lfHelper.createLogicalFlow(source, target);
+        lfHelper.createLogicalFlowDecorators(flow.entityReference(), asSet(dataTypeId));
+        return flow;
+    }
+
+
+    private DataTypeDecorator fetchDecorator(LogicalFlow flow) {
+        return first(lfHelper.fetchDecoratorsForFlow(flow.id().get()));
+    }
+
+}
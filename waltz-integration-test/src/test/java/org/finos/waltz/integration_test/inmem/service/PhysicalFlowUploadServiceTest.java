@@ -0,0 +1,215 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.integration_test.inmem.service;
+
+import org.finos.waltz.integration_test.inmem.BaseInMemoryIntegrationTest;
+import org.finos.waltz.integration_test.inmem.helpers.AppHelper;
+import org.finos.waltz.integration_test.inmem.helpers.DataTypeHelper;
+import org.finos.waltz.model.EntityLifecycleStatus;
+import org.finos.waltz.model.EntityReference;
+import org.finos.waltz.model.command.CommandOutcome;
+import org.finos.waltz.model.enum_value.EnumValueKind;
+import org.finos.waltz.model.physical_flow.ImmutablePhysicalFlowUploadCommand;
+import org.finos.waltz.model.physical_flow.PhysicalFlowUploadCommand;
+import org.finos.waltz.model.physical_flow.PhysicalFlowUploadCommandResponse;
+import org.finos.waltz.model.physical_flow.PhysicalFlowUploadJob;
+import org.finos.waltz.model.physical_flow.PhysicalFlowUploadJobStatus;
+import org.finos.waltz.service.physical_flow.PhysicalFlowUploadService;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.finos.waltz.common.ListUtilities.asList;
+import static org.finos.waltz.common.ListUtilities.map;
+import static org.finos.waltz.integration_test.inmem.helpers.NameHelper.mkName;
+import static org.finos.waltz.schema.Tables.DATA_TYPE;
+import static org.finos.waltz.schema.Tables.ENUM_VALUE;
+import static org.finos.waltz.schema.tables.Application.APPLICATION;
+import static org.finos.waltz.schema.tables.LogicalFlow.LOGICAL_FLOW;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class PhysicalFlowUploadServiceTest extends BaseInMemoryIntegrationTest {
+
+    @Autowired
+    private PhysicalFlowUploadService uploadService;
+
+    @Autowired
+    private AppHelper appHelper;
+
+    @Autowired
+    private DataTypeHelper dataTypeHelper;
+
+    @Autowired
+    private DSLContext dsl;
+
+
+    @Test
+    public void backgroundUploadCreatesFlowsOnceEvenForPendingApps() throws InterruptedException {
+        String criticality = mkEnumValue(EnumValueKind.PHYSICAL_FLOW_CRITICALITY, "crit");
+        String format = mkEnumValue(EnumValueKind.DATA_FORMAT_KIND, "fmt");
+        String transport = mkEnumValue(EnumValueKind.TRANSPORT_KIND, "trn");
+
+        String sourceCode = mkApp("src", EntityLifecycleStatus.PENDING);
+        String targetCode = mkApp("trg", EntityLifecycleStatus.ACTIVE);
+
+        Long dtId = dataTypeHelper.createDataType("upload");
+        String dtCode = dsl.select(DATA_TYPE.CODE)
+                .from(DATA_TYPE)
+                .where(DATA_TYPE.ID.eq(dtId))
+                .fetchOne()
+                .value1();
+
+        PhysicalFlowUploadCommand cmd = ImmutablePhysicalFlowUploadCommand.builder()
+                .source(sourceCode)
+                .target(targetCode)
+                .owner(sourceCode)
+                .name(mkName("spec"))
+                .format(format)
+                .basisOffset("0")
+                .criticality(criticality)
+                .frequency(criticality) // frequencies are resolved via the criticality aliases
+                .transport(transport)
+                .description("desc")
+                .dataType(dtCode)
+                .build();
+
+        List<PhysicalFlowUploadCommand> cmds = asList(cmd, cmd);
+
+        PhysicalFlowUploadJob first = awaitCompletion(uploadService.submitUpload("admin", cmds));
+        assertEquals(PhysicalFlowUploadJobStatus.COMPLETED, first.status(), () -> first.errorMessage().orElse("failed"));
+        List<EntityReference> firstRefs = map(first.responses(), PhysicalFlowUploadCommandResponse::entityReference);
+        assertNotNull(firstRefs.get(0), "flow should have been created");
+        assertEquals(firstRefs.get(0), firstRefs.get(1), "identical rows should result in a single flow");
+
+        PhysicalFlowUploadJob second = awaitCompletion(uploadService.submitUpload("admin", cmds));
+        assertEquals(PhysicalFlowUploadJobStatus.COMPLETED, second.status(), () -> second.errorMessage().orElse("failed"));
+        assertEquals(
+                firstRefs,
+                map(second.responses(), PhysicalFlowUploadCommandResponse::entityReference),
+                "re-uploading should match the existing flows, regardless of app lifecycle status");
+
+        int logicalFlowCount = dsl.fetchCount(
+                LOGICAL_FLOW,
+                LOGICAL_FLOW.SOURCE_ENTITY_ID.eq(appId(sourceCode)).and(LOGICAL_FLOW.TARGET_ENTITY_ID.eq(appId(targetCode))));
+        assertEquals(1, logicalFlowCount, "a single logical flow should exist between the apps");
+    }
+
+
+    @Test
+    public void sharedOrMissingAssetCodesAreReportedPerRow() {
+        String criticality = mkEnumValue(EnumValueKind.PHYSICAL_FLOW_CRITICALITY, "crit");
+        String format = mkEnumValue(EnumValueKind.DATA_FORMAT_KIND, "fmt");
+        String transport = mkEnumValue(EnumValueKind.TRANSPORT_KIND, "trn");
+
+        // apps without asset codes, or sharing one, must not prevent other rows from resolving
+        appHelper.createNewApp(mkName("noCode"), ouIds.a);
+        appHelper.createNewApp(mkName("noCode"), ouIds.a);
+        String sharedCode = mkApp("shared", EntityLifecycleStatus.ACTIVE);
+        setAssetCode(appHelper.createNewApp(mkName("shared"), ouIds.a), sharedCode);
+
+        String targetCode = mkApp("trg", EntityLifecycleStatus.ACTIVE);
+        Long dtId = dataTypeHelper.createDataType("upload");
+        String dtCode = dsl.select(DATA_TYPE.CODE)
+                .from(DATA_TYPE)
+                .where(DATA_TYPE.ID.eq(dtId))
+                .fetchOne()
+                .value1();
+
+        PhysicalFlowUploadCommand cmd = ImmutablePhysicalFlowUploadCommand.builder()
+                .source(sharedCode)
+                .target(targetCode)
+                .owner(targetCode)
+                .name(mkName("spec"))
+                .format(format)
+                .basisOffset("0")
+                .criticality(criticality)
+                .frequency(criticality)
+                .transport(transport)
+                .description("desc")
+                .dataType(dtCode)
+                .build();
+
+        List<PhysicalFlowUploadCommandResponse> responses = uploadService.validate(asList(cmd));
+
+        assertEquals(1, responses.size());
+        PhysicalFlowUploadCommandResponse response = responses.get(0);
+        assertEquals(CommandOutcome.FAILURE, response.outcome());
+        assertTrue(response.errors().get("source").contains("more than one"), "shared asset code should be reported as ambiguous");
+        assertFalse(response.errors().containsKey("target"), "target should still resolve");
+    }
+
+
+    // --- helpers ---
+
+    private PhysicalFlowUploadJob awaitCompletion(PhysicalFlowUploadJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        PhysicalFlowUploadJob current = job;
+        while (current.status() == PhysicalFlowUploadJobStatus.QUEUED || current.status() == PhysicalFlowUploadJobStatus.RUNNING) {
+            assertTrue(System.currentTimeMillis() < deadline, "upload did not complete in time");
+            Thread.sleep(50);
+            current = uploadService.getUploadJob(job.id()).orElseThrow(() -> new AssertionError("job not found"));
+        }
+        return current;
+    }
+
+
+    private String mkApp(String stem, EntityLifecycleStatus status) {
+        EntityReference ref = appHelper.createNewApp(mkName(stem), ouIds.a);
+        String assetCode = mkName(stem + "Code");
+        setAssetCode(ref, assetCode);
+        dsl.update(APPLICATION)
+                .set(APPLICATION.ENTITY_LIFECYCLE_STATUS, status.name())
+                .where(APPLICATION.ID.eq(ref.id()))
+                .execute();
+        return assetCode;
+    }
+
+
+    private void setAssetCode(EntityReference appRef, String assetCode) {
+        dsl.update(APPLICATION)
+                .set(APPLICATION.ASSET_CODE, assetCode)
+                .where(APPLICATION.ID.eq(appRef.id()))
+                .execute();
+    }
+
+
+    private long appId(String assetCode) {
+        return dsl.select(APPLICATION.ID)
+                .from(APPLICATION)
+                .where(APPLICATION.ASSET_CODE.eq(assetCode))
+                .fetchOne()
+                .value1();
+    }
+
+
+    private String mkEnumValue(EnumValueKind kind, String stem) {
+        String key = mkName(stem).toUpperCase();
+        dsl.insertInto(ENUM_VALUE)
+                .set(ENUM_VALUE.TYPE, kind.dbValue())
+                .set(ENUM_VALUE.KEY, key)
+                .set(ENUM_VALUE.DISPLAY_NAME, key)
+                .set(ENUM_VALUE.DESCRIPTION, key)
+                .execute();
+        return key;
+    }
+
+}
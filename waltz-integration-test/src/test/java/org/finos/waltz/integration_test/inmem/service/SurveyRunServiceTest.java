@@ -9,6 +9,7 @@ import org.finos.waltz.model.EntityKind;
 import org.finos.waltz.model.EntityReference;
 import org.finos.waltz.model.IdCommandResponse;
 import org.finos.waltz.model.IdSelectionOptions;
+import org.finos.waltz.model.issuance.RunIssuanceProgress;
 import org.finos.waltz.model.person.Person;
 import org.finos.waltz.model.survey.*;
 import org.finos.waltz.service.survey.SurveyInstanceService;
@@ -20,6 +21,7 @@ import org.springframework.stereotype.Service;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static java.util.Collections.emptySet;
 import static org.finos.waltz.common.CollectionUtilities.find;
@@ -111,6 +113,10 @@ public class SurveyRunServiceTest extends BaseInMemoryIntegrationTest {
         Set<SurveyInstance> instances = instanceService.findForSurveyRun(surveyRunId);
 
         assertEquals(2, instances.size(), "should be 2 instances");
+        assertEquals(
+                2,
+                runService.getIssuanceProgress(surveyRunId).map(RunIssuanceProgress::issuedInstances).orElse(0),
+                "progress should record the 2 issued instances");
 
         SurveyInstance instanceA = findInstanceForApp(instances, appA);
         SurveyInstance instanceB = findInstanceForApp(instances, appB);
@@ -141,6 +147,67 @@ public class SurveyRunServiceTest extends BaseInMemoryIntegrationTest {
     }
 
 
+    @Test
+    public void individualIssuanceForOneEntityCanSpanSeveralChunks() throws InsufficientPrivelegeException {
+        String stem = "srt_individualIssuanceForOneEntityCanSpanSeveralChunks";
+        // more than one issuance chunk (default 500) of recipients for a single entity
+        int recipientCount = 501;
+
+        String admin = mkName(stem, "admin");
+        personHelper.createPerson(admin);
+
+        EntityReference app = appHelper.createNewApp(mkName(stem, "app"), ouIds.a);
+        long invKind = involvementHelper.mkInvolvementKind(mkName(stem, "invKind"));
+
+        for (int i = 0; i < recipientCount; i++) {
+            Long personId = personHelper.createPerson(mkName(stem, "user" + i));
+            involvementHelper.createInvolvement(personId, invKind, app);
+        }
+
+        Long grpId = groupHelper.createAppGroupWithAppRefs(mkName(stem, "group"), asSet(app));
+        long tId = templateHelper.createTemplate(admin, mkName(stem, "template"));
+
+        SurveyRunCreateCommand cmd = ImmutableSurveyRunCreateCommand.builder()
+                .issuanceKind(SurveyIssuanceKind.INDIVIDUAL)
+                .name("test")
+                .description("run desc")
+                .selectionOptions(IdSelectionOptions.mkOpts(EntityReference.mkRef(EntityKind.APP_GROUP, grpId)))
+                .surveyTemplateId(tId)
+                .addInvolvementKindIds(invKind)
+                .dueDate(DateTimeUtilities.today().plusMonths(1))
+                .approvalDueDate(DateTimeUtilities.today().plusMonths(1))
+                .contactEmail("someone@somewhere.com")
+                .build();
+
+        IdCommandResponse runResp = runService.createSurveyRun(admin, cmd);
+        Long surveyRunId = runResp.id().orElseThrow(() -> new AssertionFailedError("Failed to create run"));
+
+        ImmutableInstancesAndRecipientsCreateCommand createCmd = ImmutableInstancesAndRecipientsCreateCommand.builder()
+                .surveyRunId(surveyRunId)
+                .dueDate(toLocalDate(nowUtcTimestamp()))
+                .approvalDueDate(toLocalDate(nowUtcTimestamp()))
+                .excludedRecipients(emptySet())
+                .build();
+        runService.createSurveyInstancesAndRecipients(createCmd);
+
+        Set<SurveyInstance> instances = instanceService.findForSurveyRun(surveyRunId);
+
+        assertEquals(recipientCount, instances.size(), "should be one instance per recipient");
+        assertEquals(
+                recipientCount,
+                runService.getIssuanceProgress(surveyRunId).map(RunIssuanceProgress::issuedInstances).orElse(0),
+                "progress should record every issued instance");
+
+        Set<String> recipients = instances
+                .stream()
+                .flatMap(instance -> instanceService.findRecipients(instance.id().get()).stream())
+                .map(Person::userId)
+                .collect(Collectors.toSet());
+
+        assertEquals(recipientCount, recipients.size(), "each instance should have its own, distinct, recipient");
+    }
+
+
     private Set<String> recipsToUserIds(List<Person> aRecips) {
         return map(aRecips, Person::userId);
     }
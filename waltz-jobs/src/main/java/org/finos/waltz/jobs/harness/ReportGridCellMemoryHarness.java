@@ -0,0 +1,150 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.jobs.harness;
+
+import org.finos.waltz.common.FunctionUtilities;
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.report_grid.ColumnarReportGridCells;
+import org.finos.waltz.model.report_grid.ImmutableReportGridCell;
+import org.finos.waltz.model.report_grid.ReportGridCell;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Compares the retained heap of a large grid held as a set of
+ * <code>ReportGridCell</code> objects vs the <code>ColumnarReportGridCells</code> form.
+ *
+ * Each form is built from freshly generated values (as if read from a query)
+ * and measured on its own, so the strings and decimals referenced by the cells
+ * are counted against each form rather than being shared between them.
+ * Run with a fixed heap (e.g. -Xms2g -Xmx2g) for stable figures.
+ */
+public class ReportGridCellMemoryHarness {
+
+    private static final int SUBJECTS = 2_000;
+    private static final int COLUMNS = 80;
+
+
+    @FunctionalInterface
+    private interface CellSink {
+        void accept(long subjectId, EntityKind kind, Long colId, Long ratingId, BigDecimal value, String text, String comment);
+    }
+
+
+    public static void main(String[] args) {
+        long columnarHeap = retainedHeap("columnar", ReportGridCellMemoryHarness::mkColumnar);
+        long cellsHeap = retainedHeap("cells", ReportGridCellMemoryHarness::mkCells);
+
+        System.out.printf(
+                "%d cells, object form: %dKB, columnar form: %dKB (%.1f%%)%n",
+                SUBJECTS * COLUMNS,
+                cellsHeap / 1024,
+                columnarHeap / 1024,
+                100.0 * columnarHeap / cellsHeap);
+
+        ColumnarReportGridCells columnar = mkColumnar();
+        FunctionUtilities.time("forEachSubject", () -> {
+            long[] count = {0};
+            columnar.forEachSubject((subjectId, fromRow, toRow) -> count[0] += toRow - fromRow);
+            return count[0];
+        });
+    }
+
+
+    private static ColumnarReportGridCells mkColumnar() {
+        ColumnarReportGridCells.Builder builder = ColumnarReportGridCells.builder();
+        generate((subjectId, kind, colId, ratingId, value, text, comment) -> builder.add(
+                subjectId,
+                kind,
+                colId,
+                null,
+                ratingId,
+                value,
+                text,
+                comment));
+        return builder.build();
+    }
+
+
+    private static Set<ReportGridCell> mkCells() {
+        Set<ReportGridCell> cells = new HashSet<>();
+        generate((subjectId, kind, colId, ratingId, value, text, comment) -> cells.add(ImmutableReportGridCell
+                .builder()
+                .subjectId(subjectId)
+                .columnEntityKind(kind)
+                .columnEntityId(colId)
+                .ratingId(ratingId)
+                .value(value)
+                .text(text)
+                .comment(comment)
+                .build()));
+        return cells;
+    }
+
+
+    /**
+     * Emits the same logical cells on every call, but with new string / decimal
+     * instances each time (much as a jdbc driver would).
+     */
+    private static void generate(CellSink sink) {
+        for (long subjectId = 1; subjectId <= SUBJECTS; subjectId++) {
+            for (long col = 1; col <= COLUMNS; col++) {
+                switch ((int) (col % 4)) {
+                    case 0:
+                        sink.accept(subjectId, EntityKind.MEASURABLE, col, col % 5, null, null, null);
+                        break;
+                    case 1:
+                        sink.accept(subjectId, EntityKind.ASSESSMENT_DEFINITION, col, 10 + col % 3, null, null, "Comment " + (subjectId % 50));
+                        break;
+                    case 2:
+                        sink.accept(subjectId, EntityKind.COST_KIND, col, null, new BigDecimal(subjectId * col + ".00"), null, null);
+                        break;
+                    default:
+                        sink.accept(subjectId, EntityKind.INVOLVEMENT_KIND, col, null, null, "person" + (subjectId % 200) + "@example.com", null);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Measures the heap retained by the result of the supplier, the result is
+     * kept reachable until after the measurement has been taken.
+     */
+    private static long retainedHeap(String name, Supplier<?> supplier) {
+        long baseline = usedHeap();
+        Object result = FunctionUtilities.time(name, supplier);
+        long retained = usedHeap() - baseline;
+        System.out.println(name + ": " + System.identityHashCode(result) + " retains " + retained / 1024 + "KB");
+        return retained;
+    }
+
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -25,16 +25,14 @@ import org.finos.waltz.data.application.ApplicationIdSelectorFactory;
 import org.finos.waltz.data.report_grid.ReportGridDao;
 import org.finos.waltz.model.EntityKind;
 import org.finos.waltz.model.EntityReference;
-import org.finos.waltz.model.report_grid.ReportGridCell;
+import org.finos.waltz.model.report_grid.ColumnarReportGridCells;
 import org.finos.waltz.service.DIBaseConfiguration;
 import org.jooq.Record1;
 import org.jooq.Select;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
 import javax.swing.text.html.parser.Entity;
-import java.util.Set;
 
-import static org.finos.waltz.common.CollectionUtilities.first;
 import static org.finos.waltz.model.EntityReference.mkRef;
 import static org.finos.waltz.model.IdSelectionOptions.mkOpts;
 
@@ -62,12 +60,12 @@ public class ReportGridHarness {
 
         System.out.println("Made selector");
 
-        Set<ReportGridCell> a = FunctionUtilities.time("getCellData", () -> dao.findCellDataByGridId(3, selector));
-        Set<ReportGridCell> b = FunctionUtilities.time("getCellData", () -> dao.findCellDataByGridId(3, selector));
-        Set<ReportGridCell> c = FunctionUtilities.time("getCellData", () -> dao.findCellDataByGridId(3, selector));
-        Set<ReportGridCell> data = FunctionUtilities.time("getCellData", () -> dao.findCellDataByGridId(3, selector));
+        ColumnarReportGridCells a = FunctionUtilities.time("getCellData", () -> dao.findCellDataByGridId(3, selector));
+        ColumnarReportGridCells b = FunctionUtilities.time("getCellData", () -> dao.findCellDataByGridId(3, selector));
+        ColumnarReportGridCells c = FunctionUtilities.time("getCellData", () -> dao.findCellDataByGridId(3, selector));
+        ColumnarReportGridCells data = FunctionUtilities.time("getCellData", () -> dao.findCellDataByGridId(3, selector));
         System.out.println(data.size());
-        System.out.println(first(data));
+        System.out.println(data.size() > 0 ? data.cell(0) : null);
     }
 
 
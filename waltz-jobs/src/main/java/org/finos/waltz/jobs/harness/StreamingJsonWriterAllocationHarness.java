@@ -0,0 +1,128 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.jobs.harness;
+
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.EntityReference;
+import org.finos.waltz.web.StreamingJsonWriter;
+import org.finos.waltz.web.WebUtilities;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+
+/**
+ * Compares heap allocation when rendering a large list via the String based
+ * {@link WebUtilities#transformer} (as spark then encodes and optionally gzips it)
+ * against {@link StreamingJsonWriter}.
+ *
+ * Figures are per thread allocation (as reported by the jvm) averaged over a number
+ * of iterations after a warm up, run with a fixed heap for stable figures.
+ */
+public class StreamingJsonWriterAllocationHarness {
+
+    private static final int ITEM_COUNT = 100_000;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int ITERATIONS = 20;
+
+    private static final OutputStream NULL_STREAM = new OutputStream() {
+        @Override
+        public void write(int b) { }
+
+        @Override
+        public void write(byte[] b, int off, int len) { }
+    };
+
+
+    @FunctionalInterface
+    private interface Renderer {
+        void render(List<EntityReference> refs, boolean gzip) throws Exception;
+    }
+
+
+    public static void main(String[] args) throws Exception {
+        List<EntityReference> refs = range(0, ITEM_COUNT)
+                .mapToObj(i -> EntityReference.mkRef(
+                        EntityKind.APPLICATION,
+                        i,
+                        "Application " + i,
+                        "Description of application " + i,
+                        "APP-" + i))
+                .collect(toList());
+
+        Renderer stringRenderer = (items, gzip) -> {
+            byte[] bytes = WebUtilities.transformer
+                    .render(items)
+                    .getBytes(StandardCharsets.UTF_8);
+            if (gzip) {
+                GZIPOutputStream gzipStream = new GZIPOutputStream(NULL_STREAM);
+                gzipStream.write(bytes);
+                gzipStream.finish();
+            } else {
+                NULL_STREAM.write(bytes);
+            }
+        };
+
+        Renderer streamingRenderer = (items, gzip) -> StreamingJsonWriter.writeTo(NULL_STREAM, items, gzip);
+
+        for (boolean gzip : new boolean[] { false, true }) {
+            report("string", gzip, measure(stringRenderer, refs, gzip));
+            report("streaming", gzip, measure(streamingRenderer, refs, gzip));
+        }
+    }
+
+
+    private static long[] measure(Renderer renderer,
+                                  List<EntityReference> refs,
+                                  boolean gzip) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            renderer.render(refs, gzip);
+        }
+
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+        long startTime = System.nanoTime();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            renderer.render(refs, gzip);
+        }
+
+        return new long[] {
+                (threadBean.getThreadAllocatedBytes(threadId) - startBytes) / ITERATIONS,
+                (System.nanoTime() - startTime) / ITERATIONS / 1_000_000 };
+    }
+
+
+    private static void report(String name, boolean gzip, long[] result) {
+        System.out.printf(
+                "%-10s gzip: %-5s allocated: %,14d bytes/op, time: %,6d ms/op%n",
+                name,
+                gzip,
+                result[0],
+                result[1]);
+    }
+
+}
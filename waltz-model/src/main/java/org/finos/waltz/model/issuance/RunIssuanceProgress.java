@@ -0,0 +1,58 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.model.issuance;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.finos.waltz.model.EntityReference;
+import org.finos.waltz.model.scheduled_job.JobLifecycleStatus;
+import org.immutables.value.Value;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Snapshot of the progress of issuing the instances and recipients for a
+ * survey or attestation run.  Progress is only known to the node performing
+ * the issuance.
+ */
+@Value.Immutable
+@JsonSerialize(as = ImmutableRunIssuanceProgress.class)
+@JsonDeserialize(as = ImmutableRunIssuanceProgress.class)
+public abstract class RunIssuanceProgress {
+
+    public abstract EntityReference run();
+    public abstract JobLifecycleStatus status();
+    public abstract int totalInstances();
+    public abstract int issuedInstances();
+
+    /**
+     * Instances which already existed when the issuance started (i.e. it is
+     * resuming an earlier, interrupted, issuance) and were therefore skipped
+     */
+    @Value.Default
+    public int skippedInstances() {
+        return 0;
+    }
+
+    public abstract LocalDateTime startedAt();
+    public abstract Optional<LocalDateTime> completedAt();
+    public abstract Optional<String> errorMessage();
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.model.lineage;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.finos.waltz.model.EntityReference;
+import org.immutables.value.Value;
+
+import java.util.List;
+
+/**
+ * The entities and flows reachable from a starting entity within a number of hops.
+ *
+ * Each entity is reported once, at the smallest number of hops it can be reached in.
+ * Flows leading back to already reached entities (e.g. cycles) are reported but not
+ * followed any further.
+ */
+@Value.Immutable
+@JsonSerialize(as = ImmutableFlowLineage.class)
+@JsonDeserialize(as = ImmutableFlowLineage.class)
+public abstract class FlowLineage {
+
+    public abstract EntityReference startingEntity();
+    public abstract LineageDirection direction();
+    public abstract List<LineageNode> nodes();
+    public abstract List<LineageFlow> flows();
+
+}
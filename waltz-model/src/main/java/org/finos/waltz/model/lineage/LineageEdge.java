@@ -0,0 +1,43 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.model.lineage;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.finos.waltz.model.EntityLifecycleStatus;
+import org.finos.waltz.model.EntityReference;
+import org.immutables.value.Value;
+
+import java.util.Set;
+
+/**
+ * A logical flow, reduced to what is needed to build the lineage graph.
+ */
+@Value.Immutable
+@JsonSerialize(as = ImmutableLineageEdge.class)
+@JsonDeserialize(as = ImmutableLineageEdge.class)
+public abstract class LineageEdge {
+
+    public abstract long flowId();
+    public abstract EntityReference source();
+    public abstract EntityReference target();
+    public abstract EntityLifecycleStatus lifecycleStatus();
+    public abstract Set<Long> dataTypeIds();
+
+}
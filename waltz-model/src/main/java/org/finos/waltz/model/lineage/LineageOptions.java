@@ -0,0 +1,58 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.model.lineage;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.finos.waltz.model.EntityLifecycleStatus;
+import org.immutables.value.Value;
+
+import java.util.Set;
+
+import static org.finos.waltz.common.SetUtilities.asSet;
+
+@Value.Immutable
+@JsonSerialize(as = ImmutableLineageOptions.class)
+@JsonDeserialize(as = ImmutableLineageOptions.class)
+public abstract class LineageOptions {
+
+    @Value.Default
+    public int maxHops() {
+        return 3;
+    }
+
+
+    /**
+     * Restricts the lineage to flows decorated with any of these data types (or their descendants).
+     * If empty all flows are followed.
+     */
+    public abstract Set<Long> dataTypeIds();
+
+
+    @Value.Default
+    public Set<EntityLifecycleStatus> lifecycleStatuses() {
+        return asSet(EntityLifecycleStatus.ACTIVE, EntityLifecycleStatus.PENDING);
+    }
+
+
+    public static LineageOptions mkDefault() {
+        return ImmutableLineageOptions.builder().build();
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.model.report_grid;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.finos.waltz.common.DateTimeUtilities;
+import org.finos.waltz.model.rating.RatingSchemeItem;
+import org.immutables.value.Value;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Equivalent of {@link ReportGrid} which holds the cell data in the compact
+ * {@link ColumnarReportGridCells} form.  Serializes to the same json as a
+ * <code>ReportGrid</code>, see {@link ColumnarReportGridSerializer}.
+ */
+@Value.Immutable
+@JsonSerialize(using = ColumnarReportGridSerializer.class)
+public abstract class ColumnarReportGrid {
+
+    public abstract ReportGridDefinition definition();
+
+    public abstract Set<ReportSubject> subjects();  // rows
+
+    public abstract Set<RatingSchemeItem> ratingSchemeItems();  // color scheme
+
+    public abstract ColumnarReportGridCells cells();
+
+    @Value.Default
+    public LocalDateTime calculatedAt() {
+        return DateTimeUtilities.nowUtc();
+    }
+}
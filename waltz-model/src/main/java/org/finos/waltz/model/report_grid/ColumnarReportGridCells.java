@@ -0,0 +1,497 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.model.report_grid;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.finos.waltz.model.EntityKind;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * A compact, columnar representation of the cells of a report grid.
+ *
+ * Rather than one object per cell, each attribute is held in its own
+ * array, indexed by row number.  Columns, ratings and text values are
+ * dictionary encoded (so repeated values are only held once) and
+ * optional attributes have their presence recorded in a bitset.
+ * Rows are ordered by subject id so that all cells for a subject are
+ * contiguous, see {@link #forEachSubject(SubjectRowsConsumer)}.
+ *
+ * Instances are immutable once built, use {@link #builder()} or
+ * {@link #fromCells(Collection)} to create them.
+ *
+ * When serialized the cells are written, row by row, in the same form as
+ * a collection of {@link ReportGridCell}s, see {@link ColumnarReportGridCellsSerializer}.
+ */
+@JsonSerialize(using = ColumnarReportGridCellsSerializer.class)
+public final class ColumnarReportGridCells {
+
+    @FunctionalInterface
+    public interface SubjectRowsConsumer {
+        /**
+         * @param subjectId  the subject
+         * @param fromRow  first row (inclusive) for the subject
+         * @param toRow  last row (exclusive) for the subject
+         */
+        void accept(long subjectId, int fromRow, int toRow);
+    }
+
+
+    private static final ColumnarReportGridCells EMPTY = builder().build();
+
+    private final int size;
+
+    // per row
+    private final long[] subjectIds;
+    private final int[] columnIdxs;
+    private final long[] ratingIds;
+    private final BigDecimal[] values;
+    private final int[] textIdxs;
+    private final int[] commentIdxs;
+    private final BitSet hasRating;
+    private final BitSet hasText;
+    private final BitSet hasComment;
+
+    // column dictionary
+    private final EntityKind[] columnKinds;
+    private final long[] columnEntityIds;
+    private final long[] columnFieldReferenceIds;
+    private final BitSet columnHasEntityId;
+    private final BitSet columnHasFieldReferenceId;
+
+    // string dictionary (shared by text and comments)
+    private final String[] strings;
+
+
+    private ColumnarReportGridCells(Builder b, int[] order) {
+        this.size = b.size;
+
+        this.subjectIds = new long[size];
+        this.columnIdxs = new int[size];
+        this.ratingIds = new long[size];
+        this.values = new BigDecimal[size];
+        this.textIdxs = new int[size];
+        this.commentIdxs = new int[size];
+        this.hasRating = new BitSet(size);
+        this.hasText = new BitSet(size);
+        this.hasComment = new BitSet(size);
+
+        for (int row = 0; row < size; row++) {
+            int src = order[row];
+            subjectIds[row] = b.subjectIds[src];
+            columnIdxs[row] = b.columnIdxs[src];
+            ratingIds[row] = b.ratingIds[src];
+            values[row] = b.values[src];
+            textIdxs[row] = b.textIdxs[src];
+            commentIdxs[row] = b.commentIdxs[src];
+            if (b.hasRating.get(src)) hasRating.set(row);
+            if (b.hasText.get(src)) hasText.set(row);
+            if (b.hasComment.get(src)) hasComment.set(row);
+        }
+
+        int columnCount = b.columnKeys.size();
+        this.columnKinds = new EntityKind[columnCount];
+        this.columnEntityIds = new long[columnCount];
+        this.columnFieldReferenceIds = new long[columnCount];
+        this.columnHasEntityId = new BitSet(columnCount);
+        this.columnHasFieldReferenceId = new BitSet(columnCount);
+
+        b.columnKeys.forEach((key, idx) -> {
+            columnKinds[idx] = key.kind;
+            if (key.entityId != null) {
+                columnEntityIds[idx] = key.entityId;
+                columnHasEntityId.set(idx);
+            }
+            if (key.fieldReferenceId != null) {
+                columnFieldReferenceIds[idx] = key.fieldReferenceId;
+                columnHasFieldReferenceId.set(idx);
+            }
+        });
+
+        this.strings = b.strings.toArray(new String[0]);
+    }
+
+
+    public static ColumnarReportGridCells empty() {
+        return EMPTY;
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+
+    public static ColumnarReportGridCells fromCells(Collection<ReportGridCell> cells) {
+        Builder builder = builder();
+        cells.forEach(builder::add);
+        return builder.build();
+    }
+
+
+    public int size() {
+        return size;
+    }
+
+
+    public long subjectId(int row) {
+        return subjectIds[row];
+    }
+
+
+    /**
+     * @return the dictionary index of the column the cell at the given row belongs to
+     */
+    public int columnIndex(int row) {
+        return columnIdxs[row];
+    }
+
+
+    public EntityKind columnEntityKind(int row) {
+        return columnKinds[columnIdxs[row]];
+    }
+
+
+    public Long columnEntityId(int row) {
+        int col = columnIdxs[row];
+        return columnHasEntityId.get(col)
+                ? columnEntityIds[col]
+                : null;
+    }
+
+
+    public Long entityFieldReferenceId(int row) {
+        int col = columnIdxs[row];
+        return columnHasFieldReferenceId.get(col)
+                ? columnFieldReferenceIds[col]
+                : null;
+    }
+
+
+    public boolean hasRatingId(int row) {
+        return hasRating.get(row);
+    }
+
+
+    public Long ratingId(int row) {
+        return hasRating.get(row)
+                ? ratingIds[row]
+                : null;
+    }
+
+
+    public BigDecimal value(int row) {
+        return values[row];
+    }
+
+
+    public String text(int row) {
+        return hasText.get(row)
+                ? strings[textIdxs[row]]
+                : null;
+    }
+
+
+    public String comment(int row) {
+        return hasComment.get(row)
+                ? strings[commentIdxs[row]]
+                : null;
+    }
+
+
+    /**
+     * @return number of distinct columns referenced by the cells
+     */
+    public int columnCount() {
+        return columnKinds.length;
+    }
+
+
+    /**
+     * Finds the dictionary index of a column, or -1 if no cells refer to the column.
+     */
+    public int findColumnIndex(EntityKind kind,
+                               Long columnEntityId,
+                               Long entityFieldReferenceId) {
+        for (int col = 0; col < columnKinds.length; col++) {
+            if (columnKinds[col] == kind
+                    && matches(columnHasEntityId, columnEntityIds, col, columnEntityId)
+                    && matches(columnHasFieldReferenceId, columnFieldReferenceIds, col, entityFieldReferenceId)) {
+                return col;
+            }
+        }
+        return -1;
+    }
+
+
+    public Set<Long> ratingIds() {
+        Set<Long> result = new HashSet<>();
+        hasRating.stream().forEach(row -> result.add(ratingIds[row]));
+        return result;
+    }
+
+
+    /**
+     * Invokes the consumer once per subject with the (contiguous) range of rows belonging to that subject.
+     */
+    public void forEachSubject(SubjectRowsConsumer consumer) {
+        int from = 0;
+        while (from < size) {
+            long subjectId = subjectIds[from];
+            int to = from + 1;
+            while (to < size && subjectIds[to] == subjectId) {
+                to++;
+            }
+            consumer.accept(subjectId, from, to);
+            from = to;
+        }
+    }
+
+
+    public ReportGridCell cell(int row) {
+        return ImmutableReportGridCell
+                .builder()
+                .subjectId(subjectId(row))
+                .columnEntityKind(columnEntityKind(row))
+                .columnEntityId(columnEntityId(row))
+                .entityFieldReferenceId(entityFieldReferenceId(row))
+                .ratingId(ratingId(row))
+                .value(value(row))
+                .text(text(row))
+                .comment(comment(row))
+                .build();
+    }
+
+
+    /**
+     * Expands the compact form back into individual cell objects, use sparingly.
+     */
+    public Set<ReportGridCell> toCells() {
+        Set<ReportGridCell> cells = new HashSet<>(size);
+        for (int row = 0; row < size; row++) {
+            cells.add(cell(row));
+        }
+        return cells;
+    }
+
+
+    private static boolean matches(BitSet presence,
+                                   long[] ids,
+                                   int col,
+                                   Long id) {
+        return id == null
+                ? ! presence.get(col)
+                : presence.get(col) && ids[col] == id;
+    }
+
+
+    // --- builder ---
+
+    private static final class ColumnKey {
+        private final EntityKind kind;
+        private final Long entityId;
+        private final Long fieldReferenceId;
+
+        private ColumnKey(EntityKind kind, Long entityId, Long fieldReferenceId) {
+            this.kind = kind;
+            this.entityId = entityId;
+            this.fieldReferenceId = fieldReferenceId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ColumnKey that = (ColumnKey) o;
+            return kind == that.kind
+                    && Objects.equals(entityId, that.entityId)
+                    && Objects.equals(fieldReferenceId, that.fieldReferenceId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, entityId, fieldReferenceId);
+        }
+    }
+
+
+    /**
+     * Accumulates rows, typically straight from a query cursor.  Builders are
+     * not thread safe and do not de-duplicate rows.
+     */
+    public static final class Builder {
+
+        private int size = 0;
+        private long[] subjectIds = new long[64];
+        private int[] columnIdxs = new int[64];
+        private long[] ratingIds = new long[64];
+        private BigDecimal[] values = new BigDecimal[64];
+        private int[] textIdxs = new int[64];
+        private int[] commentIdxs = new int[64];
+        private final BitSet hasRating = new BitSet();
+        private final BitSet hasText = new BitSet();
+        private final BitSet hasComment = new BitSet();
+
+        private final Map<ColumnKey, Integer> columnKeys = new HashMap<>();
+        private final Map<String, Integer> stringIdxs = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+
+        private Builder() {
+        }
+
+
+        public Builder add(ReportGridCell cell) {
+            return add(
+                    cell.subjectId(),
+                    cell.columnEntityKind(),
+                    cell.columnEntityId(),
+                    cell.entityFieldReferenceId(),
+                    cell.ratingId(),
+                    cell.value(),
+                    cell.text(),
+                    cell.comment());
+        }
+
+
+        public Builder add(long subjectId,
+                           EntityKind columnEntityKind,
+                           Long columnEntityId,
+                           Long entityFieldReferenceId,
+                           Long ratingId,
+                           BigDecimal value,
+                           String text,
+                           String comment) {
+            ensureCapacity(size + 1);
+
+            int row = size++;
+            subjectIds[row] = subjectId;
+            columnIdxs[row] = columnKeys.computeIfAbsent(
+                    new ColumnKey(columnEntityKind, columnEntityId, entityFieldReferenceId),
+                    k -> columnKeys.size());
+            values[row] = value;
+
+            if (ratingId != null) {
+                ratingIds[row] = ratingId;
+                hasRating.set(row);
+            }
+
+            if (text != null) {
+                textIdxs[row] = intern(text);
+                hasText.set(row);
+            }
+
+            if (comment != null) {
+                commentIdxs[row] = intern(comment);
+                hasComment.set(row);
+            }
+
+            return this;
+        }
+
+
+        /**
+         * Appends all rows of another (already built) instance, typically used
+         * to combine the results of independently fetched column families.
+         */
+        public Builder addAll(ColumnarReportGridCells other) {
+            ensureCapacity(size + other.size);
+            for (int row = 0; row < other.size; row++) {
+                add(other.subjectId(row),
+                    other.columnEntityKind(row),
+                    other.columnEntityId(row),
+                    other.entityFieldReferenceId(row),
+                    other.ratingId(row),
+                    other.value(row),
+                    other.text(row),
+                    other.comment(row));
+            }
+            return this;
+        }
+
+
+        public int size() {
+            return size;
+        }
+
+
+        public ColumnarReportGridCells build() {
+            return new ColumnarReportGridCells(this, orderBySubject());
+        }
+
+
+        private int intern(String str) {
+            return stringIdxs.computeIfAbsent(str, s -> {
+                strings.add(s);
+                return strings.size() - 1;
+            });
+        }
+
+
+        private void ensureCapacity(int required) {
+            if (required <= subjectIds.length) {
+                return;
+            }
+            int newCapacity = Math.max(required, subjectIds.length * 2);
+            subjectIds = Arrays.copyOf(subjectIds, newCapacity);
+            columnIdxs = Arrays.copyOf(columnIdxs, newCapacity);
+            ratingIds = Arrays.copyOf(ratingIds, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+            textIdxs = Arrays.copyOf(textIdxs, newCapacity);
+            commentIdxs = Arrays.copyOf(commentIdxs, newCapacity);
+        }
+
+
+        /**
+         * Counting sort of rows by subject, subjects are assigned dense
+         * indexes in order of ascending id.
+         */
+        private int[] orderBySubject() {
+            long[] distinctSubjects = Arrays.copyOf(subjectIds, size);
+            Arrays.sort(distinctSubjects);
+            int distinctCount = 0;
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || distinctSubjects[i] != distinctSubjects[i - 1]) {
+                    distinctSubjects[distinctCount++] = distinctSubjects[i];
+                }
+            }
+
+            int[] subjectIdxs = new int[size];
+            int[] offsets = new int[distinctCount + 1];
+            for (int row = 0; row < size; row++) {
+                int subjectIdx = Arrays.binarySearch(distinctSubjects, 0, distinctCount, subjectIds[row]);
+                subjectIdxs[row] = subjectIdx;
+                offsets[subjectIdx + 1]++;
+            }
+
+            for (int i = 1; i <= distinctCount; i++) {
+                offsets[i] += offsets[i - 1];
+            }
+
+            int[] order = new int[size];
+            for (int row = 0; row < size; row++) {
+                order[offsets[subjectIdxs[row]]++] = row;
+            }
+
+            return order;
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.model.report_grid;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Writes columnar cells as an array of objects with the same properties as
+ * a serialized {@link ReportGridCell}, reading straight from the column arrays
+ * so no intermediate cell objects are created.
+ */
+public class ColumnarReportGridCellsSerializer extends StdSerializer<ColumnarReportGridCells> {
+
+    public ColumnarReportGridCellsSerializer() {
+        super(ColumnarReportGridCells.class);
+    }
+
+
+    @Override
+    public void serialize(ColumnarReportGridCells cells,
+                          JsonGenerator gen,
+                          SerializerProvider provider) throws IOException {
+        gen.writeStartArray();
+        for (int row = 0; row < cells.size(); row++) {
+            gen.writeStartObject();
+            writeString(gen, "comment", cells.comment(row));
+            gen.writeStringField("columnEntityKind", cells.columnEntityKind(row).name());
+            writeLong(gen, "columnEntityId", cells.columnEntityId(row));
+            writeLong(gen, "entityFieldReferenceId", cells.entityFieldReferenceId(row));
+            gen.writeNumberField("subjectId", cells.subjectId(row));
+            writeLong(gen, "ratingId", cells.ratingId(row));
+            writeDecimal(gen, "value", cells.value(row));
+            writeString(gen, "text", cells.text(row));
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+
+    private static void writeString(JsonGenerator gen, String name, String str) throws IOException {
+        if (str == null) {
+            gen.writeNullField(name);
+        } else {
+            gen.writeStringField(name, str);
+        }
+    }
+
+
+    private static void writeLong(JsonGenerator gen, String name, Long num) throws IOException {
+        if (num == null) {
+            gen.writeNullField(name);
+        } else {
+            gen.writeNumberField(name, num);
+        }
+    }
+
+
+    private static void writeDecimal(JsonGenerator gen, String name, BigDecimal num) throws IOException {
+        if (num == null) {
+            gen.writeNullField(name);
+        } else {
+            gen.writeNumberField(name, num);
+        }
+    }
+
+}
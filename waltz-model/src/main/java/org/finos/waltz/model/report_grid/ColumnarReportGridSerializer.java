@@ -0,0 +1,56 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.model.report_grid;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link ColumnarReportGrid} in the same shape as a serialized
+ * {@link ReportGrid} (<code>{ definition, instance: { subjects, ratingSchemeItems, cellData, calculatedAt } }</code>)
+ * so clients are unaware of the compact server side form.
+ */
+public class ColumnarReportGridSerializer extends StdSerializer<ColumnarReportGrid> {
+
+    public ColumnarReportGridSerializer() {
+        super(ColumnarReportGrid.class);
+    }
+
+
+    @Override
+    public void serialize(ColumnarReportGrid grid,
+                          JsonGenerator gen,
+                          SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        provider.defaultSerializeField("definition", grid.definition(), gen);
+
+        gen.writeObjectFieldStart("instance");
+        provider.defaultSerializeField("subjects", grid.subjects(), gen);
+        provider.defaultSerializeField("ratingSchemeItems", grid.ratingSchemeItems(), gen);
+        provider.defaultSerializeField("cellData", grid.cells(), gen);
+        provider.defaultSerializeField("calculatedAt", grid.calculatedAt(), gen);
+        gen.writeEndObject();
+
+        gen.writeEndObject();
+    }
+
+}
@@ -26,4 +26,13 @@ public abstract class ReportGridDefinition implements
     public ReportGridKind kind() {
         return ReportGridKind.PUBLIC;
     }
+
+    /**
+     * Materialized grids serve their cell data from a snapshot which is
+     * refreshed in the background when relevant changes are logged.
+     */
+    @Value.Default
+    public boolean materialized() {
+        return false;
+    }
 }
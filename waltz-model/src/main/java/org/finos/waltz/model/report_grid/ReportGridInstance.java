@@ -2,11 +2,13 @@ package org.finos.waltz.model.report_grid;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.finos.waltz.common.DateTimeUtilities;
 import org.finos.waltz.model.WaltzEntity;
 import org.finos.waltz.model.application.Application;
 import org.finos.waltz.model.rating.RatingSchemeItem;
 import org.immutables.value.Value;
 
+import java.time.LocalDateTime;
 import java.util.Set;
 
 @Value.Immutable
@@ -17,4 +19,9 @@ public abstract class ReportGridInstance {
 
     public abstract Set<RatingSchemeItem> ratingSchemeItems();  // color scheme
     public abstract Set<ReportGridCell> cellData();  // raw cell data
+
+    @Value.Default
+    public LocalDateTime calculatedAt() {  // older than 'now' if served from a materialized snapshot
+        return DateTimeUtilities.nowUtc();
+    }
 }
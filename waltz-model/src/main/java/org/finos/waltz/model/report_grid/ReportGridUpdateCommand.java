@@ -21,4 +21,7 @@ public abstract class ReportGridUpdateCommand implements Command {
     public ReportGridKind kind(){
         return ReportGridKind.PUBLIC;
     }
+
+    @Nullable
+    public abstract Boolean materialized();  // null leaves the current setting unchanged
 }
@@ -0,0 +1,58 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.model.sql_stats;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+/**
+ * Aggregated execution statistics for a single sql 'shape' (the statement
+ * with literals and bind values removed) issued from a single caller
+ * (typically a dao method).  Latencies are in milliseconds and percentiles
+ * are approximate.
+ */
+@Value.Immutable
+@JsonSerialize(as = ImmutableSqlStatistic.class)
+@JsonDeserialize(as = ImmutableSqlStatistic.class)
+public abstract class SqlStatistic {
+
+    public abstract String sqlShape();
+
+    public abstract String caller();
+
+    public abstract long executionCount();
+
+    public abstract long errorCount();
+
+    public abstract long rowsFetched();
+
+    public abstract double totalMillis();
+
+    public abstract double meanMillis();
+
+    public abstract double p50Millis();
+
+    public abstract double p95Millis();
+
+    public abstract double p99Millis();
+
+    public abstract double maxMillis();
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.model.report_grid;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.finos.waltz.model.EntityKind;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.finos.waltz.common.SetUtilities.asSet;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarReportGridCellsTest {
+
+    private static final ReportGridCell RATING_CELL = ImmutableReportGridCell.builder()
+            .subjectId(2)
+            .columnEntityKind(EntityKind.MEASURABLE)
+            .columnEntityId(10L)
+            .ratingId(100L)
+            .comment("a comment")
+            .build();
+
+    private static final ReportGridCell COST_CELL = ImmutableReportGridCell.builder()
+            .subjectId(1)
+            .columnEntityKind(EntityKind.COST_KIND)
+            .columnEntityId(20L)
+            .value(BigDecimal.TEN)
+            .build();
+
+    private static final ReportGridCell FIELD_CELL = ImmutableReportGridCell.builder()
+            .subjectId(2)
+            .columnEntityKind(EntityKind.APPLICATION)
+            .entityFieldReferenceId(5L)
+            .text("a comment")
+            .build();
+
+
+    @Test
+    public void emptyHasNoRows() {
+        ColumnarReportGridCells cells = ColumnarReportGridCells.empty();
+        assertEquals(0, cells.size());
+        assertEquals(0, cells.columnCount());
+        assertTrue(cells.toCells().isEmpty());
+    }
+
+
+    @Test
+    public void roundTripsCells() {
+        Set<ReportGridCell> original = asSet(RATING_CELL, COST_CELL, FIELD_CELL);
+        ColumnarReportGridCells cells = ColumnarReportGridCells.fromCells(original);
+
+        assertEquals(3, cells.size());
+        assertEquals(3, cells.columnCount());
+        assertEquals(original, cells.toCells());
+        assertEquals(asSet(100L), cells.ratingIds());
+    }
+
+
+    @Test
+    public void rowsAreGroupedBySubject() {
+        ColumnarReportGridCells cells = ColumnarReportGridCells.fromCells(asSet(RATING_CELL, COST_CELL, FIELD_CELL));
+
+        List<long[]> groups = new ArrayList<>();
+        cells.forEachSubject((subjectId, fromRow, toRow) -> groups.add(new long[]{subjectId, toRow - fromRow}));
+
+        assertEquals(2, groups.size());
+        assertArrayEquals(new long[]{1, 1}, groups.get(0));
+        assertArrayEquals(new long[]{2, 2}, groups.get(1));
+    }
+
+
+    @Test
+    public void canFindColumnIndex() {
+        ColumnarReportGridCells cells = ColumnarReportGridCells.fromCells(asSet(RATING_CELL, COST_CELL, FIELD_CELL));
+
+        int measurableIdx = cells.findColumnIndex(EntityKind.MEASURABLE, 10L, null);
+        int fieldIdx = cells.findColumnIndex(EntityKind.APPLICATION, null, 5L);
+
+        assertNotEquals(-1, measurableIdx);
+        assertNotEquals(-1, fieldIdx);
+        assertNotEquals(measurableIdx, fieldIdx);
+        assertEquals(-1, cells.findColumnIndex(EntityKind.MEASURABLE, 99L, null));
+    }
+
+
+    @Test
+    public void addAllCombinesIndependentlyBuiltCells() {
+        ColumnarReportGridCells first = ColumnarReportGridCells.fromCells(asSet(RATING_CELL, COST_CELL));
+        ColumnarReportGridCells second = ColumnarReportGridCells.fromCells(asSet(FIELD_CELL));
+
+        ColumnarReportGridCells combined = ColumnarReportGridCells
+                .builder()
+                .addAll(first)
+                .addAll(second)
+                .addAll(ColumnarReportGridCells.empty())
+                .build();
+
+        assertEquals(asSet(RATING_CELL, COST_CELL, FIELD_CELL), combined.toCells());
+        assertEquals(3, combined.columnCount());
+    }
+
+
+    @Test
+    public void serializesAsCellObjects() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Set<ReportGridCell> original = asSet(RATING_CELL, COST_CELL, FIELD_CELL);
+        ColumnarReportGridCells cells = ColumnarReportGridCells.fromCells(original);
+
+        String json = mapper.writeValueAsString(cells);
+
+        Set<ReportGridCell> parsed = mapper.readValue(json, new TypeReference<Set<ReportGridCell>>() {});
+        assertEquals(original, parsed);
+
+        for (JsonNode node : mapper.readTree(json)) {
+            ReportGridCell cell = mapper.treeToValue(node, ReportGridCell.class);
+            ReportGridCell originalCell = original
+                    .stream()
+                    .filter(cell::equals)
+                    .findFirst()
+                    .orElseThrow(AssertionError::new);
+            assertEquals(
+                    mapper.writeValueAsString(originalCell),
+                    node.toString(),
+                    "should match the regular cell serialization (including comments)");
+        }
+    }
+
+}
@@ -21,9 +21,15 @@ package org.finos.waltz.service;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import org.finos.waltz.common.ListUtilities;
 import org.finos.waltz.data.DBExecutorPool;
 import org.finos.waltz.data.DBExecutorPoolInterface;
+import org.finos.waltz.data.SearchExecutor;
+import org.finos.waltz.data.report_grid.ReportGridFetchExecutor;
+import org.finos.waltz.service.sql_stats.SqlStatisticsListener;
+import org.finos.waltz.service.sql_stats.SqlStatisticsRegistry;
 import org.jooq.DSLContext;
+import org.jooq.ExecuteListener;
 import org.jooq.SQLDialect;
 import org.jooq.conf.Settings;
 import org.jooq.impl.DSL;
@@ -37,6 +43,7 @@ import org.springframework.context.annotation.PropertySource;
 import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
 
 import javax.sql.DataSource;
+import java.util.List;
 
 
 @Configuration
@@ -74,6 +81,30 @@ public class DIBaseConfiguration {
     @Value("${database.performance.query.slow.threshold:10}")
     private int databasePerformanceQuerySlowThreshold;
 
+    @Value("${database.performance.stats.enabled:true}")
+    private boolean databasePerformanceStatsEnabled;
+
+    @Value("${database.performance.stats.max.shapes:2000}")
+    private int databasePerformanceStatsMaxShapes;
+
+    @Value("${database.performance.stats.caller.enabled:false}")
+    private boolean databasePerformanceStatsCallerEnabled;
+
+    @Value("${report.grid.fetch.parallel:false}")
+    private boolean reportGridFetchParallel;
+
+    @Value("${report.grid.fetch.threads:4}")
+    private int reportGridFetchThreads;
+
+    @Value("${report.grid.fetch.timeout:120}")
+    private int reportGridFetchTimeout;
+
+    @Value("${search.executor.threads:8}")
+    private int searchExecutorThreads;
+
+    @Value("${search.timeout.millis:5000}")
+    private long searchTimeoutMillis;
+
     @Bean
     public DataSource dataSource() {
 
@@ -94,9 +125,32 @@ public class DIBaseConfiguration {
     }
 
 
+    @Bean
+    public SearchExecutor searchExecutor() {
+        return new SearchExecutor(searchExecutorThreads, searchTimeoutMillis);
+    }
+
+
+    @Bean
+    public ReportGridFetchExecutor reportGridFetchExecutor() {
+        return new ReportGridFetchExecutor(
+                reportGridFetchParallel,
+                reportGridFetchThreads,
+                reportGridFetchTimeout);
+    }
+
+
+    @Bean
+    public SqlStatisticsRegistry sqlStatisticsRegistry() {
+        return new SqlStatisticsRegistry(databasePerformanceStatsMaxShapes);
+    }
+
+
     @Bean
     @Autowired
-    public DSLContext dsl(DataSource dataSource) {
+    public DSLContext dsl(DataSource dataSource,
+                          SqlStatisticsRegistry sqlStatisticsRegistry,
+                          SearchExecutor searchExecutor) {
         try {
             SQLDialect.valueOf(dialect);
         } catch (IllegalArgumentException iae) {
@@ -114,12 +168,21 @@ public class DIBaseConfiguration {
                     .withExecuteLogging(true);
         }
 
+        // note: listeners must be registered in a single call, each call to set(...) replaces the previous listeners
+        List<ExecuteListener> listeners = ListUtilities.newArrayList(
+                new SlowQueryListener(databasePerformanceQuerySlowThreshold),
+                new SpringExceptionTranslationExecuteListener(new SQLStateSQLExceptionTranslator()),
+                searchExecutor.mkQueryTimeoutListener());
+
+        if (databasePerformanceStatsEnabled) {
+            listeners.add(new SqlStatisticsListener(sqlStatisticsRegistry, databasePerformanceStatsCallerEnabled));
+        }
+
         org.jooq.Configuration configuration = new DefaultConfiguration()
                 .set(dataSource)
                 .set(SQLDialect.valueOf(dialect))
                 .set(dslSettings)
-                .set(new SlowQueryListener(databasePerformanceQuerySlowThreshold))
-                .set(new SpringExceptionTranslationExecuteListener(new SQLStateSQLExceptionTranslator()));
+                .set(listeners.toArray(new ExecuteListener[0]));
 
         return DSL.using(configuration);
     }
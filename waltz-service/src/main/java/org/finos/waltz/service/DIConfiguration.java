@@ -18,9 +18,18 @@
 
 package org.finos.waltz.service;
 
+import org.finos.waltz.service.access_log.AccessLogService;
+import org.finos.waltz.service.changelog.ChangeLogService;
 import org.finos.waltz.service.email.DummyJavaMailSender;
+import org.finos.waltz.service.jmx.ChangeLogMonitor;
 import org.finos.waltz.service.jmx.PersonMaintenance;
+import org.finos.waltz.service.jmx.SqlStatisticsMonitor;
+import org.finos.waltz.service.jmx.UserRoleCacheMonitor;
+import org.finos.waltz.service.jmx.WriteBehindQueueMonitor;
 import org.finos.waltz.service.person_hierarchy.PersonHierarchyService;
+import org.finos.waltz.service.sql_stats.SqlStatisticsService;
+import org.finos.waltz.service.user.UserRoleCache;
+import org.finos.waltz.service.user_agent_info.UserAgentInfoService;
 import org.finos.waltz.model.ImmutableWaltzVersionInfo;
 import org.finos.waltz.model.WaltzVersionInfo;
 import org.finos.waltz.model.settings.ImmutableSetting;
@@ -74,6 +83,10 @@ public class DIConfiguration implements SchedulingConfigurer {
     @Value("${settings.override:#{null}}")
     private String settingsOverrideStr;
 
+    @Value("${scheduler.pool.size:4}")
+    private int schedulerPoolSize;
+
+
     @Bean
     public WaltzVersionInfo waltzBuildInfo() {
         return ImmutableWaltzVersionInfo.builder()
@@ -119,6 +132,35 @@ public class DIConfiguration implements SchedulingConfigurer {
     }
 
 
+    @Bean
+    @Autowired
+    public SqlStatisticsMonitor sqlStatisticsMonitor(SqlStatisticsService sqlStatisticsService) {
+        return new SqlStatisticsMonitor(sqlStatisticsService);
+    }
+
+
+    @Bean
+    @Autowired
+    public UserRoleCacheMonitor userRoleCacheMonitor(UserRoleCache userRoleCache) {
+        return new UserRoleCacheMonitor(userRoleCache);
+    }
+
+
+    @Bean
+    @Autowired
+    public WriteBehindQueueMonitor writeBehindQueueMonitor(AccessLogService accessLogService,
+                                                           UserAgentInfoService userAgentInfoService) {
+        return new WriteBehindQueueMonitor(accessLogService, userAgentInfoService);
+    }
+
+
+    @Bean
+    @Autowired
+    public ChangeLogMonitor changeLogMonitor(ChangeLogService changeLogService) {
+        return new ChangeLogMonitor(changeLogService);
+    }
+
+
     @Bean
     public JavaMailSender mailSender() {
         if (smtpHost == null) {
@@ -135,6 +177,8 @@ public class DIConfiguration implements SchedulingConfigurer {
     @Bean
     public TaskScheduler taskScheduler() {
         ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(schedulerPoolSize);
+        scheduler.setThreadNamePrefix("waltz-scheduler-");
         scheduler.setDaemon(true);
         return scheduler;
     }
@@ -24,7 +24,6 @@ import org.jooq.ExecuteContext;
 import org.jooq.conf.Settings;
 import org.jooq.impl.DSL;
 import org.jooq.impl.DefaultExecuteListener;
-import org.jooq.tools.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,8 +35,10 @@ public class SlowQueryListener extends DefaultExecuteListener {
     private static final String PERFORMANCE_APPENDER = "WALTZ.PERFORMANCE";
     private static final Logger LOG = LoggerFactory.getLogger(PERFORMANCE_APPENDER);
 
-    private StopWatch stopWatch;
-    private long slowQueryThresholdInNanos;
+    // per query state is held on the execute context as the listener is shared by concurrent queries
+    private static final String START_KEY = SlowQueryListener.class.getName() + ".start";
+
+    private final long slowQueryThresholdInNanos;
 
     public class SQLPerformanceWarning
             extends Exception {
@@ -57,20 +58,25 @@ public class SlowQueryListener extends DefaultExecuteListener {
     @Override
     public void executeStart(ExecuteContext ctx) {
         super.executeStart(ctx);
-        stopWatch = new StopWatch();
+        ctx.data(START_KEY, System.nanoTime());
     }
 
 
     @Override
     public void executeEnd(ExecuteContext ctx) {
         super.executeEnd(ctx);
-        long split = stopWatch.split();
+        Object start = ctx.data(START_KEY);
+        if (start == null) {
+            return;
+        }
+
+        long split = System.nanoTime() - (Long) start;
         if (split > slowQueryThresholdInNanos) {
             DSLContext context = DSL.using(ctx.dialect(),
                     // ... and the flag for pretty-printing
                     new Settings().withRenderFormatted(true));
 
-            LOG.info(String.format("Slow SQL executed in %d seconds", TimeUnit.NANOSECONDS.toSeconds(split)), new SQLPerformanceWarning(context.renderInlined(ctx.query())));
+            LOG.info(String.format("Slow SQL executed in %dms", TimeUnit.NANOSECONDS.toMillis(split)), new SQLPerformanceWarning(context.renderInlined(ctx.query())));
         }
     }
 }
@@ -18,12 +18,16 @@
 
 package org.finos.waltz.service.access_log;
 
+import org.finos.waltz.common.WriteBehindQueue;
 import org.finos.waltz.data.access_log.AccessLogDao;
 import org.finos.waltz.model.accesslog.AccessLog;
 import org.finos.waltz.model.accesslog.AccessTime;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -39,15 +43,66 @@ public class AccessLogService {
 
     private final AccessLogDao accessLogDao;
 
+    @Value("${access.log.async.enabled:true}")
+    private boolean asyncEnabled;
+
+    @Value("${access.log.queue.capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${access.log.queue.batch.size:200}")
+    private int batchSize;
+
+    @Value("${access.log.queue.flush.millis:2000}")
+    private long flushMillis;
+
+    private WriteBehindQueue<AccessLog> queue;
+
+
     @Autowired
     public AccessLogService(AccessLogDao accessLogDao) {
         this.accessLogDao = accessLogDao;
     }
 
 
-    public int write(AccessLog logEntry) {
+    @PostConstruct
+    public void init() {
+        if (asyncEnabled) {
+            queue = new WriteBehindQueue<>(
+                    "Access Log",
+                    queueCapacity,
+                    batchSize,
+                    flushMillis,
+                    WriteBehindQueue.OverflowPolicy.DROP,
+                    accessLogDao::writeAll);
+        }
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+
+    /**
+     * Records the log entry.  If async writing is enabled (the default) the entry
+     * is queued and written in a later batch, entries offered while the queue
+     * is full are dropped (and counted by the queue).
+     */
+    public void write(AccessLog logEntry) {
         checkNotNull(logEntry, "logEntry must not be null");
-        return accessLogDao.write(logEntry);
+        if (queue == null) {
+            accessLogDao.write(logEntry);
+        } else {
+            queue.offer(logEntry);
+        }
+    }
+
+
+    public Optional<WriteBehindQueue<AccessLog>> getQueue() {
+        return Optional.ofNullable(queue);
     }
 
 
@@ -127,7 +127,8 @@ public class FavouritesService {
 
 
     private void audit(long groupId, String userId, String message, EntityKind childKind, Operation operation) {
-        changeLogService.write(ImmutableChangeLog.builder()
+        // favourites are personal, so their change log entries are not audit critical
+        changeLogService.writeAsync(ImmutableChangeLog.builder()
                 .message(message)
                 .userId(userId)
                 .parentReference(ImmutableEntityReference.builder().id(groupId).kind(EntityKind.APP_GROUP).build())
@@ -18,6 +18,7 @@
 
 package org.finos.waltz.service.application;
 
+import org.finos.waltz.service.id_selector.IdSelectorCache;
 import org.finos.waltz.service.tag.TagService;
 import org.finos.waltz.data.application.ApplicationDao;
 import org.finos.waltz.data.application.ApplicationIdSelectorFactory;
@@ -43,6 +44,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -61,6 +63,7 @@ public class ApplicationService {
     private final TagService tagService;
     private final EntityAliasDao entityAliasDao;
     private final ApplicationSearchDao appSearchDao;
+    private final IdSelectorCache idSelectorCache;
     private final ApplicationIdSelectorFactory appIdSelectorFactory = new ApplicationIdSelectorFactory();
 
 
@@ -68,16 +71,19 @@ public class ApplicationService {
     public ApplicationService(ApplicationDao appDao,
                               TagService tagService,
                               EntityAliasDao entityAliasDao,
-                              ApplicationSearchDao appSearchDao) {
+                              ApplicationSearchDao appSearchDao,
+                              IdSelectorCache idSelectorCache) {
         checkNotNull(appDao, "appDao must not be null");
         checkNotNull(tagService, "tagService must not be null");
         checkNotNull(entityAliasDao, "entityAliasDao must not be null");
         checkNotNull(appSearchDao, "appSearchDao must not be null");
+        checkNotNull(idSelectorCache, "idSelectorCache must not be null");
 
         this.applicationDao = appDao;
         this.tagService = tagService;
         this.entityAliasDao = entityAliasDao;
         this.appSearchDao = appSearchDao;
+        this.idSelectorCache = idSelectorCache;
     }
 
 
@@ -107,13 +113,18 @@ public class ApplicationService {
     }
 
 
+    public CompletableFuture<List<Application>> searchAsync(EntitySearchOptions options) {
+        return appSearchDao.searchAsync(options);
+    }
+
+
     public List<Application> findByIds(Collection<Long> ids) {
         return applicationDao.findByIds(ids);
     }
 
 
     public List<Application> findByAppIdSelector(IdSelectionOptions options) {
-        Select<Record1<Long>> selector = appIdSelectorFactory.apply(options);
+        Select<Record1<Long>> selector = idSelectorCache.getSelector(EntityKind.APPLICATION, appIdSelectorFactory, options);
         return applicationDao.findByAppIdSelector(selector);
     }
 
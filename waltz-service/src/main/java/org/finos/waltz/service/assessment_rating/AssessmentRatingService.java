@@ -160,15 +160,18 @@ public class AssessmentRatingService {
     public boolean bulkStore(BulkAssessmentRatingCommand[] commands,
                              long assessmentDefinitionId,
                              String username) {
-        Set<AssessmentRating> ratingsToAdd = getRatingsFilterByOperation(commands, assessmentDefinitionId, username, Operation.ADD);
-        int addedResult = assessmentRatingDao.add(ratingsToAdd);
-        createChangeLogs(assessmentDefinitionId, username, ratingsToAdd, Operation.ADD);
-
-        Set<AssessmentRating> ratingsToUpdate = getRatingsFilterByOperation(commands, assessmentDefinitionId, username, Operation.UPDATE);
-        int updateResult = assessmentRatingDao.update(ratingsToUpdate);
-        createChangeLogs(assessmentDefinitionId, username, ratingsToUpdate, Operation.ADD);
-
-        return addedResult + updateResult > 1;
+        // change logs for the adds and updates are written together once both have been applied
+        return changeLogService.batched(() -> {
+            Set<AssessmentRating> ratingsToAdd = getRatingsFilterByOperation(commands, assessmentDefinitionId, username, Operation.ADD);
+            int addedResult = assessmentRatingDao.add(ratingsToAdd);
+            createChangeLogs(assessmentDefinitionId, username, ratingsToAdd, Operation.ADD);
+
+            Set<AssessmentRating> ratingsToUpdate = getRatingsFilterByOperation(commands, assessmentDefinitionId, username, Operation.UPDATE);
+            int updateResult = assessmentRatingDao.update(ratingsToUpdate);
+            createChangeLogs(assessmentDefinitionId, username, ratingsToUpdate, Operation.ADD);
+
+            return addedResult + updateResult > 1;
+        });
     }
 
     public boolean bulkDelete(BulkAssessmentRatingCommand[] commands,
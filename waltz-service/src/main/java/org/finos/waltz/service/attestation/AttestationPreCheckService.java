@@ -10,6 +10,7 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static java.lang.String.format;
 import static org.finos.waltz.common.Checks.checkNotNull;
@@ -17,20 +18,29 @@ import static org.finos.waltz.common.Checks.checkNotNull;
 @Service
 public class AttestationPreCheckService {
 
+    private static final String MESSAGE_TEMPLATE_PREFIX = "attestation.logical-flow.fail";
+
     private final AttestationPreCheckDao attestationPreCheckDao;
     private final SettingsService settingsService;
 
+    // loaded on first use, then kept current by the settings subscription
+    private final AtomicReference<Map<String, String>> cachedMessageTemplates = new AtomicReference<>();
+
     @Autowired
     public AttestationPreCheckService(AttestationPreCheckDao attestationPreCheckDao,
                                       SettingsService settingsService) {
         this.attestationPreCheckDao = checkNotNull(attestationPreCheckDao, "AttestationPreCheckEvaluatorDao cannot be null");
         this.settingsService = checkNotNull(settingsService, "settingsService cannot be null");
+
+        settingsService.subscribe(
+                MESSAGE_TEMPLATE_PREFIX,
+                cachedMessageTemplates::set);
     }
 
 
     public List<String> calcLogicalFlowPreCheckFailures(EntityReference ref) {
 
-        Map<String, String> messageTemplates = settingsService.indexByPrefix("attestation.logical-flow.fail");
+        Map<String, String> messageTemplates = getMessageTemplates();
         LogicalFlowAttestationPreChecks preChecks = attestationPreCheckDao.calcLogicalFlowAttestationPreChecks(ref);
 
         List<String> failures = new ArrayList<>();
@@ -63,6 +73,17 @@ public class AttestationPreCheckService {
     }
 
 
+    private Map<String, String> getMessageTemplates() {
+        Map<String, String> templates = cachedMessageTemplates.get();
+        if (templates != null) {
+            return templates;
+        }
+        // don't overwrite a (newer) set of templates which arrived from the subscription whilst loading
+        cachedMessageTemplates.compareAndSet(null, settingsService.indexByPrefix(MESSAGE_TEMPLATE_PREFIX));
+        return cachedMessageTemplates.get();
+    }
+
+
     private String mkFailureMessage(Map<String, String> messageTemplates,
                                     String messageKey,
                                     String defaultMessage,
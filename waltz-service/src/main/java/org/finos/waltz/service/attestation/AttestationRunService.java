@@ -20,6 +20,7 @@ package org.finos.waltz.service.attestation;
 
 
 import org.finos.waltz.service.email.EmailService;
+import org.finos.waltz.service.issuance.RunIssuanceTracker;
 import org.finos.waltz.data.GenericSelector;
 import org.finos.waltz.data.GenericSelectorFactory;
 import org.finos.waltz.data.attestation.AttestationInstanceDao;
@@ -28,9 +29,11 @@ import org.finos.waltz.data.attestation.AttestationRunDao;
 import org.finos.waltz.data.involvement.InvolvementDao;
 import org.finos.waltz.model.*;
 import org.finos.waltz.model.attestation.*;
+import org.finos.waltz.model.issuance.RunIssuanceProgress;
 import org.finos.waltz.model.person.Person;
 import org.jooq.Record1;
 import org.jooq.Select;
+import org.jooq.lambda.tuple.Tuple2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -38,16 +41,19 @@ import java.time.LocalDate;
 import java.util.*;
 
 import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static org.finos.waltz.common.Checks.checkNotNull;
 import static org.finos.waltz.common.ListUtilities.asList;
 import static org.finos.waltz.common.ListUtilities.isEmpty;
 import static org.finos.waltz.common.SetUtilities.asSet;
+import static org.finos.waltz.common.SetUtilities.union;
 import static org.finos.waltz.model.EntityReference.mkRef;
 import static org.finos.waltz.model.IdSelectionOptions.mkOpts;
 import static org.finos.waltz.model.attestation.AttestationStatus.ISSUED;
 import static org.finos.waltz.model.attestation.AttestationStatus.ISSUING;
-import static org.finos.waltz.model.utils.IdUtilities.toIds;
+import static org.jooq.lambda.tuple.Tuple.tuple;
 
 @Service
 public class AttestationRunService {
@@ -58,24 +64,28 @@ public class AttestationRunService {
     private final EmailService emailService;
     private final GenericSelectorFactory genericSelectorFactory = new GenericSelectorFactory();
     private final InvolvementDao involvementDao;
+    private final RunIssuanceTracker runIssuanceTracker;
 
     @Autowired
     public AttestationRunService(AttestationInstanceDao attestationInstanceDao,
                                  AttestationInstanceRecipientDao attestationInstanceRecipientDao,
                                  AttestationRunDao attestationRunDao,
                                  EmailService emailService,
-                                 InvolvementDao involvementDao) {
+                                 InvolvementDao involvementDao,
+                                 RunIssuanceTracker runIssuanceTracker) {
         checkNotNull(attestationInstanceRecipientDao, "attestationInstanceRecipientDao cannot be null");
         checkNotNull(attestationInstanceDao, "attestationInstanceDao cannot be null");
         checkNotNull(attestationRunDao, "attestationRunDao cannot be null");
         checkNotNull(emailService, "emailService cannot be null");
         checkNotNull(involvementDao, "involvementDao cannot be null");
+        checkNotNull(runIssuanceTracker, "runIssuanceTracker cannot be null");
 
         this.attestationInstanceDao = attestationInstanceDao;
         this.attestationInstanceRecipientDao = attestationInstanceRecipientDao;
         this.attestationRunDao = attestationRunDao;
         this.emailService = emailService;
         this.involvementDao = involvementDao;
+        this.runIssuanceTracker = runIssuanceTracker;
     }
 
 
@@ -149,7 +159,7 @@ public class AttestationRunService {
                 userId);
 
         // store
-        createAttestationInstancesAndRecipients(instanceRecipients);
+        createAttestationInstancesAndRecipients(runId, instanceRecipients);
 
         if (command.sendEmailNotifications()){
             emailService.sendEmailNotification(mkRef(EntityKind.ATTESTATION_RUN, runId));
@@ -225,26 +235,45 @@ public class AttestationRunService {
     }
 
 
-    private void createAttestationInstancesAndRecipients(List<AttestationInstanceRecipient> instanceRecipients) {
+    /**
+     * Creates the instances and recipients for the run in chunked, set based, batches.
+     * Instances which already exist for the run are skipped, allowing an
+     * interrupted issuance to be resumed.
+     */
+    private int createAttestationInstancesAndRecipients(long attestationRunId,
+                                                        List<AttestationInstanceRecipient> instanceRecipients) {
 
-        Map<AttestationInstance, List<AttestationInstanceRecipient>> instancesAndRecipientsToSave = instanceRecipients
+        Set<Tuple2<EntityReference, EntityKind>> existingInstanceKeys = attestationInstanceDao.findInstanceKeysForRun(attestationRunId);
+
+        Map<AttestationInstance, Set<String>> recipientsByInstance = instanceRecipients
                 .stream()
                 .collect(groupingBy(
                         AttestationInstanceRecipient::attestationInstance,
-                        toList()
-                ));
+                        LinkedHashMap::new,
+                        mapping(AttestationInstanceRecipient::userId, toSet())));
 
+        List<AttestationInstanceIssuance> issuances = recipientsByInstance
+                .entrySet()
+                .stream()
+                .filter(e -> ! existingInstanceKeys.contains(tuple(
+                        mkRef(e.getKey().parentEntity().kind(), e.getKey().parentEntity().id()),
+                        e.getKey().attestedEntityKind())))
+                .map(e -> ImmutableAttestationInstanceIssuance.builder()
+                        .attestationInstance(e.getKey())
+                        .recipientUserIds(e.getValue())
+                        .build())
+                .collect(toList());
 
-        // insert new instances and recipients
-        instancesAndRecipientsToSave.forEach(
-                (k, v) -> {
-                    // create instance
-                    long instanceId = attestationInstanceDao.create(k);
+        return runIssuanceTracker.issueInChunks(
+                mkRef(EntityKind.ATTESTATION_RUN, attestationRunId),
+                issuances,
+                recipientsByInstance.size() - issuances.size(),
+                chunk -> attestationInstanceDao.createInstancesAndRecipients(attestationRunId, chunk));
+    }
 
-                    // create recipients for the instance
-                    v.forEach(r -> attestationInstanceRecipientDao.create(instanceId, r.userId()));
-                }
-        );
+
+    public Optional<RunIssuanceProgress> getIssuanceProgress(long attestationRunId) {
+        return runIssuanceTracker.getProgress(mkRef(EntityKind.ATTESTATION_RUN, attestationRunId));
     }
 
 
@@ -275,25 +304,34 @@ public class AttestationRunService {
 
 
     public int issueInstancesForPendingRuns() {
+        // runs still marked as ISSUING were interrupted part way through (e.g. the node was stopped),
+        // this job only runs on one node at a time so they can safely be resumed
+        Set<AttestationRun> runsToIssue = union(
+                attestationRunDao.findPendingRuns(),
+                attestationRunDao.findRunsWithStatus(ISSUING));
 
-        Set<AttestationRun> pendingRuns = attestationRunDao.findPendingRuns();
-
-        List<AttestationInstanceRecipient> instanceRecipients = pendingRuns
+        return runsToIssue
                 .stream()
-                .flatMap(run -> generateAttestationInstanceRecipients(
-                            run.id().get(),
-                            run.attestedEntityKind(),
-                            "admin")
-                        .stream())
-                .collect(toList());
+                .mapToInt(this::issueInstancesForRun)
+                .sum();
+    }
+
+
+    private int issueInstancesForRun(AttestationRun run) {
+        long runId = run.id().get();
+        Set<Long> runIds = asSet(runId);
 
-        Set<Long> runsBeingIssued = toIds(pendingRuns);
-        attestationRunDao.updateStatusForRunIds(runsBeingIssued, ISSUING);
+        attestationRunDao.updateStatusForRunIds(runIds, ISSUING);
+
+        List<AttestationInstanceRecipient> instanceRecipients = generateAttestationInstanceRecipients(
+                runId,
+                run.attestedEntityKind(),
+                "admin");
 
-        if(!isEmpty(instanceRecipients)){
-            createAttestationInstancesAndRecipients(instanceRecipients);
+        if (! isEmpty(instanceRecipients)) {
+            createAttestationInstancesAndRecipients(runId, instanceRecipients);
         }
 
-        return attestationRunDao.updateStatusForRunIds(runsBeingIssued, ISSUED);
+        return attestationRunDao.updateStatusForRunIds(runIds, ISSUED);
     }
 }
@@ -0,0 +1,52 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.changelog;
+
+import org.finos.waltz.model.changelog.ChangeLog;
+
+import java.util.Collection;
+
+import static org.finos.waltz.common.Checks.checkNotNull;
+
+/**
+ * Published (via the Spring application context) after change log entries
+ * have been written.  Caches and derived structures can listen for this
+ * event (<code>@EventListener</code>) to invalidate or refresh themselves.
+ *
+ * Events are delivered in order on a single background thread, so listeners
+ * see a change shortly after it is written rather than before the write returns
+ * (set <code>change.log.events.async.enabled=false</code> for synchronous delivery).
+ *
+ * Note: events are only raised for the node which performed the write.
+ */
+public class ChangeLogEvent {
+
+    private final Collection<ChangeLog> changeLogs;
+
+
+    public ChangeLogEvent(Collection<ChangeLog> changeLogs) {
+        checkNotNull(changeLogs, "changeLogs cannot be null");
+        this.changeLogs = changeLogs;
+    }
+
+
+    public Collection<ChangeLog> changeLogs() {
+        return changeLogs;
+    }
+}
@@ -18,6 +18,7 @@
 
 package org.finos.waltz.service.changelog;
 
+import org.finos.waltz.common.WriteBehindQueue;
 import org.finos.waltz.data.DBExecutorPoolInterface;
 import org.finos.waltz.data.EntityReferenceNameResolver;
 import org.finos.waltz.data.GenericSelector;
@@ -40,16 +41,30 @@ import org.finos.waltz.model.measurable_rating_replacement.MeasurableRatingRepla
 import org.finos.waltz.model.physical_flow.PhysicalFlow;
 import org.finos.waltz.model.physical_specification.PhysicalSpecification;
 import org.finos.waltz.model.tally.DateTally;
+import org.jooq.DSLContext;
 import org.jooq.lambda.tuple.Tuple2;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
-
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static java.lang.String.format;
 import static org.finos.waltz.common.Checks.checkNotEmpty;
@@ -64,6 +79,8 @@ import static org.jooq.lambda.tuple.Tuple.tuple;
 @Service
 public class ChangeLogService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeLogService.class);
+
     private final ChangeLogDao changeLogDao;
     private final ChangeLogSummariesDao changeLogSummariesDao;
     private final DBExecutorPoolInterface dbExecutorPool;
@@ -74,6 +91,42 @@ public class ChangeLogService {
     private final MeasurableRatingReplacementDao measurableRatingReplacementdao;
     private final MeasurableRatingPlannedDecommissionDao measurableRatingPlannedDecommissionDao;
     private final EntityReferenceNameResolver nameResolver;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ChangeLogWriteStatistics writeStatistics = new ChangeLogWriteStatistics();
+
+    /**
+     * Entries buffered by the current thread whilst inside {@link #batched(Supplier)},
+     * keyed by their content (ignoring the timestamp) to discard duplicates.
+     */
+    private final ThreadLocal<Map<Object, ChangeLog>> batchBuffer = new ThreadLocal<>();
+
+    @Value("${change.log.async.enabled:false}")
+    private boolean asyncEnabled;
+
+    @Value("${change.log.async.queue.capacity:5000}")
+    private int asyncQueueCapacity;
+
+    @Value("${change.log.async.batch.size:500}")
+    private int asyncBatchSize;
+
+    @Value("${change.log.async.flush.millis:1000}")
+    private long asyncFlushMillis;
+
+    @Value("${change.log.events.async.enabled:true}")
+    private boolean asyncEventsEnabled;
+
+    @Value("${change.log.events.queue.capacity:1000}")
+    private int eventQueueCapacity;
+
+    private WriteBehindQueue<ChangeLog> asyncQueue;
+
+    /**
+     * Delivers {@link ChangeLogEvent}s to their listeners, in order, off the writing
+     * thread so that cache refreshes do not add to request latency.  When the queue
+     * is full events are delivered on the writing thread.
+     */
+    private ThreadPoolExecutor eventExecutor;
 
 
     @Autowired
@@ -86,7 +139,8 @@ public class ChangeLogService {
                             ApplicationDao applicationDao,
                             MeasurableRatingReplacementDao measurableRatingReplacementDao,
                             MeasurableRatingPlannedDecommissionDao measurableRatingPlannedDecommissionDao,
-                            EntityReferenceNameResolver nameResolver) {
+                            EntityReferenceNameResolver nameResolver,
+                            ApplicationEventPublisher eventPublisher) {
         checkNotNull(changeLogDao, "changeLogDao must not be null");
         checkNotNull(changeLogSummariesDao, "changeLogSummariesDao must not be null");
         checkNotNull(dbExecutorPool, "dbExecutorPool cannot be null");
@@ -96,6 +150,7 @@ public class ChangeLogService {
         checkNotNull(measurableRatingReplacementDao, "measurableRatingReplacementDao cannot be null");
         checkNotNull(measurableRatingPlannedDecommissionDao, "measurableRatingPlannedDecommissionDao cannot be null");
         checkNotNull(nameResolver, "nameResolver cannot be null");
+        checkNotNull(eventPublisher, "eventPublisher cannot be null");
 
         this.changeLogDao = changeLogDao;
         this.changeLogSummariesDao = changeLogSummariesDao;
@@ -107,6 +162,7 @@ public class ChangeLogService {
         this.measurableRatingReplacementdao = measurableRatingReplacementDao;
         this.measurableRatingPlannedDecommissionDao = measurableRatingPlannedDecommissionDao;
         this.nameResolver = nameResolver;
+        this.eventPublisher = eventPublisher;
     }
 
 
@@ -150,13 +206,147 @@ public class ChangeLogService {
     }
 
 
+    @PostConstruct
+    public void init() {
+        if (asyncEnabled) {
+            asyncQueue = new WriteBehindQueue<>(
+                    "Change Log",
+                    asyncQueueCapacity,
+                    asyncBatchSize,
+                    asyncFlushMillis,
+                    WriteBehindQueue.OverflowPolicy.WRITE_THROUGH,
+                    this::flush);
+        }
+
+        if (asyncEventsEnabled) {
+            eventExecutor = new ThreadPoolExecutor(
+                    1,
+                    1,
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(eventQueueCapacity),
+                    r -> {
+                        Thread t = new Thread(r, "waltz-change-log-events");
+                        t.setDaemon(true);
+                        return t;
+                    },
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+        if (asyncQueue != null) {
+            asyncQueue.close();
+        }
+        if (eventExecutor != null) {
+            eventExecutor.shutdown();
+        }
+    }
+
+
+    /**
+     * Writes the entry immediately, or, if called within {@link #batched(Supplier)},
+     * when the enclosing batch completes.
+     */
     public int write(ChangeLog changeLog) {
-        return changeLogDao.write(changeLog);
+        checkNotNull(changeLog, "changeLog cannot be null");
+        return write(asSet(changeLog)).length;
     }
 
 
+    /**
+     * Writes the entries as a single batch, or, if called within {@link #batched(Supplier)},
+     * when the enclosing batch completes.
+     */
     public int[] write(Collection<ChangeLog> changeLogs) {
-        return changeLogDao.write(changeLogs);
+        checkNotNull(changeLogs, "changeLogs cannot be null");
+        Map<Object, ChangeLog> buffer = batchBuffer.get();
+        if (buffer == null) {
+            return flush(changeLogs);
+        } else {
+            changeLogs.forEach(cl -> {
+                if (buffer.putIfAbsent(mkDedupeKey(cl), cl) != null) {
+                    writeStatistics.recordDuplicate();
+                }
+            });
+            int[] rcs = new int[changeLogs.size()];
+            Arrays.fill(rcs, 1);
+            return rcs;
+        }
+    }
+
+
+    /**
+     * Writes the entries as a single batch using the given (transactional) context,
+     * so they are committed, or rolled back, along with the caller's other changes.
+     * Unlike {@link #write(Collection)} the entries are never deferred to an enclosing
+     * {@link #batched(Supplier)} block.
+     */
+    public int[] write(DSLContext tx, Collection<ChangeLog> changeLogs) {
+        checkNotNull(tx, "tx cannot be null");
+        checkNotNull(changeLogs, "changeLogs cannot be null");
+        if (changeLogs.isEmpty()) {
+            return new int[0];
+        }
+        long start = System.nanoTime();
+        int[] rcs = changeLogDao.write(tx, changeLogs);
+        writeStatistics.recordFlush(changeLogs.size(), System.nanoTime() - start);
+        publishEvent(changeLogs);
+        return rcs;
+    }
+
+
+    /**
+     * For entries which are not audit critical.  If async change logging is
+     * enabled (<code>change.log.async.enabled</code>) the entry is queued and written
+     * in a later batch by a background thread, otherwise it is written as
+     * per {@link #write(ChangeLog)}.
+     */
+    public void writeAsync(ChangeLog changeLog) {
+        checkNotNull(changeLog, "changeLog cannot be null");
+        if (asyncQueue == null) {
+            write(changeLog);
+        } else {
+            asyncQueue.offer(changeLog);
+        }
+    }
+
+
+    /**
+     * Runs the given work, buffering any change log entries written by this
+     * thread until it completes.  The buffered entries (minus duplicates) are then
+     * written as a single batch.  Entries are written even if the work fails as
+     * they describe changes which may already have been made.
+     * Nested calls join the outermost batch.
+     */
+    public <T> T batched(Supplier<T> work) {
+        checkNotNull(work, "work cannot be null");
+        if (batchBuffer.get() != null) {
+            return work.get();
+        }
+
+        Map<Object, ChangeLog> buffer = new LinkedHashMap<>();
+        batchBuffer.set(buffer);
+        try {
+            return work.get();
+        } finally {
+            batchBuffer.remove();
+            if (! buffer.isEmpty()) {
+                flush(new ArrayList<>(buffer.values()));
+            }
+        }
+    }
+
+
+    public ChangeLogWriteStatistics getWriteStatistics() {
+        return writeStatistics;
+    }
+
+
+    public Optional<WriteBehindQueue<ChangeLog>> getAsyncQueue() {
+        return Optional.ofNullable(asyncQueue);
     }
 
 
@@ -277,6 +467,46 @@ public class ChangeLogService {
     }
 
 
+    private int[] flush(Collection<ChangeLog> changeLogs) {
+        if (changeLogs.isEmpty()) {
+            return new int[0];
+        }
+        long start = System.nanoTime();
+        int[] rcs = changeLogDao.write(changeLogs);
+        writeStatistics.recordFlush(changeLogs.size(), System.nanoTime() - start);
+        publishEvent(changeLogs);
+        return rcs;
+    }
+
+
+    private void publishEvent(Collection<ChangeLog> changeLogs) {
+        ChangeLogEvent event = new ChangeLogEvent(new ArrayList<>(changeLogs));
+        if (eventExecutor == null) {
+            eventPublisher.publishEvent(event);
+        } else {
+            eventExecutor.execute(() -> {
+                try {
+                    eventPublisher.publishEvent(event);
+                } catch (RuntimeException e) {
+                    LOG.warn("Failed to deliver change log event for {} entries", changeLogs.size(), e);
+                }
+            });
+        }
+    }
+
+
+    private static Object mkDedupeKey(ChangeLog changeLog) {
+        return tuple(
+                changeLog.parentReference().kind(),
+                changeLog.parentReference().id(),
+                changeLog.childKind(),
+                changeLog.operation(),
+                changeLog.severity(),
+                changeLog.userId(),
+                changeLog.message());
+    }
+
+
     private Tuple2<String, Set<EntityReference>> preparePreambleAndEntitiesForChangeLogs(PhysicalSpecification physicalSpec) {
         List<PhysicalFlow> physicalFlows = physicalFlowDao.findBySpecificationId(physicalSpec.id().get());
 
@@ -0,0 +1,93 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.changelog;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing the batches of change log entries written by the
+ * {@link ChangeLogService}, exposed via jmx.
+ */
+public class ChangeLogWriteStatistics {
+
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder entryCount = new LongAdder();
+    private final LongAdder duplicateCount = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+
+    void recordFlush(int batchSize, long durationNanos) {
+        batchCount.increment();
+        entryCount.add(batchSize);
+        flushNanos.add(durationNanos);
+        maxBatchSize.accumulateAndGet(batchSize, Math::max);
+        maxFlushNanos.accumulateAndGet(durationNanos, Math::max);
+    }
+
+
+    void recordDuplicate() {
+        duplicateCount.increment();
+    }
+
+
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+
+    public long getEntryCount() {
+        return entryCount.sum();
+    }
+
+
+    public long getDuplicateCount() {
+        return duplicateCount.sum();
+    }
+
+
+    public long getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+
+    public double getMeanBatchSize() {
+        long batches = batchCount.sum();
+        return batches == 0
+                ? 0
+                : (double) entryCount.sum() / batches;
+    }
+
+
+    public double getMeanFlushMillis() {
+        long batches = batchCount.sum();
+        return batches == 0
+                ? 0
+                : (double) TimeUnit.NANOSECONDS.toMicros(flushNanos.sum()) / batches / 1000;
+    }
+
+
+    public long getMaxFlushMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxFlushNanos.get());
+    }
+
+}
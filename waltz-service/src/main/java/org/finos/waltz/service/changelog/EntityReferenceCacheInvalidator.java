@@ -0,0 +1,77 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.changelog;
+
+import org.finos.waltz.data.EntityReferenceCache;
+import org.finos.waltz.model.changelog.ChangeLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import static org.finos.waltz.common.Checks.checkNotNull;
+
+/**
+ * Keeps the {@link EntityReferenceCache} in step with changes made on this node.
+ *
+ * The parent entity of each change log entry is evicted.  Where the entry only
+ * names the kind of the child entity (e.g. a flow being removed from an app) every
+ * cached entry of that kind is evicted.  Changes made on other nodes, or by jobs
+ * which do not write change logs, are picked up by periodically clearing the
+ * cache (<code>entity.reference.cache.clear.millis</code>).
+ */
+@Service
+public class EntityReferenceCacheInvalidator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntityReferenceCacheInvalidator.class);
+
+    private final EntityReferenceCache entityReferenceCache;
+
+
+    @Autowired
+    public EntityReferenceCacheInvalidator(EntityReferenceCache entityReferenceCache) {
+        checkNotNull(entityReferenceCache, "entityReferenceCache cannot be null");
+        this.entityReferenceCache = entityReferenceCache;
+    }
+
+
+    @EventListener
+    public void onChangeLog(ChangeLogEvent event) {
+        for (ChangeLog changeLog : event.changeLogs()) {
+            entityReferenceCache.invalidate(
+                    changeLog.parentReference().kind(),
+                    changeLog.parentReference().id());
+
+            changeLog
+                    .childKind()
+                    .filter(k -> k != changeLog.parentReference().kind())
+                    .ifPresent(entityReferenceCache::invalidate);
+        }
+    }
+
+
+    @Scheduled(fixedDelayString = "${entity.reference.cache.clear.millis:300000}", initialDelay = 300_000)
+    public void clear() {
+        LOG.debug("Clearing entity reference cache");
+        entityReferenceCache.invalidateAll();
+    }
+
+}
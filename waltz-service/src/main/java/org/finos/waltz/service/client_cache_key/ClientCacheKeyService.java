@@ -22,13 +22,16 @@ package org.finos.waltz.service.client_cache_key;
 import org.finos.waltz.data.client_cache_key.ClientCacheKeyDao;
 import org.finos.waltz.model.client_cache_key.ClientCacheKey;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static java.util.UUID.randomUUID;
 import static org.finos.waltz.common.Checks.checkNotNull;
+import static org.finos.waltz.common.MapUtilities.indexBy;
 
 
 @Service
@@ -36,6 +39,9 @@ public class ClientCacheKeyService {
 
     private final ClientCacheKeyDao clientCacheKeyDao;
 
+    // in-memory view of the guids, kept current by polling and by local updates
+    private volatile Map<String, String> guidsByKey = null;
+
 
     @Autowired
     public ClientCacheKeyService(ClientCacheKeyDao clientCacheKeyDao) {
@@ -57,7 +63,42 @@ public class ClientCacheKeyService {
     public ClientCacheKey createOrUpdate(String key) {
         UUID guid = randomUUID();
         clientCacheKeyDao.createOrUpdate(key, guid.toString());
+        refreshCachedGuids();
         return clientCacheKeyDao.getByKey(key);
     }
 
+
+    /**
+     * Returns the current guid for the key without going to the database.  Changes
+     * made on this node are reflected immediately, those made on other nodes once
+     * the next poll (<code>client.cache.key.poll.millis</code>) has run.
+     *
+     * @return the guid or null if the key has never been set
+     */
+    public String getCachedGuid(String key) {
+        Map<String, String> snapshot = guidsByKey;
+        if (snapshot == null) {
+            snapshot = refreshCachedGuids();
+        }
+        return snapshot.get(key);
+    }
+
+
+    @Scheduled(fixedDelayString = "${client.cache.key.poll.millis:10000}")
+    public void pollCachedGuids() {
+        refreshCachedGuids();
+    }
+
+
+    // --- helpers ---
+
+    private Map<String, String> refreshCachedGuids() {
+        Map<String, String> snapshot = indexBy(
+                ClientCacheKey::key,
+                ClientCacheKey::guid,
+                clientCacheKeyDao.findAll());
+        guidsByKey = snapshot;
+        return snapshot;
+    }
+
 }
@@ -20,17 +20,13 @@ package org.finos.waltz.service.data_flow_decorator;
 
 import org.finos.waltz.service.application.ApplicationService;
 import org.finos.waltz.service.flow_classification_rule.FlowClassificationRuleResolver;
-import org.finos.waltz.data.data_type.DataTypeDao;
-import org.finos.waltz.data.flow_classification_rule.FlowClassificationDao;
-import org.finos.waltz.data.flow_classification_rule.FlowClassificationRuleDao;
+import org.finos.waltz.service.flow_classification_rule.FlowClassificationRuleResolverCache;
 import org.finos.waltz.data.logical_flow.LogicalFlowDao;
 import org.finos.waltz.model.EntityKind;
 import org.finos.waltz.model.EntityReference;
 import org.finos.waltz.model.application.Application;
-import org.finos.waltz.model.datatype.DataType;
 import org.finos.waltz.model.datatype.DataTypeDecorator;
 import org.finos.waltz.model.datatype.ImmutableDataTypeDecorator;
-import org.finos.waltz.model.flow_classification.FlowClassification;
 import org.finos.waltz.model.flow_classification_rule.FlowClassificationRuleVantagePoint;
 import org.finos.waltz.model.logical_flow.LogicalFlow;
 import org.finos.waltz.model.rating.AuthoritativenessRatingValue;
@@ -58,29 +54,21 @@ public class LogicalFlowDecoratorRatingsCalculator {
                 f.source().kind() == EntityKind.APPLICATION;
 
     private final ApplicationService applicationService;
-    private final FlowClassificationDao flowClassificationDao;
-    private final FlowClassificationRuleDao flowClassificationRuleDao;
+    private final FlowClassificationRuleResolverCache resolverCache;
     private final LogicalFlowDao logicalFlowDao;
-    private final DataTypeDao dataTypeDao;
 
 
     @Autowired
     public LogicalFlowDecoratorRatingsCalculator(ApplicationService applicationService,
-                                                 FlowClassificationDao flowClassificationDao,
-                                                 FlowClassificationRuleDao flowClassificationRuleDao,
-                                                 LogicalFlowDao logicalFlowDao,
-                                                 DataTypeDao dataTypeDao) {
+                                                 FlowClassificationRuleResolverCache resolverCache,
+                                                 LogicalFlowDao logicalFlowDao) {
         checkNotNull(applicationService, "applicationService cannot be null");
-        checkNotNull(flowClassificationDao, "flowClassificationDao cannot be null");
-        checkNotNull(flowClassificationRuleDao, "flowClassificationRuleDao cannot be null");
+        checkNotNull(resolverCache, "resolverCache cannot be null");
         checkNotNull(logicalFlowDao, "logicalFlowDao cannot be null");
-        checkNotNull(dataTypeDao, "dataTypeDao cannot be null");
 
         this.applicationService = applicationService;
-        this.flowClassificationDao = flowClassificationDao;
-        this.flowClassificationRuleDao = flowClassificationRuleDao;
+        this.resolverCache = resolverCache;
         this.logicalFlowDao = logicalFlowDao;
-        this.dataTypeDao = dataTypeDao;
     }
 
 
@@ -93,14 +81,11 @@ public class LogicalFlowDecoratorRatingsCalculator {
         if (isEmpty(appToAppFlows)) return Collections.emptyList();
 
         List<Application> targetApps = loadTargetApplications(appToAppFlows);
-        List<DataType> dataTypes = dataTypeDao.findAll();
-        Set<FlowClassification> flowClassifications = flowClassificationDao.findAll();
 
-        Map<Long, DataType> typesById = indexById(dataTypes);
         Map<Long, LogicalFlow> flowsById = indexById(appToAppFlows);
         Map<Long, Application> targetAppsById = indexById(targetApps);
 
-        FlowClassificationRuleResolver resolver = createResolver(targetApps);
+        FlowClassificationRuleResolver resolver = resolverCache.getResolver();
 
         return decorators
                 .stream()
@@ -116,7 +101,6 @@ public class LogicalFlowDecoratorRatingsCalculator {
                                     resolver,
                                     decorator);
                             Optional<Long> ruleId = lookupFlowClassificationRule(
-                                    typesById,
                                     flowsById,
                                     targetAppsById,
                                     resolver,
@@ -152,33 +136,22 @@ public class LogicalFlowDecoratorRatingsCalculator {
     }
 
 
-    private FlowClassificationRuleResolver createResolver(Collection<Application> targetApps) {
-        Set<Long> orgIds = map(targetApps, app -> app.organisationalUnitId());
-
-        List<FlowClassificationRuleVantagePoint> flowClassificationRuleVantagePoints =
-                flowClassificationRuleDao.findExpandedFlowClassificationRuleVantagePoints(orgIds);
-
-        FlowClassificationRuleResolver resolver = new FlowClassificationRuleResolver(flowClassificationRuleVantagePoints);
-
-        return resolver;
-    }
-
-
     private AuthoritativenessRatingValue lookupRating(Map<Long, LogicalFlow> flowsById,
                                                       Map<Long, Application> targetAppsById,
                                                       FlowClassificationRuleResolver resolver,
                                                       DataTypeDecorator decorator) {
 
         LogicalFlow flow = flowsById.get(decorator.dataFlowId());
-        EntityReference vantagePoint = lookupVantagePoint(targetAppsById, flow);
-        EntityReference source = flow.source();
+        Application targetApp = targetAppsById.get(flow.target().id());
 
-        return resolver.resolve(vantagePoint, source, decorator.decoratorEntity().id());
+        return resolver.resolve(
+                targetApp.organisationalUnitId(),
+                decorator.decoratorEntity().id(),
+                flow.source().id());
     }
 
 
-    private Optional<Long> lookupFlowClassificationRule(Map<Long, DataType> typesById,
-                                                        Map<Long, LogicalFlow> flowsById,
+    private Optional<Long> lookupFlowClassificationRule(Map<Long, LogicalFlow> flowsById,
                                                         Map<Long, Application> targetAppsById,
                                                         FlowClassificationRuleResolver resolver,
                                                         DataTypeDecorator decorator) {
@@ -205,10 +178,4 @@ public class LogicalFlowDecoratorRatingsCalculator {
     }
 
 
-    private String lookupDataTypeCode(Map<Long, DataType> typesById, DataTypeDecorator decorator) {
-        long dataTypeId = decorator.decoratorEntity().id();
-        return typesById.get(dataTypeId).code();
-    }
-
-
 }
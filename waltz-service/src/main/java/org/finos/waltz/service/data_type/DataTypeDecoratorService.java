@@ -42,11 +42,14 @@ import org.finos.waltz.model.rating.AuthoritativenessRatingValue;
 import org.jooq.Record1;
 import org.jooq.Select;
 import org.jooq.impl.DSL;
+import org.jooq.lambda.tuple.Tuple2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
@@ -58,6 +61,7 @@ import static org.finos.waltz.common.SetUtilities.asSet;
 import static org.finos.waltz.model.EntityKind.*;
 import static org.finos.waltz.model.EntityReference.mkRef;
 import static org.finos.waltz.model.IdSelectionOptions.mkOpts;
+import static org.jooq.lambda.tuple.Tuple.tuple;
 
 @Service
 public class DataTypeDecoratorService {
@@ -183,6 +187,86 @@ public class DataTypeDecoratorService {
     }
 
 
+    /**
+     * Bulk equivalent of {@link #addDecorators(String, EntityReference, Set)}.  Decorators for
+     * all the entities (of the given kind) are rated and stored together, data type usages
+     * are recalculated once for all the affected applications/actors.
+     *
+     * @param dataTypeIdsByEntityId  map of entity id to the data type ids to add to it
+     * @return number of decorators added
+     */
+    public int addDecorators(String userName,
+                             EntityKind entityKind,
+                             Map<Long, Set<Long>> dataTypeIdsByEntityId) {
+        checkNotNull(userName, "userName cannot be null");
+        checkNotNull(entityKind, "entityKind cannot be null");
+        checkNotNull(dataTypeIdsByEntityId, "dataTypeIdsByEntityId cannot be null");
+
+        if (dataTypeIdsByEntityId.isEmpty()) {
+            return 0;
+        }
+
+        Optional<AuthoritativenessRatingValue> initialRating = LOGICAL_DATA_FLOW.equals(entityKind)
+                ? Optional.of(AuthoritativenessRatingValue.NO_OPINION)
+                : Optional.empty();
+
+        List<DataTypeDecorator> decorators = dataTypeIdsByEntityId
+                .entrySet()
+                .stream()
+                .flatMap(e -> e.getValue()
+                        .stream()
+                        .map(dtId -> mkDecorator(userName, mkRef(entityKind, e.getKey()), dtId, initialRating)))
+                .collect(Collectors.toList());
+
+        if (LOGICAL_DATA_FLOW.equals(entityKind)) {
+            // only app to app flows are rated, others keep their initial rating
+            Map<Tuple2<Long, Long>, DataTypeDecorator> ratedByFlowAndDataType = new HashMap<>();
+            ratingsCalculator
+                    .calculate(decorators)
+                    .forEach(d -> ratedByFlowAndDataType.put(tuple(d.dataFlowId(), d.dataTypeId()), d));
+            decorators = decorators
+                    .stream()
+                    .map(d -> ratedByFlowAndDataType.getOrDefault(tuple(d.dataFlowId(), d.dataTypeId()), d))
+                    .collect(Collectors.toList());
+        }
+
+        int[] result = dataTypeDecoratorDaoSelectorFactory
+                .getDao(entityKind)
+                .addDecorators(decorators);
+
+        changeLogService.write(dataTypeIdsByEntityId
+                .entrySet()
+                .stream()
+                .map(e -> ImmutableChangeLog.builder()
+                        .parentReference(mkRef(entityKind, e.getKey()))
+                        .userId(userName)
+                        .severity(Severity.INFORMATION)
+                        .message(format("Added data types: %s", e.getValue().toString()))
+                        .childKind(EntityKind.DATA_TYPE)
+                        .operation(Operation.UPDATE)
+                        .build())
+                .collect(Collectors.toList()));
+
+        if (LOGICAL_DATA_FLOW.equals(entityKind)) {
+            List<EntityReference> endpoints = logicalFlowDao
+                    .findActiveByFlowIds(dataTypeIdsByEntityId.keySet())
+                    .stream()
+                    .flatMap(f -> Stream.of(f.source(), f.target()))
+                    .distinct()
+                    .collect(Collectors.toList());
+            dataTypeUsageService.recalculateForApplications(endpoints);
+        }
+
+        if (PHYSICAL_SPECIFICATION.equals(entityKind)) {
+            dataTypeIdsByEntityId
+                    .keySet()
+                    .forEach(specId -> physicalSpecificationService.propagateDataTypesToLogicalFlows(userName, specId));
+        }
+
+        return IntStream.of(result).sum();
+    }
+
+
     public int removeDataTypeDecorator(String userName, EntityReference entityReference, Set<Long> dataTypeIds) {
         checkNotNull(userName, "userName cannot be null");
         checkNotNull(dataTypeIds, "dataTypeIds cannot be null");
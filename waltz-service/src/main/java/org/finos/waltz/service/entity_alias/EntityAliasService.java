@@ -20,12 +20,14 @@ package org.finos.waltz.service.entity_alias;
 
 import org.finos.waltz.common.Checks;
 import org.finos.waltz.data.entity_alias.EntityAliasDao;
+import org.finos.waltz.model.EntityKind;
 import org.finos.waltz.model.EntityReference;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class EntityAliasService {
@@ -44,6 +46,11 @@ public class EntityAliasService {
     }
 
 
+    public Map<Long, List<String>> findAliasesByKind(EntityKind kind) {
+        return entityAliasDao.findAliasesByKind(kind);
+    }
+
+
     public int[] updateAliases(EntityReference ref, Collection<String> aliases) {
         return entityAliasDao.updateAliases(ref, aliases);
     }
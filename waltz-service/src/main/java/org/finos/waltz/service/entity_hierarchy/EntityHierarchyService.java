@@ -41,6 +41,7 @@ import org.finos.waltz.model.tally.Tally;
 import org.jooq.*;
 import org.jooq.impl.DSL;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -67,6 +68,10 @@ public class EntityHierarchyService {
     private final OrganisationalUnitDao organisationalUnitDao;
     private final PersonHierarchyService personHierarchyService;
 
+    // if true only the differences between the computed and stored hierarchies are written
+    @Value("${entity.hierarchy.rebuild.incremental:true}")
+    private boolean incrementalRebuild;
+
     @Autowired
     public EntityHierarchyService(DSLContext dsl,
                                   ChangeInitiativeDao changeInitiativeDao,
@@ -167,7 +172,9 @@ public class EntityHierarchyService {
         Collection<FlatNode<Long, Long>> flatNodes = fetchFlatNodes(table, selectFilter);
         List<EntityHierarchyItem> hierarchyItems = convertFlatNodesToHierarchyItems(kind, flatNodes);
 
-        return entityHierarchyDao.replaceHierarchy(kind, hierarchyItems, deleteFilter);
+        return incrementalRebuild
+                ? entityHierarchyDao.syncHierarchy(kind, hierarchyItems, deleteFilter)
+                : entityHierarchyDao.replaceHierarchy(kind, hierarchyItems, deleteFilter);
     }
 
 
@@ -0,0 +1,318 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.entity_search;
+
+import org.finos.waltz.data.SearchUtilities;
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.EntityLifecycleStatus;
+import org.finos.waltz.model.EntityReference;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static java.util.stream.Collectors.toList;
+import static org.finos.waltz.common.Checks.checkNotNull;
+import static org.finos.waltz.common.StringUtilities.isEmpty;
+
+/**
+ * In-memory index of searchable entities, partitioned by entity kind.
+ *
+ * Names and aliases are broken into trigrams, each trigram holding the ids
+ * of the entities which contain it.  A term is looked up by intersecting
+ * the postings of its trigrams and the candidates are then verified, so
+ * matching is equivalent to the <code>contains</code> (<code>LIKE '%term%'</code>)
+ * conditions used by the search daos.  Keys (asset codes, external ids,
+ * codes, emails etc.) are held in a sorted map and matched by prefix.
+ *
+ * Results are ranked key matches first, followed by name/alias matches
+ * ordered using {@link SearchUtilities#mkRelevancyComparator}.
+ */
+public class EntitySearchIndex {
+
+    private static final int GRAM_SIZE = 3;
+
+
+    public static class Entry {
+        private final EntityReference ref;
+        private final String name;
+        private final EntityLifecycleStatus lifecycleStatus;
+        private final List<String> keys;
+        private final List<String> aliases;
+
+
+        public Entry(EntityReference ref,
+                     EntityLifecycleStatus lifecycleStatus,
+                     Collection<String> keys,
+                     Collection<String> aliases) {
+            checkNotNull(ref, "ref cannot be null");
+            checkNotNull(lifecycleStatus, "lifecycleStatus cannot be null");
+            this.ref = ref;
+            this.name = ref.name().orElse("");
+            this.lifecycleStatus = lifecycleStatus;
+            this.keys = normalize(keys);
+            this.aliases = normalize(aliases);
+        }
+
+
+        private String lowerName() {
+            return name.toLowerCase();
+        }
+
+
+        private boolean nameOrAliasContainsAll(List<String> terms) {
+            return containsAll(lowerName(), terms)
+                    || aliases.stream().anyMatch(a -> containsAll(a, terms));
+        }
+
+
+        private static boolean containsAll(String s, List<String> terms) {
+            return terms.stream().allMatch(s::contains);
+        }
+
+
+        private static List<String> normalize(Collection<String> xs) {
+            return xs == null
+                    ? Collections.emptyList()
+                    : xs.stream()
+                        .filter(x -> ! isEmpty(x))
+                        .map(x -> x.trim().toLowerCase())
+                        .distinct()
+                        .collect(toList());
+        }
+    }
+
+
+    private static class KindIndex {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Entry> entriesById = new HashMap<>();
+        private final Map<String, Set<Long>> idsByGram = new HashMap<>();
+        private final NavigableMap<String, Set<Long>> idsByKey = new TreeMap<>();
+
+
+        private void add(Entry entry) {
+            long id = entry.ref.id();
+            entriesById.put(id, entry);
+            grams(entry).forEach(g -> idsByGram.computeIfAbsent(g, k -> new HashSet<>()).add(id));
+            entry.keys.forEach(k -> idsByKey.computeIfAbsent(k, x -> new HashSet<>()).add(id));
+        }
+
+
+        private void remove(long id) {
+            Entry existing = entriesById.remove(id);
+            if (existing == null) {
+                return;
+            }
+            grams(existing).forEach(g -> removePosting(idsByGram, g, id));
+            existing.keys.forEach(k -> removePosting(idsByKey, k, id));
+        }
+
+
+        private static Set<String> grams(Entry entry) {
+            Set<String> grams = new HashSet<>();
+            addGrams(grams, entry.lowerName());
+            entry.aliases.forEach(a -> addGrams(grams, a));
+            return grams;
+        }
+
+
+        private static void addGrams(Set<String> grams, String s) {
+            for (int i = 0; i + GRAM_SIZE <= s.length(); i++) {
+                grams.add(s.substring(i, i + GRAM_SIZE));
+            }
+        }
+
+
+        private static void removePosting(Map<String, Set<Long>> postings, String key, long id) {
+            Set<Long> ids = postings.get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+
+
+    private final Map<EntityKind, KindIndex> indexesByKind = new ConcurrentHashMap<>();
+
+
+    /**
+     * Replaces all entries for the given kind, the kind becomes searchable
+     * via this index once this method returns.
+     */
+    public void replaceAll(EntityKind kind, Collection<Entry> entries) {
+        checkNotNull(kind, "kind cannot be null");
+        checkNotNull(entries, "entries cannot be null");
+
+        KindIndex replacement = new KindIndex();
+        entries.forEach(replacement::add);
+        indexesByKind.put(kind, replacement);
+    }
+
+
+    /**
+     * Adds or replaces a single entry.  Ignored if the kind has not been indexed.
+     */
+    public void put(Entry entry) {
+        checkNotNull(entry, "entry cannot be null");
+        withWriteLock(entry.ref.kind(), idx -> {
+            idx.remove(entry.ref.id());
+            idx.add(entry);
+        });
+    }
+
+
+    public void remove(EntityKind kind, long id) {
+        withWriteLock(kind, idx -> idx.remove(id));
+    }
+
+
+    public boolean isIndexed(EntityKind kind) {
+        return indexesByKind.containsKey(kind);
+    }
+
+
+    public int size(EntityKind kind) {
+        KindIndex idx = indexesByKind.get(kind);
+        return idx == null
+                ? 0
+                : idx.entriesById.size();
+    }
+
+
+    /**
+     * @param kind  kind of entity to search for, must have been indexed
+     * @param query  the raw search query (as given in <code>EntitySearchOptions</code>)
+     * @param lifecycleStatuses  only entries with one of these statuses will be returned
+     * @param limit  maximum number of results
+     * @return matching entities, most relevant first
+     */
+    public List<EntityReference> search(EntityKind kind,
+                                        String query,
+                                        Collection<EntityLifecycleStatus> lifecycleStatuses,
+                                        int limit) {
+        KindIndex idx = indexesByKind.get(kind);
+        checkNotNull(idx, "kind: %s has not been indexed", kind);
+
+        List<String> terms = SearchUtilities.mkTerms(query.toLowerCase());
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        idx.lock.readLock().lock();
+        try {
+            Set<Long> keyMatches = findKeyMatches(idx, terms);
+            Set<Long> nameMatches = findNameMatches(idx, terms);
+
+            Comparator<Entry> relevancy = SearchUtilities.mkRelevancyComparator(Entry::lowerName, terms.get(0));
+
+            List<Entry> byKey = select(idx, keyMatches, lifecycleStatuses, Comparator.comparing(Entry::lowerName));
+            List<Entry> byName = select(idx, nameMatches, lifecycleStatuses, relevancy);
+
+            LinkedHashSet<EntityReference> result = new LinkedHashSet<>();
+            byKey.forEach(e -> result.add(e.ref));
+            byName.forEach(e -> result.add(e.ref));
+
+            return result
+                    .stream()
+                    .limit(limit)
+                    .collect(toList());
+        } finally {
+            idx.lock.readLock().unlock();
+        }
+    }
+
+
+    // --- helpers ---
+
+    private void withWriteLock(EntityKind kind, Consumer<KindIndex> action) {
+        KindIndex idx = indexesByKind.get(kind);
+        if (idx == null) {
+            return;
+        }
+        idx.lock.writeLock().lock();
+        try {
+            action.accept(idx);
+        } finally {
+            idx.lock.writeLock().unlock();
+        }
+    }
+
+
+    private static Set<Long> findKeyMatches(KindIndex idx, List<String> terms) {
+        Set<Long> matches = new HashSet<>();
+        terms.forEach(t -> idx.idsByKey
+                .subMap(t, true, t + Character.MAX_VALUE, true)
+                .values()
+                .forEach(matches::addAll));
+        return matches;
+    }
+
+
+    private static Set<Long> findNameMatches(KindIndex idx, List<String> terms) {
+        Collection<Long> candidates = null;
+
+        for (String term : terms) {
+            if (term.length() < GRAM_SIZE) {
+                continue;  // too short to use postings, checked when verifying candidates
+            }
+            for (int i = 0; i + GRAM_SIZE <= term.length(); i++) {
+                Set<Long> ids = idx.idsByGram.getOrDefault(term.substring(i, i + GRAM_SIZE), Collections.emptySet());
+                if (candidates == null) {
+                    candidates = new HashSet<>(ids);
+                } else {
+                    candidates.retainAll(ids);
+                }
+                if (candidates.isEmpty()) {
+                    return Collections.emptySet();
+                }
+            }
+        }
+
+        Collection<Long> toVerify = candidates == null
+                ? idx.entriesById.keySet()
+                : candidates;
+
+        Set<Long> matches = new HashSet<>();
+        for (Long id : toVerify) {
+            if (idx.entriesById.get(id).nameOrAliasContainsAll(terms)) {
+                matches.add(id);
+            }
+        }
+        return matches;
+    }
+
+
+    private static List<Entry> select(KindIndex idx,
+                                      Set<Long> ids,
+                                      Collection<EntityLifecycleStatus> lifecycleStatuses,
+                                      Comparator<Entry> comparator) {
+        return ids
+                .stream()
+                .map(idx.entriesById::get)
+                .filter(e -> lifecycleStatuses.contains(e.lifecycleStatus))
+                .sorted(comparator)
+                .collect(toList());
+    }
+
+}
@@ -0,0 +1,242 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.entity_search;
+
+import org.finos.waltz.model.*;
+import org.finos.waltz.model.changelog.ChangeLog;
+import org.finos.waltz.model.entity_search.EntitySearchOptions;
+import org.finos.waltz.model.person.Person;
+import org.finos.waltz.service.actor.ActorService;
+import org.finos.waltz.service.application.ApplicationService;
+import org.finos.waltz.service.change_initiative.ChangeInitiativeService;
+import org.finos.waltz.service.changelog.ChangeLogEvent;
+import org.finos.waltz.service.data_type.DataTypeService;
+import org.finos.waltz.service.entity_alias.EntityAliasService;
+import org.finos.waltz.service.logical_data_element.LogicalDataElementService;
+import org.finos.waltz.service.measurable.MeasurableService;
+import org.finos.waltz.service.orgunit.OrganisationalUnitService;
+import org.finos.waltz.service.person.PersonService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+import static org.finos.waltz.common.Checks.checkNotNull;
+import static org.finos.waltz.common.ListUtilities.newArrayList;
+
+/**
+ * Maintains an {@link EntitySearchIndex} for the entity kinds which can be
+ * loaded in bulk and individually.  Enabled via <code>search.index.enabled</code>.
+ *
+ * Each kind is fully (re)built in the background on a schedule
+ * (<code>search.index.rebuild.millis</code>) which also picks up changes made
+ * on other nodes.  Between rebuilds, entities referenced by change log
+ * events raised on this node are reloaded individually.
+ *
+ * Kinds which are not (yet) indexed are reported as such via
+ * {@link #isIndexed(EntityKind)} and should be searched via the database.
+ */
+@Service
+public class EntitySearchIndexService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntitySearchIndexService.class);
+
+
+    private static class KindSource {
+        private final Supplier<Collection<? extends WaltzEntity>> all;
+        private final LongFunction<? extends WaltzEntity> byId;
+
+        private KindSource(Supplier<Collection<? extends WaltzEntity>> all,
+                           LongFunction<? extends WaltzEntity> byId) {
+            this.all = all;
+            this.byId = byId;
+        }
+    }
+
+
+    private final EntityAliasService entityAliasService;
+    private final Map<EntityKind, KindSource> sourcesByKind = new EnumMap<>(EntityKind.class);
+    private final EntitySearchIndex index = new EntitySearchIndex();
+    private final Queue<EntityReference> pendingUpdates = new ConcurrentLinkedQueue<>();
+
+    @Value("${search.index.enabled:false}")
+    private boolean enabled;
+
+
+    @Autowired
+    public EntitySearchIndexService(ActorService actorService,
+                                    ApplicationService applicationService,
+                                    ChangeInitiativeService changeInitiativeService,
+                                    DataTypeService dataTypeService,
+                                    EntityAliasService entityAliasService,
+                                    LogicalDataElementService logicalDataElementService,
+                                    MeasurableService measurableService,
+                                    OrganisationalUnitService organisationalUnitService,
+                                    PersonService personService) {
+        checkNotNull(actorService, "actorService cannot be null");
+        checkNotNull(applicationService, "applicationService cannot be null");
+        checkNotNull(changeInitiativeService, "changeInitiativeService cannot be null");
+        checkNotNull(dataTypeService, "dataTypeService cannot be null");
+        checkNotNull(entityAliasService, "entityAliasService cannot be null");
+        checkNotNull(logicalDataElementService, "logicalDataElementService cannot be null");
+        checkNotNull(measurableService, "measurableService cannot be null");
+        checkNotNull(organisationalUnitService, "organisationalUnitService cannot be null");
+        checkNotNull(personService, "personService cannot be null");
+
+        this.entityAliasService = entityAliasService;
+
+        sourcesByKind.put(EntityKind.ACTOR, new KindSource(actorService::findAll, actorService::getById));
+        sourcesByKind.put(EntityKind.APPLICATION, new KindSource(applicationService::findAll, applicationService::getById));
+        sourcesByKind.put(EntityKind.CHANGE_INITIATIVE, new KindSource(changeInitiativeService::findAll, changeInitiativeService::getById));
+        sourcesByKind.put(EntityKind.DATA_TYPE, new KindSource(dataTypeService::findAll, dataTypeService::getDataTypeById));
+        sourcesByKind.put(EntityKind.LOGICAL_DATA_ELEMENT, new KindSource(logicalDataElementService::findAll, logicalDataElementService::getById));
+        sourcesByKind.put(EntityKind.MEASURABLE, new KindSource(measurableService::findAll, measurableService::getById));
+        sourcesByKind.put(EntityKind.ORG_UNIT, new KindSource(organisationalUnitService::findAll, organisationalUnitService::getById));
+        sourcesByKind.put(EntityKind.PERSON, new KindSource(personService::all, personService::getById));
+    }
+
+
+    public boolean isIndexed(EntityKind kind) {
+        return enabled && index.isIndexed(kind);
+    }
+
+
+    public List<EntityReference> search(EntityKind kind, EntitySearchOptions options) {
+        checkNotNull(options, "options cannot be null");
+        return index.search(
+                kind,
+                options.searchQuery(),
+                options.entityLifecycleStatuses(),
+                options.limit());
+    }
+
+
+    @Scheduled(fixedDelayString = "${search.index.rebuild.millis:900000}", initialDelay = 10_000)
+    public void rebuild() {
+        if (! enabled) {
+            return;
+        }
+
+        sourcesByKind.forEach((kind, source) -> {
+            try {
+                long st = System.currentTimeMillis();
+                Map<Long, List<String>> aliasesById = entityAliasService.findAliasesByKind(kind);
+                List<EntitySearchIndex.Entry> entries = source.all
+                        .get()
+                        .stream()
+                        .map(e -> mkEntry(e, aliasesById.getOrDefault(e.entityReference().id(), emptyList())))
+                        .collect(toList());
+                index.replaceAll(kind, entries);
+                LOG.info("Indexed {} {} entities for search in {}ms", entries.size(), kind, System.currentTimeMillis() - st);
+            } catch (Exception e) {
+                LOG.warn("Failed to build search index for {}, will retry", kind, e);
+            }
+        });
+    }
+
+
+    @EventListener
+    public void onChangeLog(ChangeLogEvent event) {
+        if (! enabled) {
+            return;
+        }
+
+        event.changeLogs()
+                .stream()
+                .map(ChangeLog::parentReference)
+                .filter(ref -> index.isIndexed(ref.kind()))
+                .forEach(pendingUpdates::add);
+    }
+
+
+    @Scheduled(fixedDelay = 5_000, initialDelay = 5_000)
+    public void applyPendingUpdates() {
+        Set<EntityReference> refs = new HashSet<>();
+        EntityReference ref;
+        while ((ref = pendingUpdates.poll()) != null) {
+            refs.add(EntityReference.mkRef(ref.kind(), ref.id()));
+        }
+
+        refs.forEach(r -> {
+            try {
+                WaltzEntity entity = sourcesByKind.get(r.kind()).byId.apply(r.id());
+                if (entity == null) {
+                    index.remove(r.kind(), r.id());
+                } else {
+                    index.put(mkEntry(entity, entityAliasService.findAliasesForEntityReference(r)));
+                }
+            } catch (Exception e) {
+                LOG.warn("Failed to update search index for {}, will be corrected by next rebuild", r, e);
+            }
+        });
+    }
+
+
+    // --- helpers ---
+
+    private static EntitySearchIndex.Entry mkEntry(WaltzEntity entity,
+                                                   Collection<String> aliases) {
+        return new EntitySearchIndex.Entry(
+                entity.entityReference(),
+                determineLifecycleStatus(entity),
+                determineKeys(entity),
+                aliases);
+    }
+
+
+    private static EntityLifecycleStatus determineLifecycleStatus(WaltzEntity entity) {
+        if (entity instanceof EntityLifecycleStatusProvider) {
+            return ((EntityLifecycleStatusProvider) entity).entityLifecycleStatus();
+        } else if (entity instanceof IsRemovedProvider && ((IsRemovedProvider) entity).isRemoved()) {
+            return EntityLifecycleStatus.REMOVED;
+        } else if (entity instanceof Person && ((Person) entity).isRemoved()) {
+            return EntityLifecycleStatus.REMOVED;
+        } else {
+            return EntityLifecycleStatus.ACTIVE;
+        }
+    }
+
+
+    private static List<String> determineKeys(WaltzEntity entity) {
+        List<String> keys = newArrayList();
+        if (entity instanceof ExternalIdProvider) {
+            ((ExternalIdProvider) entity).externalId().ifPresent(keys::add);
+        }
+        if (entity instanceof CodeProvider) {
+            keys.add(((CodeProvider) entity).code());
+        }
+        if (entity instanceof Person) {
+            Person person = (Person) entity;
+            keys.add(person.email());
+            keys.add(person.employeeId());
+        }
+        return keys;
+    }
+
+}
@@ -33,29 +33,36 @@ import org.finos.waltz.service.roadmap.RoadmapService;
 import org.finos.waltz.service.server_information.ServerInformationService;
 import org.finos.waltz.service.software_catalog.SoftwareCatalogService;
 import org.finos.waltz.common.StringUtilities;
-import org.finos.waltz.data.DBExecutorPoolInterface;
+import org.finos.waltz.data.SearchExecutor;
 import org.finos.waltz.data.SearchUtilities;
 import org.finos.waltz.model.EntityKind;
 import org.finos.waltz.model.EntityReference;
 import org.finos.waltz.model.WaltzEntity;
 import org.finos.waltz.model.entity_search.EntitySearchOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.Future;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 import static java.util.stream.Collectors.toList;
 import static org.finos.waltz.common.Checks.checkNotNull;
-import static org.jooq.lambda.Unchecked.supplier;
 
 @Service
 public class EntitySearchService {
 
-    private final DBExecutorPoolInterface dbExecutorPool;
+    private static final Logger LOG = LoggerFactory.getLogger(EntitySearchService.class);
+
+    private final SearchExecutor searchExecutor;
+    private final EntitySearchIndexService entitySearchIndexService;
     private final ActorService actorService;
     private final ApplicationService applicationService;
     private final AppGroupService appGroupService;
@@ -73,7 +80,8 @@ public class EntitySearchService {
 
 
     @Autowired
-    public EntitySearchService(DBExecutorPoolInterface dbExecutorPool,
+    public EntitySearchService(SearchExecutor searchExecutor,
+                               EntitySearchIndexService entitySearchIndexService,
                                ActorService actorService,
                                ApplicationService applicationService,
                                AppGroupService appGroupService,
@@ -89,7 +97,8 @@ public class EntitySearchService {
                                SoftwareCatalogService softwareCatalogService,
                                FlowDiagramService flowDiagramService) {
 
-        checkNotNull(dbExecutorPool, "dbExecutorPool cannot be null");
+        checkNotNull(searchExecutor, "searchExecutor cannot be null");
+        checkNotNull(entitySearchIndexService, "entitySearchIndexService cannot be null");
         checkNotNull(actorService, "actorService cannot be null");
         checkNotNull(applicationService, "applicationService cannot be null");
         checkNotNull(appGroupService, "appGroupService cannot be null");
@@ -106,7 +115,8 @@ public class EntitySearchService {
         checkNotNull(softwareCatalogService, "softwareCatalogService cannot be null");
 
         this.actorService = actorService;
-        this.dbExecutorPool = dbExecutorPool;
+        this.searchExecutor = searchExecutor;
+        this.entitySearchIndexService = entitySearchIndexService;
         this.applicationService = applicationService;
         this.appGroupService = appGroupService;
         this.changeInitiativeService = changeInitiativeService;
@@ -123,6 +133,11 @@ public class EntitySearchService {
     }
 
 
+    /**
+     * Searches each of the requested entity kinds concurrently.  Kinds which
+     * fail, or do not complete within the search deadline, are logged and
+     * omitted so the caller receives partial results rather than an error.
+     */
     public List<EntityReference> search(EntitySearchOptions options) {
         checkNotNull(options, "options cannot be null");
 
@@ -131,21 +146,75 @@ public class EntitySearchService {
             return Collections.emptyList();
         }
 
-        List<Future<Collection<? extends WaltzEntity>>> futures = options
-                .entityKinds()
-                .stream()
-                .map(ek -> dbExecutorPool.submit(mkCallable(ek, options)))
-                .collect(toList());
+        Map<EntityKind, CompletableFuture<List<EntityReference>>> futuresByKind = new LinkedHashMap<>();
+        options.entityKinds()
+                .forEach(ek -> futuresByKind.put(ek, mkFuture(ek, options)));
+
+        awaitUntilDeadline(futuresByKind.values());
+
+        List<EntityReference> result = new ArrayList<>();
+        futuresByKind.forEach((kind, future) -> {
+            if (! future.isDone()) {
+                LOG.warn(
+                        "Search for '{}' in {} did not complete within {}ms, omitting from results",
+                        options.searchQuery(),
+                        kind,
+                        searchExecutor.getTimeoutMillis());
+                // cancelling does not interrupt a running query, the statement timeout set by the search executor ends it
+                future.cancel(true);
+            } else {
+                try {
+                    result.addAll(future.join());
+                } catch (CompletionException | CancellationException e) {
+                    LOG.warn("Search for '{}' in {} failed, omitting from results", options.searchQuery(), kind, e);
+                }
+            }
+        });
+
+        return result;
+    }
+
+
+    private void awaitUntilDeadline(Collection<CompletableFuture<List<EntityReference>>> futures) {
+        try {
+            CompletableFuture
+                    .allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(searchExecutor.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // incomplete and failed kinds are reported individually by the caller
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    private CompletableFuture<List<EntityReference>> mkFuture(EntityKind entityKind,
+                                                              EntitySearchOptions options) {
+        if (entitySearchIndexService.isIndexed(entityKind)) {
+            return CompletableFuture.completedFuture(entitySearchIndexService.search(entityKind, options));
+        }
+
+        switch (entityKind) {
+            case APPLICATION:
+                // applications and people fan out further (per search strategy) and compose their own futures
+                return applicationService.searchAsync(options).thenApply(EntitySearchService::toRefs);
+            case PERSON:
+                return personService.searchAsync(options).thenApply(EntitySearchService::toRefs);
+            default:
+                return searchExecutor.supply(mkSupplier(entityKind, options)).thenApply(EntitySearchService::toRefs);
+        }
+    }
+
 
-        return futures
+    private static List<EntityReference> toRefs(Collection<? extends WaltzEntity> entities) {
+        return entities
                 .stream()
-                .flatMap(f -> supplier(f::get).get().stream())
                 .map(WaltzEntity::entityReference)
                 .collect(toList());
     }
 
 
-    private Callable<Collection<? extends WaltzEntity>> mkCallable(EntityKind entityKind,
+    private Supplier<Collection<? extends WaltzEntity>> mkSupplier(EntityKind entityKind,
                                                                    EntitySearchOptions options) {
         switch (entityKind) {
             case ACTOR:
@@ -0,0 +1,231 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.flow_classification_rule;
+
+import org.finos.waltz.data.datatype_decorator.LogicalFlowDecoratorDao;
+import org.finos.waltz.data.flow_classification_rule.FlowClassificationRuleDao;
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.EntityReference;
+import org.finos.waltz.model.flow_classification_rule.FlowClassificationRatingCandidate;
+import org.finos.waltz.model.flow_classification_rule.FlowClassificationRule;
+import org.finos.waltz.model.flow_classification_rule.FlowClassificationRuleVantagePoint;
+import org.finos.waltz.model.flow_classification_rule.ImmutableFlowClassificationRatingCandidate;
+import org.finos.waltz.model.rating.AuthoritativenessRatingValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.finos.waltz.common.Checks.checkNotNull;
+
+/**
+ * Recalculates the flow classification ratings of logical flow decorators.
+ *
+ * The target rating (and rule id) for every decorator in scope is calculated
+ * in memory and compared with the stored values, only decorators which differ
+ * are written back (in batches).  Point-to-point rules (declared against an
+ * app or actor) take precedence over org unit rules.
+ *
+ * Decorators on flows which are not sourced from an application, or which
+ * are not covered by any rule, are rated as 'no opinion'.
+ *
+ * Recalculations triggered by rule edits are queued and run, in order, on a
+ * single background thread so the resolver rebuild they need is not paid
+ * for by the editing request.
+ */
+@Service
+public class FlowClassificationRatingRecalculator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FlowClassificationRatingRecalculator.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final FlowClassificationRuleDao flowClassificationRuleDao;
+    private final FlowClassificationRuleResolverCache resolverCache;
+    private final LogicalFlowDecoratorDao logicalFlowDecoratorDao;
+
+    private final ExecutorService ruleRecalculationExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "waltz-flow-classification-recalc");
+        t.setDaemon(true);
+        return t;
+    });
+
+
+    @Autowired
+    public FlowClassificationRatingRecalculator(FlowClassificationRuleDao flowClassificationRuleDao,
+                                                FlowClassificationRuleResolverCache resolverCache,
+                                                LogicalFlowDecoratorDao logicalFlowDecoratorDao) {
+        checkNotNull(flowClassificationRuleDao, "flowClassificationRuleDao cannot be null");
+        checkNotNull(resolverCache, "resolverCache cannot be null");
+        checkNotNull(logicalFlowDecoratorDao, "logicalFlowDecoratorDao cannot be null");
+
+        this.flowClassificationRuleDao = flowClassificationRuleDao;
+        this.resolverCache = resolverCache;
+        this.logicalFlowDecoratorDao = logicalFlowDecoratorDao;
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+        ruleRecalculationExecutor.shutdownNow();
+    }
+
+
+    /**
+     * Recalculates the ratings of all decorators on active flows.
+     *
+     * @return the number of decorators updated
+     */
+    public int recalculateAll() {
+        resolverCache.refresh();
+        return recalculate(
+                "all flows",
+                logicalFlowDecoratorDao.findFlowClassificationRatingCandidates());
+    }
+
+
+    /**
+     * Recalculates the ratings of only those decorators which may be affected by
+     * the given rule.  Should be called after the rule has been created, updated
+     * or removed.
+     *
+     * @return the number of decorators updated
+     */
+    public int recalculateForRule(FlowClassificationRule rule) {
+        checkNotNull(rule, "rule cannot be null");
+        return recalculate(
+                "rule: " + rule.id().orElse(null),
+                logicalFlowDecoratorDao.findFlowClassificationRatingCandidatesForRule(rule));
+    }
+
+
+    /**
+     * Queues {@link #recalculateForRule(FlowClassificationRule)} on the background
+     * thread.  Should be called after the rule has been created, updated or removed
+     * (and the resolver cache invalidated).
+     */
+    public void scheduleRecalculationForRule(FlowClassificationRule rule) {
+        checkNotNull(rule, "rule cannot be null");
+        ruleRecalculationExecutor.execute(() -> {
+            try {
+                recalculateForRule(rule);
+            } catch (Exception e) {
+                LOG.warn("Failed to recalculate flow classification ratings for rule: {}", rule.id().orElse(null), e);
+            }
+        });
+    }
+
+
+    // --- helpers ---
+
+    private int recalculate(String context,
+                            List<FlowClassificationRatingCandidate> candidates) {
+        long st = System.currentTimeMillis();
+
+        FlowClassificationRuleResolver orgUnitResolver = resolverCache.getCurrentResolver();
+        List<FlowClassificationRuleVantagePoint> pointToPointVantagePoints = flowClassificationRuleDao.findPointToPointFlowClassificationRuleVantagePoints();
+        FlowClassificationRuleResolver appResolver = new FlowClassificationRuleResolver(EntityKind.APPLICATION, pointToPointVantagePoints);
+        FlowClassificationRuleResolver actorResolver = new FlowClassificationRuleResolver(EntityKind.ACTOR, pointToPointVantagePoints);
+
+        List<FlowClassificationRatingCandidate> changed = new ArrayList<>();
+
+        for (FlowClassificationRatingCandidate candidate : candidates) {
+            FlowClassificationRatingCandidate target = determineTarget(
+                    candidate,
+                    orgUnitResolver,
+                    candidate.target().kind() == EntityKind.ACTOR ? actorResolver : appResolver);
+
+            if (! Objects.equals(target.rating(), candidate.rating())
+                    || ! Objects.equals(target.flowClassificationRuleId(), candidate.flowClassificationRuleId())) {
+                changed.add(target);
+            }
+        }
+
+        int updated = 0;
+        for (int i = 0; i < changed.size(); i += BATCH_SIZE) {
+            updated += logicalFlowDecoratorDao.updateFlowClassificationRatings(
+                    changed.subList(i, Math.min(i + BATCH_SIZE, changed.size())));
+        }
+
+        LOG.info(
+                "Recalculated flow classification ratings for {}: {} decorators checked, {} updated in {}ms",
+                context,
+                candidates.size(),
+                updated,
+                System.currentTimeMillis() - st);
+
+        return updated;
+    }
+
+
+    private static FlowClassificationRatingCandidate determineTarget(FlowClassificationRatingCandidate candidate,
+                                                                     FlowClassificationRuleResolver orgUnitResolver,
+                                                                     FlowClassificationRuleResolver pointToPointResolver) {
+        EntityReference source = candidate.source();
+        EntityReference target = candidate.target();
+
+        if (source.kind() != EntityKind.APPLICATION) {
+            return withRating(candidate, AuthoritativenessRatingValue.NO_OPINION, null);
+        }
+
+        FlowClassificationRuleVantagePoint pointToPoint = pointToPointResolver.findWinner(
+                target.id(),
+                candidate.dataTypeId(),
+                source.id());
+
+        if (pointToPoint != null) {
+            return withRating(
+                    candidate,
+                    AuthoritativenessRatingValue.of(pointToPoint.classificationCode()),
+                    pointToPoint.ruleId());
+        }
+
+        if (target.kind() != EntityKind.APPLICATION || ! candidate.targetOrgUnitId().isPresent()) {
+            return withRating(candidate, AuthoritativenessRatingValue.NO_OPINION, null);
+        }
+
+        long orgUnitId = candidate.targetOrgUnitId().get();
+        AuthoritativenessRatingValue rating = orgUnitResolver.resolve(orgUnitId, candidate.dataTypeId(), source.id());
+        FlowClassificationRuleVantagePoint winner = orgUnitResolver.findWinner(orgUnitId, candidate.dataTypeId(), source.id());
+
+        return withRating(
+                candidate,
+                rating,
+                winner == null ? null : winner.ruleId());
+    }
+
+
+    private static FlowClassificationRatingCandidate withRating(FlowClassificationRatingCandidate candidate,
+                                                                AuthoritativenessRatingValue rating,
+                                                                Long ruleId) {
+        return ImmutableFlowClassificationRatingCandidate
+                .copyOf(candidate)
+                .withRating(rating)
+                .withFlowClassificationRuleId(Optional.ofNullable(ruleId));
+    }
+
+}
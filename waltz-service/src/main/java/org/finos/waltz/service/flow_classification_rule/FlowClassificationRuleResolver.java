@@ -18,6 +18,7 @@
 
 package org.finos.waltz.service.flow_classification_rule;
 
+import org.finos.waltz.model.EntityKind;
 import org.finos.waltz.model.EntityReference;
 import org.finos.waltz.model.flow_classification_rule.FlowClassificationRuleVantagePoint;
 import org.finos.waltz.model.rating.AuthoritativenessRatingValue;
@@ -27,33 +28,121 @@ import java.util.*;
 import static org.finos.waltz.common.Checks.checkNotNull;
 import static org.finos.waltz.common.CollectionUtilities.head;
 import static org.finos.waltz.common.CollectionUtilities.sort;
-import static org.finos.waltz.common.MapUtilities.groupAndThen;
-import static org.finos.waltz.common.MapUtilities.isEmpty;
 
 
+/**
+ * Resolves the rating for a (vantage point, data type, source app) triple.
+ *
+ * The winning (most specific) vantage point for every triple is calculated up front
+ * and held in flat, sorted arrays so a lookup is a pair of binary searches over
+ * primitive longs.  (Org unit, data type) keys are held in two parallel arrays,
+ * sorted by org unit then data type, the matching source app ids for each key are
+ * held in a contiguous (sorted) segment.
+ *
+ * Vantage points are expected to be pre-expanded over the org unit and data type
+ * hierarchies (see <code>FlowClassificationRuleDao.findExpandedFlowClassificationRuleVantagePoints</code>).
+ * Only vantage points of a single kind are indexed, by default org units.
+ *
+ * Instances are immutable and therefore safe to share between threads.
+ */
 public class FlowClassificationRuleResolver {
 
-    private final Map<EntityReference, Map<Long, Map<Long, Optional<FlowClassificationRuleVantagePoint>>>> byOuThenDataTypeThenApp;
+    private static final Comparator<FlowClassificationRuleVantagePoint> BY_KEY_THEN_APP = Comparator
+            .comparingLong((FlowClassificationRuleVantagePoint vp) -> vp.vantagePoint().id())
+            .thenComparingLong(vp -> vp.dataType().id())
+            .thenComparingLong(FlowClassificationRuleVantagePoint::applicationId);
+
+    private static final Comparator<FlowClassificationRuleVantagePoint> MOST_SPECIFIC_FIRST = Comparator
+            .comparingInt(FlowClassificationRuleVantagePoint::vantagePointRank)
+            .thenComparingInt(FlowClassificationRuleVantagePoint::dataTypeRank)
+            .reversed();
+
+    private final EntityKind vantagePointKind;
+
+    // sorted, unique, (vantage point id, data type id) keys, held as parallel arrays
+    private final long[] vantagePointIds;
+    private final long[] dataTypeIds;
+
+    // segment for key[i] is appIds[offsets[i]] .. appIds[offsets[i + 1] - 1]
+    private final int[] offsets;
+    private final long[] appIds;
+    private final FlowClassificationRuleVantagePoint[] winners;
+    private final AuthoritativenessRatingValue[] ratings;
+
 
     /**
-     * Construct the Resolver with an internal structure as follows:
-     * OrgUnit -> [DataTypeId -> [AppId -> Rating] ]
+     * Construct the Resolver, determining the most specific vantage point for each
+     * OrgUnit / DataType / App combination.
      * @param flowClassificationVantagePoints
      */
     public FlowClassificationRuleResolver(List<FlowClassificationRuleVantagePoint> flowClassificationVantagePoints) {
+        this(EntityKind.ORG_UNIT, flowClassificationVantagePoints);
+    }
+
+
+    /**
+     * Construct a Resolver for vantage points of the given kind, others are ignored.
+     * @param vantagePointKind  typically ORG_UNIT, or APPLICATION/ACTOR for point-to-point rules
+     * @param flowClassificationVantagePoints
+     */
+    public FlowClassificationRuleResolver(EntityKind vantagePointKind,
+                                          List<FlowClassificationRuleVantagePoint> flowClassificationVantagePoints) {
+        checkNotNull(vantagePointKind, "vantagePointKind cannot be null");
         checkNotNull(flowClassificationVantagePoints, "flowClassificationVantagePoints cannot be null");
 
-        byOuThenDataTypeThenApp =
-                groupAndThen(
-                        flowClassificationVantagePoints,
-                        FlowClassificationRuleVantagePoint::vantagePoint,
-                        byOus -> groupAndThen(
-                                byOus,
-                                byOu -> byOu.dataType().id(),
-                                byDts -> groupAndThen(
-                                        byDts,
-                                        FlowClassificationRuleVantagePoint::applicationId,
-                                        FlowClassificationRuleResolver::getMostSpecificRanked)));
+        this.vantagePointKind = vantagePointKind;
+
+        List<FlowClassificationRuleVantagePoint> ordered = new ArrayList<>(flowClassificationVantagePoints.size());
+        for (FlowClassificationRuleVantagePoint vp : flowClassificationVantagePoints) {
+            if (vp.vantagePoint().kind() == vantagePointKind) {
+                ordered.add(vp);
+            }
+        }
+
+        // stable sort, so ties are broken by the order of the supplied vantage points
+        ordered.sort(BY_KEY_THEN_APP.thenComparing(MOST_SPECIFIC_FIRST));
+
+        long[] vpIds = new long[ordered.size()];
+        long[] dtIds = new long[ordered.size()];
+        int[] segmentStarts = new int[ordered.size() + 1];
+        long[] apps = new long[ordered.size()];
+        FlowClassificationRuleVantagePoint[] bestVantagePoints = new FlowClassificationRuleVantagePoint[ordered.size()];
+        AuthoritativenessRatingValue[] bestRatings = new AuthoritativenessRatingValue[ordered.size()];
+
+        int keyCount = 0;
+        int appCount = 0;
+        FlowClassificationRuleVantagePoint prev = null;
+
+        for (FlowClassificationRuleVantagePoint vp : ordered) {
+            long vpId = vp.vantagePoint().id();
+            long dtId = vp.dataType().id();
+            long app = vp.applicationId();
+
+            if (prev == null || prev.vantagePoint().id() != vpId || prev.dataType().id() != dtId) {
+                vpIds[keyCount] = vpId;
+                dtIds[keyCount] = dtId;
+                segmentStarts[keyCount] = appCount;
+                keyCount++;
+            } else if (app == prev.applicationId()) {
+                continue; // a more specific vantage point has already been taken
+            }
+
+            apps[appCount] = app;
+            bestVantagePoints[appCount] = vp;
+            bestRatings[appCount] = AuthoritativenessRatingValue.of(vp.classificationCode());
+            appCount++;
+
+            prev = vp;
+        }
+
+        segmentStarts[keyCount] = appCount;
+
+        this.vantagePointIds = Arrays.copyOf(vpIds, keyCount);
+        this.dataTypeIds = Arrays.copyOf(dtIds, keyCount);
+        this.offsets = Arrays.copyOf(segmentStarts, keyCount + 1);
+        this.appIds = Arrays.copyOf(apps, appCount);
+        this.winners = Arrays.copyOf(bestVantagePoints, appCount);
+        this.ratings = Arrays.copyOf(bestRatings, appCount);
     }
 
 
@@ -69,43 +158,70 @@ public class FlowClassificationRuleResolver {
     public AuthoritativenessRatingValue resolve(EntityReference vantagePoint,
                                                 EntityReference source,
                                                 Long dataTypeId) {
-
-        Map<Long, Map<Long, Optional<FlowClassificationRuleVantagePoint>>> ouGroup = byOuThenDataTypeThenApp.get(vantagePoint);
-
-        // if a match cannot be found for the ou and the dt then no opinion, if a match can be found for these but the source application
-        // doesn't match then the rating should be discouraged
-
-        if(isEmpty(ouGroup)) {
+        if (vantagePoint.kind() != vantagePointKind || dataTypeId == null) {
             return AuthoritativenessRatingValue.NO_OPINION;
         }
 
-        Map<Long, Optional<FlowClassificationRuleVantagePoint>> dataTypeGroup = ouGroup.get(dataTypeId);
+        return resolve(vantagePoint.id(), dataTypeId, source.id());
+    }
+
+
+    /**
+     * Primitive variant of {@link #resolve(EntityReference, EntityReference, Long)}.
+     *
+     * If a match cannot be found for the ou and the dt then no opinion, if a match can
+     * be found for these but the source application doesn't match then the rating
+     * should be discouraged.
+     */
+    public AuthoritativenessRatingValue resolve(long vantagePointId,
+                                                long dataTypeId,
+                                                long sourceAppId) {
+        int keyIdx = findKey(vantagePointId, dataTypeId);
 
-        if(isEmpty(dataTypeGroup)) {
+        if (keyIdx < 0) {
             return AuthoritativenessRatingValue.NO_OPINION;
         }
 
-        Optional<FlowClassificationRuleVantagePoint> maybeRating = dataTypeGroup.getOrDefault(
-                source.id(),
-                Optional.empty());
+        int appIdx = findApp(keyIdx, sourceAppId);
 
-        return maybeRating
-                .map(r -> AuthoritativenessRatingValue.of(r.classificationCode()))
-                .orElse(AuthoritativenessRatingValue.DISCOURAGED);
+        return appIdx < 0
+                ? AuthoritativenessRatingValue.DISCOURAGED
+                : ratings[appIdx];
     }
 
 
     public Optional<FlowClassificationRuleVantagePoint> resolveAuthSource(EntityReference vantagePoint, EntityReference source, Long dataTypeId) {
+        if (vantagePoint.kind() != vantagePointKind || dataTypeId == null) {
+            return Optional.empty();
+        }
 
-        Map<Long, Map<Long, Optional<FlowClassificationRuleVantagePoint>>> ouGroup = byOuThenDataTypeThenApp.get(vantagePoint);
-        if(isEmpty(ouGroup)) return Optional.empty();
+        return Optional.ofNullable(findWinner(vantagePoint.id(), dataTypeId, source.id()));
+    }
+
+
+    /**
+     * Allocation free variant of {@link #resolveAuthSource(EntityReference, EntityReference, Long)}.
+     *
+     * @return the winning vantage point or <code>null</code> if there is no match
+     */
+    FlowClassificationRuleVantagePoint findWinner(long vantagePointId,
+                                                  long dataTypeId,
+                                                  long sourceAppId) {
+        int keyIdx = findKey(vantagePointId, dataTypeId);
+        if (keyIdx < 0) return null;
+
+        int appIdx = findApp(keyIdx, sourceAppId);
+        return appIdx < 0
+                ? null
+                : winners[appIdx];
+    }
 
-        Map<Long, Optional<FlowClassificationRuleVantagePoint>> dataTypeGroup = ouGroup.get(dataTypeId);
-        if(isEmpty(dataTypeGroup)) return Optional.empty();
 
-        return  dataTypeGroup.getOrDefault(
-                source.id(),
-                Optional.empty());
+    /**
+     * @return the number of distinct (ou, data type, app) combinations held by this resolver
+     */
+    public int size() {
+        return appIds.length;
     }
 
 
@@ -117,13 +233,42 @@ public class FlowClassificationRuleResolver {
      * @return
      */
     public static Optional<FlowClassificationRuleVantagePoint> getMostSpecificRanked(Collection<FlowClassificationRuleVantagePoint> vantagePoints) {
-        Comparator<FlowClassificationRuleVantagePoint> comparator = Comparator
-                .comparingInt(FlowClassificationRuleVantagePoint::vantagePointRank)
-                .thenComparingInt(FlowClassificationRuleVantagePoint::dataTypeRank);
-        return head(
-                sort(
-                    vantagePoints,
-                    (x, y) -> comparator.compare(y, x))); //note the reversal of parameters because we want descending order
+        return head(sort(vantagePoints, MOST_SPECIFIC_FIRST));
+    }
+
+
+    // --- helpers ---
+
+    /**
+     * Binary search over the (vantage point id, data type id) keys.
+     *
+     * @return index of the key, or a negative value if not present
+     */
+    private int findKey(long vantagePointId, long dataTypeId) {
+        int low = 0;
+        int high = vantagePointIds.length - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Long.compare(vantagePointIds[mid], vantagePointId);
+            if (cmp == 0) {
+                cmp = Long.compare(dataTypeIds[mid], dataTypeId);
+            }
+
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+
+    private int findApp(int keyIdx, long appId) {
+        return Arrays.binarySearch(appIds, offsets[keyIdx], offsets[keyIdx + 1], appId);
     }
 
 }
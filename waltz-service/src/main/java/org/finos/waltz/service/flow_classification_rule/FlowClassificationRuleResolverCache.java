@@ -0,0 +1,319 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.flow_classification_rule;
+
+import org.finos.waltz.data.flow_classification_rule.FlowClassificationRuleDao;
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.changelog.ChangeLog;
+import org.finos.waltz.model.client_cache_key.ClientCacheKey;
+import org.finos.waltz.model.flow_classification_rule.FlowClassificationRuleVantagePoint;
+import org.finos.waltz.service.changelog.ChangeLogEvent;
+import org.finos.waltz.service.client_cache_key.ClientCacheKeyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.finos.waltz.common.Checks.checkNotNull;
+
+/**
+ * Holds a single, shared {@link FlowClassificationRuleResolver} covering every
+ * org unit, so rating decorators do not need to query the rules each time.
+ *
+ * The resolver is versioned.  Any change to the flow classification rules (or to
+ * the org unit / data type taxonomies they are expanded over) bumps the version
+ * and a rebuild is scheduled on a background thread.  Until the rebuild completes
+ * {@link #getResolver()} keeps returning the previous resolver, callers which
+ * must see the latest rules (e.g. rating recalculations) use {@link #getCurrentResolver()}.
+ * Rule changes made via {@link FlowClassificationRuleService} invalidate explicitly,
+ * other changes are picked up via change log events.
+ *
+ * To propagate changes across nodes every invalidation also bumps the
+ * <code>FLOW_CLASSIFICATION_RULES</code> client cache key (from the background
+ * thread), which each node periodically checks (<code>flow.classification.resolver.poll.millis</code>).
+ */
+@Service
+public class FlowClassificationRuleResolverCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FlowClassificationRuleResolverCache.class);
+
+    public static final String INVALIDATION_KEY = "FLOW_CLASSIFICATION_RULES";
+
+
+    private static class Snapshot {
+        private final FlowClassificationRuleResolver resolver;
+        private final long version;
+
+        private Snapshot(FlowClassificationRuleResolver resolver, long version) {
+            this.resolver = resolver;
+            this.version = version;
+        }
+    }
+
+
+    private final Supplier<List<FlowClassificationRuleVantagePoint>> vantagePointLoader;
+    private final Function<String, ClientCacheKey> invalidationKeyReader;
+    private final Function<String, ClientCacheKey> invalidationKeyPublisher;
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean publishPending = new AtomicBoolean(false);
+    private volatile Snapshot snapshot = null;
+    private volatile String lastSeenInvalidationGuid = null;
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "waltz-flow-classification-resolver");
+        t.setDaemon(true);
+        return t;
+    });
+
+
+    @Autowired
+    public FlowClassificationRuleResolverCache(FlowClassificationRuleDao flowClassificationRuleDao,
+                                               ClientCacheKeyService clientCacheKeyService) {
+        this(
+                checkNotNull(flowClassificationRuleDao, "flowClassificationRuleDao cannot be null")::findAllExpandedFlowClassificationRuleVantagePoints,
+                checkNotNull(clientCacheKeyService, "clientCacheKeyService cannot be null")::getByKey,
+                clientCacheKeyService::createOrUpdate);
+    }
+
+
+    FlowClassificationRuleResolverCache(Supplier<List<FlowClassificationRuleVantagePoint>> vantagePointLoader,
+                                        Function<String, ClientCacheKey> invalidationKeyReader,
+                                        Function<String, ClientCacheKey> invalidationKeyPublisher) {
+        checkNotNull(vantagePointLoader, "vantagePointLoader cannot be null");
+        checkNotNull(invalidationKeyReader, "invalidationKeyReader cannot be null");
+        checkNotNull(invalidationKeyPublisher, "invalidationKeyPublisher cannot be null");
+
+        this.vantagePointLoader = vantagePointLoader;
+        this.invalidationKeyReader = invalidationKeyReader;
+        this.invalidationKeyPublisher = invalidationKeyPublisher;
+    }
+
+
+    /**
+     * Builds the initial resolver in the background so the first rating request
+     * does not pay for it.
+     */
+    @PostConstruct
+    public void init() {
+        scheduleRebuild();
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+
+    /**
+     * Returns the most recently built resolver.  This may lag behind the latest
+     * rule changes whilst a rebuild is in progress.  Only if no resolver has been
+     * built yet does this block.
+     */
+    public FlowClassificationRuleResolver getResolver() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return getCurrentResolver();
+        }
+        if (current.version != version.get()) {
+            scheduleRebuild();
+        }
+        return current.resolver;
+    }
+
+
+    /**
+     * Returns the resolver for the current version of the rules, building it on
+     * the calling thread if needed.
+     */
+    public FlowClassificationRuleResolver getCurrentResolver() {
+        Snapshot current = snapshot;
+        if (current != null && current.version == version.get()) {
+            return current.resolver;
+        }
+
+        synchronized (this) {
+            current = snapshot;
+            long requiredVersion = version.get();
+            if (current == null || current.version != requiredVersion) {
+                current = new Snapshot(build(requiredVersion), requiredVersion);
+                snapshot = current;
+            }
+            return current.resolver;
+        }
+    }
+
+
+    public long getVersion() {
+        return version.get();
+    }
+
+
+    /**
+     * Marks the current resolver as stale on this node, schedules a rebuild and
+     * signals other nodes (via the client cache key) that they should do the same.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        publishPending.set(true);
+        scheduleRebuild();
+    }
+
+
+    /**
+     * Marks the current resolver as stale on this node only, e.g. before a
+     * full recalculation to pick up any changes which have not been signalled.
+     */
+    public void refresh() {
+        version.incrementAndGet();
+        scheduleRebuild();
+    }
+
+
+    @EventListener
+    public void onChangeLog(ChangeLogEvent event) {
+        boolean affected = event
+                .changeLogs()
+                .stream()
+                .anyMatch(FlowClassificationRuleResolverCache::isAffectedBy);
+
+        if (affected) {
+            invalidate();
+        }
+    }
+
+
+    @Scheduled(fixedDelayString = "${flow.classification.resolver.poll.millis:60000}", initialDelay = 60_000)
+    public void pollForInvalidations() {
+        try {
+            ClientCacheKey current = invalidationKeyReader.apply(INVALIDATION_KEY);
+            String guid = current == null
+                    ? null
+                    : current.guid();
+
+            if (! Objects.equals(guid, lastSeenInvalidationGuid)) {
+                LOG.debug("Flow classification rule invalidation key has changed, resolver will be rebuilt");
+                lastSeenInvalidationGuid = guid;
+                refresh();
+            }
+        } catch (Exception e) {
+            LOG.warn("Failed to poll for flow classification rule invalidations, will retry", e);
+        }
+    }
+
+
+    // --- helpers ---
+
+    /**
+     * Queues a rebuild unless one is already waiting to run.  A rebuild which
+     * completes behind the current version leaves the next call to
+     * {@link #getResolver()} to schedule another.
+     */
+    private void scheduleRebuild() {
+        if (! rebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            rebuildExecutor.execute(() -> {
+                rebuildScheduled.set(false);
+                try {
+                    if (publishPending.getAndSet(false)) {
+                        publishInvalidation();
+                    }
+                    getCurrentResolver();
+                } catch (Exception e) {
+                    LOG.warn("Failed to rebuild flow classification rule resolver, will retry on next use", e);
+                }
+            });
+        } catch (RuntimeException e) {
+            // e.g. rejected during shutdown
+            rebuildScheduled.set(false);
+            LOG.debug("Could not schedule flow classification rule resolver rebuild: {}", e.getMessage());
+        }
+    }
+
+
+    private FlowClassificationRuleResolver build(long requiredVersion) {
+        long st = System.currentTimeMillis();
+        // read before loading the rules, so a change made by another node during the load is still picked up by the next poll
+        seedInvalidationGuid();
+        FlowClassificationRuleResolver resolver = new FlowClassificationRuleResolver(vantagePointLoader.get());
+        LOG.info(
+                "Built flow classification rule resolver (version: {}) with {} entries in {}ms",
+                requiredVersion,
+                resolver.size(),
+                System.currentTimeMillis() - st);
+        return resolver;
+    }
+
+
+    private void seedInvalidationGuid() {
+        try {
+            ClientCacheKey current = invalidationKeyReader.apply(INVALIDATION_KEY);
+            lastSeenInvalidationGuid = current == null
+                    ? null
+                    : current.guid();
+        } catch (Exception e) {
+            LOG.warn("Failed to read flow classification rule invalidation key, the next poll may rebuild the resolver unnecessarily", e);
+        }
+    }
+
+
+    private void publishInvalidation() {
+        try {
+            ClientCacheKey updated = invalidationKeyPublisher.apply(INVALIDATION_KEY);
+            if (updated != null) {
+                // this node has already invalidated, no need to react to our own change
+                lastSeenInvalidationGuid = updated.guid();
+            }
+        } catch (Exception e) {
+            LOG.warn("Failed to publish flow classification rule invalidation, other nodes will not see the change until restarted", e);
+        }
+    }
+
+
+    private static boolean isAffectedBy(ChangeLog changeLog) {
+        EntityKind parentKind = changeLog.parentReference().kind();
+        EntityKind childKind = changeLog.childKind().orElse(parentKind);
+
+        if (parentKind == EntityKind.FLOW_CLASSIFICATION_RULE || childKind == EntityKind.FLOW_CLASSIFICATION_RULE) {
+            return true;
+        }
+
+        // changes to the taxonomies themselves (e.g. re-parenting) alter the expanded vantage points
+        return parentKind == childKind
+                && (parentKind == EntityKind.ORG_UNIT || parentKind == EntityKind.DATA_TYPE);
+    }
+
+}
@@ -28,7 +28,6 @@ import org.finos.waltz.data.application.ApplicationDao;
 import org.finos.waltz.data.application.ApplicationIdSelectorFactory;
 import org.finos.waltz.data.data_type.DataTypeDao;
 import org.finos.waltz.data.data_type.DataTypeIdSelectorFactory;
-import org.finos.waltz.data.datatype_decorator.LogicalFlowDecoratorDao;
 import org.finos.waltz.data.flow_classification_rule.FlowClassificationDao;
 import org.finos.waltz.data.flow_classification_rule.FlowClassificationRuleDao;
 import org.finos.waltz.data.orgunit.OrganisationalUnitDao;
@@ -39,11 +38,9 @@ import org.finos.waltz.model.changelog.ImmutableChangeLog;
 import org.finos.waltz.model.datatype.DataType;
 import org.finos.waltz.model.flow_classification.FlowClassification;
 import org.finos.waltz.model.flow_classification_rule.*;
-import org.finos.waltz.model.rating.AuthoritativenessRatingValue;
 import org.jooq.Condition;
 import org.jooq.Record1;
 import org.jooq.Select;
-import org.jooq.impl.DSL;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -53,6 +50,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.finos.waltz.schema.tables.LogicalFlowDecorator.LOGICAL_FLOW_DECORATOR;
 import static java.lang.String.format;
@@ -73,9 +71,9 @@ public class FlowClassificationRuleService {
     private final OrganisationalUnitDao organisationalUnitDao;
     private final ApplicationDao applicationDao;
     private final ActorDao actorDao;
-    private final FlowClassificationCalculator ratingCalculator;
     private final ChangeLogService changeLogService;
-    private final LogicalFlowDecoratorDao logicalFlowDecoratorDao;
+    private final FlowClassificationRuleResolverCache resolverCache;
+    private final FlowClassificationRatingRecalculator ratingRecalculator;
     private final DataTypeIdSelectorFactory dataTypeIdSelectorFactory = new DataTypeIdSelectorFactory();
     private final ApplicationIdSelectorFactory applicationIdSelectorFactory = new ApplicationIdSelectorFactory();
     private final GenericSelectorFactory genericSelectorFactory = new GenericSelectorFactory();
@@ -88,18 +86,18 @@ public class FlowClassificationRuleService {
                                          OrganisationalUnitDao organisationalUnitDao,
                                          ApplicationDao applicationDao,
                                          ActorDao actorDao,
-                                         FlowClassificationCalculator ratingCalculator,
                                          ChangeLogService changeLogService,
-                                         LogicalFlowDecoratorDao logicalFlowDecoratorDao) {
+                                         FlowClassificationRuleResolverCache resolverCache,
+                                         FlowClassificationRatingRecalculator ratingRecalculator) {
         checkNotNull(flowClassificationRuleDao, "flowClassificationRuleDao must not be null");
         checkNotNull(flowClassificationDao, "flowClassificationDao must not be null");
         checkNotNull(actorDao, "actorDao must not be null");
         checkNotNull(dataTypeDao, "dataTypeDao cannot be null");
         checkNotNull(organisationalUnitDao, "organisationalUnitDao cannot be null");
         checkNotNull(applicationDao, "applicationDao cannot be null");
-        checkNotNull(ratingCalculator, "ratingCalculator cannot be null");
         checkNotNull(changeLogService, "changeLogService cannot be null");
-        checkNotNull(logicalFlowDecoratorDao, "logicalFlowDecoratorDao cannot be null");
+        checkNotNull(resolverCache, "resolverCache cannot be null");
+        checkNotNull(ratingRecalculator, "ratingRecalculator cannot be null");
 
         this.flowClassificationRuleDao = flowClassificationRuleDao;
         this.flowClassificationDao = flowClassificationDao;
@@ -107,9 +105,9 @@ public class FlowClassificationRuleService {
         this.organisationalUnitDao = organisationalUnitDao;
         this.applicationDao = applicationDao;
         this.actorDao = actorDao;
-        this.ratingCalculator = ratingCalculator;
         this.changeLogService = changeLogService;
-        this.logicalFlowDecoratorDao = logicalFlowDecoratorDao;
+        this.resolverCache = resolverCache;
+        this.ratingRecalculator = ratingRecalculator;
     }
 
 
@@ -135,11 +133,12 @@ public class FlowClassificationRuleService {
 
     public int update(FlowClassificationRuleUpdateCommand command, String username) {
         int updateCount = flowClassificationRuleDao.update(command);
+        resolverCache.invalidate();
         long ruleId = command
                 .id()
                 .orElseThrow(() -> new IllegalArgumentException("cannot update an flow classification rule without an id"));
         FlowClassificationRule updatedClassificationRule = getById(ruleId);
-        ratingCalculator.update(updatedClassificationRule.dataTypeId(), updatedClassificationRule.parentReference());
+        ratingRecalculator.scheduleRecalculationForRule(updatedClassificationRule);
         logUpdate(command, username);
         return updateCount;
     }
@@ -147,13 +146,10 @@ public class FlowClassificationRuleService {
 
     public long insert(FlowClassificationRuleCreateCommand command, String username) {
         long classificationRuleId = flowClassificationRuleDao.insert(command, username);
-
-        if (command.parentReference().kind() == ORG_UNIT) {
-            ratingCalculator.update(command.dataTypeId(), command.parentReference());
-        }
+        resolverCache.invalidate();
+        ratingRecalculator.scheduleRecalculationForRule(getById(classificationRuleId));
 
         logInsert(classificationRuleId, command, username);
-        flowClassificationRuleDao.updatePointToPointFlowClassificationRules();
 
         return classificationRuleId;
     }
@@ -170,16 +166,10 @@ public class FlowClassificationRuleService {
         logRemoval(id, username);
 
         int deletedCount = flowClassificationRuleDao.remove(id);
+        resolverCache.invalidate();
 
-        //set any point-to-point overrides as no opinion first then recalculate for all rules
-        LOG.debug("Updating point-point ratings");
-        flowClassificationRuleDao.clearRatingsForPointToPointFlows(classificationRuleToDelete);
-
-        LOG.debug("Updated point-point");
-        if(classificationRuleToDelete.parentReference().kind() != ACTOR){
-            LOG.debug("Updating org unit /app flow ratings");
-            ratingCalculator.update(classificationRuleToDelete.dataTypeId(), classificationRuleToDelete.parentReference());
-        }
+        // flows previously rated by this rule fall back to the next most specific rule (if any)
+        ratingRecalculator.scheduleRecalculationForRule(classificationRuleToDelete);
 
         return deletedCount;
     }
@@ -190,35 +180,12 @@ public class FlowClassificationRuleService {
     }
 
 
-    @Deprecated
-    public boolean recalculateAllFlowRatings() {
-        logicalFlowDecoratorDao.updateRatingsByCondition(AuthoritativenessRatingValue.NO_OPINION, DSL.trueCondition());
-        findAll().forEach(
-                classificationRule -> ratingCalculator.update(
-                        classificationRule.dataTypeId(),
-                        classificationRule.parentReference()));
-        return true;
-    }
-
-
+    /**
+     * Recalculates the ratings of all flows in memory, only decorators
+     * whose rating (or rule) has changed are written back.
+     */
     public boolean fastRecalculateAllFlowRatings() {
-        logicalFlowDecoratorDao.updateRatingsByCondition(AuthoritativenessRatingValue.NO_OPINION, DSL.trueCondition());
-
-        //finds all the vantage points to apply using parent as selector
-        List<FlowClassificationRuleVantagePoint> flowClassificationRuleVantagePoints = flowClassificationRuleDao
-                .findFlowClassificationRuleVantagePoints();
-
-        flowClassificationRuleVantagePoints
-                .forEach(a -> {
-                    LOG.info("Updating decorators for: {}", a);
-                    int updateCount = logicalFlowDecoratorDao.updateDecoratorsForFlowClassificationRule(a);
-                    LOG.info("Updated {} decorators for: {}", updateCount, a);
-        });
-
-        //overrides rating for point to point flows (must run after the above)
-        int updatedDecoratorRatings = flowClassificationRuleDao.updatePointToPointFlowClassificationRules();
-        LOG.info("Updated decorators for: {} point-to-point flows", updatedDecoratorRatings);
-
+        ratingRecalculator.recalculateAll();
         return true;
     }
 
@@ -233,22 +200,28 @@ public class FlowClassificationRuleService {
     public Integer cleanupOrphans(String userId) {
         Set<EntityReference> entityReferences = flowClassificationRuleDao.cleanupOrphans();
 
-        entityReferences
-                .forEach(ref -> {
+        if (! entityReferences.isEmpty()) {
+            resolverCache.invalidate();
+        }
+
+        List<ChangeLog> logEntries = entityReferences
+                .stream()
+                .map(ref -> {
                     String message = ref.kind() == EntityKind.APPLICATION
                             ? "Removed as a flow classification rule source as declaring Org Unit no longer exists"
                             : "Application removed as an flow classification rule source as it no longer exists";
 
-                    ChangeLog logEntry = ImmutableChangeLog.builder()
+                    return (ChangeLog) ImmutableChangeLog.builder()
                             .parentReference(ref)
                             .message(message)
                             .severity(Severity.INFORMATION)
                             .operation(Operation.UPDATE)
                             .userId(userId)
                             .build();
+                })
+                .collect(Collectors.toList());
 
-                    changeLogService.write(logEntry);
-                });
+        changeLogService.write(logEntries);
 
         return entityReferences.size();
     }
@@ -0,0 +1,192 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.id_selector;
+
+import org.finos.waltz.data.IdSelectorDao;
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.HierarchyQueryScope;
+import org.finos.waltz.model.IdSelectionOptions;
+import org.finos.waltz.service.changelog.ChangeLogEvent;
+import org.jooq.Record1;
+import org.jooq.Select;
+import org.jooq.lambda.tuple.Tuple2;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.finos.waltz.common.Checks.checkNotNull;
+import static org.jooq.lambda.tuple.Tuple.tuple;
+
+/**
+ * Optional cache of resolved id selectors.
+ *
+ * A page (e.g. an org unit) issues many requests with the same selection options, each of
+ * which would otherwise re-evaluate the same hierarchy/involvement sub-select.  When enabled
+ * (<code>selector.cache.enabled</code>) the selector is resolved once into a sorted id set and
+ * subsequent callers are given a selector over an inline id list.  Selectors which resolve to
+ * more than <code>selector.cache.inline.max</code> ids are left as sub-selects (but the
+ * outcome is remembered so they are not re-evaluated).
+ *
+ * Entries expire after <code>selector.cache.ttl.seconds</code> and are discarded whenever a
+ * change log entry is written on this node, as selectors span many relationships.
+ */
+@Service
+public class IdSelectorCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IdSelectorCache.class);
+
+    private static final int MAX_ENTRIES = 500;
+
+
+    private static class CachedSelector {
+        private final long createdAt = System.currentTimeMillis();
+        private final long generation;
+        private volatile Select<Record1<Long>> selector;
+
+        private CachedSelector(long generation) {
+            this.generation = generation;
+        }
+    }
+
+
+    private final IdSelectorDao idSelectorDao;
+
+    private final Map<Tuple2<EntityKind, IdSelectionOptions>, CachedSelector> entries = Collections.synchronizedMap(
+            new LinkedHashMap<Tuple2<EntityKind, IdSelectionOptions>, CachedSelector>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Tuple2<EntityKind, IdSelectionOptions>, CachedSelector> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            });
+
+    // bumped on every invalidation, entries from an earlier generation are ignored
+    private final AtomicLong generation = new AtomicLong();
+
+    @Value("${selector.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${selector.cache.ttl.seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${selector.cache.inline.max:1000}")
+    private int inlineMax;
+
+
+    @Autowired
+    public IdSelectorCache(IdSelectorDao idSelectorDao) {
+        checkNotNull(idSelectorDao, "idSelectorDao cannot be null");
+        this.idSelectorDao = idSelectorDao;
+    }
+
+
+    /**
+     * Returns a selector for <code>targetKind</code> ids equivalent to
+     * <code>factory.apply(options)</code>, served from the cache where possible.
+     *
+     * @param targetKind - the kind of id returned by the factory's selectors
+     * @param factory - the selector factory, only invoked on a cache miss
+     * @param options - the selection options
+     */
+    public Select<Record1<Long>> getSelector(EntityKind targetKind,
+                                             Function<IdSelectionOptions, Select<Record1<Long>>> factory,
+                                             IdSelectionOptions options) {
+        checkNotNull(targetKind, "targetKind cannot be null");
+        checkNotNull(factory, "factory cannot be null");
+        checkNotNull(options, "options cannot be null");
+
+        if (! enabled || isTrivial(targetKind, options)) {
+            return factory.apply(options);
+        }
+
+        Tuple2<EntityKind, IdSelectionOptions> key = tuple(targetKind, options);
+        long currentGeneration = generation.get();
+
+        CachedSelector entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null || isExpired(entry, currentGeneration)) {
+                entry = new CachedSelector(currentGeneration);
+                entries.put(key, entry);
+            }
+        }
+
+        if (entry.selector == null) {
+            synchronized (entry) {
+                if (entry.selector == null) {
+                    entry.selector = resolve(key, factory.apply(options));
+                }
+            }
+        }
+
+        return entry.selector;
+    }
+
+
+    @EventListener
+    public void onChangeLog(ChangeLogEvent event) {
+        if (! enabled) {
+            return;
+        }
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+
+    // --- helpers ---
+
+    private Select<Record1<Long>> resolve(Tuple2<EntityKind, IdSelectionOptions> key,
+                                          Select<Record1<Long>> selector) {
+        long st = System.currentTimeMillis();
+        long[] ids = idSelectorDao.fetchIds(selector, inlineMax);
+
+        if (ids.length > inlineMax) {
+            LOG.debug("Selector for {} exceeds {} ids, not inlining", key, inlineMax);
+            return selector;
+        }
+
+        LOG.debug("Resolved selector for {} to {} ids in {}ms", key, ids.length, System.currentTimeMillis() - st);
+        return IdSelectorDao.mkIdListSelector(ids);
+    }
+
+
+    private boolean isExpired(CachedSelector entry, long currentGeneration) {
+        return entry.generation != currentGeneration
+                || System.currentTimeMillis() - entry.createdAt > TimeUnit.SECONDS.toMillis(ttlSeconds);
+    }
+
+
+    /**
+     * Exact selections of the target kind are already a single id, nothing to gain by caching.
+     */
+    private static boolean isTrivial(EntityKind targetKind, IdSelectionOptions options) {
+        return options.scope() == HierarchyQueryScope.EXACT
+                && options.entityReference().kind() == targetKind;
+    }
+
+}
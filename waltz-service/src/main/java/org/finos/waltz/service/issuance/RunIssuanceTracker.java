@@ -0,0 +1,135 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.issuance;
+
+import org.finos.waltz.model.EntityReference;
+import org.finos.waltz.model.issuance.ImmutableRunIssuanceProgress;
+import org.finos.waltz.model.issuance.RunIssuanceProgress;
+import org.finos.waltz.model.scheduled_job.JobLifecycleStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+import static org.finos.waltz.common.Checks.checkNotNull;
+import static org.finos.waltz.common.DateTimeUtilities.nowUtc;
+import static org.finos.waltz.model.EntityReference.mkRef;
+
+/**
+ * Issues the instances of survey and attestation runs in chunks, recording
+ * progress per run so that it can be reported back to the user.
+ * <p>
+ * Each chunk is expected to be written in its own transaction, so an
+ * interrupted issuance leaves a run with a whole number of chunks issued.
+ * Progress is held in memory on the issuing node and discarded an hour
+ * after the issuance finishes.
+ */
+@Service
+public class RunIssuanceTracker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RunIssuanceTracker.class);
+    private static final int RETENTION_HOURS = 1;
+
+    private final Map<EntityReference, RunIssuanceProgress> progressByRun = new ConcurrentHashMap<>();
+
+    @Value("${run.issuance.chunk.size:500}")
+    private int chunkSize = 500;
+
+
+    /**
+     * Passes the items to the <code>chunkWriter</code> in chunks, tracking progress against the run.
+     *
+     * @param run  the survey or attestation run being issued
+     * @param items  instances to issue
+     * @param skippedCount  instances which were already issued (e.g. when resuming), reported in the progress
+     * @param chunkWriter  writes a chunk of items, returning the number of instances created
+     * @param <T>  type of item being issued
+     * @return total number of instances created
+     */
+    public <T> int issueInChunks(EntityReference run,
+                                 List<T> items,
+                                 int skippedCount,
+                                 ToIntFunction<List<T>> chunkWriter) {
+        checkNotNull(run, "run cannot be null");
+        checkNotNull(items, "items cannot be null");
+        checkNotNull(chunkWriter, "chunkWriter cannot be null");
+
+        EntityReference key = mkRef(run.kind(), run.id());
+        pruneFinished();
+
+        progressByRun.put(key, ImmutableRunIssuanceProgress.builder()
+                .run(key)
+                .status(JobLifecycleStatus.RUNNING)
+                .totalInstances(items.size() + skippedCount)
+                .issuedInstances(skippedCount)
+                .skippedInstances(skippedCount)
+                .startedAt(nowUtc())
+                .build());
+
+        int issued = 0;
+        try {
+            for (int offset = 0; offset < items.size(); offset += chunkSize) {
+                List<T> chunk = items.subList(offset, Math.min(offset + chunkSize, items.size()));
+                issued += chunkWriter.applyAsInt(chunk);
+                int issuedSoFar = issued;
+                progressByRun.computeIfPresent(key, (k, p) -> ImmutableRunIssuanceProgress
+                        .copyOf(p)
+                        .withIssuedInstances(skippedCount + issuedSoFar));
+            }
+            progressByRun.computeIfPresent(key, (k, p) -> ImmutableRunIssuanceProgress
+                    .copyOf(p)
+                    .withStatus(JobLifecycleStatus.COMPLETED)
+                    .withCompletedAt(nowUtc()));
+            LOG.info("Issued {} instances ({} previously issued) for run: {}", issued, skippedCount, key);
+            return issued;
+        } catch (RuntimeException e) {
+            progressByRun.computeIfPresent(key, (k, p) -> ImmutableRunIssuanceProgress
+                    .copyOf(p)
+                    .withStatus(JobLifecycleStatus.ERRORED)
+                    .withCompletedAt(nowUtc())
+                    .withErrorMessage(e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage()));
+            LOG.error("Failed to issue instances for run: {}, {} instances issued before failure", key, issued, e);
+            throw e;
+        }
+    }
+
+
+    public Optional<RunIssuanceProgress> getProgress(EntityReference run) {
+        checkNotNull(run, "run cannot be null");
+        return Optional.ofNullable(progressByRun.get(mkRef(run.kind(), run.id())));
+    }
+
+
+    private void pruneFinished() {
+        LocalDateTime cutoff = nowUtc().minusHours(RETENTION_HOURS);
+        progressByRun
+                .values()
+                .removeIf(p -> p.completedAt()
+                        .map(completedAt -> completedAt.isBefore(cutoff))
+                        .orElse(false));
+    }
+
+}
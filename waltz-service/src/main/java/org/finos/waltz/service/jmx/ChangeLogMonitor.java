@@ -0,0 +1,125 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.jmx;
+
+import org.finos.waltz.common.WriteBehindQueue;
+import org.finos.waltz.service.changelog.ChangeLogService;
+import org.finos.waltz.service.changelog.ChangeLogWriteStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+@ManagedResource(description = "Statistics for change log writes (batch sizes, flush latency and the optional async queue)")
+public class ChangeLogMonitor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeLogMonitor.class);
+
+    private final ChangeLogService changeLogService;
+
+
+    @Autowired
+    public ChangeLogMonitor(ChangeLogService changeLogService) {
+        this.changeLogService = changeLogService;
+    }
+
+
+    @ManagedOperation(description = "Write all pending async change log entries now")
+    public void flushAsyncQueue() {
+        LOG.info("Flushing async change log queue (via jmx)");
+        changeLogService.getAsyncQueue().ifPresent(WriteBehindQueue::flush);
+    }
+
+
+    @ManagedAttribute
+    public long getBatchCount() {
+        return stats().getBatchCount();
+    }
+
+
+    @ManagedAttribute
+    public long getEntryCount() {
+        return stats().getEntryCount();
+    }
+
+
+    @ManagedAttribute
+    public long getDuplicateCount() {
+        return stats().getDuplicateCount();
+    }
+
+
+    @ManagedAttribute
+    public long getMaxBatchSize() {
+        return stats().getMaxBatchSize();
+    }
+
+
+    @ManagedAttribute
+    public double getMeanBatchSize() {
+        return stats().getMeanBatchSize();
+    }
+
+
+    @ManagedAttribute
+    public double getMeanFlushMillis() {
+        return stats().getMeanFlushMillis();
+    }
+
+
+    @ManagedAttribute
+    public long getMaxFlushMillis() {
+        return stats().getMaxFlushMillis();
+    }
+
+
+    @ManagedAttribute
+    public long getAsyncPendingCount() {
+        return changeLogService
+                .getAsyncQueue()
+                .map(q -> (long) q.getPendingCount())
+                .orElse(-1L);
+    }
+
+
+    @ManagedAttribute
+    public long getAsyncWriteThroughCount() {
+        return changeLogService
+                .getAsyncQueue()
+                .map(WriteBehindQueue::getWriteThroughCount)
+                .orElse(-1L);
+    }
+
+
+    @ManagedAttribute
+    public long getAsyncFailedCount() {
+        return changeLogService
+                .getAsyncQueue()
+                .map(WriteBehindQueue::getFailedCount)
+                .orElse(-1L);
+    }
+
+
+    private ChangeLogWriteStatistics stats() {
+        return changeLogService.getWriteStatistics();
+    }
+
+}
@@ -0,0 +1,74 @@
+package org.finos.waltz.service.jmx;
+
+import org.finos.waltz.model.sql_stats.SqlStatistic;
+import org.finos.waltz.service.sql_stats.SqlStatisticsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import static java.lang.String.format;
+
+@ManagedResource(description = "Sql execution statistics, grouped by sql shape and calling method")
+public class SqlStatisticsMonitor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SqlStatisticsMonitor.class);
+
+    private final SqlStatisticsService sqlStatisticsService;
+
+    @Autowired
+    public SqlStatisticsMonitor(SqlStatisticsService sqlStatisticsService) {
+        this.sqlStatisticsService = sqlStatisticsService;
+    }
+
+
+    @ManagedOperation(description = "Summaries of the most expensive statements (by total time)")
+    @ManagedOperationParameter(name = "limit", description = "Maximum number of statements to return")
+    public String[] topStatements(int limit) {
+        return sqlStatisticsService
+                .findTop(limit)
+                .stream()
+                .map(SqlStatisticsMonitor::toSummary)
+                .toArray(String[]::new);
+    }
+
+
+    @ManagedOperation(description = "Discard all collected sql statistics")
+    public void reset() {
+        LOG.warn("Resetting sql statistics (via jmx)");
+        sqlStatisticsService.reset();
+    }
+
+
+    @ManagedAttribute
+    public int getStatementCount() {
+        return sqlStatisticsService.countShapes();
+    }
+
+
+    @ManagedAttribute
+    public String getName() {
+        return "SqlStatistics";
+    }
+
+
+    private static String toSummary(SqlStatistic s) {
+        return format(
+                "%s: count=%d, errors=%d, rows=%d, total=%.1fms, mean=%.1fms, p50=%.1fms, p95=%.1fms, p99=%.1fms, max=%.1fms :: %s",
+                s.caller(),
+                s.executionCount(),
+                s.errorCount(),
+                s.rowsFetched(),
+                s.totalMillis(),
+                s.meanMillis(),
+                s.p50Millis(),
+                s.p95Millis(),
+                s.p99Millis(),
+                s.maxMillis(),
+                s.sqlShape());
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.jmx;
+
+import org.finos.waltz.service.user.UserRoleCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+@ManagedResource(description = "Statistics and maintenance for the cache of user roles used by permission checks")
+public class UserRoleCacheMonitor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserRoleCacheMonitor.class);
+
+    private final UserRoleCache userRoleCache;
+
+    @Autowired
+    public UserRoleCacheMonitor(UserRoleCache userRoleCache) {
+        this.userRoleCache = userRoleCache;
+    }
+
+
+    @ManagedOperation(description = "Discard all cached user roles (on this node)")
+    public void invalidateAll() {
+        LOG.warn("Clearing user role cache (via jmx)");
+        userRoleCache.invalidateAll();
+    }
+
+
+    @ManagedAttribute
+    public long getHitCount() {
+        return userRoleCache.getHitCount();
+    }
+
+
+    @ManagedAttribute
+    public long getMissCount() {
+        return userRoleCache.getMissCount();
+    }
+
+
+    @ManagedAttribute
+    public long getInvalidationCount() {
+        return userRoleCache.getInvalidationCount();
+    }
+
+
+    @ManagedAttribute
+    public int getSize() {
+        return userRoleCache.getSize();
+    }
+
+
+    @ManagedAttribute
+    public String getName() {
+        return "UserRoleCache";
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.jmx;
+
+import org.finos.waltz.common.WriteBehindQueue;
+import org.finos.waltz.service.access_log.AccessLogService;
+import org.finos.waltz.service.user_agent_info.UserAgentInfoService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+
+@ManagedResource(description = "Statistics for the asynchronous access log and user agent writers")
+public class WriteBehindQueueMonitor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriteBehindQueueMonitor.class);
+
+    private final AccessLogService accessLogService;
+    private final UserAgentInfoService userAgentInfoService;
+
+
+    @Autowired
+    public WriteBehindQueueMonitor(AccessLogService accessLogService,
+                                   UserAgentInfoService userAgentInfoService) {
+        this.accessLogService = accessLogService;
+        this.userAgentInfoService = userAgentInfoService;
+    }
+
+
+    @ManagedOperation(description = "Write all pending access log and user agent entries now")
+    public void flush() {
+        LOG.info("Flushing write behind queues (via jmx)");
+        accessLogService.getQueue().ifPresent(WriteBehindQueue::flush);
+        userAgentInfoService.getQueue().ifPresent(WriteBehindQueue::flush);
+    }
+
+
+    @ManagedAttribute
+    public long getAccessLogPendingCount() {
+        return stat(accessLogService.getQueue(), WriteBehindQueue::getPendingCount);
+    }
+
+
+    @ManagedAttribute
+    public long getAccessLogWrittenCount() {
+        return stat(accessLogService.getQueue(), WriteBehindQueue::getWrittenCount);
+    }
+
+
+    @ManagedAttribute
+    public long getAccessLogDroppedCount() {
+        return stat(accessLogService.getQueue(), WriteBehindQueue::getDroppedCount);
+    }
+
+
+    @ManagedAttribute
+    public long getAccessLogFailedCount() {
+        return stat(accessLogService.getQueue(), WriteBehindQueue::getFailedCount);
+    }
+
+
+    @ManagedAttribute
+    public long getAccessLogMaxFlushMillis() {
+        return stat(accessLogService.getQueue(), WriteBehindQueue::getMaxFlushMillis);
+    }
+
+
+    @ManagedAttribute
+    public long getUserAgentInfoPendingCount() {
+        return stat(userAgentInfoService.getQueue(), WriteBehindQueue::getPendingCount);
+    }
+
+
+    @ManagedAttribute
+    public long getUserAgentInfoWrittenCount() {
+        return stat(userAgentInfoService.getQueue(), WriteBehindQueue::getWrittenCount);
+    }
+
+
+    @ManagedAttribute
+    public long getUserAgentInfoDroppedCount() {
+        return stat(userAgentInfoService.getQueue(), WriteBehindQueue::getDroppedCount);
+    }
+
+
+    @ManagedAttribute
+    public long getUserAgentInfoFailedCount() {
+        return stat(userAgentInfoService.getQueue(), WriteBehindQueue::getFailedCount);
+    }
+
+
+    @ManagedAttribute
+    public long getUserAgentInfoMaxFlushMillis() {
+        return stat(userAgentInfoService.getQueue(), WriteBehindQueue::getMaxFlushMillis);
+    }
+
+
+    private static <T> long stat(Optional<WriteBehindQueue<T>> queue,
+                                 ToLongFunction<WriteBehindQueue<T>> statFn) {
+        return queue
+                .map(statFn::applyAsLong)
+                .orElse(-1L);
+    }
+
+}
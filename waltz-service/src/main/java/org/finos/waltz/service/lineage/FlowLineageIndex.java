@@ -0,0 +1,334 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.lineage;
+
+import org.finos.waltz.data.data_type.DataTypeDao;
+import org.finos.waltz.data.logical_flow.LogicalFlowLineageDao;
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.EntityLifecycleStatus;
+import org.finos.waltz.model.changelog.ChangeLog;
+import org.finos.waltz.model.datatype.DataType;
+import org.finos.waltz.model.lineage.LineageEdge;
+import org.finos.waltz.service.changelog.ChangeLogEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.finos.waltz.common.Checks.checkNotNull;
+
+/**
+ * Holds the shared, in-memory, {@link LineageGraph} over all logical flows along
+ * with the data type hierarchy used to expand lineage data type filters.
+ *
+ * The graph is built in the background as soon as scheduling starts, queries
+ * arriving before then wait for that build (only one build ever runs).  Queries
+ * never refresh the graph themselves, instead it is refreshed incrementally in
+ * the background:
+ * <ul>
+ *     <li>flows named in change log entries written on this node are reloaded within a few seconds</li>
+ *     <li>flow additions / removals on this node trigger a scan for flows (and decorations) updated since the last refresh</li>
+ *     <li>the same scan runs periodically (<code>lineage.index.poll.millis</code>) to pick up changes made on other nodes</li>
+ * </ul>
+ * Hard deletes and decoration removals on other nodes leave no trace to scan for,
+ * so the graph is also fully rebuilt periodically (<code>lineage.index.rebuild.millis</code>).
+ */
+@Service
+public class FlowLineageIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FlowLineageIndex.class);
+
+    /** re-scan this far behind the last seen update to allow for in-flight transactions and clock skew */
+    private static final long SCAN_OVERLAP_SECONDS = 60;
+
+
+    private static class Snapshot {
+        private final LineageGraph graph;
+        private final Map<Long, Set<Long>> childDataTypeIdsByParentId;
+        private final LocalDateTime watermark;
+
+        private Snapshot(LineageGraph graph,
+                         Map<Long, Set<Long>> childDataTypeIdsByParentId,
+                         LocalDateTime watermark) {
+            this.graph = graph;
+            this.childDataTypeIdsByParentId = childDataTypeIdsByParentId;
+            this.watermark = watermark;
+        }
+    }
+
+
+    private final LogicalFlowLineageDao lineageDao;
+    private final DataTypeDao dataTypeDao;
+
+    private final Set<Long> pendingFlowIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean scanRequired = new AtomicBoolean(false);
+    private final AtomicBoolean dataTypesChanged = new AtomicBoolean(false);
+    private final AtomicReference<CompletableFuture<Snapshot>> initialBuild = new AtomicReference<>();
+    private volatile Snapshot snapshot = null;
+
+
+    @Autowired
+    public FlowLineageIndex(LogicalFlowLineageDao lineageDao,
+                            DataTypeDao dataTypeDao) {
+        checkNotNull(lineageDao, "lineageDao cannot be null");
+        checkNotNull(dataTypeDao, "dataTypeDao cannot be null");
+
+        this.lineageDao = lineageDao;
+        this.dataTypeDao = dataTypeDao;
+    }
+
+
+    /**
+     * @return the current graph, changes made in the last few seconds may not yet be reflected
+     */
+    public LineageGraph getGraph() {
+        return getSnapshot().graph;
+    }
+
+
+    /**
+     * @param dataTypeIds  data types to expand
+     * @return the given data types along with all of their descendants
+     */
+    public Set<Long> expandDataTypeIds(Set<Long> dataTypeIds) {
+        Map<Long, Set<Long>> childrenByParent = getSnapshot().childDataTypeIdsByParentId;
+
+        Set<Long> result = new HashSet<>();
+        Deque<Long> toVisit = new ArrayDeque<>(dataTypeIds);
+        while (!toVisit.isEmpty()) {
+            Long dtId = toVisit.pop();
+            if (result.add(dtId)) {
+                toVisit.addAll(childrenByParent.getOrDefault(dtId, Collections.emptySet()));
+            }
+        }
+        return result;
+    }
+
+
+    @EventListener
+    public void onChangeLog(ChangeLogEvent event) {
+        if (snapshot == null) {
+            return;
+        }
+
+        for (ChangeLog changeLog : event.changeLogs()) {
+            EntityKind parentKind = changeLog.parentReference().kind();
+            EntityKind childKind = changeLog.childKind().orElse(parentKind);
+
+            if (parentKind == EntityKind.LOGICAL_DATA_FLOW) {
+                // e.g. decorator changes, restores
+                pendingFlowIds.add(changeLog.parentReference().id());
+            } else if (childKind == EntityKind.LOGICAL_DATA_FLOW) {
+                // flow added or removed against an app / actor, the flow id is not known
+                scanRequired.set(true);
+            } else if (parentKind == EntityKind.DATA_TYPE && childKind == EntityKind.DATA_TYPE) {
+                dataTypesChanged.set(true);
+            }
+        }
+    }
+
+
+    @Scheduled(fixedDelay = 5_000, initialDelay = 5_000)
+    public void applyPendingChanges() {
+        if (snapshot == null || !hasOutstandingChanges()) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                snapshot = applyChanges(snapshot);
+            }
+        } catch (Exception e) {
+            LOG.warn("Failed to refresh lineage index, will retry", e);
+        }
+    }
+
+
+    @Scheduled(fixedDelayString = "${lineage.index.poll.millis:60000}", initialDelay = 60_000)
+    public void pollForChanges() {
+        if (snapshot == null) {
+            return;
+        }
+        scanRequired.set(true);
+        applyPendingChanges();
+    }
+
+
+    /**
+     * Runs immediately once scheduling starts (building the initial graph) and
+     * then periodically to fully rebuild it.
+     */
+    @Scheduled(fixedDelayString = "${lineage.index.rebuild.millis:3600000}", initialDelay = 0)
+    public void rebuild() {
+        try {
+            if (snapshot == null) {
+                awaitInitialBuild();
+            } else {
+                synchronized (this) {
+                    snapshot = build();
+                }
+            }
+        } catch (Exception e) {
+            LOG.warn("Failed to rebuild lineage index, will retry", e);
+        }
+    }
+
+
+    // --- helpers ---
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        return current == null
+                ? awaitInitialBuild()
+                : current;
+    }
+
+
+    /**
+     * The first caller builds the graph, any concurrent callers wait for that build.
+     * If it fails the next caller tries again.
+     */
+    private Snapshot awaitInitialBuild() {
+        CompletableFuture<Snapshot> candidate = new CompletableFuture<>();
+        CompletableFuture<Snapshot> pending = initialBuild.updateAndGet(existing -> existing == null ? candidate : existing);
+
+        if (pending == candidate) {
+            try {
+                synchronized (this) {
+                    if (snapshot == null) {
+                        snapshot = build();
+                    }
+                    candidate.complete(snapshot);
+                }
+            } catch (RuntimeException e) {
+                initialBuild.set(null);
+                candidate.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        return pending.join();
+    }
+
+
+    private boolean hasOutstandingChanges() {
+        return scanRequired.get() || dataTypesChanged.get() || !pendingFlowIds.isEmpty();
+    }
+
+
+    private Snapshot build() {
+        long st = System.currentTimeMillis();
+
+        // take the watermark first, anything updated during the load will be re-scanned
+        LocalDateTime watermark = lineageDao.findLatestUpdateTime().orElse(LocalDateTime.MIN);
+        pendingFlowIds.clear();
+        scanRequired.set(false);
+        dataTypesChanged.set(false);
+
+        LineageGraph graph = LineageGraph.build(lineageDao.findAllActive());
+
+        LOG.info(
+                "Built lineage index with {} nodes and {} flows in {}ms",
+                graph.nodeCount(),
+                graph.edgeCount(),
+                System.currentTimeMillis() - st);
+
+        return new Snapshot(graph, loadDataTypeHierarchy(), watermark);
+    }
+
+
+    private Snapshot applyChanges(Snapshot current) {
+        long st = System.currentTimeMillis();
+
+        Set<Long> flowIds = new HashSet<>(pendingFlowIds);
+        pendingFlowIds.removeAll(flowIds);
+        boolean scan = scanRequired.getAndSet(false);
+        boolean reloadDataTypes = dataTypesChanged.getAndSet(false);
+
+        List<LineageEdge> changed = new ArrayList<>();
+        LocalDateTime watermark = current.watermark;
+
+        if (scan) {
+            LocalDateTime latest = lineageDao.findLatestUpdateTime().orElse(watermark);
+            LocalDateTime since = watermark.equals(LocalDateTime.MIN)
+                    ? watermark
+                    : watermark.minusSeconds(SCAN_OVERLAP_SECONDS);
+            changed.addAll(lineageDao.findUpdatedSince(since));
+            watermark = latest;
+        }
+
+        if (!flowIds.isEmpty()) {
+            List<LineageEdge> reloaded = lineageDao.findByFlowIds(flowIds);
+            changed.addAll(reloaded);
+            // flows which no longer exist at all have been hard deleted
+            reloaded.forEach(e -> flowIds.remove(e.flowId()));
+        }
+
+        List<LineageEdge> upserts = changed
+                .stream()
+                .filter(e -> e.lifecycleStatus() != EntityLifecycleStatus.REMOVED)
+                .collect(toList());
+
+        Set<Long> removed = changed
+                .stream()
+                .filter(e -> e.lifecycleStatus() == EntityLifecycleStatus.REMOVED)
+                .map(LineageEdge::flowId)
+                .collect(toSet());
+        removed.addAll(flowIds);
+
+        LineageGraph graph = changed.isEmpty() && removed.isEmpty()
+                ? current.graph
+                : current.graph.withChanges(upserts, removed);
+
+        LOG.debug(
+                "Applied {} changed and {} removed flows to lineage index in {}ms",
+                upserts.size(),
+                removed.size(),
+                System.currentTimeMillis() - st);
+
+        return new Snapshot(
+                graph,
+                reloadDataTypes
+                        ? loadDataTypeHierarchy()
+                        : current.childDataTypeIdsByParentId,
+                watermark);
+    }
+
+
+    private Map<Long, Set<Long>> loadDataTypeHierarchy() {
+        Map<Long, Set<Long>> childrenByParent = new HashMap<>();
+        for (DataType dt : dataTypeDao.findAll()) {
+            dt.parentId().ifPresent(parentId -> childrenByParent
+                    .computeIfAbsent(parentId, k -> new HashSet<>())
+                    .add(dt.id().get()));
+        }
+        return childrenByParent;
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.lineage;
+
+import org.finos.waltz.model.EntityReference;
+import org.finos.waltz.model.lineage.FlowLineage;
+import org.finos.waltz.model.lineage.LineageDirection;
+import org.finos.waltz.model.lineage.LineageOptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+
+import static org.finos.waltz.common.Checks.checkNotNull;
+import static org.finos.waltz.common.Checks.checkTrue;
+
+
+@Service
+public class FlowLineageService {
+
+    private static final int MAX_HOPS_LIMIT = 20;
+
+    private final FlowLineageIndex flowLineageIndex;
+
+
+    @Autowired
+    public FlowLineageService(FlowLineageIndex flowLineageIndex) {
+        checkNotNull(flowLineageIndex, "flowLineageIndex cannot be null");
+        this.flowLineageIndex = flowLineageIndex;
+    }
+
+
+    /**
+     * Walks the logical flow graph from the given entity.
+     *
+     * @param start  entity to start from
+     * @param direction  UPSTREAM follows flows to their sources, DOWNSTREAM to their targets
+     * @param options  hop limit and filters, data type filters include all descendant data types
+     * @return the entities reached (with their hop distance) and the flows traversed
+     */
+    public FlowLineage getLineage(EntityReference start,
+                                  LineageDirection direction,
+                                  LineageOptions options) {
+        checkNotNull(start, "start cannot be null");
+        checkNotNull(direction, "direction cannot be null");
+        checkNotNull(options, "options cannot be null");
+        checkTrue(
+                options.maxHops() > 0 && options.maxHops() <= MAX_HOPS_LIMIT,
+                "maxHops must be between 1 and " + MAX_HOPS_LIMIT);
+
+        Set<Long> dataTypeIds = options.dataTypeIds().isEmpty()
+                ? options.dataTypeIds()
+                : flowLineageIndex.expandDataTypeIds(options.dataTypeIds());
+
+        return flowLineageIndex
+                .getGraph()
+                .traverse(
+                        start,
+                        direction,
+                        options.maxHops(),
+                        dataTypeIds,
+                        options.lifecycleStatuses());
+    }
+
+}
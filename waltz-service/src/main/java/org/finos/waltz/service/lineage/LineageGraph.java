@@ -0,0 +1,562 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.lineage;
+
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.EntityLifecycleStatus;
+import org.finos.waltz.model.EntityReference;
+import org.finos.waltz.model.lineage.*;
+
+import java.util.*;
+
+import static org.finos.waltz.common.Checks.checkNotNull;
+import static org.finos.waltz.common.Checks.checkTrue;
+import static org.finos.waltz.model.EntityReference.mkRef;
+
+/**
+ * Immutable, compact, adjacency index over logical flows.
+ *
+ * Nodes (entities keyed by kind and id) and edges (flows) are held in primitive
+ * arrays.  Outbound and inbound adjacency are stored in CSR (compressed sparse
+ * row) form, i.e. the edges of node <code>n</code> are
+ * <code>outEdges[outOffsets[n] .. outOffsets[n + 1])</code>.  The data types of
+ * each edge are held the same way.
+ *
+ * Changes are applied by {@link #withChanges(Collection, Collection)}, which
+ * produces a new graph without going back to the database.  The new graph shares
+ * the (immutable) arrays of its predecessor and holds the changed flows in a small
+ * overlay, masking the flows they replace, so applying a change costs time
+ * proportional to the number of changed flows rather than the size of the graph.
+ * Once the overlay grows beyond a fraction of the graph it is compacted into new
+ * arrays.
+ */
+public class LineageGraph {
+
+    private static final EntityKind[] KINDS = EntityKind.values();
+    private static final EntityLifecycleStatus[] STATUSES = EntityLifecycleStatus.values();
+    private static final long[] NO_DATA_TYPES = new long[0];
+
+    /** the overlay is compacted once it holds more than this many flows, or 1/8th of the base flows if greater */
+    private static final int MIN_COMPACTION_THRESHOLD = 1_000;
+
+    // nodes
+    private final Map<Long, Integer> nodeIndexByKey;
+    private final long[] nodeKeys;
+
+    // edges
+    private final long[] flowIds;
+    private final int[] sources;
+    private final int[] targets;
+    private final byte[] statuses;
+    private final int[] dataTypeOffsets;
+    private final long[] dataTypeIds;
+
+    // adjacency (CSR)
+    private final int[] outOffsets;
+    private final int[] outEdges;
+    private final int[] inOffsets;
+    private final int[] inEdges;
+
+    // overlay, flows changed since the arrays were built
+    private final Set<Long> maskedFlowIds;
+    private final Map<Long, OverlayEdge> overlayByFlowId;
+    private final Map<Long, List<OverlayEdge>> overlayOutByNode = new HashMap<>();
+    private final Map<Long, List<OverlayEdge>> overlayInByNode = new HashMap<>();
+    private final int overlayOnlyNodeCount;
+
+
+    private LineageGraph(EdgeTable table) {
+        int nodeCount = table.nodeKeys.size;
+        int edgeCount = table.flowIds.size;
+
+        this.nodeIndexByKey = table.nodeIndexByKey;
+        this.nodeKeys = table.nodeKeys.toArray();
+        this.flowIds = table.flowIds.toArray();
+        this.sources = table.sources.toArray();
+        this.targets = table.targets.toArray();
+        this.statuses = Arrays.copyOf(table.statuses, edgeCount);
+        this.dataTypeOffsets = table.dataTypeOffsets.toArray();
+        this.dataTypeIds = table.dataTypeIds.toArray();
+
+        this.outOffsets = new int[nodeCount + 1];
+        this.outEdges = new int[edgeCount];
+        this.inOffsets = new int[nodeCount + 1];
+        this.inEdges = new int[edgeCount];
+
+        index(sources, outOffsets, outEdges);
+        index(targets, inOffsets, inEdges);
+
+        this.maskedFlowIds = Collections.emptySet();
+        this.overlayByFlowId = Collections.emptyMap();
+        this.overlayOnlyNodeCount = 0;
+    }
+
+
+    private LineageGraph(LineageGraph base,
+                         Set<Long> maskedFlowIds,
+                         Map<Long, OverlayEdge> overlayByFlowId) {
+        this.nodeIndexByKey = base.nodeIndexByKey;
+        this.nodeKeys = base.nodeKeys;
+        this.flowIds = base.flowIds;
+        this.sources = base.sources;
+        this.targets = base.targets;
+        this.statuses = base.statuses;
+        this.dataTypeOffsets = base.dataTypeOffsets;
+        this.dataTypeIds = base.dataTypeIds;
+        this.outOffsets = base.outOffsets;
+        this.outEdges = base.outEdges;
+        this.inOffsets = base.inOffsets;
+        this.inEdges = base.inEdges;
+
+        this.maskedFlowIds = maskedFlowIds;
+        this.overlayByFlowId = overlayByFlowId;
+
+        Set<Long> overlayOnlyNodes = new HashSet<>();
+        overlayByFlowId.values().forEach(e -> {
+            overlayOutByNode.computeIfAbsent(e.sourceKey, k -> new ArrayList<>()).add(e);
+            overlayInByNode.computeIfAbsent(e.targetKey, k -> new ArrayList<>()).add(e);
+            overlayOnlyNodes.add(e.sourceKey);
+            overlayOnlyNodes.add(e.targetKey);
+        });
+        overlayOnlyNodes.removeAll(nodeIndexByKey.keySet());
+        this.overlayOnlyNodeCount = overlayOnlyNodes.size();
+    }
+
+
+    public static LineageGraph build(Collection<LineageEdge> edges) {
+        checkNotNull(edges, "edges cannot be null");
+        EdgeTable table = new EdgeTable(edges.size());
+        // flow ids are kept in ascending order so flows can be located by binary search
+        edges.stream()
+                .sorted(Comparator.comparingLong(LineageEdge::flowId))
+                .forEach(table::add);
+        return new LineageGraph(table);
+    }
+
+
+    /**
+     * @param upserts  new or changed flows, any with a status of <code>REMOVED</code> are treated as removals
+     * @param removedFlowIds  flows to drop from the graph
+     * @return a new graph reflecting the changes, this graph is not modified
+     */
+    public LineageGraph withChanges(Collection<LineageEdge> upserts,
+                                    Collection<Long> removedFlowIds) {
+        checkNotNull(upserts, "upserts cannot be null");
+        checkNotNull(removedFlowIds, "removedFlowIds cannot be null");
+
+        Set<Long> masked = new HashSet<>(maskedFlowIds);
+        Map<Long, OverlayEdge> overlay = new HashMap<>(overlayByFlowId);
+
+        removedFlowIds.forEach(flowId -> {
+            overlay.remove(flowId);
+            mask(masked, flowId);
+        });
+
+        upserts.forEach(e -> {
+            overlay.remove(e.flowId());
+            mask(masked, e.flowId());
+            if (e.lifecycleStatus() != EntityLifecycleStatus.REMOVED) {
+                overlay.put(e.flowId(), new OverlayEdge(e));
+            }
+        });
+
+        int threshold = Math.max(MIN_COMPACTION_THRESHOLD, flowIds.length / 8);
+        return masked.size() + overlay.size() > threshold
+                ? compact(masked, overlay)
+                : new LineageGraph(this, masked, overlay);
+    }
+
+
+    /**
+     * Breadth first traversal from the starting entity.  Each node is visited once, at the
+     * smallest number of hops it is reachable in, which also guards against cycles.
+     *
+     * @param start  entity to start from
+     * @param direction  whether to follow flows upstream (towards sources) or downstream
+     * @param maxHops  maximum number of flows to follow away from the starting entity
+     * @param dataTypeIds  only follow flows decorated with at least one of these data types, empty for all flows
+     * @param lifecycleStatuses  only follow flows in one of these states
+     * @return reachable entities and the flows between them
+     */
+    public FlowLineage traverse(EntityReference start,
+                                LineageDirection direction,
+                                int maxHops,
+                                Set<Long> dataTypeIds,
+                                Set<EntityLifecycleStatus> lifecycleStatuses) {
+        checkNotNull(start, "start cannot be null");
+        checkNotNull(direction, "direction cannot be null");
+        checkTrue(maxHops >= 0, "maxHops cannot be negative");
+
+        EntityReference startRef = mkRef(start.kind(), start.id());
+
+        ImmutableFlowLineage.Builder result = ImmutableFlowLineage
+                .builder()
+                .startingEntity(startRef)
+                .direction(direction)
+                .addNodes(ImmutableLineageNode.builder().entityReference(startRef).hops(0).build());
+
+        long startKey = mkNodeKey(start.kind(), start.id());
+        if (!nodeIndexByKey.containsKey(startKey)
+                && !overlayOutByNode.containsKey(startKey)
+                && !overlayInByNode.containsKey(startKey)) {
+            return result.build();
+        }
+
+        boolean upstream = direction == LineageDirection.UPSTREAM;
+        int[] offsets = upstream ? inOffsets : outOffsets;
+        int[] adjacentEdges = upstream ? inEdges : outEdges;
+        int[] otherEnds = upstream ? sources : targets;
+        Map<Long, List<OverlayEdge>> overlayByNode = upstream ? overlayInByNode : overlayOutByNode;
+
+        boolean[] allowedStatuses = new boolean[STATUSES.length];
+        lifecycleStatuses.forEach(s -> allowedStatuses[s.ordinal()] = true);
+
+        Traversal traversal = new Traversal(result, nodeKeys.length);
+        traversal.visit(startKey, 0);
+
+        for (int hop = 1; hop <= maxHops && traversal.head < traversal.queue.size; hop++) {
+            int levelEnd = traversal.queue.size;
+            while (traversal.head < levelEnd) {
+                long node = traversal.queue.values[traversal.head++];
+
+                Integer idx = nodeIndexByKey.get(node);
+                if (idx != null) {
+                    for (int i = offsets[idx]; i < offsets[idx + 1]; i++) {
+                        int e = adjacentEdges[i];
+                        if (!allowedStatuses[statuses[e]]
+                                || !hasAnyDataType(this.dataTypeIds, dataTypeOffsets[e], dataTypeOffsets[e + 1], dataTypeIds)
+                                || isMasked(flowIds[e])) {
+                            continue;
+                        }
+                        traversal.follow(flowIds[e], nodeKeys[sources[e]], nodeKeys[targets[e]], nodeKeys[otherEnds[e]], hop);
+                    }
+                }
+
+                for (OverlayEdge e : overlayByNode.getOrDefault(node, Collections.emptyList())) {
+                    if (!allowedStatuses[e.status]
+                            || !hasAnyDataType(e.dataTypeIds, 0, e.dataTypeIds.length, dataTypeIds)) {
+                        continue;
+                    }
+                    traversal.follow(e.flowId, e.sourceKey, e.targetKey, upstream ? e.sourceKey : e.targetKey, hop);
+                }
+            }
+        }
+
+        return result.build();
+    }
+
+
+    public int nodeCount() {
+        return nodeKeys.length + overlayOnlyNodeCount;
+    }
+
+
+    public int edgeCount() {
+        return flowIds.length - maskedFlowIds.size() + overlayByFlowId.size();
+    }
+
+
+    // --- helpers ---
+
+    private static boolean hasAnyDataType(long[] edgeDataTypeIds, int from, int to, Set<Long> wanted) {
+        if (wanted.isEmpty()) {
+            return true;
+        }
+        for (int i = from; i < to; i++) {
+            if (wanted.contains(edgeDataTypeIds[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private boolean isMasked(long flowId) {
+        return !maskedFlowIds.isEmpty() && maskedFlowIds.contains(flowId);
+    }
+
+
+    /**
+     * Only flows held in the arrays are masked, flows which only exist in the overlay are simply replaced
+     */
+    private void mask(Set<Long> masked, long flowId) {
+        if (Arrays.binarySearch(flowIds, flowId) >= 0) {
+            masked.add(flowId);
+        }
+    }
+
+
+    /**
+     * Builds new arrays from the unmasked flows and the overlay, preserving flow id order
+     */
+    private LineageGraph compact(Set<Long> masked, Map<Long, OverlayEdge> overlay) {
+        List<OverlayEdge> overlayEdges = new ArrayList<>(overlay.values());
+        overlayEdges.sort(Comparator.comparingLong(e -> e.flowId));
+
+        EdgeTable table = new EdgeTable(flowIds.length - masked.size() + overlayEdges.size());
+        int o = 0;
+        for (int e = 0; e < flowIds.length; e++) {
+            while (o < overlayEdges.size() && overlayEdges.get(o).flowId < flowIds[e]) {
+                table.add(overlayEdges.get(o++));
+            }
+            if (!masked.contains(flowIds[e])) {
+                table.add(
+                        flowIds[e],
+                        nodeKeys[sources[e]],
+                        nodeKeys[targets[e]],
+                        statuses[e],
+                        Arrays.copyOfRange(dataTypeIds, dataTypeOffsets[e], dataTypeOffsets[e + 1]));
+            }
+        }
+        while (o < overlayEdges.size()) {
+            table.add(overlayEdges.get(o++));
+        }
+
+        return new LineageGraph(table);
+    }
+
+
+    private static EntityReference toRef(long key) {
+        return mkRef(KINDS[(int) (key >>> 48)], key & 0xFFFF_FFFF_FFFFL);
+    }
+
+
+    /**
+     * Counting sort of edges by their node, producing CSR offsets and edge lists
+     */
+    private static void index(int[] nodeOfEdge, int[] offsets, int[] edges) {
+        for (int node : nodeOfEdge) {
+            offsets[node + 1]++;
+        }
+        for (int n = 0; n < offsets.length - 1; n++) {
+            offsets[n + 1] += offsets[n];
+        }
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int e = 0; e < nodeOfEdge.length; e++) {
+            edges[next[nodeOfEdge[e]]++] = e;
+        }
+    }
+
+
+    /**
+     * Packs kind and id into a single long (ids are assumed to fit into 48 bits)
+     */
+    private static long mkNodeKey(EntityKind kind, long id) {
+        return ((long) kind.ordinal() << 48) | id;
+    }
+
+
+    /**
+     * A flow changed since the arrays were built
+     */
+    private static class OverlayEdge {
+        private final long flowId;
+        private final long sourceKey;
+        private final long targetKey;
+        private final byte status;
+        private final long[] dataTypeIds;
+
+
+        private OverlayEdge(LineageEdge edge) {
+            this.flowId = edge.flowId();
+            this.sourceKey = mkNodeKey(edge.source().kind(), edge.source().id());
+            this.targetKey = mkNodeKey(edge.target().kind(), edge.target().id());
+            this.status = (byte) edge.lifecycleStatus().ordinal();
+            this.dataTypeIds = toDataTypeArray(edge);
+        }
+    }
+
+
+    /**
+     * Per traversal state.  Nodes held in the arrays are tracked by index, nodes
+     * only known to the overlay by key.
+     */
+    private class Traversal {
+        private final ImmutableFlowLineage.Builder result;
+        private final BitSet visitedIndices;
+        private final Set<Long> visitedOverlayNodes = new HashSet<>();
+        private final LongArray queue;
+        private int head = 0;
+
+
+        private Traversal(ImmutableFlowLineage.Builder result, int expectedNodes) {
+            this.result = result;
+            this.visitedIndices = new BitSet(expectedNodes);
+            this.queue = new LongArray(expectedNodes);
+        }
+
+
+        private void follow(long flowId, long sourceKey, long targetKey, long otherKey, int hop) {
+            result.addFlows(ImmutableLineageFlow
+                    .builder()
+                    .flowId(flowId)
+                    .source(toRef(sourceKey))
+                    .target(toRef(targetKey))
+                    .hops(hop)
+                    .build());
+
+            if (visit(otherKey, hop)) {
+                result.addNodes(ImmutableLineageNode
+                        .builder()
+                        .entityReference(toRef(otherKey))
+                        .hops(hop)
+                        .build());
+            }
+        }
+
+
+        /**
+         * @return true if the node had not been visited before, it is then queued for expansion
+         */
+        private boolean visit(long key, int hop) {
+            Integer idx = nodeIndexByKey.get(key);
+            boolean firstVisit;
+            if (idx != null) {
+                firstVisit = !visitedIndices.get(idx);
+                visitedIndices.set(idx);
+            } else {
+                firstVisit = visitedOverlayNodes.add(key);
+            }
+            if (firstVisit) {
+                queue.add(key);
+            }
+            return firstVisit;
+        }
+    }
+
+
+    private static long[] toDataTypeArray(LineageEdge edge) {
+        return edge.dataTypeIds().isEmpty()
+                ? NO_DATA_TYPES
+                : edge.dataTypeIds().stream().mapToLong(Long::longValue).toArray();
+    }
+
+
+    /**
+     * Columnar, growable, edge storage used whilst building a graph
+     */
+    private static class EdgeTable {
+        private final Map<Long, Integer> nodeIndexByKey = new HashMap<>();
+        private final LongArray nodeKeys = new LongArray(16);
+        private final LongArray flowIds;
+        private final IntArray sources;
+        private final IntArray targets;
+        private byte[] statuses;
+        private final IntArray dataTypeOffsets;
+        private final LongArray dataTypeIds;
+
+
+        private EdgeTable(int expectedEdges) {
+            int capacity = Math.max(expectedEdges, 16);
+            flowIds = new LongArray(capacity);
+            sources = new IntArray(capacity);
+            targets = new IntArray(capacity);
+            statuses = new byte[capacity];
+            dataTypeOffsets = new IntArray(capacity + 1);
+            dataTypeIds = new LongArray(capacity);
+            dataTypeOffsets.add(0);
+        }
+
+
+        private void add(LineageEdge edge) {
+            if (edge.lifecycleStatus() == EntityLifecycleStatus.REMOVED) {
+                return;
+            }
+
+            add(edge.flowId(),
+                mkNodeKey(edge.source().kind(), edge.source().id()),
+                mkNodeKey(edge.target().kind(), edge.target().id()),
+                (byte) edge.lifecycleStatus().ordinal(),
+                toDataTypeArray(edge));
+        }
+
+
+        private void add(OverlayEdge edge) {
+            add(edge.flowId, edge.sourceKey, edge.targetKey, edge.status, edge.dataTypeIds);
+        }
+
+
+        private void add(long flowId, long sourceKey, long targetKey, byte status, long[] dts) {
+            int e = flowIds.size;
+            if (e == statuses.length) {
+                statuses = Arrays.copyOf(statuses, e * 2);
+            }
+
+            flowIds.add(flowId);
+            sources.add(nodeIndex(sourceKey));
+            targets.add(nodeIndex(targetKey));
+            statuses[e] = status;
+            for (long dt : dts) {
+                dataTypeIds.add(dt);
+            }
+            dataTypeOffsets.add(dataTypeIds.size);
+        }
+
+
+        private int nodeIndex(long key) {
+            return nodeIndexByKey.computeIfAbsent(key, k -> {
+                nodeKeys.add(k);
+                return nodeKeys.size - 1;
+            });
+        }
+    }
+
+
+    private static class LongArray {
+        private long[] values;
+        private int size = 0;
+
+        private LongArray(int capacity) {
+            values = new long[Math.max(capacity, 1)];
+        }
+
+        private void add(long v) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = v;
+        }
+
+        private long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+
+    private static class IntArray {
+        private int[] values;
+        private int size = 0;
+
+        private IntArray(int capacity) {
+            values = new int[Math.max(capacity, 1)];
+        }
+
+        private void add(int v) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = v;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+}
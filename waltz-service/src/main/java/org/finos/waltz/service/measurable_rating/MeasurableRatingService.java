@@ -19,6 +19,7 @@
 package org.finos.waltz.service.measurable_rating;
 
 import org.finos.waltz.service.changelog.ChangeLogService;
+import org.finos.waltz.service.id_selector.IdSelectorCache;
 import org.finos.waltz.service.rating_scheme.RatingSchemeService;
 import org.finos.waltz.common.DateTimeUtilities;
 import org.finos.waltz.data.EntityReferenceNameResolver;
@@ -28,6 +29,7 @@ import org.finos.waltz.data.measurable.MeasurableIdSelectorFactory;
 import org.finos.waltz.data.measurable_category.MeasurableCategoryDao;
 import org.finos.waltz.data.measurable_rating.MeasurableRatingDao;
 import org.finos.waltz.model.*;
+import org.finos.waltz.model.changelog.ChangeLog;
 import org.finos.waltz.model.changelog.ImmutableChangeLog;
 import org.finos.waltz.model.measurable.Measurable;
 import org.finos.waltz.model.measurable_category.MeasurableCategory;
@@ -48,6 +50,7 @@ import java.util.List;
 
 import static java.lang.String.format;
 import static org.finos.waltz.common.Checks.*;
+import static org.finos.waltz.common.ListUtilities.asList;
 
 @Service
 public class MeasurableRatingService {
@@ -58,6 +61,7 @@ public class MeasurableRatingService {
     private final ChangeLogService changeLogService;
     private final RatingSchemeService ratingSchemeService;
     private final EntityReferenceNameResolver entityReferenceNameResolver;
+    private final IdSelectorCache idSelectorCache;
 
     private final MeasurableIdSelectorFactory measurableIdSelectorFactory = new MeasurableIdSelectorFactory();
     private final ApplicationIdSelectorFactory applicationIdSelectorFactory = new ApplicationIdSelectorFactory();
@@ -69,12 +73,14 @@ public class MeasurableRatingService {
                                    MeasurableCategoryDao measurableCategoryDao,
                                    ChangeLogService changeLogService,
                                    RatingSchemeService ratingSchemeService,
-                                   EntityReferenceNameResolver entityReferenceNameResolver) {
+                                   EntityReferenceNameResolver entityReferenceNameResolver,
+                                   IdSelectorCache idSelectorCache) {
         checkNotNull(measurableRatingDao, "measurableRatingDao cannot be null");
         checkNotNull(measurableDao, "measurableDao cannot be null");
         checkNotNull(measurableCategoryDao, "measurableCategoryDao cannot be null");
         checkNotNull(changeLogService, "changeLogService cannot be null");
         checkNotNull(ratingSchemeService, "ratingSchemeService cannot be null");
+        checkNotNull(idSelectorCache, "idSelectorCache cannot be null");
 
         this.measurableRatingDao = measurableRatingDao;
         this.measurableDao = measurableDao;
@@ -82,6 +88,7 @@ public class MeasurableRatingService {
         this.changeLogService = changeLogService;
         this.ratingSchemeService = ratingSchemeService;
         this.entityReferenceNameResolver = entityReferenceNameResolver;
+        this.idSelectorCache = idSelectorCache;
     }
 
     // -- READ
@@ -101,7 +108,7 @@ public class MeasurableRatingService {
 
     public Collection<MeasurableRating> findByAppIdSelector(IdSelectionOptions options) {
         checkNotNull(options, "options cannot be null");
-        Select<Record1<Long>> selector = applicationIdSelectorFactory.apply(options);
+        Select<Record1<Long>> selector = idSelectorCache.getSelector(EntityKind.APPLICATION, applicationIdSelectorFactory, options);
         return measurableRatingDao.findByApplicationIdSelector(selector);
     }
 
@@ -208,7 +215,7 @@ public class MeasurableRatingService {
 
     public List<MeasurableRatingTally> statsByAppSelector(IdSelectionOptions options) {
         checkNotNull(options, "options cannot be null");
-        Select<Record1<Long>> selector = applicationIdSelectorFactory.apply(options);
+        Select<Record1<Long>> selector = idSelectorCache.getSelector(EntityKind.APPLICATION, applicationIdSelectorFactory, options);
         return measurableRatingDao.statsByAppSelector(selector);
     }
 
@@ -220,7 +227,7 @@ public class MeasurableRatingService {
                                      String message2,
                                      Operation operation) {
 
-        changeLogService.write(ImmutableChangeLog.builder()
+        ChangeLog entityEntry = ImmutableChangeLog.builder()
                 .message(message1)
                 .parentReference(command.entityReference())
                 .userId(command.lastUpdate().by())
@@ -228,9 +235,9 @@ public class MeasurableRatingService {
                 .severity(Severity.INFORMATION)
                 .childKind(EntityKind.MEASURABLE)
                 .operation(operation)
-                .build());
+                .build();
 
-        changeLogService.write(ImmutableChangeLog.builder()
+        ChangeLog measurableEntry = ImmutableChangeLog.builder()
                 .message(message2)
                 .parentReference(EntityReference.mkRef(EntityKind.MEASURABLE, command.measurableId()))
                 .userId(command.lastUpdate().by())
@@ -238,7 +245,9 @@ public class MeasurableRatingService {
                 .severity(Severity.INFORMATION)
                 .childKind(command.entityReference().kind())
                 .operation(operation)
-                .build());
+                .build();
+
+        changeLogService.write(asList(entityEntry, measurableEntry));
     }
 
 
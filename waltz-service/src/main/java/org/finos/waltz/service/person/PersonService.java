@@ -31,6 +31,7 @@ import org.springframework.stereotype.Service;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static java.util.Collections.emptyList;
 import static org.finos.waltz.common.Checks.checkNotEmpty;
@@ -92,6 +93,11 @@ public class PersonService {
     }
 
 
+    public CompletableFuture<List<Person>> searchAsync(EntitySearchOptions options) {
+        return personSearchDao.searchAsync(options);
+    }
+
+
     public List<Person> all() {
         return personDao.all();
     }
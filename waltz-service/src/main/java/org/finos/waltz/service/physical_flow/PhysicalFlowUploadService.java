@@ -34,7 +34,6 @@ import org.finos.waltz.model.actor.Actor;
 import org.finos.waltz.model.application.Application;
 import org.finos.waltz.model.command.CommandOutcome;
 import org.finos.waltz.model.datatype.DataType;
-import org.finos.waltz.model.datatype.DataTypeDecorator;
 import org.finos.waltz.model.enum_value.EnumValueKind;
 import org.finos.waltz.model.external_identifier.ExternalIdValue;
 import org.finos.waltz.model.logical_flow.ImmutableLogicalFlow;
@@ -45,28 +44,44 @@ import org.finos.waltz.model.physical_specification.ImmutablePhysicalSpecificati
 import org.finos.waltz.model.physical_specification.PhysicalSpecification;
 import org.finos.waltz.service.data_type.DataTypeDecoratorService;
 import org.finos.waltz.service.enum_value.EnumValueAliasService;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
 import static org.finos.waltz.common.Checks.checkNotNull;
 import static org.finos.waltz.common.DateTimeUtilities.nowUtc;
-import static org.finos.waltz.common.SetUtilities.fromArray;
+import static org.finos.waltz.common.ListUtilities.map;
 import static org.finos.waltz.common.StringUtilities.isEmpty;
 import static org.finos.waltz.common.StringUtilities.lower;
+import static org.jooq.lambda.tuple.Tuple.tuple;
 
 
 @Service
 public class PhysicalFlowUploadService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(PhysicalFlowUploadService.class);
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int JOB_RETENTION_HOURS = 1;
+
     private final ActorDao actorDao;
     private final ApplicationDao applicationDao;
     private final DataTypeDao dataTypeDao;
@@ -78,6 +93,17 @@ public class PhysicalFlowUploadService {
 
     private final Pattern basisOffsetRegex = Pattern.compile("T?(?<offset>[\\+\\-]?\\d+)");
 
+    // job state is node-local, it is only visible on the node which accepted the upload
+    private final Map<String, UploadJobState> jobsById = new ConcurrentHashMap<>();
+
+    private final ExecutorService uploadExecutor = Executors.newFixedThreadPool(
+            2,
+            (runnable) -> {
+                Thread t = new Thread(runnable, "Physical Flow Upload");
+                t.setDaemon(true);
+                return t;
+            });
+
 
     public PhysicalFlowUploadService(ActorDao actorDao,
                                      ApplicationDao applicationDao,
@@ -145,8 +171,12 @@ public class PhysicalFlowUploadService {
         }
 
         // no parse errors - check for duplicates
+        Map<PhysicalFlowParsed, PhysicalFlow> existingFlows = physicalFlowDao.findByParsedFlows(map(
+                parsedFlows,
+                PhysicalFlowUploadCommandResponse::parsedFlow));
+
         List<PhysicalFlowUploadCommandResponse> responses = parsedFlows.stream()
-                .map(f -> Optional.ofNullable(physicalFlowDao.getByParsedFlow(f.parsedFlow()))
+                .map(f -> Optional.ofNullable(existingFlows.get(f.parsedFlow()))
                     .map(m -> (PhysicalFlowUploadCommandResponse) ImmutablePhysicalFlowUploadCommandResponse
                             .copyOf(f)
                             .withEntityReference(m.entityReference()))
@@ -156,12 +186,74 @@ public class PhysicalFlowUploadService {
         return responses;
     }
 
-    
+
     public List<PhysicalFlowUploadCommandResponse> upload(String username,
                                                           List<PhysicalFlowUploadCommand> cmds) throws Exception {
+        return doUpload(username, cmds, new UploadJobState(username, cmds.size()));
+    }
+
+
+    /**
+     * Queues the upload to run in the background, progress can be followed via
+     * {@link #getUploadJob(String)}.  Commands are validated as part of the job.
+     *
+     * Job state is held in memory on the node which accepted the upload (and kept for
+     * an hour after completion), so progress must be polled from the same node, e.g.
+     * via sticky sessions when load balanced.  It does not survive a restart.
+     *
+     * @return a snapshot of the newly queued job
+     */
+    public PhysicalFlowUploadJob submitUpload(String username,
+                                              List<PhysicalFlowUploadCommand> cmds) {
+        checkNotNull(username, "username cannot be null");
         checkNotNull(cmds, "cmds cannot be empty");
 
-        // load application and actor maps
+        removeExpiredJobs();
+
+        UploadJobState job = new UploadJobState(username, cmds.size());
+        jobsById.put(job.id, job);
+
+        uploadExecutor.execute(() -> {
+            try {
+                List<PhysicalFlowUploadCommandResponse> responses = doUpload(username, cmds, job);
+                job.complete(responses);
+            } catch (Exception e) {
+                LOG.warn("Physical flow upload: {} for user: {} failed", job.id, username, e);
+                job.fail(e);
+            }
+        });
+
+        return job.toJob();
+    }
+
+
+    /**
+     * @param jobId  id returned by {@link #submitUpload(String, List)}
+     * @return the job, or empty if unknown to this node (see {@link #submitUpload(String, List)})
+     */
+    public Optional<PhysicalFlowUploadJob> getUploadJob(String jobId) {
+        return Optional
+                .ofNullable(jobsById.get(jobId))
+                .map(UploadJobState::toJob);
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdownNow();
+    }
+
+
+    ////////////////////// PIPELINE /////////////////////
+    /////////////////////////////////////////////////////
+
+    private List<PhysicalFlowUploadCommandResponse> doUpload(String username,
+                                                             List<PhysicalFlowUploadCommand> cmds,
+                                                             UploadJobState job) {
+        checkNotNull(cmds, "cmds cannot be empty");
+
+        long st = System.currentTimeMillis();
+        job.start("Validating");
         List<PhysicalFlowUploadCommandResponse> validated = validate(cmds);
 
         if(validated.stream().anyMatch(v -> v.outcome() == CommandOutcome.FAILURE)) {
@@ -172,38 +264,317 @@ public class PhysicalFlowUploadService {
                 .filter(v -> v.outcome() == CommandOutcome.SUCCESS && v.entityReference() == null)
                 .collect(toList());
 
-        // create physical flow with ids from the above two
-        List<PhysicalFlowUploadCommandResponse> created = newFlowCmds.stream()
-                .map(v -> {
-                    if (!(v.outcome() == CommandOutcome.SUCCESS && v.entityReference() == null)) {
-                        return v;
-                    }
+        job.advance("Resolving duplicates", cmds.size() - newFlowCmds.size());
 
-                    PhysicalFlowParsed flow = v.parsedFlow();
-                    LogicalFlow logicalFlow = getOrCreateLogicalFlow(flow.source(), flow.target(), flow.dataType(), username);
-                    PhysicalSpecification specification = getOrCreatePhysicalSpec(flow, username);
-
-                    PhysicalFlow newFlow = ImmutablePhysicalFlow.builder()
-                            .logicalFlowId(logicalFlow.id().get())
-                            .specificationId(specification.id().get())
-                            .basisOffset(flow.basisOffset())
-                            .frequency(flow.frequency())
-                            .transport(flow.transport())
-                            .criticality(flow.criticality())
-                            .description(flow.description())
-                            .externalId(Optional.ofNullable(flow.externalId()))
-                            .lastUpdatedBy(username)
-                            .lastUpdatedAt(nowUtc())
-                            .build();
+        List<PhysicalFlowParsed> newFlows = map(newFlowCmds, PhysicalFlowUploadCommandResponse::parsedFlow);
+
+        job.advance("Creating logical flows", 0);
+        Map<Tuple2<EntityReference, EntityReference>, LogicalFlow> logicalFlows = getOrCreateLogicalFlows(newFlows, username);
 
-                    long id = getOrCreatePhysicalFlow(newFlow);
+        job.advance("Creating specifications", 0);
+        Map<PhysicalFlowParsed, PhysicalSpecification> specifications = getOrCreatePhysicalSpecs(newFlows, username);
 
-                    return ImmutablePhysicalFlowUploadCommandResponse.copyOf(v)
-                            .withEntityReference(EntityReference.mkRef(EntityKind.PHYSICAL_FLOW, id));
+        job.advance("Creating physical flows", 0);
+        Map<PhysicalFlowParsed, PhysicalFlow> physicalFlows = getOrCreatePhysicalFlows(newFlows, logicalFlows, specifications, username, job);
+
+        // every row is reported, in input order, rows matching existing flows keep their reference
+        List<PhysicalFlowUploadCommandResponse> responses = validated
+                .stream()
+                .map(v -> {
+                    PhysicalFlow flow = v.entityReference() == null
+                            ? physicalFlows.get(v.parsedFlow())
+                            : null;
+                    return flow == null
+                            ? v
+                            : ImmutablePhysicalFlowUploadCommandResponse
+                                .copyOf(v)
+                                .withEntityReference(EntityReference.mkRef(EntityKind.PHYSICAL_FLOW, flow.id().get()));
                 })
                 .collect(toList());
 
-        return created;
+        LOG.info(
+                "Physical flow upload: {} for user: {}, {} rows, {} new flows, took {}ms",
+                job.id,
+                username,
+                cmds.size(),
+                newFlowCmds.size(),
+                System.currentTimeMillis() - st);
+
+        return responses;
+    }
+
+
+    /**
+     * Finds the (active) logical flows for each source/target pair, creating any which
+     * are missing, and ensures each flow is decorated with the uploaded data types.
+     */
+    private Map<Tuple2<EntityReference, EntityReference>, LogicalFlow> getOrCreateLogicalFlows(List<PhysicalFlowParsed> flows,
+                                                                                            String username) {
+        // keyed on (kind, id) as parsed refs carry the app lifecycle status whereas loaded flows default to ACTIVE
+        Map<Tuple2<EntityReference, EntityReference>, Tuple2<EntityReference, EntityReference>> sourceAndTargetsByKey = new LinkedHashMap<>();
+        flows.forEach(f -> sourceAndTargetsByKey.putIfAbsent(flowKey(f.source(), f.target()), tuple(f.source(), f.target())));
+        List<Tuple2<EntityReference, EntityReference>> sourceAndTargets = new ArrayList<>(sourceAndTargetsByKey.values());
+
+        Map<Tuple2<EntityReference, EntityReference>, LogicalFlow> flowsBySourceAndTarget = new HashMap<>();
+
+        forEachChunk(sourceAndTargets, chunk -> {
+            List<LogicalFlow> existing = logicalFlowDao.findBySourcesAndTargets(chunk);
+            existing.forEach(f -> flowsBySourceAndTarget.put(flowKey(f.source(), f.target()), f));
+
+            LocalDateTime now = nowUtc();
+            List<LogicalFlow> flowsToAdd = chunk
+                    .stream()
+                    .filter(t -> ! flowsBySourceAndTarget.containsKey(flowKey(t.v1, t.v2)))
+                    .map(t -> (LogicalFlow) ImmutableLogicalFlow.builder()
+                            .source(t.v1)
+                            .target(t.v2)
+                            .lastUpdatedBy(username)
+                            .lastUpdatedAt(now)
+                            .provenance("waltz")
+                            .created(UserTimestamp.mkForUser(username, now))
+                            .build())
+                    .collect(toList());
+
+            if (! flowsToAdd.isEmpty()) {
+                logicalFlowDao
+                        .addFlows(flowsToAdd, username)
+                        .forEach(f -> flowsBySourceAndTarget.put(flowKey(f.source(), f.target()), f));
+            }
+        });
+
+        Map<Long, Set<Long>> requiredDataTypesByFlowId = new HashMap<>();
+        flows.forEach(f -> requiredDataTypesByFlowId
+                .computeIfAbsent(flowsBySourceAndTarget.get(flowKey(f.source(), f.target())).id().get(), k -> new HashSet<>())
+                .add(f.dataType().id()));
+
+        addMissingDecorators(EntityKind.LOGICAL_DATA_FLOW, requiredDataTypesByFlowId, username);
+
+        return flowsBySourceAndTarget;
+    }
+
+
+    /**
+     * Finds the specification for each parsed flow (by owner, format and name), creating
+     * any which are missing, and ensures each is decorated with the uploaded data types.
+     */
+    private Map<PhysicalFlowParsed, PhysicalSpecification> getOrCreatePhysicalSpecs(List<PhysicalFlowParsed> flows,
+                                                                                    String username) {
+        Map<PhysicalFlowParsed, PhysicalSpecification> specsByFlow = new HashMap<>(physicalSpecificationDao.findByParsedFlows(flows));
+
+        // first occurrence of each missing spec (by owner, format and name) determines its description etc.
+        Map<Tuple3<EntityReference, DataFormatKindValue, String>, PhysicalFlowParsed> missingSpecs = new LinkedHashMap<>();
+        flows.stream()
+                .filter(f -> ! specsByFlow.containsKey(f))
+                .forEach(f -> missingSpecs.putIfAbsent(specKey(f), f));
+
+        if (! missingSpecs.isEmpty()) {
+            LocalDateTime now = nowUtc();
+            List<PhysicalSpecification> specsToAdd = missingSpecs
+                    .values()
+                    .stream()
+                    .map(f -> (PhysicalSpecification) ImmutablePhysicalSpecification.builder()
+                            .owningEntity(f.owner())
+                            .format(f.format())
+                            .name(f.name())
+                            .externalId(Optional.ofNullable(f.specExternalId()).orElse(""))
+                            .description(Optional.ofNullable(f.specDescription()).orElse(""))
+                            .lastUpdatedBy(username)
+                            .lastUpdatedAt(now)
+                            .provenance("waltz")
+                            .created(UserTimestamp.mkForUser(username, now))
+                            .build())
+                    .collect(toList());
+
+            forEachChunk(specsToAdd, physicalSpecificationDao::createAll);
+
+            List<PhysicalFlowParsed> unresolved = flows
+                    .stream()
+                    .filter(f -> ! specsByFlow.containsKey(f))
+                    .collect(toList());
+            specsByFlow.putAll(physicalSpecificationDao.findByParsedFlows(unresolved));
+        }
+
+        Map<Long, Set<Long>> requiredDataTypesBySpecId = new HashMap<>();
+        flows.forEach(f -> requiredDataTypesBySpecId
+                .computeIfAbsent(specsByFlow.get(f).id().get(), k -> new HashSet<>())
+                .add(f.dataType().id()));
+
+        addMissingDecorators(EntityKind.PHYSICAL_SPECIFICATION, requiredDataTypesBySpecId, username);
+
+        return specsByFlow;
+    }
+
+
+    /**
+     * Creates the physical flows which do not already exist.  Existing flows are looked
+     * up again as new spec data types may now make an existing flow a match.
+     */
+    private Map<PhysicalFlowParsed, PhysicalFlow> getOrCreatePhysicalFlows(List<PhysicalFlowParsed> flows,
+                                                                           Map<Tuple2<EntityReference, EntityReference>, LogicalFlow> logicalFlows,
+                                                                           Map<PhysicalFlowParsed, PhysicalSpecification> specifications,
+                                                                           String username,
+                                                                           UploadJobState job) {
+        Map<PhysicalFlowParsed, Long> rowCounts = flows
+                .stream()
+                .collect(groupingBy(identity(), counting()));
+
+        Map<PhysicalFlowParsed, PhysicalFlow> physicalFlowsByParsedFlow = new HashMap<>(physicalFlowDao.findByParsedFlows(flows));
+        job.advance("Creating physical flows", countRows(rowCounts, physicalFlowsByParsedFlow.keySet()));
+
+        // identical rows in the upload result in a single physical flow
+        Map<PhysicalFlowParsed, PhysicalFlow> flowsToAdd = new LinkedHashMap<>();
+        LocalDateTime now = nowUtc();
+        flows.stream()
+                .filter(f -> ! physicalFlowsByParsedFlow.containsKey(f))
+                .forEach(f -> flowsToAdd.computeIfAbsent(f, k -> ImmutablePhysicalFlow.builder()
+                        .logicalFlowId(logicalFlows.get(flowKey(f.source(), f.target())).id().get())
+                        .specificationId(specifications.get(f).id().get())
+                        .basisOffset(f.basisOffset())
+                        .frequency(f.frequency())
+                        .transport(f.transport())
+                        .criticality(f.criticality())
+                        .description(f.description())
+                        .externalId(Optional.ofNullable(f.externalId()))
+                        .lastUpdatedBy(username)
+                        .lastUpdatedAt(now)
+                        .build()));
+
+        forEachChunk(new ArrayList<>(flowsToAdd.keySet()), chunk -> {
+            physicalFlowDao.createAll(map(chunk, flowsToAdd::get));
+            physicalFlowsByParsedFlow.putAll(physicalFlowDao.findByParsedFlows(chunk));
+            job.advance("Creating physical flows", countRows(rowCounts, chunk));
+        });
+
+        return physicalFlowsByParsedFlow;
+    }
+
+
+    private void addMissingDecorators(EntityKind entityKind,
+                                      Map<Long, Set<Long>> requiredDataTypesByEntityId,
+                                      String username) {
+        Map<Long, Set<Long>> missing = new HashMap<>();
+
+        dataTypeDecoratorService
+                .findByFlowIds(requiredDataTypesByEntityId.keySet(), entityKind)
+                .forEach(d -> {
+                    Set<Long> required = requiredDataTypesByEntityId.get(d.dataFlowId());
+                    if (required != null) {
+                        required.remove(d.dataTypeId());
+                    }
+                });
+
+        requiredDataTypesByEntityId.forEach((entityId, dataTypeIds) -> {
+            if (! dataTypeIds.isEmpty()) {
+                missing.put(entityId, dataTypeIds);
+            }
+        });
+
+        dataTypeDecoratorService.addDecorators(username, entityKind, missing);
+    }
+
+
+    private static int countRows(Map<PhysicalFlowParsed, Long> rowCounts,
+                                 Collection<PhysicalFlowParsed> flows) {
+        return flows
+                .stream()
+                .mapToInt(f -> rowCounts.getOrDefault(f, 0L).intValue())
+                .sum();
+    }
+
+
+    private static Tuple3<EntityReference, DataFormatKindValue, String> specKey(PhysicalFlowParsed flow) {
+        return tuple(refKey(flow.owner()), flow.format(), flow.name());
+    }
+
+
+    private static Tuple2<EntityReference, EntityReference> flowKey(EntityReference source,
+                                                                    EntityReference target) {
+        return tuple(refKey(source), refKey(target));
+    }
+
+
+    /**
+     * Reference equality includes the lifecycle status, so maps of refs are keyed on
+     * a bare (kind, id) reference to match parsed and stored refs regardless of status.
+     */
+    private static EntityReference refKey(EntityReference ref) {
+        return EntityReference.mkRef(ref.kind(), ref.id());
+    }
+
+
+    private static <T> void forEachChunk(List<T> items, Consumer<List<T>> consumer) {
+        for (int i = 0; i < items.size(); i += CHUNK_SIZE) {
+            consumer.accept(items.subList(i, Math.min(i + CHUNK_SIZE, items.size())));
+        }
+    }
+
+
+    private void removeExpiredJobs() {
+        LocalDateTime cutoff = nowUtc().minusHours(JOB_RETENTION_HOURS);
+        jobsById.values().removeIf(j -> j.completedAt != null && j.completedAt.isBefore(cutoff));
+    }
+
+
+    /**
+     * Mutable progress of an upload, exposed to callers as a {@link PhysicalFlowUploadJob} snapshot.
+     */
+    private static class UploadJobState {
+        private final String id = UUID.randomUUID().toString();
+        private final String userId;
+        private final int total;
+        private final LocalDateTime submittedAt = nowUtc();
+        private final AtomicInteger processed = new AtomicInteger();
+
+        private volatile PhysicalFlowUploadJobStatus status = PhysicalFlowUploadJobStatus.QUEUED;
+        private volatile String stage = "Queued";
+        private volatile LocalDateTime completedAt = null;
+        private volatile String errorMessage = null;
+        private volatile List<PhysicalFlowUploadCommandResponse> responses = Collections.emptyList();
+
+        private UploadJobState(String userId, int total) {
+            this.userId = userId;
+            this.total = total;
+        }
+
+        private void start(String stage) {
+            this.status = PhysicalFlowUploadJobStatus.RUNNING;
+            this.stage = stage;
+        }
+
+        private void advance(String stage, int processedCount) {
+            this.stage = stage;
+            this.processed.addAndGet(processedCount);
+        }
+
+        private void complete(List<PhysicalFlowUploadCommandResponse> responses) {
+            this.responses = responses;
+            this.stage = "Completed";
+            this.processed.set(total);
+            this.completedAt = nowUtc();
+            this.status = PhysicalFlowUploadJobStatus.COMPLETED;
+        }
+
+        private void fail(Exception e) {
+            this.errorMessage = e.getMessage();
+            this.completedAt = nowUtc();
+            this.status = PhysicalFlowUploadJobStatus.FAILED;
+        }
+
+        private PhysicalFlowUploadJob toJob() {
+            return ImmutablePhysicalFlowUploadJob
+                    .builder()
+                    .id(id)
+                    .userId(userId)
+                    .status(status)
+                    .stage(stage)
+                    .total(total)
+                    .processed(Math.min(processed.get(), total))
+                    .submittedAt(submittedAt)
+                    .completedAt(Optional.ofNullable(completedAt))
+                    .errorMessage(Optional.ofNullable(errorMessage))
+                    .responses(responses)
+                    .build();
+        }
     }
 
 
@@ -229,15 +600,15 @@ public class PhysicalFlowUploadService {
         EntityReference dataType = getDataTypeByString(dataTypeMap, cmd.dataType());
 
         if (source == null) {
-            errors.put("source", String.format("%s not found", cmd.source()));
+            errors.put("source", mkUnresolvedMessage(actorsByName, applicationsByAssetCode, cmd.source()));
         }
 
         if (target == null) {
-            errors.put("target", String.format("%s not found", cmd.target()));
+            errors.put("target", mkUnresolvedMessage(actorsByName, applicationsByAssetCode, cmd.target()));
         }
 
         if (owner == null) {
-            errors.put("owner", String.format("%s not found", cmd.owner()));
+            errors.put("owner", mkUnresolvedMessage(actorsByName, applicationsByAssetCode, cmd.owner()));
         }
 
         if (dataType == null) {
@@ -336,6 +707,16 @@ public class PhysicalFlowUploadService {
     }
 
 
+    private String mkUnresolvedMessage(Map<String, Actor> actorsByName,
+                                       Map<String, Application> applicationsByAssetCode,
+                                       String input) {
+        String key = lower(input);
+        return actorsByName.containsKey(key) || applicationsByAssetCode.containsKey(key)
+                ? String.format("%s matches more than one actor or application", input)
+                : String.format("%s not found", input);
+    }
+
+
     private EntityReference getActorRefByName(Map<String, Actor> actorsByName, String name) {
         return Optional.ofNullable(actorsByName.get(lower(name)))
                 .map(Actor::entityReference)
@@ -358,19 +739,33 @@ public class PhysicalFlowUploadService {
 
 
     private Map<String, Application> loadApplicationsByAssetCode() {
-        return MapUtilities.indexBy(
-                a -> a.assetCode()
-                        .map(ExternalIdValue::value)
-                        .map(StringUtilities::lower)
-                        .orElse(""),
-                applicationDao.findAll());
+        return indexByUniqueKey(
+                applicationDao.findAll(),
+                a -> a.assetCode().map(ExternalIdValue::value));
     }
 
 
     private Map<String, Actor> loadActorsByName() {
-        return  MapUtilities.indexBy(
-                a -> lower(a.name()),
-                actorDao.findAll());
+        return indexByUniqueKey(
+                actorDao.findAll(),
+                a -> Optional.ofNullable(a.name()));
+    }
+
+
+    /**
+     * Indexes by the lower cased key, items without a key are skipped.  Keys shared by more
+     * than one item map to <code>null</code> so rows using them can be reported as ambiguous
+     * (see {@link #mkUnresolvedMessage(Map, Map, String)}) rather than failing the whole upload.
+     */
+    private static <T> Map<String, T> indexByUniqueKey(Collection<T> xs,
+                                                       Function<T, Optional<String>> keyFn) {
+        Map<String, T> result = new HashMap<>();
+        xs.forEach(x -> keyFn
+                .apply(x)
+                .map(StringUtilities::lower)
+                .filter(StringUtilities::notEmpty)
+                .ifPresent(key -> result.put(key, result.containsKey(key) ? null : x)));
+        return result;
     }
 
 
@@ -383,94 +778,6 @@ public class PhysicalFlowUploadService {
     }
 
 
-    private LogicalFlow getOrCreateLogicalFlow(EntityReference source,
-                                               EntityReference target,
-                                               EntityReference dataType,
-                                               String username) {
-
-        LogicalFlow flow = logicalFlowDao.getBySourceAndTarget(source, target);
-
-        if (flow == null) {
-            LocalDateTime now = nowUtc();
-
-            LogicalFlow flowToAdd = ImmutableLogicalFlow.builder()
-                    .source(source)
-                    .target(target)
-                    .lastUpdatedBy(username)
-                    .lastUpdatedAt(now)
-                    .provenance("waltz")
-                    .created(UserTimestamp.mkForUser(username, now))
-                    .build();
-
-            flow = logicalFlowDao.addFlow(flowToAdd);
-        }
-
-
-        EntityReference logicalFlowEntityRef = EntityReference.mkRef(EntityKind.LOGICAL_DATA_FLOW, flow.id().get());
-        DataTypeDecorator existingDecorator = dataTypeDecoratorService.getByEntityRefAndDataTypeId(
-                logicalFlowEntityRef,
-                dataType.id());
-
-        if(existingDecorator == null) {
-            dataTypeDecoratorService
-                    .addDecorators(username, logicalFlowEntityRef, fromArray(dataType.id()));
-        }
-        return flow;
-    }
-
-
-    private PhysicalSpecification getOrCreatePhysicalSpec(PhysicalFlowParsed flow,
-                                                          String username) {
-        EntityReference owner = flow.owner();
-        DataFormatKindValue format = flow.format();
-        String name = flow.name();
-
-
-        // check database
-        PhysicalSpecification spec = physicalSpecificationDao.getByParsedFlow(flow);
-        if (spec == null) {
-
-            // create
-            LocalDateTime now = nowUtc();
-            PhysicalSpecification specToAdd = ImmutablePhysicalSpecification.builder()
-                    .owningEntity(owner)
-                    .format(format)
-                    .name(name)
-                    .externalId(Optional.ofNullable(flow.specExternalId()).orElse(""))
-                    .description(Optional.ofNullable(flow.specDescription()).orElse(""))
-                    .lastUpdatedBy(username)
-                    .lastUpdatedAt(now)
-                    .provenance("waltz")
-                    .created(UserTimestamp.mkForUser(username, now))
-                    .build();
-
-            Long id = physicalSpecificationDao.create(specToAdd);
-            spec = ImmutablePhysicalSpecification
-                    .copyOf(specToAdd)
-                    .withId(id);
-        }
-
-        long dataTypeId = flow.dataType().id();
-        EntityReference specificationEntityRef = EntityReference.mkRef(EntityKind.PHYSICAL_SPECIFICATION, spec.id().get());
-
-        DataTypeDecorator existingDataType = dataTypeDecoratorService.getByEntityRefAndDataTypeId(specificationEntityRef, dataTypeId);
-        if(existingDataType == null) {
-            dataTypeDecoratorService.addDecorators(username, specificationEntityRef, fromArray(dataTypeId));
-        }
-        return spec;
-    }
-
-
-    private long getOrCreatePhysicalFlow(PhysicalFlow newFlow) {
-        PhysicalFlow existing = physicalFlowDao.matchPhysicalFlow(newFlow);
-        if (existing != null) {
-            return existing.id().get();
-        } else {
-            return physicalFlowDao.create(newFlow);
-        }
-    }
-
-
     private Aliases<TransportKindValue> loadTransportAliases() {
         return enumValueAliasService.mkAliases(EnumValueKind.TRANSPORT_KIND, TransportKindValue::of);
     }
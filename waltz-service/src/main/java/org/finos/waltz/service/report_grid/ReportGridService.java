@@ -62,6 +62,7 @@ public class ReportGridService {
     private final ReportGridMemberService reportGridMemberService;
     private final ChangeLogService changeLogService;
     private final UserRoleService userRoleService;
+    private final ReportGridSnapshotCache snapshotCache;
 
     private final GenericSelectorFactory genericSelectorFactory = new GenericSelectorFactory();
 
@@ -72,13 +73,15 @@ public class ReportGridService {
                              ReportGridMemberService reportGridMemberService,
                              ChangeLogService changeLogService,
                              UserRoleService userRoleService,
-                             ChangeInitiativeDao changeInitiativeDao) {
+                             ChangeInitiativeDao changeInitiativeDao,
+                             ReportGridSnapshotCache snapshotCache) {
         checkNotNull(reportGridDao, "reportGridDao cannot be null");
         checkNotNull(reportGridMemberService, "reportGridMemberService cannot be null");
         checkNotNull(applicationDao, "applicationDao cannot be null");
         checkNotNull(ratingSchemeService, "ratingSchemeService cannot be null");
         checkNotNull(changeLogService, "changeLogService cannot be null");
         checkNotNull(userRoleService, "userRoleService cannot be null");
+        checkNotNull(snapshotCache, "snapshotCache cannot be null");
 
         this.reportGridDao = reportGridDao;
         this.reportGridMemberService = reportGridMemberService;
@@ -87,6 +90,7 @@ public class ReportGridService {
         this.changeLogService = changeLogService;
         this.changeInititativeDao = changeInitiativeDao;
         this.userRoleService = userRoleService;
+        this.snapshotCache = snapshotCache;
     }
 
 
@@ -100,7 +104,12 @@ public class ReportGridService {
     }
 
 
-    public Optional<ReportGrid> getByIdAndSelectionOptions(
+    /**
+     * Returns the grid with its cells in the compact, columnar, form.  The
+     * grid serializes to the same json as a <code>ReportGrid</code> without
+     * creating an object per cell.
+     */
+    public Optional<ColumnarReportGrid> getByIdAndSelectionOptions(
             long id,
             IdSelectionOptions idSelectionOptions) {
 
@@ -121,31 +130,27 @@ public class ReportGridService {
             return Optional.empty();
         }
 
-        EntityKind targetKind = definition.subjectKind();
-        ReportGridInstance instance = mkInstance(id, opts, targetKind);
-
-        return Optional.of(ImmutableReportGrid
-                .builder()
-                .definition(definition)
-                .instance(instance)
-                .build());
+        return Optional.of(definition.materialized()
+                ? snapshotCache.getOrCalculate(definition, opts, () -> mkGrid(definition, opts))
+                : mkGrid(definition, opts));
     }
 
 
-    private ReportGridInstance mkInstance(long id, IdSelectionOptions idSelectionOptions, EntityKind targetKind) {
+    private ColumnarReportGrid mkGrid(ReportGridDefinition definition, IdSelectionOptions idSelectionOptions) {
 
-        GenericSelector genericSelector = genericSelectorFactory.applyForKind(targetKind, idSelectionOptions);
-        Set<ReportGridCell> cellData = reportGridDao.findCellDataByGridId(id, genericSelector);
+        GenericSelector genericSelector = genericSelectorFactory.applyForKind(definition.subjectKind(), idSelectionOptions);
+        ColumnarReportGridCells cellData = reportGridDao.findCellDataByGridId(
+                definition.id().get(),
+                genericSelector);
         Set<ReportSubject> subjects = getReportSubjects(genericSelector);
 
-        Set<RatingSchemeItem> ratingSchemeItems = ratingSchemeService.findRatingSchemeItemsByIds(map(
-                cellData,
-                ReportGridCell::ratingId));
+        Set<RatingSchemeItem> ratingSchemeItems = ratingSchemeService.findRatingSchemeItemsByIds(cellData.ratingIds());
 
-        return ImmutableReportGridInstance
+        return ImmutableColumnarReportGrid
                 .builder()
+                .definition(definition)
                 .subjects(subjects)
-                .cellData(cellData)
+                .cells(cellData)
                 .ratingSchemeItems(ratingSchemeItems)
                 .build();
     }
@@ -191,6 +196,7 @@ public class ReportGridService {
                                                         String username) throws InsufficientPrivelegeException {
         checkIsOwner(reportGridId, username);
         reportGridDao.updateColumnDefinitions(reportGridId, updateCommand.columnDefinitions());
+        snapshotCache.evict(reportGridId);
         return reportGridDao.getGridDefinitionById(reportGridId);
     }
 
@@ -214,7 +220,13 @@ public class ReportGridService {
                     "You do not have permission to change the kind of a report grid");
         }
 
+        if (updateCommand.materialized() != null && updateCommand.materialized() != defn.materialized()) {
+            checkTrue(userRoleService.hasRole(username, SystemRole.REPORT_GRID_ADMIN),
+                    "You do not have permission to change whether a report grid is materialized");
+        }
+
         reportGridDao.update(id, updateCommand, username);
+        snapshotCache.evict(id);
         return reportGridDao.getGridDefinitionById(id);
     }
 
@@ -239,6 +251,7 @@ public class ReportGridService {
                     format("Grid def: %d not found", gridId));
         }
         reportGridMemberService.checkIsOwner(gridId, username);
+        snapshotCache.evict(gridId);
 
         return reportGridDao.remove(gridId);
     }
@@ -0,0 +1,206 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.report_grid;
+
+import org.finos.waltz.common.MapBuilder;
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.IdSelectionOptions;
+import org.finos.waltz.model.changelog.ChangeLog;
+import org.finos.waltz.model.report_grid.ColumnarReportGrid;
+import org.finos.waltz.model.report_grid.ReportGridColumnDefinition;
+import org.finos.waltz.model.report_grid.ReportGridDefinition;
+import org.finos.waltz.service.changelog.ChangeLogEvent;
+import org.jooq.lambda.tuple.Tuple2;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toSet;
+import static org.finos.waltz.common.SetUtilities.asSet;
+import static org.finos.waltz.common.SetUtilities.union;
+import static org.jooq.lambda.tuple.Tuple.tuple;
+
+/**
+ * Holds snapshots of computed (columnar) grids for report grids which have
+ * opted in to being 'materialized'.
+ *
+ * Readers are always given the last snapshot (if one exists).  Snapshots
+ * are marked as stale when a change log entry is written which touches
+ * an entity kind used by the grid and are recalculated in the background.
+ * The <code>calculatedAt</code> timestamp on the returned instance tells the
+ * caller how old the snapshot is.
+ */
+@Service
+public class ReportGridSnapshotCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReportGridSnapshotCache.class);
+
+    private static final int MAX_SNAPSHOTS = 100;
+
+    // change log child kinds which may affect a column of the given kind
+    private static final Map<EntityKind, Set<EntityKind>> AFFECTING_KINDS_BY_COLUMN_KIND = new MapBuilder<EntityKind, Set<EntityKind>>()
+            .add(EntityKind.MEASURABLE, asSet(EntityKind.MEASURABLE, EntityKind.MEASURABLE_RATING))
+            .add(EntityKind.ASSESSMENT_DEFINITION, asSet(EntityKind.ASSESSMENT_DEFINITION, EntityKind.ASSESSMENT_RATING))
+            .add(EntityKind.COST_KIND, asSet(EntityKind.COST_KIND, EntityKind.COST))
+            .add(EntityKind.INVOLVEMENT_KIND, asSet(EntityKind.INVOLVEMENT_KIND, EntityKind.INVOLVEMENT, EntityKind.PERSON))
+            .add(EntityKind.SURVEY_QUESTION, asSet(EntityKind.SURVEY_QUESTION, EntityKind.SURVEY_INSTANCE, EntityKind.SURVEY_RUN))
+            .add(EntityKind.SURVEY_TEMPLATE, asSet(EntityKind.SURVEY_TEMPLATE, EntityKind.SURVEY_INSTANCE, EntityKind.SURVEY_RUN))
+            .add(EntityKind.APP_GROUP, asSet(EntityKind.APP_GROUP))
+            .add(EntityKind.DATA_TYPE, asSet(EntityKind.DATA_TYPE, EntityKind.LOGICAL_DATA_FLOW, EntityKind.PHYSICAL_FLOW))
+            .build();
+
+
+    private static class Snapshot {
+        private final long gridId;
+        private final EntityKind subjectKind;
+        private final Set<EntityKind> affectingKinds;
+        private final Supplier<ColumnarReportGrid> calculator;
+        private volatile ColumnarReportGrid instance;
+        private volatile boolean stale = false;
+
+        private Snapshot(ReportGridDefinition definition,
+                         Supplier<ColumnarReportGrid> calculator) {
+            this.gridId = definition.id().orElse(0L);
+            this.subjectKind = definition.subjectKind();
+            this.affectingKinds = determineAffectingKinds(definition);
+            this.calculator = calculator;
+        }
+    }
+
+
+    private final Map<Tuple2<Long, IdSelectionOptions>, Snapshot> snapshots = Collections.synchronizedMap(
+            new LinkedHashMap<Tuple2<Long, IdSelectionOptions>, Snapshot>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Tuple2<Long, IdSelectionOptions>, Snapshot> eldest) {
+                    return size() > MAX_SNAPSHOTS;
+                }
+            });
+
+
+    /**
+     * Returns the current snapshot for the grid and selection options.  If
+     * there is no snapshot yet the calculator is invoked (on the calling thread)
+     * and the result is retained for subsequent callers.
+     */
+    public ColumnarReportGrid getOrCalculate(ReportGridDefinition definition,
+                                             IdSelectionOptions selectionOptions,
+                                             Supplier<ColumnarReportGrid> calculator) {
+        Tuple2<Long, IdSelectionOptions> key = tuple(definition.id().orElse(0L), selectionOptions);
+        Snapshot snapshot = snapshots.computeIfAbsent(key, k -> new Snapshot(definition, calculator));
+
+        if (snapshot.instance == null) {
+            synchronized (snapshot) {
+                if (snapshot.instance == null) {
+                    snapshot.instance = calculate(snapshot);
+                }
+            }
+        }
+
+        return snapshot.instance;
+    }
+
+
+    /**
+     * Discards all snapshots for the given grid, typically because its definition has changed.
+     */
+    public void evict(long gridId) {
+        synchronized (snapshots) {
+            snapshots.keySet().removeIf(k -> k.v1 == gridId);
+        }
+    }
+
+
+    @EventListener
+    public void onChangeLog(ChangeLogEvent event) {
+        List<Snapshot> current = currentSnapshots();
+        if (current.isEmpty()) {
+            return;
+        }
+
+        for (ChangeLog changeLog : event.changeLogs()) {
+            current.stream()
+                    .filter(s -> ! s.stale)
+                    .filter(s -> isAffectedBy(s, changeLog))
+                    .forEach(s -> s.stale = true);
+        }
+    }
+
+
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public void refreshStale() {
+        currentSnapshots()
+                .stream()
+                .filter(s -> s.stale)
+                .forEach(s -> {
+                    synchronized (s) {
+                        try {
+                            s.stale = false;
+                            s.instance = calculate(s);
+                        } catch (Exception e) {
+                            LOG.warn("Failed to refresh snapshot for report grid: {}, will retry", s.gridId, e);
+                            s.stale = true;
+                        }
+                    }
+                });
+    }
+
+
+    // --- helpers ---
+
+    private List<Snapshot> currentSnapshots() {
+        synchronized (snapshots) {
+            return new ArrayList<>(snapshots.values());
+        }
+    }
+
+
+    private static ColumnarReportGrid calculate(Snapshot snapshot) {
+        long st = System.currentTimeMillis();
+        ColumnarReportGrid instance = snapshot.calculator.get();
+        LOG.info("Materialized report grid: {} in {}ms", snapshot.gridId, System.currentTimeMillis() - st);
+        return instance;
+    }
+
+
+    private static boolean isAffectedBy(Snapshot snapshot,
+                                        ChangeLog changeLog) {
+        EntityKind parentKind = changeLog.parentReference().kind();
+        return parentKind == snapshot.subjectKind
+                || snapshot.affectingKinds.contains(parentKind)
+                || changeLog.childKind().map(snapshot.affectingKinds::contains).orElse(false);
+    }
+
+
+    private static Set<EntityKind> determineAffectingKinds(ReportGridDefinition definition) {
+        Set<EntityKind> kinds = definition
+                .columnDefinitions()
+                .stream()
+                .map(ReportGridColumnDefinition::columnEntityKind)
+                .flatMap(k -> AFFECTING_KINDS_BY_COLUMN_KIND.getOrDefault(k, asSet(k)).stream())
+                .collect(toSet());
+
+        return union(kinds, asSet(definition.subjectKind()));
+    }
+
+}
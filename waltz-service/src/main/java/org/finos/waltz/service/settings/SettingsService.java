@@ -20,22 +20,42 @@ package org.finos.waltz.service.settings;
 
 import org.finos.waltz.common.CollectionUtilities;
 import org.finos.waltz.common.MapUtilities;
+import org.finos.waltz.common.StringUtilities;
 import org.finos.waltz.data.settings.SettingsDao;
 import org.finos.waltz.model.settings.Setting;
 import org.finos.waltz.model.settings.UpdateSettingsCommand;
+import org.jooq.lambda.tuple.Tuple2;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
+import static java.util.stream.Collectors.toMap;
+import static org.finos.waltz.common.Checks.checkNotNull;
 import static org.finos.waltz.common.ListUtilities.ensureNotNull;
+import static org.jooq.lambda.tuple.Tuple.tuple;
 
 
+/**
+ * Settings are read from an in-memory snapshot of the settings table.  The
+ * snapshot is loaded on first use and replaced (as a whole) after each
+ * {@link #update(UpdateSettingsCommand)} and whenever the periodic check
+ * finds the table differs from the snapshot (e.g. following a direct db edit
+ * or an update made on another node).
+ *
+ * Callers may {@link #subscribe(String, Consumer)} to a key prefix to be
+ * told when any matching setting changes.
+ */
 @Service
 public class SettingsService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(SettingsService.class);
+
     private final SettingsDao settingsDao;
 
     public static final String DEFAULT_ROLES_KEY = "server.authentication.roles.default";
@@ -43,6 +63,10 @@ public class SettingsService {
 
     private final Map<String, Setting> overridesByName;
 
+    private final List<Tuple2<String, Consumer<Map<String, String>>>> subscriptions = new CopyOnWriteArrayList<>();
+
+    private volatile Map<String, Setting> snapshot = null;
+
 
     /**
      * Setting service allows the settings table to be interrogated.  For dev purposes then a
@@ -60,7 +84,7 @@ public class SettingsService {
 
     public Collection<Setting> findAll() {
         return CollectionUtilities.map(
-                settingsDao.findAll(),
+                getSnapshot().values(),
                 s -> Optional
                         .ofNullable(overridesByName.get(s.name()))
                         .orElse(s));
@@ -70,7 +94,7 @@ public class SettingsService {
     public Setting getByName(String name) {
         return Optional
                 .ofNullable(overridesByName.get(name))
-                .orElse(settingsDao.getByName(name));
+                .orElse(getSnapshot().get(name));
     }
 
     /**
@@ -86,12 +110,108 @@ public class SettingsService {
     }
 
 
+    /**
+     * Returns the (trimmed) values of all non-restricted settings whose name
+     * starts with the given prefix, keyed by setting name.
+     */
     public Map<String, String> indexByPrefix(String prefix) {
-        return settingsDao.indexByPrefix(prefix);
+        return indexByPrefix(getSnapshot(), prefix);
+    }
+
+
+    /**
+     * Registers a listener which is given the new {@link #indexByPrefix(String)}
+     * result whenever a setting with the given prefix is added, changed or removed.
+     * Listeners are called, in order, on the thread which refreshed the snapshot
+     * so should be quick (e.g. swapping in a cached value).
+     */
+    public void subscribe(String prefix, Consumer<Map<String, String>> listener) {
+        checkNotNull(prefix, "prefix cannot be null");
+        checkNotNull(listener, "listener cannot be null");
+        subscriptions.add(tuple(prefix, listener));
     }
 
 
     public int update(UpdateSettingsCommand cmd) {
-        return settingsDao.update(cmd);
+        int rc = settingsDao.update(cmd);
+        refresh();
+        return rc;
+    }
+
+
+    /**
+     * Reloads the settings table, swapping in a new snapshot (and notifying
+     * subscribers) if anything has changed.
+     */
+    @Scheduled(fixedDelayString = "${settings.refresh.millis:60000}", initialDelay = 60_000)
+    public void refresh() {
+        try {
+            Map<String, Setting> latest = load();
+            synchronized (this) {
+                Map<String, Setting> previous = snapshot;
+                if (latest.equals(previous)) {
+                    return;
+                }
+                snapshot = latest;
+                // notify whilst holding the lock so concurrent refreshes cannot deliver changes out of order
+                if (previous != null) {
+                    notifySubscribers(previous, latest);
+                }
+            }
+        } catch (Exception e) {
+            LOG.warn("Failed to refresh settings, will continue to use previous snapshot", e);
+        }
+    }
+
+
+    // --- helpers ---
+
+    private Map<String, Setting> getSnapshot() {
+        Map<String, Setting> current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = load();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+
+    private Map<String, Setting> load() {
+        return Collections.unmodifiableMap(settingsDao
+                .findAll()
+                .stream()
+                .collect(toMap(Setting::name, s -> s, (a, b) -> a, LinkedHashMap::new)));
+    }
+
+
+    private void notifySubscribers(Map<String, Setting> previous,
+                                   Map<String, Setting> latest) {
+        subscriptions.forEach(t -> {
+            Map<String, String> before = indexByPrefix(previous, t.v1);
+            Map<String, String> after = indexByPrefix(latest, t.v1);
+            if (! before.equals(after)) {
+                try {
+                    t.v2.accept(after);
+                } catch (Exception e) {
+                    LOG.warn("Settings subscriber for prefix: {} failed", t.v1, e);
+                }
+            }
+        });
+    }
+
+
+    private static Map<String, String> indexByPrefix(Map<String, Setting> settings,
+                                                     String prefix) {
+        Map<String, String> result = new HashMap<>();
+        settings.values()
+                .stream()
+                .filter(s -> s.name().startsWith(prefix))
+                .filter(s -> ! s.restricted())
+                .forEach(s -> result.put(s.name(), StringUtilities.mkSafe(s.value().orElse(null)).trim()));
+        return result;
     }
 }
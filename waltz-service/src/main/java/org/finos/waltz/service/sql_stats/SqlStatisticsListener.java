@@ -0,0 +1,148 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.sql_stats;
+
+import org.jooq.ExecuteContext;
+import org.jooq.impl.DefaultExecuteListener;
+
+import static org.finos.waltz.common.Checks.checkNotNull;
+
+/**
+ * Times every query executed via the <code>DSLContext</code> and feeds the
+ * results into a {@link SqlStatisticsRegistry}.
+ *
+ * All per-query state is held on the <code>ExecuteContext</code> so a single
+ * listener instance can safely be shared by concurrent queries.  Timings run
+ * from the start of execution to the end of fetching (for lazy cursors this
+ * is when the cursor is closed).
+ *
+ * Attributing queries to their calling Waltz method requires a full stack
+ * walk per query, which is costly on hot paths, so it is off by default
+ * (see <code>database.performance.stats.caller.enabled</code>).  When off
+ * every query is recorded against {@link #CALLER_NOT_CAPTURED}.
+ */
+public class SqlStatisticsListener extends DefaultExecuteListener {
+
+    private static final String START_KEY = SqlStatisticsListener.class.getName() + ".start";
+    private static final String CALLER_KEY = SqlStatisticsListener.class.getName() + ".caller";
+    private static final String ROWS_KEY = SqlStatisticsListener.class.getName() + ".rows";
+
+    public static final String CALLER_NOT_CAPTURED = "<not captured>";
+
+    private static final String WALTZ_PACKAGE = "org.finos.waltz.";
+    private static final String STATS_PACKAGE = SqlStatisticsListener.class.getPackage().getName();
+
+    private final SqlStatisticsRegistry registry;
+    private final boolean captureCaller;
+
+
+    public SqlStatisticsListener(SqlStatisticsRegistry registry,
+                                 boolean captureCaller) {
+        checkNotNull(registry, "registry cannot be null");
+        this.registry = registry;
+        this.captureCaller = captureCaller;
+    }
+
+
+    @Override
+    public void start(ExecuteContext ctx) {
+        ctx.data(START_KEY, System.nanoTime());
+        ctx.data(CALLER_KEY, captureCaller ? determineCaller() : CALLER_NOT_CAPTURED);
+        ctx.data(ROWS_KEY, new long[1]);
+    }
+
+
+    @Override
+    public void recordEnd(ExecuteContext ctx) {
+        Object rows = ctx.data(ROWS_KEY);
+        if (rows != null) {
+            ((long[]) rows)[0]++;
+        }
+    }
+
+
+    @Override
+    public void end(ExecuteContext ctx) {
+        Object start = ctx.data(START_KEY);
+        if (start == null) {
+            return;
+        }
+
+        long elapsed = System.nanoTime() - (Long) start;
+        Object rows = ctx.data(ROWS_KEY);
+
+        registry.record(
+                determineSql(ctx),
+                (String) ctx.data(CALLER_KEY),
+                elapsed,
+                rows == null ? 0 : ((long[]) rows)[0],
+                ctx.exception() != null);
+    }
+
+
+    // --- helpers ---
+
+    private static String determineSql(ExecuteContext ctx) {
+        if (ctx.sql() != null) {
+            return ctx.sql();
+        }
+        String[] batchSql = ctx.batchSQL();
+        return batchSql.length > 0
+                ? batchSql[0]
+                : null;
+    }
+
+
+    /**
+     * Finds the first Waltz frame (outside of this package) on the stack,
+     * typically a dao method.  Lambda and inner class names are mapped back
+     * to their enclosing class and method.
+     */
+    private static String determineCaller() {
+        for (StackTraceElement frame : Thread.currentThread().getStackTrace()) {
+            String className = frame.getClassName();
+            if (className.startsWith(WALTZ_PACKAGE) && ! className.startsWith(STATS_PACKAGE)) {
+                return simplifyClassName(className) + "." + simplifyMethodName(frame.getMethodName());
+            }
+        }
+        return "<unknown>";
+    }
+
+
+    private static String simplifyClassName(String className) {
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        int innerIdx = simpleName.indexOf('$');
+        return innerIdx == -1
+                ? simpleName
+                : simpleName.substring(0, innerIdx);
+    }
+
+
+    private static String simplifyMethodName(String methodName) {
+        // lambdas are named: lambda$enclosingMethod$123
+        if (methodName.startsWith("lambda$")) {
+            int end = methodName.indexOf('$', 7);
+            return end == -1
+                    ? methodName.substring(7)
+                    : methodName.substring(7, end);
+        }
+        return methodName;
+    }
+
+}
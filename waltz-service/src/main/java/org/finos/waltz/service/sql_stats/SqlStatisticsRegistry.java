@@ -0,0 +1,182 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.sql_stats;
+
+import org.finos.waltz.model.sql_stats.ImmutableSqlStatistic;
+import org.finos.waltz.model.sql_stats.SqlStatistic;
+import org.jooq.lambda.tuple.Tuple2;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import static java.util.stream.Collectors.toList;
+import static org.finos.waltz.common.Checks.checkTrue;
+import static org.jooq.lambda.tuple.Tuple.tuple;
+
+/**
+ * Aggregates sql execution timings by normalized sql shape and caller.
+ *
+ * All recording is lock free so this is safe to call from every query
+ * on every thread.  The number of distinct shapes tracked is bounded,
+ * once the limit is reached further shapes are aggregated under
+ * <code>OVERFLOW_SHAPE</code>.
+ */
+public class SqlStatisticsRegistry {
+
+    public static final String OVERFLOW_SHAPE = "<other>";
+
+    private static final int MAX_NORMALIZED_CACHE_SIZE = 10_000;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+
+    private static class Entry {
+        private final LatencyHistogram latencyMicros = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rowsFetched = new LongAdder();
+    }
+
+
+    private final int maxShapes;
+    private final ConcurrentMap<Tuple2<String, String>, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> normalizedBySql = new ConcurrentHashMap<>();
+
+
+    public SqlStatisticsRegistry(int maxShapes) {
+        checkTrue(maxShapes > 0, "maxShapes must be positive");
+        this.maxShapes = maxShapes;
+    }
+
+
+    public void record(String sql,
+                       String caller,
+                       long elapsedNanos,
+                       long rowsFetched,
+                       boolean failed) {
+        Entry entry = getOrCreateEntry(normalizeCached(sql), caller);
+
+        entry.latencyMicros.record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        entry.rowsFetched.add(rowsFetched);
+        if (failed) {
+            entry.errors.increment();
+        }
+    }
+
+
+    /**
+     * @return statistics for every shape/caller combination, most expensive (by total time) first
+     */
+    public List<SqlStatistic> findAll() {
+        return entries
+                .entrySet()
+                .stream()
+                .map(e -> mkStatistic(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparingDouble(SqlStatistic::totalMillis).reversed())
+                .collect(toList());
+    }
+
+
+    public int shapeCount() {
+        return entries.size();
+    }
+
+
+    public void reset() {
+        entries.clear();
+        normalizedBySql.clear();
+    }
+
+
+    /**
+     * Reduces a sql statement to its 'shape' by replacing literals with <code>?</code>,
+     * collapsing in-lists and normalizing whitespace.  This means queries which differ
+     * only by their (inlined) values are grouped together.
+     */
+    public static String normalize(String sql) {
+        if (sql == null) {
+            return "<unknown>";
+        }
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMERIC_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+
+    // --- helpers ---
+
+    private String normalizeCached(String sql) {
+        if (sql == null) {
+            return normalize(null);
+        }
+        if (normalizedBySql.size() > MAX_NORMALIZED_CACHE_SIZE) {
+            normalizedBySql.clear();
+        }
+        return normalizedBySql.computeIfAbsent(sql, SqlStatisticsRegistry::normalize);
+    }
+
+
+    private Entry getOrCreateEntry(String shape, String caller) {
+        Entry existing = entries.get(tuple(shape, caller));
+        if (existing != null) {
+            return existing;
+        }
+
+        Tuple2<String, String> key = entries.size() >= maxShapes
+                ? tuple(OVERFLOW_SHAPE, OVERFLOW_SHAPE)
+                : tuple(shape, caller);
+
+        return entries.computeIfAbsent(key, k -> new Entry());
+    }
+
+
+    private static SqlStatistic mkStatistic(Tuple2<String, String> key, Entry entry) {
+        LatencyHistogram histogram = entry.latencyMicros;
+        long count = histogram.count();
+
+        return ImmutableSqlStatistic
+                .builder()
+                .sqlShape(key.v1)
+                .caller(key.v2)
+                .executionCount(count)
+                .errorCount(entry.errors.sum())
+                .rowsFetched(entry.rowsFetched.sum())
+                .totalMillis(toMillis(histogram.sum()))
+                .meanMillis(count == 0 ? 0 : toMillis(histogram.sum()) / count)
+                .p50Millis(toMillis(histogram.percentile(0.50)))
+                .p95Millis(toMillis(histogram.percentile(0.95)))
+                .p99Millis(toMillis(histogram.percentile(0.99)))
+                .maxMillis(toMillis(histogram.max()))
+                .build();
+    }
+
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.sql_stats;
+
+import org.finos.waltz.model.sql_stats.SqlStatistic;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.finos.waltz.common.Checks.checkNotNull;
+
+@Service
+public class SqlStatisticsService {
+
+    private final SqlStatisticsRegistry registry;
+
+
+    @Autowired
+    public SqlStatisticsService(SqlStatisticsRegistry registry) {
+        checkNotNull(registry, "registry cannot be null");
+        this.registry = registry;
+    }
+
+
+    public List<SqlStatistic> findAll() {
+        return registry.findAll();
+    }
+
+
+    public List<SqlStatistic> findTop(int limit) {
+        return registry
+                .findAll()
+                .stream()
+                .limit(limit)
+                .collect(toList());
+    }
+
+
+    public int countShapes() {
+        return registry.shapeCount();
+    }
+
+
+    public void reset() {
+        registry.reset();
+    }
+
+}
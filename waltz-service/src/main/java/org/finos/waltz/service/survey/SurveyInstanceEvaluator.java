@@ -3,20 +3,30 @@ package org.finos.waltz.service.survey;
 import org.finos.waltz.data.survey.SurveyInstanceDao;
 import org.finos.waltz.data.survey.SurveyQuestionDao;
 import org.finos.waltz.data.survey.SurveyQuestionResponseDao;
+import org.finos.waltz.model.EntityKind;
 import org.finos.waltz.model.EntityReference;
 import org.finos.waltz.model.survey.*;
 import org.finos.waltz.service.survey.inclusion_evaluator.QuestionPredicateEvaluator;
+import org.finos.waltz.service.survey.inclusion_evaluator.SubjectFacts;
+import org.finos.waltz.service.survey.inclusion_evaluator.SubjectFactsLoader;
 import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.stream.Collectors.groupingBy;
 import static org.finos.waltz.common.MapUtilities.indexBy;
+import static org.finos.waltz.schema.tables.SurveyInstance.SURVEY_INSTANCE;
 import static org.finos.waltz.service.survey.SurveyInstanceUtilities.getVal;
 
 @Service
@@ -26,6 +36,7 @@ public class SurveyInstanceEvaluator {
     private final SurveyQuestionDao questionDao;
     private final SurveyInstanceDao instanceDao;
     private final SurveyQuestionResponseDao responseDao;
+    private final QuestionPredicateEvaluator predicateEvaluator = new QuestionPredicateEvaluator();
 
 
     @Autowired
@@ -47,7 +58,74 @@ public class SurveyInstanceEvaluator {
         SurveyInstance instance = instanceDao.getById(surveyInstanceId);
         EntityReference subjectRef = instance.surveyEntity();
 
-        List<SurveyQuestion> activeQs = QuestionPredicateEvaluator.eval(dsl, qs, subjectRef, responsesByQuestionId);
+        SubjectFacts facts = QuestionPredicateEvaluator.hasPredicates(qs)
+                ? SubjectFactsLoader
+                    .load(dsl, subjectRef.kind(), DSL.select(DSL.val(subjectRef.id())))
+                    .get(subjectRef.id())
+                : null;
+
+        return mkFormDetails(qs, subjectRef, facts, responsesByQuestionId);
+    }
+
+
+    /**
+     * Evaluates all (original) instances of a run in a single pass.  Questions,
+     * responses and subject facts are each fetched once for the whole run.
+     *
+     * @param surveyRunId  run to evaluate
+     * @return form details indexed by survey instance id
+     */
+    public Map<Long, SurveyInstanceFormDetails> evalForSurveyRun(long surveyRunId) {
+        List<SurveyQuestion> qs = questionDao.findForSurveyRun(surveyRunId);
+        Collection<SurveyInstance> instances = instanceDao.findForSurveyRun(surveyRunId);
+
+        Map<Long, List<SurveyInstanceQuestionResponse>> responsesByInstanceId = responseDao
+                .findForSurveyRun(surveyRunId)
+                .stream()
+                .collect(groupingBy(SurveyInstanceQuestionResponse::surveyInstanceId));
+
+        Map<EntityKind, Map<Long, SubjectFacts>> factsByKind = new HashMap<>();
+        if (QuestionPredicateEvaluator.hasPredicates(qs)) {
+            instances
+                    .stream()
+                    .map(i -> i.surveyEntity().kind())
+                    .distinct()
+                    .forEach(kind -> factsByKind.put(kind, SubjectFactsLoader.load(
+                            dsl,
+                            kind,
+                            DSL.select(SURVEY_INSTANCE.ENTITY_ID)
+                                    .from(SURVEY_INSTANCE)
+                                    .where(SURVEY_INSTANCE.SURVEY_RUN_ID.eq(surveyRunId))
+                                    .and(SURVEY_INSTANCE.ENTITY_KIND.eq(kind.name()))
+                                    .and(SURVEY_INSTANCE.ORIGINAL_INSTANCE_ID.isNull()))));
+        }
+
+        Map<Long, SurveyInstanceFormDetails> formDetailsByInstanceId = new HashMap<>();
+        instances.forEach(instance -> {
+            EntityReference subjectRef = instance.surveyEntity();
+            Long instanceId = instance.id().get();
+
+            SubjectFacts facts = factsByKind
+                    .getOrDefault(subjectRef.kind(), emptyMap())
+                    .get(subjectRef.id());
+
+            Map<Long, SurveyQuestionResponse> responsesByQuestionId = indexBy(
+                    responsesByInstanceId.getOrDefault(instanceId, emptyList()),
+                    r -> r.questionResponse().questionId(),
+                    SurveyInstanceQuestionResponse::questionResponse);
+
+            formDetailsByInstanceId.put(instanceId, mkFormDetails(qs, subjectRef, facts, responsesByQuestionId));
+        });
+
+        return formDetailsByInstanceId;
+    }
+
+
+    private ImmutableSurveyInstanceFormDetails mkFormDetails(List<SurveyQuestion> qs,
+                                                             EntityReference subjectRef,
+                                                             SubjectFacts facts,
+                                                             Map<Long, SurveyQuestionResponse> responsesByQuestionId) {
+        List<SurveyQuestion> activeQs = predicateEvaluator.eval(qs, subjectRef, facts, responsesByQuestionId);
         Set<Long> missingMandatoryQuestions = determineMissingMandatoryQuestions(activeQs, responsesByQuestionId);
 
         return ImmutableSurveyInstanceFormDetails.builder()
@@ -27,9 +27,11 @@ import org.finos.waltz.data.person.PersonDao;
 import org.finos.waltz.data.survey.*;
 import org.finos.waltz.model.*;
 import org.finos.waltz.model.changelog.ImmutableChangeLog;
+import org.finos.waltz.model.issuance.RunIssuanceProgress;
 import org.finos.waltz.model.person.Person;
 import org.finos.waltz.model.survey.*;
 import org.finos.waltz.service.changelog.ChangeLogService;
+import org.finos.waltz.service.issuance.RunIssuanceTracker;
 import org.jooq.Record1;
 import org.jooq.Select;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,6 +39,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
@@ -46,6 +49,7 @@ import static org.finos.waltz.common.ListUtilities.map;
 import static org.finos.waltz.common.MapUtilities.groupBy;
 import static org.finos.waltz.common.MapUtilities.indexBy;
 import static org.finos.waltz.common.SetUtilities.fromCollection;
+import static org.finos.waltz.model.EntityReference.mkRef;
 
 @Service
 public class SurveyRunService {
@@ -59,6 +63,7 @@ public class SurveyRunService {
     private final SurveyRunDao surveyRunDao;
     private final SurveyTemplateDao surveyTemplateDao;
     private final SurveyQuestionResponseDao surveyQuestionResponseDao;
+    private final RunIssuanceTracker runIssuanceTracker;
 
     private final GenericSelectorFactory genericSelectorFactory = new GenericSelectorFactory();
     private final SurveyInstanceIdSelectorFactory surveyInstanceIdSelectorFactory = new SurveyInstanceIdSelectorFactory();
@@ -73,7 +78,8 @@ public class SurveyRunService {
                             SurveyInstanceOwnerDao surveyInstanceOwnerDao,
                             SurveyRunDao surveyRunDao,
                             SurveyTemplateDao surveyTemplateDao,
-                            SurveyQuestionResponseDao surveyQuestionResponseDao) {
+                            SurveyQuestionResponseDao surveyQuestionResponseDao,
+                            RunIssuanceTracker runIssuanceTracker) {
         checkNotNull(changeLogService, "changeLogService cannot be null");
         checkNotNull(involvementDao, "involvementDao cannot be null");
         checkNotNull(personDao, "personDao cannot be null");
@@ -83,6 +89,7 @@ public class SurveyRunService {
         checkNotNull(surveyRunDao, "surveyRunDao cannot be null");
         checkNotNull(surveyTemplateDao, "surveyTemplateDao cannot be null");
         checkNotNull(surveyQuestionResponseDao, "surveyQuestionResponseDao cannot be null");
+        checkNotNull(runIssuanceTracker, "runIssuanceTracker cannot be null");
 
         this.changeLogService = changeLogService;
         this.involvementDao = involvementDao;
@@ -93,6 +100,7 @@ public class SurveyRunService {
         this.surveyRunDao = surveyRunDao;
         this.surveyTemplateDao = surveyTemplateDao;
         this.surveyQuestionResponseDao = surveyQuestionResponseDao;
+        this.runIssuanceTracker = runIssuanceTracker;
     }
 
 
@@ -362,63 +370,54 @@ public class SurveyRunService {
         // delete existing instances and recipients
         deleteSurveyInstancesAndRecipients(command.surveyRunId());
 
-        // insert new instances and recipients
-        instancesAndRecipientsToSave.forEach(
-                (k,v) -> {
-                    if (surveyRun.issuanceKind() == SurveyIssuanceKind.GROUP) {
-                        // one instance per group
-                        long instanceId = createSurveyInstance(k);
-                        createSurveyInstanceOwner(instanceId, surveyRun.ownerId());
-                        Collection<SurveyInstanceOwner> owners = surveyOwnersByInstance.get(k);
-                        fromCollection(owners).forEach(o -> createSurveyInstanceOwner(instanceId, o.person().id().get()));
-                        v.forEach(r -> createSurveyInstanceRecipient(instanceId, r));
-                    } else {
-                        // one instance for each individual
-                        v.forEach(r -> {
-                            long instanceId = createSurveyInstance(k);
-                            createSurveyInstanceOwner(instanceId, surveyRun.ownerId());
-                            Collection<SurveyInstanceOwner> owners = surveyOwnersByInstance.get(k);
-                            fromCollection(owners).forEach(o -> createSurveyInstanceOwner(instanceId, o.person().id().get()));
-                            createSurveyInstanceRecipient(instanceId, r);
-                        });
-                    }
-                }
-        );
+        // insert new instances, recipients and owners in chunked, set based, batches
+        List<SurveyInstanceIssuance> issuances = instancesAndRecipientsToSave
+                .entrySet()
+                .stream()
+                .flatMap(e -> {
+                    Set<Long> ownerIds = SetUtilities.union(
+                            SetUtilities.asSet(surveyRun.ownerId()),
+                            SetUtilities.map(fromCollection(surveyOwnersByInstance.get(e.getKey())), o -> o.person().id().get()));
+
+                    Set<Long> recipientIds = SetUtilities.map(e.getValue(), r -> r.person().id().get());
+
+                    return surveyRun.issuanceKind() == SurveyIssuanceKind.GROUP
+                            // one instance per group
+                            ? Stream.of(mkIssuance(e.getKey(), recipientIds, ownerIds))
+                            // one instance for each individual
+                            : recipientIds.stream().map(recipientId -> mkIssuance(e.getKey(), SetUtilities.asSet(recipientId), ownerIds));
+                })
+                .collect(toList());
+
+        runIssuanceTracker.issueInChunks(
+                mkRef(EntityKind.SURVEY_RUN, command.surveyRunId()),
+                issuances,
+                0,
+                chunk -> surveyInstanceDao.createInstancesRecipientsAndOwners(command.surveyRunId(), chunk));
 
         return true;
     }
 
 
-    private void deleteSurveyInstancesAndRecipients(long surveyRunId) {
-        surveyInstanceRecipientDao.deleteForSurveyRun(surveyRunId);
-        surveyInstanceDao.deleteForSurveyRun(surveyRunId);
+    public Optional<RunIssuanceProgress> getIssuanceProgress(long surveyRunId) {
+        return runIssuanceTracker.getProgress(mkRef(EntityKind.SURVEY_RUN, surveyRunId));
     }
 
 
-    private long createSurveyInstance(SurveyInstance surveyInstance) {
-        return surveyInstanceDao.create(ImmutableSurveyInstanceCreateCommand.builder()
-                .surveyRunId(surveyInstance.surveyRunId())
-                .entityReference(surveyInstance.surveyEntity())
-                .status(surveyInstance.status())
-                .dueDate(surveyInstance.dueDate())
-                .approvalDueDate(surveyInstance.approvalDueDate())
-                .owningRole(surveyInstance.owningRole())
-                .build());
+    private void deleteSurveyInstancesAndRecipients(long surveyRunId) {
+        surveyInstanceRecipientDao.deleteForSurveyRun(surveyRunId);
+        surveyInstanceDao.deleteForSurveyRun(surveyRunId);
     }
 
 
-    private long createSurveyInstanceRecipient(long surveyInstanceId, SurveyInstanceRecipient surveyInstanceRecipient) {
-        return surveyInstanceRecipientDao.create(ImmutableSurveyInstanceRecipientCreateCommand.builder()
-                .surveyInstanceId(surveyInstanceId)
-                .personId(surveyInstanceRecipient.person().id().get())
-                .build());
-    }
-
-    private long createSurveyInstanceOwner(long surveyInstanceId, Long ownerId) {
-        return surveyInstanceOwnerDao.create(ImmutableSurveyInstanceOwnerCreateCommand.builder()
-                .surveyInstanceId(surveyInstanceId)
-                .personId(ownerId)
-                .build());
+    private static SurveyInstanceIssuance mkIssuance(SurveyInstance surveyInstance,
+                                                     Set<Long> recipientIds,
+                                                     Set<Long> ownerIds) {
+        return ImmutableSurveyInstanceIssuance.builder()
+                .surveyInstance(surveyInstance)
+                .recipientPersonIds(recipientIds)
+                .ownerPersonIds(ownerIds)
+                .build();
     }
 
 
@@ -18,18 +18,13 @@
 
 package org.finos.waltz.service.survey.inclusion_evaluator;
 
-import org.finos.waltz.schema.tables.ChangeInitiative;
 import org.finos.waltz.model.EntityReference;
 import org.finos.waltz.model.survey.SurveyQuestion;
 import org.finos.waltz.model.survey.SurveyQuestionResponse;
-import org.jooq.DSLContext;
 
 import java.util.List;
 import java.util.Map;
 
-import static org.finos.waltz.schema.tables.Application.APPLICATION;
-import static org.finos.waltz.schema.tables.ChangeInitiative.CHANGE_INITIATIVE;
-
 /**
  *
  * NOTE: methods in this class may show as unused.  This is to be expected as they are referred to via
@@ -37,22 +32,11 @@ import static org.finos.waltz.schema.tables.ChangeInitiative.CHANGE_INITIATIVE;
  */
 public class QuestionChangeInitiativePredicateNamespace extends QuestionEntityPredicateNamespace {
 
-    public QuestionChangeInitiativePredicateNamespace(DSLContext dsl,
-                                                      EntityReference subjectRef,
+    public QuestionChangeInitiativePredicateNamespace(EntityReference subjectRef,
+                                                      SubjectFacts facts,
                                                       List<SurveyQuestion> questions,
                                                       Map<Long, SurveyQuestionResponse> responsesByQuestionId) {
-        super(dsl, subjectRef, questions, responsesByQuestionId);
-    }
-
-
-    public boolean belongsToOrgUnit(String name) {
-        ChangeInitiative ci = CHANGE_INITIATIVE.as("ci");
-        return belongsToOrgUnit(name, ci, ci.ID, ci.ORGANISATIONAL_UNIT_ID);
-    }
-
-
-    public boolean hasLifecyclePhase(String name) {
-        return hasLifecyclePhase(name, CHANGE_INITIATIVE, CHANGE_INITIATIVE.ID, CHANGE_INITIATIVE.LIFECYCLE_PHASE);
+        super(subjectRef, facts, questions, responsesByQuestionId);
     }
 
 }
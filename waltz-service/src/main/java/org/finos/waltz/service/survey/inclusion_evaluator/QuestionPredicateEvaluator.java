@@ -22,51 +22,109 @@ import org.apache.commons.jexl3.*;
 import org.finos.waltz.model.EntityReference;
 import org.finos.waltz.model.survey.SurveyQuestion;
 import org.finos.waltz.model.survey.SurveyQuestionResponse;
-import org.jooq.DSLContext;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
-import static org.finos.waltz.common.MapUtilities.newHashMap;
 import static org.finos.waltz.common.StringUtilities.isEmpty;
 
+/**
+ * Evaluates the inclusion predicates of survey questions.
+ *
+ * A single, thread-safe, engine is shared across evaluations and compiled
+ * scripts are cached by predicate text, so predicates are only parsed once
+ * rather than every time an instance is viewed.  The per-subject namespace
+ * is supplied via the evaluation context.
+ */
 public class QuestionPredicateEvaluator {
 
-    public static List<SurveyQuestion> eval(DSLContext dsl,
-                                     List<SurveyQuestion> qs,
+    private static final int MAX_CACHED_SCRIPTS = 2_000;
+
+    private final JexlEngine jexl = new JexlBuilder().create();
+    private final Map<String, JexlScript> scriptsByPredicate = new ConcurrentHashMap<>();
+
+
+    /**
+     * @param qs  questions to evaluate
+     * @param subjectRef  subject of the survey instance
+     * @param facts  prefetched facts about the subject, may be null if no predicates refer to them
+     * @param responsesByQuestionId  responses given so far
+     * @return the questions whose inclusion predicates (if any) evaluate to true
+     */
+    public List<SurveyQuestion> eval(List<SurveyQuestion> qs,
                                      EntityReference subjectRef,
+                                     SubjectFacts facts,
                                      Map<Long, SurveyQuestionResponse> responsesByQuestionId) {
 
-        QuestionBasePredicateNamespace namespace = mkPredicateNameSpace(dsl, qs, subjectRef, responsesByQuestionId);
+        QuestionBasePredicateNamespace namespace = mkPredicateNameSpace(qs, subjectRef, facts, responsesByQuestionId);
 
-        JexlBuilder builder = new JexlBuilder();
-        JexlEngine jexl = builder
-                .namespaces(newHashMap(null, namespace))
-                .create();
+        JexlContext jexlCtx = new NamespaceContext(namespace);
+        Predicate<String> predicateEvaluator = p -> test(p, jexlCtx);
 
-        namespace.usingEvaluator(jexl);
+        namespace.usingEvaluator(predicateEvaluator);
 
-        List<SurveyQuestion> activeQs = determineActiveQs(qs, jexl);
+        return qs
+                .stream()
+                .filter(q -> q
+                        .inclusionPredicate()
+                        .map(predicateEvaluator::test)
+                        .orElse(true))
+                .collect(Collectors.toList());
+    }
 
-        return activeQs;
+
+    /**
+     * @param qs  questions to check
+     * @return true if any of the questions has a non-empty inclusion predicate
+     */
+    public static boolean hasPredicates(Collection<SurveyQuestion> qs) {
+        return qs
+                .stream()
+                .anyMatch(q -> q
+                        .inclusionPredicate()
+                        .map(p -> !isEmpty(p))
+                        .orElse(false));
     }
 
 
+    private boolean test(String predicate, JexlContext jexlCtx) {
+        if (isEmpty(predicate)) {
+            return true;
+        }
+
+        Object result = getScript(predicate).execute(jexlCtx);
+        return Boolean.valueOf(String.valueOf(result));
+    }
 
 
-    private static QuestionBasePredicateNamespace mkPredicateNameSpace(DSLContext dsl, List<SurveyQuestion> qs, EntityReference subjectRef, Map<Long, SurveyQuestionResponse> responsesByQuestionId) {
+    private JexlScript getScript(String predicate) {
+        if (scriptsByPredicate.size() > MAX_CACHED_SCRIPTS) {
+            // predicates are authored in templates so this should not happen, but guard against unbounded growth
+            scriptsByPredicate.clear();
+        }
+        return scriptsByPredicate.computeIfAbsent(predicate, jexl::createScript);
+    }
+
+
+    private static QuestionBasePredicateNamespace mkPredicateNameSpace(List<SurveyQuestion> qs,
+                                                                       EntityReference subjectRef,
+                                                                       SubjectFacts facts,
+                                                                       Map<Long, SurveyQuestionResponse> responsesByQuestionId) {
         switch (subjectRef.kind()) {
             case APPLICATION:
                 return new QuestionAppPredicateNamespace(
-                        dsl,
                         subjectRef,
+                        facts,
                         qs,
                         responsesByQuestionId);
             case CHANGE_INITIATIVE:
                 return new QuestionChangeInitiativePredicateNamespace(
-                        dsl,
                         subjectRef,
+                        facts,
                         qs,
                         responsesByQuestionId);
             default:
@@ -75,25 +133,26 @@ public class QuestionPredicateEvaluator {
     }
 
 
-    private static List<SurveyQuestion> determineActiveQs(List<SurveyQuestion> qs, JexlEngine jexl) {
-        List<SurveyQuestion> activeQs = qs
-                .stream()
-                .filter(q -> q
-                        .inclusionPredicate()
-                        .map(p -> {
-                            if (isEmpty(p)) {
-                                return true;
-                            } else {
-                                JexlExpression expr = jexl.createExpression(p);
-                                JexlContext jexlCtx = new MapContext();
-                                return Boolean.valueOf(expr.evaluate(jexlCtx).toString());
-                            }
-                        })
-                        .orElse(true))
-                .collect(Collectors.toList());
-        return activeQs;
-    }
+    /**
+     * Resolves the default (un-prefixed) namespace to the subjects namespace,
+     * allowing the engine, and its compiled scripts, to be shared.
+     */
+    private static class NamespaceContext extends MapContext implements JexlContext.NamespaceResolver {
+
+        private final Object namespace;
+
+
+        private NamespaceContext(Object namespace) {
+            this.namespace = namespace;
+        }
 
 
+        @Override
+        public Object resolveNamespace(String name) {
+            return name == null
+                    ? namespace
+                    : null;
+        }
+    }
 
 }
@@ -0,0 +1,142 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.survey.inclusion_evaluator;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Collections.emptySet;
+
+/**
+ * Facts about a single survey subject which the predicate namespaces
+ * need to answer their functions (e.g. <code>isAppKind</code>,
+ * <code>belongsToOrgUnit</code>).
+ *
+ * Facts are loaded up front, for one or many subjects at a time, by the
+ * {@link SubjectFactsLoader} so that evaluating predicates does not issue
+ * a query per function call.
+ */
+public class SubjectFacts {
+
+    private String kind;
+    private String lifecyclePhase;
+    private boolean retiring;
+    private final Set<String> orgUnitNames = new HashSet<>();
+    private final Map<String, Set<String>> dataTypeUsageKindsByName = new HashMap<>();
+    private final Map<String, String> assessmentRatingCodesByName = new HashMap<>();
+    private final Set<String> involvementKindNames = new HashSet<>();
+
+
+    public String kind() {
+        return kind;
+    }
+
+
+    public String lifecyclePhase() {
+        return lifecyclePhase;
+    }
+
+
+    public boolean isRetiring() {
+        return retiring;
+    }
+
+
+    /**
+     * @return names and external ids of the subjects org unit and all of its ancestors
+     */
+    public Set<String> orgUnitNames() {
+        return orgUnitNames;
+    }
+
+
+    /**
+     * @param name  name or code of a data type
+     * @return usage kinds of the given data type (or any of its descendants) against the subject
+     */
+    public Set<String> dataTypeUsageKinds(String name) {
+        return dataTypeUsageKindsByName.getOrDefault(name, emptySet());
+    }
+
+
+    /**
+     * @param name  name or external id of an assessment definition
+     * @return rating code, or null if the subject has no rating for the definition
+     */
+    public String assessmentRatingCode(String name) {
+        return assessmentRatingCodesByName.get(name);
+    }
+
+
+    /**
+     * @param name  involvement kind name (case insensitive)
+     * @return true if the subject has at least one involvement of the given kind
+     */
+    public boolean hasInvolvementKind(String name) {
+        return name != null && involvementKindNames.contains(name.toLowerCase());
+    }
+
+
+    // --- mutators, used by the loader ---
+
+    void setKind(String kind) {
+        this.kind = kind;
+    }
+
+
+    void setLifecyclePhase(String lifecyclePhase) {
+        this.lifecyclePhase = lifecyclePhase;
+    }
+
+
+    void setRetiring(boolean retiring) {
+        this.retiring = retiring;
+    }
+
+
+    void addOrgUnitNames(Set<String> names) {
+        orgUnitNames.addAll(names);
+    }
+
+
+    void addDataTypeUsage(String dataTypeName, String usageKind) {
+        if (dataTypeName != null) {
+            dataTypeUsageKindsByName
+                    .computeIfAbsent(dataTypeName, k -> new HashSet<>())
+                    .add(usageKind);
+        }
+    }
+
+
+    void addAssessmentRating(String definitionName, String ratingCode) {
+        if (definitionName != null) {
+            assessmentRatingCodesByName.putIfAbsent(definitionName, ratingCode);
+        }
+    }
+
+
+    void addInvolvementKind(String involvementKindName) {
+        if (involvementKindName != null) {
+            involvementKindNames.add(involvementKindName.toLowerCase());
+        }
+    }
+
+}
@@ -0,0 +1,227 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.survey.inclusion_evaluator;
+
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.schema.tables.DataType;
+import org.finos.waltz.schema.tables.DataTypeUsage;
+import org.finos.waltz.schema.tables.EntityHierarchy;
+import org.finos.waltz.schema.tables.OrganisationalUnit;
+import org.jooq.*;
+import org.jooq.impl.DSL;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static org.finos.waltz.schema.Tables.*;
+
+/**
+ * Loads {@link SubjectFacts} for a set of subjects, of a single kind, using
+ * a fixed number of set based queries (one per fact type) rather than one
+ * query per predicate function call.
+ */
+public class SubjectFactsLoader {
+
+    private static final EntityHierarchy eh = ENTITY_HIERARCHY.as("eh");
+    private static final OrganisationalUnit ou = ORGANISATIONAL_UNIT.as("ou");
+    private static final DataType dt = DATA_TYPE.as("dt");
+    private static final DataTypeUsage dtu = DATA_TYPE_USAGE.as("dtu");
+
+
+    /**
+     * @param dsl  db context
+     * @param subjectKind  kind of subjects, only applications and change initiatives have facts
+     * @param subjectIdSelector  selects ids of the subjects to load facts for
+     * @return facts indexed by subject id, subjects of unsupported kinds yield an empty map
+     */
+    public static Map<Long, SubjectFacts> load(DSLContext dsl,
+                                               EntityKind subjectKind,
+                                               Select<Record1<Long>> subjectIdSelector) {
+        switch (subjectKind) {
+            case APPLICATION:
+                return loadForApps(dsl, subjectIdSelector);
+            case CHANGE_INITIATIVE:
+                return loadForChangeInitiatives(dsl, subjectIdSelector);
+            default:
+                return emptyMap();
+        }
+    }
+
+
+    private static Map<Long, SubjectFacts> loadForApps(DSLContext dsl,
+                                                       Select<Record1<Long>> appIdSelector) {
+        Condition isPlanned = APPLICATION.PLANNED_RETIREMENT_DATE.isNotNull();
+
+        Condition notRetiredYet = APPLICATION.ACTUAL_RETIREMENT_DATE.isNull()
+                .or(APPLICATION.ACTUAL_RETIREMENT_DATE.greaterOrEqual(DSL.now()));
+
+        Field<Boolean> isRetiring = DSL.field(isPlanned.and(notRetiredYet));
+
+        Map<Long, SubjectFacts> factsById = new HashMap<>();
+        Map<Long, Long> orgUnitIdBySubjectId = new HashMap<>();
+
+        dsl.select(APPLICATION.ID,
+                   APPLICATION.KIND,
+                   APPLICATION.LIFECYCLE_PHASE,
+                   APPLICATION.ORGANISATIONAL_UNIT_ID,
+                   isRetiring)
+                .from(APPLICATION)
+                .where(APPLICATION.ID.in(appIdSelector))
+                .forEach(r -> {
+                    SubjectFacts facts = new SubjectFacts();
+                    facts.setKind(r.get(APPLICATION.KIND));
+                    facts.setLifecyclePhase(r.get(APPLICATION.LIFECYCLE_PHASE));
+                    facts.setRetiring(Boolean.TRUE.equals(r.get(isRetiring)));
+                    factsById.put(r.get(APPLICATION.ID), facts);
+                    orgUnitIdBySubjectId.put(r.get(APPLICATION.ID), r.get(APPLICATION.ORGANISATIONAL_UNIT_ID));
+                });
+
+        addOrgUnitNames(dsl, factsById, orgUnitIdBySubjectId);
+        addDataTypeUsages(dsl, factsById, EntityKind.APPLICATION, appIdSelector);
+        addAssessmentRatings(dsl, factsById, EntityKind.APPLICATION, appIdSelector);
+        addInvolvementKinds(dsl, factsById, EntityKind.APPLICATION, appIdSelector);
+
+        return factsById;
+    }
+
+
+    private static Map<Long, SubjectFacts> loadForChangeInitiatives(DSLContext dsl,
+                                                                    Select<Record1<Long>> ciIdSelector) {
+        Map<Long, SubjectFacts> factsById = new HashMap<>();
+        Map<Long, Long> orgUnitIdBySubjectId = new HashMap<>();
+
+        dsl.select(CHANGE_INITIATIVE.ID,
+                   CHANGE_INITIATIVE.LIFECYCLE_PHASE,
+                   CHANGE_INITIATIVE.ORGANISATIONAL_UNIT_ID)
+                .from(CHANGE_INITIATIVE)
+                .where(CHANGE_INITIATIVE.ID.in(ciIdSelector))
+                .forEach(r -> {
+                    SubjectFacts facts = new SubjectFacts();
+                    facts.setLifecyclePhase(r.get(CHANGE_INITIATIVE.LIFECYCLE_PHASE));
+                    factsById.put(r.get(CHANGE_INITIATIVE.ID), facts);
+                    orgUnitIdBySubjectId.put(r.get(CHANGE_INITIATIVE.ID), r.get(CHANGE_INITIATIVE.ORGANISATIONAL_UNIT_ID));
+                });
+
+        addOrgUnitNames(dsl, factsById, orgUnitIdBySubjectId);
+        addAssessmentRatings(dsl, factsById, EntityKind.CHANGE_INITIATIVE, ciIdSelector);
+        addInvolvementKinds(dsl, factsById, EntityKind.CHANGE_INITIATIVE, ciIdSelector);
+
+        return factsById;
+    }
+
+
+    // --- HELPERS ---
+
+    private static void addOrgUnitNames(DSLContext dsl,
+                                        Map<Long, SubjectFacts> factsById,
+                                        Map<Long, Long> orgUnitIdBySubjectId) {
+        Set<Long> orgUnitIds = new HashSet<>(orgUnitIdBySubjectId.values());
+        orgUnitIds.remove(null);
+
+        if (orgUnitIds.isEmpty()) {
+            return;
+        }
+
+        // names and external ids of each org unit and all of its ancestors
+        Map<Long, Set<String>> namesByOrgUnitId = new HashMap<>();
+        dsl.select(eh.ID, ou.NAME, ou.EXTERNAL_ID)
+                .from(eh)
+                .innerJoin(ou).on(ou.ID.eq(eh.ANCESTOR_ID))
+                .where(eh.KIND.eq(EntityKind.ORG_UNIT.name()))
+                .and(eh.ID.in(orgUnitIds))
+                .forEach(r -> {
+                    Set<String> names = namesByOrgUnitId.computeIfAbsent(r.get(eh.ID), k -> new HashSet<>());
+                    names.add(r.get(ou.NAME));
+                    Optional.ofNullable(r.get(ou.EXTERNAL_ID)).ifPresent(names::add);
+                });
+
+        orgUnitIdBySubjectId.forEach((subjectId, orgUnitId) -> factsById
+                .get(subjectId)
+                .addOrgUnitNames(namesByOrgUnitId.getOrDefault(orgUnitId, emptySet())));
+    }
+
+
+    private static void addDataTypeUsages(DSLContext dsl,
+                                          Map<Long, SubjectFacts> factsById,
+                                          EntityKind subjectKind,
+                                          Select<Record1<Long>> subjectIdSelector) {
+        // each usage is reported against the used data type and all of its ancestors
+        dsl.select(dtu.ENTITY_ID, dt.NAME, dt.CODE, dtu.USAGE_KIND)
+                .from(dtu)
+                .innerJoin(eh)
+                .on(eh.ID.eq(dtu.DATA_TYPE_ID).and(eh.KIND.eq(EntityKind.DATA_TYPE.name())))
+                .innerJoin(dt)
+                .on(dt.ID.eq(eh.ANCESTOR_ID))
+                .where(dtu.ENTITY_KIND.eq(subjectKind.name()))
+                .and(dtu.ENTITY_ID.in(subjectIdSelector))
+                .forEach(r -> withFacts(factsById, r.get(dtu.ENTITY_ID), facts -> {
+                    facts.addDataTypeUsage(r.get(dt.NAME), r.get(dtu.USAGE_KIND));
+                    facts.addDataTypeUsage(r.get(dt.CODE), r.get(dtu.USAGE_KIND));
+                }));
+    }
+
+
+    private static void addAssessmentRatings(DSLContext dsl,
+                                             Map<Long, SubjectFacts> factsById,
+                                             EntityKind subjectKind,
+                                             Select<Record1<Long>> subjectIdSelector) {
+        dsl.select(ASSESSMENT_RATING.ENTITY_ID,
+                   ASSESSMENT_DEFINITION.NAME,
+                   ASSESSMENT_DEFINITION.EXTERNAL_ID,
+                   RATING_SCHEME_ITEM.CODE)
+                .from(ASSESSMENT_RATING)
+                .innerJoin(ASSESSMENT_DEFINITION).on(ASSESSMENT_DEFINITION.ID.eq(ASSESSMENT_RATING.ASSESSMENT_DEFINITION_ID))
+                .innerJoin(RATING_SCHEME_ITEM).on(RATING_SCHEME_ITEM.ID.eq(ASSESSMENT_RATING.RATING_ID))
+                .where(ASSESSMENT_RATING.ENTITY_KIND.eq(subjectKind.name()))
+                .and(ASSESSMENT_RATING.ENTITY_ID.in(subjectIdSelector))
+                .forEach(r -> withFacts(factsById, r.get(ASSESSMENT_RATING.ENTITY_ID), facts -> {
+                    facts.addAssessmentRating(r.get(ASSESSMENT_DEFINITION.EXTERNAL_ID), r.get(RATING_SCHEME_ITEM.CODE));
+                    facts.addAssessmentRating(r.get(ASSESSMENT_DEFINITION.NAME), r.get(RATING_SCHEME_ITEM.CODE));
+                }));
+    }
+
+
+    private static void addInvolvementKinds(DSLContext dsl,
+                                            Map<Long, SubjectFacts> factsById,
+                                            EntityKind subjectKind,
+                                            Select<Record1<Long>> subjectIdSelector) {
+        dsl.selectDistinct(INVOLVEMENT.ENTITY_ID, INVOLVEMENT_KIND.NAME)
+                .from(INVOLVEMENT)
+                .innerJoin(INVOLVEMENT_KIND).on(INVOLVEMENT.KIND_ID.eq(INVOLVEMENT_KIND.ID))
+                .where(INVOLVEMENT.ENTITY_KIND.eq(subjectKind.name()))
+                .and(INVOLVEMENT.ENTITY_ID.in(subjectIdSelector))
+                .forEach(r -> withFacts(
+                        factsById,
+                        r.get(INVOLVEMENT.ENTITY_ID),
+                        facts -> facts.addInvolvementKind(r.get(INVOLVEMENT_KIND.NAME))));
+    }
+
+
+    private static void withFacts(Map<Long, SubjectFacts> factsById,
+                                  Long subjectId,
+                                  Consumer<SubjectFacts> action) {
+        SubjectFacts facts = factsById.get(subjectId);
+        if (facts != null) {
+            action.accept(facts);
+        }
+    }
+
+}
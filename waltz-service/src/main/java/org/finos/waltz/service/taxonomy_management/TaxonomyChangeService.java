@@ -138,11 +138,11 @@ public class TaxonomyChangeService {
         if (command.changeDomain().kind() == EntityKind.MEASURABLE_CATEGORY
                 && isHierarchyChange(command)) {
             long categoryId = command.changeDomain().id();
-            int insertCount = entityHierarchyService.buildForMeasurableByCategory(categoryId);
+            int recordCount = entityHierarchyService.buildForMeasurableByCategory(categoryId);
             LOG.info(
-                    "Rebuilt measurable category: {},  inserted {} new records",
+                    "Rebuilt measurable category: {},  wrote {} records",
                     categoryId,
-                    insertCount);
+                    recordCount);
         }
 
         return updatedCommand;
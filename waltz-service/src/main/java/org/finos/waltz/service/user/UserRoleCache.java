@@ -0,0 +1,227 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.user;
+
+import org.finos.waltz.data.user.UserRoleDao;
+import org.finos.waltz.model.client_cache_key.ClientCacheKey;
+import org.finos.waltz.service.client_cache_key.ClientCacheKeyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.finos.waltz.common.Checks.checkNotNull;
+import static org.finos.waltz.common.StringUtilities.mkSafe;
+
+/**
+ * In-process cache of the roles held by each user, used by the permission
+ * checks in {@link UserRoleService}.
+ *
+ * Entries are invalidated whenever roles are updated via this node and
+ * expire after a configurable ttl (<code>user.roles.cache.ttl.seconds</code>)
+ * as a safety net.  A ttl of zero (or less) disables caching.
+ *
+ * To propagate invalidations across nodes every update also bumps the
+ * <code>USER_ROLES</code> client cache key.  Unless
+ * <code>user.roles.cache.poll.enabled</code> is set to false, each node periodically
+ * checks that key and clears its cache when it sees a new value.
+ *
+ * Entries are keyed on the user name exactly as given.  As role lookups
+ * ignore case, invalidating a user removes entries for every casing of
+ * their name.
+ */
+@Service
+public class UserRoleCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserRoleCache.class);
+
+    public static final String INVALIDATION_KEY = "USER_ROLES";
+
+
+    private static class Entry {
+        private final Set<String> roles;
+        private final long loadedAt;
+
+        private Entry(Set<String> roles, long loadedAt) {
+            this.roles = roles;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+
+    private final UserRoleDao userRoleDao;
+    private final ClientCacheKeyService clientCacheKeyService;
+
+    private final Map<String, Entry> entriesByUser = new ConcurrentHashMap<>();
+
+    // bumped on every invalidation, loads which straddle an invalidation are not retained
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private volatile String lastSeenInvalidationGuid = null;
+
+    @Value("${user.roles.cache.ttl.seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${user.roles.cache.poll.enabled:true}")
+    private boolean pollEnabled;
+
+
+    @Autowired
+    public UserRoleCache(UserRoleDao userRoleDao,
+                         ClientCacheKeyService clientCacheKeyService) {
+        checkNotNull(userRoleDao, "userRoleDao cannot be null");
+        checkNotNull(clientCacheKeyService, "clientCacheKeyService cannot be null");
+
+        this.userRoleDao = userRoleDao;
+        this.clientCacheKeyService = clientCacheKeyService;
+    }
+
+
+    /**
+     * Returns the (unmodifiable) roles for the given user, loading them
+     * from the database if they are not cached or have expired.
+     */
+    public Set<String> getRoles(String userName) {
+        if (ttlSeconds <= 0) {
+            misses.increment();
+            return userRoleDao.getUserRoles(userName);
+        }
+
+        String key = toKey(userName);
+        long now = System.currentTimeMillis();
+
+        Entry entry = entriesByUser.get(key);
+        if (entry != null && now - entry.loadedAt < TimeUnit.SECONDS.toMillis(ttlSeconds)) {
+            hits.increment();
+            return entry.roles;
+        }
+
+        misses.increment();
+        long generationAtLoad = generation.get();
+        Set<String> roles = Collections.unmodifiableSet(userRoleDao.getUserRoles(userName));
+
+        if (generation.get() == generationAtLoad) {
+            entriesByUser.put(key, new Entry(roles, now));
+        }
+
+        return roles;
+    }
+
+
+    /**
+     * Removes the cached roles for the given user on this node and signals
+     * other nodes (via the client cache key) that they should do the same.
+     */
+    public void invalidate(String userName) {
+        generation.incrementAndGet();
+        String key = toKey(userName);
+        entriesByUser.keySet().removeIf(k -> k.equalsIgnoreCase(key));
+        invalidations.increment();
+        publishInvalidation();
+    }
+
+
+    /**
+     * Removes all cached roles on this node only.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entriesByUser.clear();
+        invalidations.increment();
+    }
+
+
+    @Scheduled(fixedDelayString = "${user.roles.cache.poll.millis:30000}", initialDelay = 30_000)
+    public void pollForInvalidations() {
+        if (! pollEnabled) {
+            return;
+        }
+
+        try {
+            ClientCacheKey current = clientCacheKeyService.getByKey(INVALIDATION_KEY);
+            String guid = current == null
+                    ? null
+                    : current.guid();
+
+            if (! Objects.equals(guid, lastSeenInvalidationGuid)) {
+                LOG.debug("User role invalidation key has changed, clearing cached roles");
+                lastSeenInvalidationGuid = guid;
+                invalidateAll();
+            }
+        } catch (Exception e) {
+            LOG.warn("Failed to poll for user role invalidations, will retry", e);
+        }
+    }
+
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+
+    public int getSize() {
+        return entriesByUser.size();
+    }
+
+
+    // --- helpers ---
+
+    private void publishInvalidation() {
+        try {
+            ClientCacheKey updated = clientCacheKeyService.createOrUpdate(INVALIDATION_KEY);
+            if (updated != null) {
+                // this node has already invalidated, no need to react to our own change
+                lastSeenInvalidationGuid = updated.guid();
+            }
+        } catch (Exception e) {
+            LOG.warn("Failed to publish user role invalidation, other nodes will rely on the cache ttl", e);
+        }
+    }
+
+
+    private static String toKey(String userName) {
+        return mkSafe(userName);
+    }
+
+}
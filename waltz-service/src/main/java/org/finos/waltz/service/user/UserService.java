@@ -47,21 +47,25 @@ public class UserService {
     private final UserDao userDao;
     private final PasswordService passwordService;
     private final UserRoleDao userRoleDao;
+    private final UserRoleCache userRoleCache;
     private SettingsService settingsService;
 
 
     @Autowired
     public UserService(UserDao userDao,
                        UserRoleDao userRoleDao,
+                       UserRoleCache userRoleCache,
                        PasswordService passwordService,
                        SettingsService settingsService) {
         checkNotNull(userDao, "userDao must not be null");
         checkNotNull(userRoleDao, "userRoleDao cannot be null");
+        checkNotNull(userRoleCache, "userRoleCache cannot be null");
         checkNotNull(passwordService, "passwordService must not be null");
         checkNotNull(settingsService, "settingsService cannot be null");
 
         this.userDao = userDao;
         this.userRoleDao = userRoleDao;
+        this.userRoleCache = userRoleCache;
         this.passwordService = passwordService;
         this.settingsService = settingsService;
     }
@@ -88,6 +92,7 @@ public class UserService {
     public boolean deleteUser(String userName) {
         LOG.info("Deleting user: " + userName);
         userDao.deleteUser(userName);
+        userRoleCache.invalidate(userName);
         LOG.info("Deleted user: " + userName);
         return true;
     }
@@ -134,7 +139,10 @@ public class UserService {
         if (setting != null ) {
             setting.value()
                     .map(s -> StringUtilities.tokenise(s, ","))
-                    .ifPresent(roles -> userRoleDao.updateRoles(username, SetUtilities.fromCollection(roles)));
+                    .ifPresent(roles -> {
+                        userRoleDao.updateRoles(username, SetUtilities.fromCollection(roles));
+                        userRoleCache.invalidate(username);
+                    });
 
         }
     }
@@ -19,12 +19,17 @@
 package org.finos.waltz.service.user_agent_info;
 
 import org.finos.waltz.common.Checks;
+import org.finos.waltz.common.WriteBehindQueue;
 import org.finos.waltz.data.user_agent_info.UserAgentInfoDao;
 import org.finos.waltz.model.user_agent_info.UserAgentInfo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.List;
+import java.util.Optional;
 
 import static org.finos.waltz.common.Checks.checkNotNull;
 import static org.finos.waltz.common.Checks.checkTrue;
@@ -34,6 +39,20 @@ public class UserAgentInfoService {
 
     private final UserAgentInfoDao userAgentInfoDao;
 
+    @Value("${user.agent.info.async.enabled:true}")
+    private boolean asyncEnabled;
+
+    @Value("${user.agent.info.queue.capacity:2000}")
+    private int queueCapacity;
+
+    @Value("${user.agent.info.queue.batch.size:100}")
+    private int batchSize;
+
+    @Value("${user.agent.info.queue.flush.millis:2000}")
+    private long flushMillis;
+
+    private WriteBehindQueue<UserAgentInfo> queue;
+
 
     @Autowired
     public UserAgentInfoService(UserAgentInfoDao userAgentInfoDao) {
@@ -42,9 +61,45 @@ public class UserAgentInfoService {
     }
 
 
-    public int save(UserAgentInfo userAgentInfo) {
+    @PostConstruct
+    public void init() {
+        if (asyncEnabled) {
+            queue = new WriteBehindQueue<>(
+                    "User Agent Info",
+                    queueCapacity,
+                    batchSize,
+                    flushMillis,
+                    WriteBehindQueue.OverflowPolicy.DROP,
+                    userAgentInfoDao::saveAll);
+        }
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+
+    /**
+     * Records the login.  If async writing is enabled (the default) the entry
+     * is queued and written in a later batch, entries offered while the queue
+     * is full are dropped (and counted by the queue).
+     */
+    public void save(UserAgentInfo userAgentInfo) {
         checkNotNull(userAgentInfo, "userLogin cannot be null");
-        return userAgentInfoDao.save(userAgentInfo);
+        if (queue == null) {
+            userAgentInfoDao.save(userAgentInfo);
+        } else {
+            queue.offer(userAgentInfo);
+        }
+    }
+
+
+    public Optional<WriteBehindQueue<UserAgentInfo>> getQueue() {
+        return Optional.ofNullable(queue);
     }
 
 
@@ -0,0 +1,49 @@
+package org.finos.waltz.service.workflow;
+
+import org.immutables.value.Value;
+
+import java.util.Map;
+
+/**
+ * Outcome of evaluating a set of transition definitions across a
+ * population of entities via the {@link BulkWorkflowEvaluator}.
+ */
+@Value.Immutable
+public abstract class BulkEvaluationResult {
+
+    /** number of entities in the population */
+    public abstract int evaluatedCount();
+
+    /** number of entities for which a transition fired */
+    public abstract int matchedCount();
+
+    /** number of entities whose evaluation raised an error, these are otherwise ignored */
+    public abstract int errorCount();
+
+    /** number of side effects produced by the fired transitions */
+    public abstract int sideEffectCount();
+
+    /** number of side effects which could not be resolved (e.g. unknown assessment or rating external ids) */
+    public abstract int unresolvedSideEffectCount();
+
+    public abstract int addedCount();
+
+    public abstract int updatedCount();
+
+    public abstract Map<String, Integer> matchesByTransition();
+
+    public abstract boolean dryRun();
+
+    public abstract long contextLoadMillis();
+
+    public abstract long evaluationMillis();
+
+    public abstract long writeMillis();
+
+
+    @Value.Derived
+    public int changedCount() {
+        return addedCount() + updatedCount();
+    }
+
+}
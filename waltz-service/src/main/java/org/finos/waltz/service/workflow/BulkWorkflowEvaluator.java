@@ -0,0 +1,405 @@
+package org.finos.waltz.service.workflow;
+
+import org.apache.commons.jexl3.JexlBuilder;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.MapContext;
+import org.finos.waltz.data.GenericSelector;
+import org.finos.waltz.data.assessment_rating.AssessmentRatingDao;
+import org.finos.waltz.model.Operation;
+import org.finos.waltz.model.Severity;
+import org.finos.waltz.model.UserTimestamp;
+import org.finos.waltz.model.assessment_rating.AssessmentRating;
+import org.finos.waltz.model.assessment_rating.ImmutableAssessmentRating;
+import org.finos.waltz.model.changelog.ChangeLog;
+import org.finos.waltz.model.changelog.ImmutableChangeLog;
+import org.finos.waltz.schema.tables.AssessmentDefinition;
+import org.finos.waltz.schema.tables.RatingSchemeItem;
+import org.finos.waltz.service.changelog.ChangeLogService;
+import org.finos.waltz.service.workflow.side_effect.AssessmentRatingUpdateSideEffect;
+import org.finos.waltz.service.workflow.side_effect.AssessmentSideEffectNamespace;
+import org.jooq.DSLContext;
+import org.jooq.Record1;
+import org.jooq.impl.DSL;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.lang.String.format;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.*;
+import static org.finos.waltz.common.Checks.checkNotNull;
+import static org.finos.waltz.common.ListUtilities.map;
+import static org.finos.waltz.common.MapUtilities.indexBy;
+import static org.finos.waltz.common.MapUtilities.newHashMap;
+import static org.finos.waltz.model.EntityReference.mkRef;
+import static org.jooq.lambda.tuple.Tuple.tuple;
+
+/**
+ * Evaluates transition definitions across a whole population of entities
+ * (described by a {@link GenericSelector}) in one pass.
+ *
+ * <ul>
+ *     <li>predicates and side effects are compiled once</li>
+ *     <li>context variables for the whole population are loaded in bulk by the {@link ContextPopulator}</li>
+ *     <li>entities are evaluated in parallel on a dedicated fork-join pool</li>
+ *     <li>the resulting assessment side effects, and their change log entries, are written in a single transaction using batched inserts and updates</li>
+ * </ul>
+ *
+ * For each entity the first transition (in declaration order) whose predicate
+ * holds fires.  Entities whose evaluation fails are counted and skipped.
+ */
+@Service
+public class BulkWorkflowEvaluator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkWorkflowEvaluator.class);
+    private static final String PROVENANCE = "waltz";
+
+    private static final AssessmentDefinition ad = AssessmentDefinition.ASSESSMENT_DEFINITION;
+    private static final RatingSchemeItem rsi = RatingSchemeItem.RATING_SCHEME_ITEM;
+
+    private final DSLContext dsl;
+    private final ContextPopulator contextPopulator;
+    private final AssessmentRatingDao assessmentRatingDao;
+    private final ChangeLogService changeLogService;
+
+    private final JexlEngine jexl = new JexlBuilder()
+            .namespaces(newHashMap("assessment", new AssessmentSideEffectNamespace()))
+            .create();
+
+    @Value("${workflow.bulk.parallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+
+    @Autowired
+    public BulkWorkflowEvaluator(DSLContext dsl,
+                                 ContextPopulator contextPopulator,
+                                 AssessmentRatingDao assessmentRatingDao,
+                                 ChangeLogService changeLogService) {
+        checkNotNull(dsl, "dsl cannot be null");
+        checkNotNull(contextPopulator, "contextPopulator cannot be null");
+        checkNotNull(assessmentRatingDao, "assessmentRatingDao cannot be null");
+        checkNotNull(changeLogService, "changeLogService cannot be null");
+
+        this.dsl = dsl;
+        this.contextPopulator = contextPopulator;
+        this.assessmentRatingDao = assessmentRatingDao;
+        this.changeLogService = changeLogService;
+    }
+
+
+    @PostConstruct
+    public void init() {
+        int poolSize = parallelism > 0
+                ? parallelism
+                : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(poolSize);
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+
+    public List<CompiledTransitionDefinition> compile(List<TransitionDefinition> transitions) {
+        return map(transitions, t -> t.compile(jexl));
+    }
+
+
+    /**
+     * @param transitions  transitions to evaluate, in priority order
+     * @param declarations  context variables referred to by the transition predicates
+     * @param selector  population of entities to evaluate
+     * @param username  user to record against any changes
+     * @param dryRun  if true the side effects are resolved and counted but not written
+     * @return counts and timings of the evaluation
+     */
+    public BulkEvaluationResult evaluate(List<TransitionDefinition> transitions,
+                                         Set<ContextVariableDeclaration> declarations,
+                                         GenericSelector selector,
+                                         String username,
+                                         boolean dryRun) {
+        checkNotNull(transitions, "transitions cannot be null");
+        checkNotNull(declarations, "declarations cannot be null");
+        checkNotNull(selector, "selector cannot be null");
+        checkNotNull(username, "username cannot be null");
+
+        List<CompiledTransitionDefinition> compiled = compile(transitions);
+
+        long start = System.currentTimeMillis();
+
+        Set<Long> entityIds = dsl
+                .fetch(selector.selector())
+                .stream()
+                .map(Record1::value1)
+                .collect(toSet());
+
+        Map<Long, List<ContextVariable<? extends ContextValue>>> varsByEntityId = contextPopulator
+                .populateContext(declarations, selector)
+                .stream()
+                .collect(groupingBy(v -> v.entityRef().id()));
+
+        long contextLoaded = System.currentTimeMillis();
+
+        // each failing transition is reported in full once, later failures are logged at debug
+        Set<String> reportedFailures = ConcurrentHashMap.newKeySet();
+
+        List<EntityOutcome> outcomes = pool
+                .submit(() -> entityIds
+                        .parallelStream()
+                        .map(id -> evaluateEntity(
+                                id,
+                                compiled,
+                                declarations,
+                                varsByEntityId.getOrDefault(id, emptyList()),
+                                reportedFailures))
+                        .collect(toList()))
+                .join();
+
+        long evaluated = System.currentTimeMillis();
+
+        List<Tuple3<Long, String, AssessmentRatingUpdateSideEffect>> sideEffects = outcomes
+                .stream()
+                .flatMap(o -> o.sideEffects
+                        .stream()
+                        .map(se -> tuple(o.entityId, o.transitionName, se)))
+                .collect(toList());
+
+        RatingChanges changes = determineRatingChanges(selector, sideEffects, username);
+
+        if (!dryRun) {
+            writeRatingChanges(changes);
+        }
+
+        long written = System.currentTimeMillis();
+
+        BulkEvaluationResult result = ImmutableBulkEvaluationResult
+                .builder()
+                .evaluatedCount(outcomes.size())
+                .matchedCount((int) outcomes.stream().filter(o -> o.transitionName != null).count())
+                .errorCount((int) outcomes.stream().filter(o -> o.failed).count())
+                .sideEffectCount(sideEffects.size())
+                .unresolvedSideEffectCount(changes.unresolvedCount)
+                .addedCount(changes.toAdd.size())
+                .updatedCount(changes.toUpdate.size())
+                .matchesByTransition(outcomes
+                        .stream()
+                        .filter(o -> o.transitionName != null)
+                        .collect(groupingBy(o -> o.transitionName, summingInt(o -> 1))))
+                .dryRun(dryRun)
+                .contextLoadMillis(contextLoaded - start)
+                .evaluationMillis(evaluated - contextLoaded)
+                .writeMillis(written - evaluated)
+                .build();
+
+        LOG.info("Bulk workflow evaluation of {} {} entities complete: {}", entityIds.size(), selector.kind(), result);
+
+        return result;
+    }
+
+
+    private EntityOutcome evaluateEntity(Long entityId,
+                                         List<CompiledTransitionDefinition> transitions,
+                                         Set<ContextVariableDeclaration> declarations,
+                                         List<ContextVariable<? extends ContextValue>> vars,
+                                         Set<String> reportedFailures) {
+        MapContext ctx = new MapContext();
+        declarations.forEach(d -> ctx.set(d.name(), null));
+        vars.forEach(v -> ctx.set(v.name(), v.value()));
+
+        String current = null;
+        try {
+            for (CompiledTransitionDefinition transition : transitions) {
+                current = transition.name();
+                if (transition.test(ctx)) {
+                    List<AssessmentRatingUpdateSideEffect> sideEffects = transition
+                            .sideEffects()
+                            .stream()
+                            .map(se -> se.evaluate(ctx))
+                            .filter(r -> r instanceof AssessmentRatingUpdateSideEffect)
+                            .map(r -> (AssessmentRatingUpdateSideEffect) r)
+                            .collect(toList());
+                    return new EntityOutcome(entityId, transition.name(), sideEffects, false);
+                }
+            }
+            return new EntityOutcome(entityId, null, emptyList(), false);
+        } catch (Exception e) {
+            if (reportedFailures.add(current)) {
+                LOG.warn(
+                        "Failed to evaluate transition: {} for entity: {}, further failures of this transition are logged at debug",
+                        current,
+                        entityId,
+                        e);
+            } else {
+                LOG.debug("Failed to evaluate transition: {} for entity: {}, {}", current, entityId, e.getMessage());
+            }
+            return new EntityOutcome(entityId, null, emptyList(), true);
+        }
+    }
+
+
+    private RatingChanges determineRatingChanges(GenericSelector selector,
+                                                 List<Tuple3<Long, String, AssessmentRatingUpdateSideEffect>> sideEffects,
+                                                 String username) {
+        RatingChanges changes = new RatingChanges();
+
+        if (sideEffects.isEmpty()) {
+            return changes;
+        }
+
+        Map<Tuple2<String, String>, Tuple2<Long, Long>> idsByExtIds = resolveAssessmentIds(selector, sideEffects);
+
+        // later side effects for the same entity and definition supersede earlier ones
+        Map<Tuple2<Long, Long>, Tuple3<Long, String, AssessmentRatingUpdateSideEffect>> targetsByEntityAndDefinition = new LinkedHashMap<>();
+        sideEffects.forEach(t -> {
+            Tuple2<Long, Long> ids = idsByExtIds.get(tuple(
+                    t.v3.assessmentDefinitionExternalId(),
+                    t.v3.ratingSchemeItemExternalId()));
+            if (ids == null) {
+                changes.unresolvedCount++;
+            } else {
+                targetsByEntityAndDefinition.put(tuple(t.v1, ids.v1), tuple(ids.v2, t.v2, t.v3));
+            }
+        });
+
+        Map<Tuple2<Long, Long>, AssessmentRating> existingByEntityAndDefinition = indexBy(
+                assessmentRatingDao.findByGenericSelector(selector),
+                r -> tuple(r.entityReference().id(), r.assessmentDefinitionId()));
+
+        UserTimestamp lastUpdate = UserTimestamp.mkForUser(username);
+
+        targetsByEntityAndDefinition.forEach((key, target) -> {
+            AssessmentRating existing = existingByEntityAndDefinition.get(key);
+            String transitionName = target.v2;
+            AssessmentRatingUpdateSideEffect sideEffect = target.v3;
+
+            if (existing == null) {
+                AssessmentRating rating = ImmutableAssessmentRating.builder()
+                        .entityReference(mkRef(selector.kind(), key.v1))
+                        .assessmentDefinitionId(key.v2)
+                        .ratingId(target.v1)
+                        .lastUpdatedAt(lastUpdate.at())
+                        .lastUpdatedBy(lastUpdate.by())
+                        .provenance(PROVENANCE)
+                        .build();
+                changes.toAdd.add(rating);
+                changes.changeLogs.add(mkChangeLog(rating, transitionName, sideEffect, username, Operation.ADD));
+            } else if (existing.ratingId() != target.v1 && !existing.isReadOnly()) {
+                AssessmentRating rating = ImmutableAssessmentRating
+                        .copyOf(existing)
+                        .withRatingId(target.v1)
+                        .withLastUpdatedAt(lastUpdate.at())
+                        .withLastUpdatedBy(lastUpdate.by());
+                changes.toUpdate.add(rating);
+                changes.changeLogs.add(mkChangeLog(rating, transitionName, sideEffect, username, Operation.UPDATE));
+            }
+        });
+
+        return changes;
+    }
+
+
+    private void writeRatingChanges(RatingChanges changes) {
+        if (changes.toAdd.isEmpty() && changes.toUpdate.isEmpty()) {
+            return;
+        }
+
+        dsl.transaction(configuration -> {
+            DSLContext txDsl = DSL.using(configuration);
+            assessmentRatingDao.add(txDsl, changes.toAdd);
+            assessmentRatingDao.update(txDsl, changes.toUpdate);
+            changeLogService.write(txDsl, changes.changeLogs);
+        });
+    }
+
+
+    /**
+     * Resolves the (definition external id, rating external id) pairs used by the side effects
+     * to (definition id, rating id) pairs in a single query.
+     */
+    private Map<Tuple2<String, String>, Tuple2<Long, Long>> resolveAssessmentIds(GenericSelector selector,
+                                                                                 List<Tuple3<Long, String, AssessmentRatingUpdateSideEffect>> sideEffects) {
+        Set<String> defExtIds = sideEffects
+                .stream()
+                .map(t -> t.v3.assessmentDefinitionExternalId())
+                .collect(toSet());
+
+        Set<String> ratingExtIds = sideEffects
+                .stream()
+                .map(t -> t.v3.ratingSchemeItemExternalId())
+                .collect(toSet());
+
+        return dsl
+                .select(ad.ID, ad.EXTERNAL_ID, rsi.ID, rsi.EXTERNAL_ID)
+                .from(ad)
+                .innerJoin(rsi).on(rsi.SCHEME_ID.eq(ad.RATING_SCHEME_ID))
+                .where(ad.EXTERNAL_ID.in(defExtIds))
+                .and(ad.ENTITY_KIND.eq(selector.kind().name()))
+                .and(rsi.EXTERNAL_ID.in(ratingExtIds))
+                .fetch()
+                .stream()
+                .collect(toMap(
+                        r -> tuple(r.get(ad.EXTERNAL_ID), r.get(rsi.EXTERNAL_ID)),
+                        r -> tuple(r.get(ad.ID), r.get(rsi.ID)),
+                        (a, b) -> a));
+    }
+
+
+    private static ChangeLog mkChangeLog(AssessmentRating rating,
+                                         String transitionName,
+                                         AssessmentRatingUpdateSideEffect sideEffect,
+                                         String username,
+                                         Operation operation) {
+        return ImmutableChangeLog.builder()
+                .message(format(
+                        "Workflow transition [%s] set assessment [%s] to [%s]",
+                        transitionName,
+                        sideEffect.assessmentDefinitionExternalId(),
+                        sideEffect.ratingSchemeItemExternalId()))
+                .parentReference(rating.entityReference())
+                .userId(username)
+                .severity(Severity.INFORMATION)
+                .operation(operation)
+                .build();
+    }
+
+
+    private static class EntityOutcome {
+        private final Long entityId;
+        private final String transitionName;
+        private final List<AssessmentRatingUpdateSideEffect> sideEffects;
+        private final boolean failed;
+
+        private EntityOutcome(Long entityId,
+                              String transitionName,
+                              List<AssessmentRatingUpdateSideEffect> sideEffects,
+                              boolean failed) {
+            this.entityId = entityId;
+            this.transitionName = transitionName;
+            this.sideEffects = sideEffects;
+            this.failed = failed;
+        }
+    }
+
+
+    private static class RatingChanges {
+        private final Set<AssessmentRating> toAdd = new HashSet<>();
+        private final Set<AssessmentRating> toUpdate = new HashSet<>();
+        private final List<ChangeLog> changeLogs = new ArrayList<>();
+        private int unresolvedCount = 0;
+    }
+
+}
@@ -6,6 +6,7 @@ import org.immutables.value.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.function.Predicate;
 
 @Value.Immutable
@@ -17,6 +18,7 @@ public abstract class CompiledTransitionDefinition implements Predicate<MapConte
     public abstract JexlExpression predicate();
     public abstract String initialState();
     public abstract String targetState();
+    public abstract List<JexlExpression> sideEffects();
 
     public boolean test(MapContext ctx) {
         Object result = predicate().evaluate(ctx);
@@ -6,7 +6,10 @@ import org.immutables.value.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 import static java.lang.String.format;
+import static org.finos.waltz.common.ListUtilities.map;
 
 @Value.Immutable
 public abstract class TransitionDefinition {
@@ -18,6 +21,11 @@ public abstract class TransitionDefinition {
     public abstract String initialState();
     public abstract String targetState();
 
+    /**
+     * Expressions evaluated when the transition fires, e.g. <code>assessment:update('ARCH_REVIEW', 'YES')</code>
+     */
+    public abstract List<String> sideEffects();
+
 
     public CompiledTransitionDefinition compile(JexlEngine jexl) {
         try {
@@ -26,6 +34,7 @@ public abstract class TransitionDefinition {
             return ImmutableCompiledTransitionDefinition.builder()
                     .name(name())
                     .predicate(expression)
+                    .sideEffects(map(sideEffects(), jexl::createExpression))
                     .initialState(initialState())
                     .targetState(targetState())
                     .build();
@@ -0,0 +1,136 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.entity_search;
+
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.EntityLifecycleStatus;
+import org.finos.waltz.model.EntityReference;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+import static org.finos.waltz.common.ListUtilities.newArrayList;
+import static org.finos.waltz.model.EntityReference.mkRef;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntitySearchIndexTest {
+
+    private static final List<EntityLifecycleStatus> ACTIVE_ONLY = newArrayList(EntityLifecycleStatus.ACTIVE);
+
+
+    @Test
+    public void findsByContainedTermsRankedByRelevancy() {
+        EntitySearchIndex index = mkIndex();
+
+        assertEquals(
+                newArrayList("Trade Store", "Global Trade Store"),
+                names(index.search(EntityKind.APPLICATION, "trade", ACTIVE_ONLY, 10)));
+
+        assertEquals(
+                newArrayList("Global Trade Store"),
+                names(index.search(EntityKind.APPLICATION, "trade glob", ACTIVE_ONLY, 10)));
+    }
+
+
+    @Test
+    public void keysAreMatchedByPrefixAndRankedFirst() {
+        EntitySearchIndex index = mkIndex();
+
+        assertEquals(
+                newArrayList("Payments Hub"),
+                names(index.search(EntityKind.APPLICATION, "1234", ACTIVE_ONLY, 10)));
+
+        assertEquals(
+                newArrayList("Payments Hub", "Trade Store", "Global Trade Store"),
+                names(index.search(EntityKind.APPLICATION, "store", ACTIVE_ONLY, 10)));
+    }
+
+
+    @Test
+    public void aliasesAreSearchable() {
+        EntitySearchIndex index = mkIndex();
+        assertEquals(
+                newArrayList("Payments Hub"),
+                names(index.search(EntityKind.APPLICATION, "paymaster", ACTIVE_ONLY, 10)));
+    }
+
+
+    @Test
+    public void lifecycleStatusAndLimitAreRespected() {
+        EntitySearchIndex index = mkIndex();
+
+        assertTrue(index.search(EntityKind.APPLICATION, "legacy", ACTIVE_ONLY, 10).isEmpty());
+        assertEquals(1, index.search(EntityKind.APPLICATION, "legacy", newArrayList(EntityLifecycleStatus.REMOVED), 10).size());
+        assertEquals(1, index.search(EntityKind.APPLICATION, "trade", ACTIVE_ONLY, 1).size());
+    }
+
+
+    @Test
+    public void entriesCanBeUpdatedAndRemoved() {
+        EntitySearchIndex index = mkIndex();
+
+        index.put(new EntitySearchIndex.Entry(
+                mkRef(EntityKind.APPLICATION, 1L, "Equity Store"),
+                EntityLifecycleStatus.ACTIVE,
+                emptyList(),
+                emptyList()));
+
+        assertEquals(
+                newArrayList("Global Trade Store"),
+                names(index.search(EntityKind.APPLICATION, "trade", ACTIVE_ONLY, 10)));
+
+        index.remove(EntityKind.APPLICATION, 2L);
+        assertTrue(index.search(EntityKind.APPLICATION, "trade", ACTIVE_ONLY, 10).isEmpty());
+        assertEquals(3, index.size(EntityKind.APPLICATION));
+    }
+
+
+    @Test
+    public void kindsMustBeIndexedBeforeSearching() {
+        EntitySearchIndex index = mkIndex();
+        assertTrue(index.isIndexed(EntityKind.APPLICATION));
+        assertFalse(index.isIndexed(EntityKind.MEASURABLE));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> index.search(EntityKind.MEASURABLE, "trade", ACTIVE_ONLY, 10));
+    }
+
+
+    private static EntitySearchIndex mkIndex() {
+        EntitySearchIndex index = new EntitySearchIndex();
+        index.replaceAll(
+                EntityKind.APPLICATION,
+                newArrayList(
+                        new EntitySearchIndex.Entry(mkRef(EntityKind.APPLICATION, 1L, "Trade Store"), EntityLifecycleStatus.ACTIVE, newArrayList("111-1"), emptyList()),
+                        new EntitySearchIndex.Entry(mkRef(EntityKind.APPLICATION, 2L, "Global Trade Store"), EntityLifecycleStatus.ACTIVE, newArrayList("555-1"), emptyList()),
+                        new EntitySearchIndex.Entry(mkRef(EntityKind.APPLICATION, 3L, "Payments Hub"), EntityLifecycleStatus.ACTIVE, newArrayList("12345-1", "STORE-1"), newArrayList("PayMaster")),
+                        new EntitySearchIndex.Entry(mkRef(EntityKind.APPLICATION, 4L, "Legacy Ledger"), EntityLifecycleStatus.REMOVED, emptyList(), emptyList())));
+        return index;
+    }
+
+
+    private static List<String> names(List<EntityReference> refs) {
+        return refs
+                .stream()
+                .map(r -> r.name().orElse(null))
+                .collect(toList());
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.flow_classification_rule;
+
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.EntityReference;
+import org.finos.waltz.model.client_cache_key.ClientCacheKey;
+import org.finos.waltz.model.client_cache_key.ImmutableClientCacheKey;
+import org.finos.waltz.model.flow_classification_rule.FlowClassificationRuleVantagePoint;
+import org.finos.waltz.model.flow_classification_rule.ImmutableFlowClassificationRuleVantagePoint;
+import org.finos.waltz.model.rating.AuthoritativenessRatingValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlowClassificationRuleResolverCacheTest {
+
+    private final List<FlowClassificationRuleVantagePoint> vantagePoints = new CopyOnWriteArrayList<>();
+    private final AtomicInteger loadCount = new AtomicInteger();
+    private final AtomicInteger publishCount = new AtomicInteger();
+
+    private final FlowClassificationRuleResolverCache cache = new FlowClassificationRuleResolverCache(
+            () -> {
+                loadCount.incrementAndGet();
+                return new ArrayList<>(vantagePoints);
+            },
+            key -> null,
+            key -> {
+                publishCount.incrementAndGet();
+                return mkKey(key);
+            });
+
+
+    @AfterEach
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+
+    @Test
+    public void resolverIsOnlyBuiltOncePerVersion() {
+        FlowClassificationRuleResolver first = cache.getResolver();
+        FlowClassificationRuleResolver second = cache.getResolver();
+
+        assertSame(first, second);
+        assertEquals(1, loadCount.get());
+    }
+
+
+    @Test
+    public void currentResolverReflectsInvalidation() {
+        assertEquals(AuthoritativenessRatingValue.NO_OPINION, cache.getCurrentResolver().resolve(1L, 2L, 3L));
+        long versionBefore = cache.getVersion();
+
+        vantagePoints.add(mkVantagePoint(1L, 2L, 3L));
+        cache.invalidate();
+
+        assertEquals(versionBefore + 1, cache.getVersion());
+        assertEquals(AuthoritativenessRatingValue.of("PRIMARY"), cache.getCurrentResolver().resolve(1L, 2L, 3L));
+    }
+
+
+    @Test
+    public void staleResolverIsServedUntilBackgroundRebuildCompletes() throws InterruptedException {
+        FlowClassificationRuleResolver original = cache.getCurrentResolver();
+
+        vantagePoints.add(mkVantagePoint(1L, 2L, 3L));
+        cache.invalidate();
+
+        FlowClassificationRuleResolver resolver = cache.getResolver();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (resolver == original && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            resolver = cache.getResolver();
+        }
+
+        assertNotSame(original, resolver, "background rebuild should replace the stale resolver");
+        assertEquals(AuthoritativenessRatingValue.of("PRIMARY"), resolver.resolve(1L, 2L, 3L));
+        assertEquals(1, publishCount.get(), "invalidation should be published to other nodes once");
+    }
+
+
+    @Test
+    public void refreshDoesNotPublish() {
+        cache.getCurrentResolver();
+        cache.refresh();
+        cache.getCurrentResolver();
+
+        assertEquals(0, publishCount.get());
+    }
+
+
+    @Test
+    public void firstPollAfterBuildDoesNotRebuild() {
+        ClientCacheKey existingKey = mkKey(FlowClassificationRuleResolverCache.INVALIDATION_KEY);
+        FlowClassificationRuleResolverCache cacheWithKey = new FlowClassificationRuleResolverCache(
+                () -> {
+                    loadCount.incrementAndGet();
+                    return new ArrayList<>(vantagePoints);
+                },
+                key -> existingKey,
+                key -> mkKey(key));
+
+        try {
+            cacheWithKey.getCurrentResolver();
+            long versionBefore = cacheWithKey.getVersion();
+
+            cacheWithKey.pollForInvalidations();
+
+            assertEquals(versionBefore, cacheWithKey.getVersion(), "key seen when building should not trigger a rebuild");
+            assertEquals(1, loadCount.get());
+        } finally {
+            cacheWithKey.shutdown();
+        }
+    }
+
+
+    // --- helpers ---
+
+    private static FlowClassificationRuleVantagePoint mkVantagePoint(long ouId, long dtId, long appId) {
+        return ImmutableFlowClassificationRuleVantagePoint.builder()
+                .vantagePoint(EntityReference.mkRef(EntityKind.ORG_UNIT, ouId))
+                .vantagePointRank(1)
+                .dataType(EntityReference.mkRef(EntityKind.DATA_TYPE, dtId))
+                .dataTypeRank(1)
+                .applicationId(appId)
+                .classificationCode(AuthoritativenessRatingValue.of("PRIMARY").value())
+                .ruleId(1L)
+                .build();
+    }
+
+
+    private static ClientCacheKey mkKey(String key) {
+        return ImmutableClientCacheKey.builder()
+                .key(key)
+                .guid(key + "-guid")
+                .build();
+    }
+
+}
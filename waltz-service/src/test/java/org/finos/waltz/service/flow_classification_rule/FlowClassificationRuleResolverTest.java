@@ -142,6 +142,78 @@ public class FlowClassificationRuleResolverTest {
     }
 
 
+    @Test
+    public void idsBeyondIntRangeAreIndexed() {
+        // ids which differ from smallOuId / smallDtId only above bit 31, i.e. would collide if narrowed to an int
+        long smallOuId = 10L;
+        long smallDtId = 20L;
+        long bigOuId = (1L << 32) + smallOuId;
+        long bigDtId = (1L << 32) + smallDtId;
+        EntityReference bigOu = EntityReference.mkRef(EntityKind.ORG_UNIT, bigOuId);
+
+        List<FlowClassificationRuleVantagePoint> vantagePoints = new ArrayList<>();
+        vantagePoints.add(ImmutableFlowClassificationRuleVantagePoint.builder()
+                .vantagePoint(bigOu)
+                .vantagePointRank(1)
+                .dataType(EntityReference.mkRef(EntityKind.DATA_TYPE, bigDtId))
+                .dataTypeRank(1)
+                .applicationId(200L)
+                .classificationCode(AuthoritativenessRatingValue.of("PRIMARY").value())
+                .ruleId(1L)
+                .build());
+
+        // same low 32 bits as the big ids, must not collide with them
+        vantagePoints.add(ImmutableFlowClassificationRuleVantagePoint.builder()
+                .vantagePoint(EntityReference.mkRef(EntityKind.ORG_UNIT, smallOuId))
+                .vantagePointRank(1)
+                .dataType(EntityReference.mkRef(EntityKind.DATA_TYPE, smallDtId))
+                .dataTypeRank(1)
+                .applicationId(200L)
+                .classificationCode(AuthoritativenessRatingValue.of("SECONDARY").value())
+                .ruleId(2L)
+                .build());
+
+        FlowClassificationRuleResolver resolver = new FlowClassificationRuleResolver(vantagePoints);
+
+        assertEquals(2, resolver.size());
+        assertEquals(AuthoritativenessRatingValue.of("PRIMARY"), resolver.resolve(bigOu, sourceApp, bigDtId));
+        assertEquals(AuthoritativenessRatingValue.DISCOURAGED, resolver.resolve(bigOuId, bigDtId, 300L));
+        assertEquals(AuthoritativenessRatingValue.NO_OPINION, resolver.resolve(bigOuId, bigDtId + 1, 200L));
+        assertEquals(
+                AuthoritativenessRatingValue.of("SECONDARY"),
+                resolver.resolve(smallOuId, smallDtId, 200L));
+    }
+
+
+    @Test
+    public void lookupsAcrossManyKeysFindEachKey() {
+        List<FlowClassificationRuleVantagePoint> vantagePoints = new ArrayList<>();
+        for (long ou = 1; ou <= 20; ou++) {
+            for (long dt = 1; dt <= 20; dt++) {
+                vantagePoints.add(ImmutableFlowClassificationRuleVantagePoint.builder()
+                        .vantagePoint(EntityReference.mkRef(EntityKind.ORG_UNIT, ou))
+                        .vantagePointRank(1)
+                        .dataType(EntityReference.mkRef(EntityKind.DATA_TYPE, dt))
+                        .dataTypeRank(1)
+                        .applicationId(ou * 100 + dt)
+                        .classificationCode(AuthoritativenessRatingValue.of("PRIMARY").value())
+                        .ruleId(ou * 100 + dt)
+                        .build());
+            }
+        }
+
+        FlowClassificationRuleResolver resolver = new FlowClassificationRuleResolver(vantagePoints);
+
+        for (long ou = 1; ou <= 20; ou++) {
+            for (long dt = 1; dt <= 20; dt++) {
+                assertEquals(AuthoritativenessRatingValue.of("PRIMARY"), resolver.resolve(ou, dt, ou * 100 + dt));
+                assertEquals(AuthoritativenessRatingValue.DISCOURAGED, resolver.resolve(ou, dt, 1L));
+            }
+        }
+        assertEquals(AuthoritativenessRatingValue.NO_OPINION, resolver.resolve(21L, 1L, 2101L));
+    }
+
+
     @Test
     public void getBestRankedIsCorrect() {
 
@@ -0,0 +1,187 @@
+package org.finos.waltz.service.lineage;
+
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.EntityLifecycleStatus;
+import org.finos.waltz.model.EntityReference;
+import org.finos.waltz.model.lineage.FlowLineage;
+import org.finos.waltz.model.lineage.ImmutableLineageEdge;
+import org.finos.waltz.model.lineage.LineageDirection;
+import org.finos.waltz.model.lineage.LineageEdge;
+import org.finos.waltz.model.lineage.LineageNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+import static org.finos.waltz.common.ListUtilities.asList;
+import static org.finos.waltz.common.SetUtilities.asSet;
+import static org.finos.waltz.model.EntityReference.mkRef;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LineageGraphTest {
+
+    private static final EntityReference A = mkRef(EntityKind.APPLICATION, 1L);
+    private static final EntityReference B = mkRef(EntityKind.APPLICATION, 2L);
+    private static final EntityReference C = mkRef(EntityKind.APPLICATION, 3L);
+    private static final EntityReference D = mkRef(EntityKind.ACTOR, 3L);
+
+    private static final Set<EntityLifecycleStatus> ACTIVE_ONLY = asSet(EntityLifecycleStatus.ACTIVE);
+    private static final Set<Long> ALL_DATA_TYPES = Collections.emptySet();
+
+
+    @Test
+    public void traversesMultipleHopsInEitherDirection() {
+        // A -> B -> C -> D, note C and D share an id but differ by kind
+        LineageGraph graph = LineageGraph.build(asList(
+                mkEdge(10, A, B, 100L),
+                mkEdge(11, B, C, 100L),
+                mkEdge(12, C, D, 100L)));
+
+        FlowLineage downstream = graph.traverse(A, LineageDirection.DOWNSTREAM, 2, ALL_DATA_TYPES, ACTIVE_ONLY);
+        assertEquals(asSet(10L, 11L), flowIds(downstream));
+        Map<EntityReference, Integer> hops = hopsByNode(downstream);
+        assertEquals(0, hops.get(A));
+        assertEquals(1, hops.get(B));
+        assertEquals(2, hops.get(C));
+        assertEquals(3, hops.size(), "D is three hops away");
+
+        FlowLineage upstream = graph.traverse(D, LineageDirection.UPSTREAM, 5, ALL_DATA_TYPES, ACTIVE_ONLY);
+        assertEquals(asSet(10L, 11L, 12L), flowIds(upstream));
+        assertEquals(3, hopsByNode(upstream).get(A));
+    }
+
+
+    @Test
+    public void cyclesAreReportedButNotRevisited() {
+        LineageGraph graph = LineageGraph.build(asList(
+                mkEdge(10, A, B, 100L),
+                mkEdge(11, B, C, 100L),
+                mkEdge(12, C, A, 100L)));
+
+        FlowLineage lineage = graph.traverse(A, LineageDirection.DOWNSTREAM, 10, ALL_DATA_TYPES, ACTIVE_ONLY);
+        assertEquals(asSet(10L, 11L, 12L), flowIds(lineage));
+        assertEquals(3, lineage.nodes().size());
+        assertEquals(0, hopsByNode(lineage).get(A));
+    }
+
+
+    @Test
+    public void dataTypeAndLifecycleFiltersPruneTraversal() {
+        LineageGraph graph = LineageGraph.build(asList(
+                mkEdge(10, A, B, 100L, 200L),
+                mkEdge(11, B, C, 200L),
+                ImmutableLineageEdge.copyOf(mkEdge(12, A, D, 100L)).withLifecycleStatus(EntityLifecycleStatus.PENDING)));
+
+        FlowLineage only100 = graph.traverse(A, LineageDirection.DOWNSTREAM, 3, asSet(100L), ACTIVE_ONLY);
+        assertEquals(asSet(10L), flowIds(only100));
+
+        FlowLineage only200 = graph.traverse(A, LineageDirection.DOWNSTREAM, 3, asSet(200L), ACTIVE_ONLY);
+        assertEquals(asSet(10L, 11L), flowIds(only200));
+
+        FlowLineage withPending = graph.traverse(
+                A,
+                LineageDirection.DOWNSTREAM,
+                3,
+                ALL_DATA_TYPES,
+                asSet(EntityLifecycleStatus.ACTIVE, EntityLifecycleStatus.PENDING));
+        assertEquals(asSet(10L, 11L, 12L), flowIds(withPending));
+    }
+
+
+    @Test
+    public void changesProduceNewGraphWithoutAlteringOriginal() {
+        LineageGraph graph = LineageGraph.build(asList(
+                mkEdge(10, A, B, 100L),
+                mkEdge(11, B, C, 100L)));
+
+        LineageGraph updated = graph.withChanges(
+                asList(mkEdge(12, C, D, 100L)),
+                asSet(10L));
+
+        assertEquals(2, graph.edgeCount());
+        assertEquals(2, updated.edgeCount());
+        assertEquals(asSet(11L, 12L), flowIds(updated.traverse(B, LineageDirection.DOWNSTREAM, 3, ALL_DATA_TYPES, ACTIVE_ONLY)));
+        assertEquals(1, updated.traverse(A, LineageDirection.DOWNSTREAM, 3, ALL_DATA_TYPES, ACTIVE_ONLY).nodes().size());
+
+        LineageGraph removedByStatus = updated.withChanges(
+                asList(ImmutableLineageEdge.copyOf(mkEdge(11, B, C, 100L)).withLifecycleStatus(EntityLifecycleStatus.REMOVED)),
+                Collections.emptySet());
+        assertEquals(1, removedByStatus.edgeCount());
+    }
+
+
+    @Test
+    public void changesIntroducingNewNodesAreTraversed() {
+        EntityReference e = mkRef(EntityKind.APPLICATION, 5L);
+        LineageGraph graph = LineageGraph.build(asList(mkEdge(10, A, B, 100L)));
+
+        LineageGraph updated = graph
+                .withChanges(asList(mkEdge(11, B, e, 200L)), Collections.emptySet())
+                .withChanges(asList(mkEdge(10, A, C, 100L)), Collections.emptySet());
+
+        assertEquals(2, updated.edgeCount());
+        assertEquals(4, updated.nodeCount());
+        assertEquals(asSet(10L), flowIds(updated.traverse(A, LineageDirection.DOWNSTREAM, 3, ALL_DATA_TYPES, ACTIVE_ONLY)));
+        assertEquals(asSet(11L), flowIds(updated.traverse(e, LineageDirection.UPSTREAM, 3, asSet(200L), ACTIVE_ONLY)));
+        assertEquals(asSet(10L), flowIds(updated.traverse(C, LineageDirection.UPSTREAM, 3, ALL_DATA_TYPES, ACTIVE_ONLY)));
+    }
+
+
+    @Test
+    public void manyChangesAreCompactedWithoutLosingFlows() {
+        // a chain A(0) -> A(1) -> ... -> A(n) which is then rebuilt flow by flow, forcing compactions along the way
+        int n = 3_000;
+        List<LineageEdge> chain = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            chain.add(mkEdge(i, mkRef(EntityKind.APPLICATION, i), mkRef(EntityKind.APPLICATION, i + 1), 100L));
+        }
+
+        LineageGraph graph = LineageGraph.build(chain.subList(0, n / 2));
+        for (LineageEdge edge : chain) {
+            graph = graph.withChanges(asList(edge), Collections.emptySet());
+        }
+        graph = graph.withChanges(Collections.emptyList(), asSet(0L));
+
+        assertEquals(n - 1, graph.edgeCount());
+        FlowLineage lineage = graph.traverse(mkRef(EntityKind.APPLICATION, n), LineageDirection.UPSTREAM, n, ALL_DATA_TYPES, ACTIVE_ONLY);
+        assertEquals(n - 1, lineage.flows().size());
+        assertEquals(n - 1, hopsByNode(lineage).get(mkRef(EntityKind.APPLICATION, 1)));
+    }
+
+
+    // --- helpers ---
+
+    private static LineageEdge mkEdge(long flowId, EntityReference source, EntityReference target, Long... dataTypeIds) {
+        return ImmutableLineageEdge
+                .builder()
+                .flowId(flowId)
+                .source(source)
+                .target(target)
+                .lifecycleStatus(EntityLifecycleStatus.ACTIVE)
+                .dataTypeIds(asSet(dataTypeIds))
+                .build();
+    }
+
+
+    private static Set<Long> flowIds(FlowLineage lineage) {
+        return lineage
+                .flows()
+                .stream()
+                .map(f -> f.flowId())
+                .collect(toSet());
+    }
+
+
+    private static Map<EntityReference, Integer> hopsByNode(FlowLineage lineage) {
+        return lineage
+                .nodes()
+                .stream()
+                .collect(toMap(LineageNode::entityReference, LineageNode::hops));
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.service.sql_stats;
+
+import org.finos.waltz.model.sql_stats.SqlStatistic;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SqlStatisticsRegistryTest {
+
+    @Test
+    public void normalizeReplacesLiteralsAndCollapsesInLists() {
+        assertEquals(
+                "select * from application where id in (?...) and name = ? and kind = ?",
+                SqlStatisticsRegistry.normalize("select *\n  from application\n where id in (1, 2, 3) and name = 'it''s' and kind = ?"));
+    }
+
+
+    @Test
+    public void normalizeKeepsIdentifiersWithDigits() {
+        assertEquals(
+                "select t1.id from app t1 where t1.x = ?",
+                SqlStatisticsRegistry.normalize("select t1.id from app t1 where t1.x = 42"));
+    }
+
+
+    @Test
+    public void statementsDifferingOnlyByLiteralsAreGrouped() {
+        SqlStatisticsRegistry registry = new SqlStatisticsRegistry(10);
+        registry.record("select name from app where id = 1", "AppDao.getById", millis(5), 1, false);
+        registry.record("select name from app where id = 2", "AppDao.getById", millis(15), 1, false);
+        registry.record("select name from app where id = 3", "AppDao.getById", millis(10), 0, true);
+
+        List<SqlStatistic> stats = registry.findAll();
+        assertEquals(1, stats.size());
+
+        SqlStatistic stat = stats.get(0);
+        assertEquals(3, stat.executionCount());
+        assertEquals(1, stat.errorCount());
+        assertEquals(2, stat.rowsFetched());
+        assertEquals(30, stat.totalMillis(), 0.001);
+        assertEquals(15, stat.maxMillis(), 0.001);
+    }
+
+
+    @Test
+    public void shapesBeyondTheLimitAreGroupedAsOverflow() {
+        SqlStatisticsRegistry registry = new SqlStatisticsRegistry(1);
+        registry.record("select a from x", "XDao.a", millis(1), 0, false);
+        registry.record("select b from x", "XDao.b", millis(1), 0, false);
+        registry.record("select c from x", "XDao.c", millis(1), 0, false);
+
+        assertEquals(2, registry.shapeCount());
+        assertTrue(registry
+                .findAll()
+                .stream()
+                .anyMatch(s -> s.sqlShape().equals(SqlStatisticsRegistry.OVERFLOW_SHAPE) && s.executionCount() == 2));
+    }
+
+
+    @Test
+    public void percentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(1000, histogram.count());
+        assertEquals(1000, histogram.max());
+        assertWithin(500, histogram.percentile(0.5));
+        assertWithin(950, histogram.percentile(0.95));
+        assertWithin(990, histogram.percentile(0.99));
+    }
+
+
+    @Test
+    public void bucketBoundsAreConsistent() {
+        for (long v = 0; v < 100_000; v++) {
+            int bucket = LatencyHistogram.bucketFor(v);
+            assertTrue(LatencyHistogram.upperBoundOf(bucket) >= v);
+            assertTrue(bucket == 0 || LatencyHistogram.upperBoundOf(bucket - 1) < v);
+        }
+    }
+
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(
+                actual >= expected && actual <= expected * 1.25,
+                String.format("Expected %d to be within 25%% of %d", actual, expected));
+    }
+
+
+    private static long millis(long ms) {
+        return TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+
+}
@@ -0,0 +1,97 @@
+package org.finos.waltz.service.survey.inclusion_evaluator;
+
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.EntityReference;
+import org.finos.waltz.model.survey.ImmutableSurveyQuestion;
+import org.finos.waltz.model.survey.ImmutableSurveyQuestionResponse;
+import org.finos.waltz.model.survey.SurveyQuestion;
+import org.finos.waltz.model.survey.SurveyQuestionFieldType;
+import org.finos.waltz.model.survey.SurveyQuestionResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Collections.emptyMap;
+import static org.finos.waltz.common.ListUtilities.asList;
+import static org.finos.waltz.common.MapUtilities.newHashMap;
+import static org.finos.waltz.common.SetUtilities.asSet;
+import static org.finos.waltz.model.EntityReference.mkRef;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuestionPredicateEvaluatorTest {
+
+    private static final EntityReference APP_REF = mkRef(EntityKind.APPLICATION, 1L);
+
+    private final QuestionPredicateEvaluator evaluator = new QuestionPredicateEvaluator();
+
+
+    @Test
+    public void questionsWithoutPredicatesAreAlwaysIncluded() {
+        List<SurveyQuestion> qs = asList(mkQ(1L, "q1", null), mkQ(2L, "q2", ""));
+
+        assertFalse(QuestionPredicateEvaluator.hasPredicates(qs));
+        assertEquals(qs, evaluator.eval(qs, APP_REF, null, emptyMap()));
+    }
+
+
+    @Test
+    public void predicatesAreEvaluatedAgainstSubjectFacts() {
+        SubjectFacts facts = new SubjectFacts();
+        facts.setKind("IN_HOUSE");
+        facts.addOrgUnitNames(asSet("CIO", "ou-1"));
+        facts.addInvolvementKind("IT Architect");
+
+        SurveyQuestion kindQ = mkQ(1L, "kind", "isAppKind('IN_HOUSE')");
+        SurveyQuestion ouQ = mkQ(2L, "ou", "belongsToOrgUnit('ou-1')");
+        SurveyQuestion involvementQ = mkQ(3L, "inv", "hasInvolvement('it architect')");
+        SurveyQuestion otherKindQ = mkQ(4L, "other", "isAppKind('EXTERNAL')");
+
+        List<SurveyQuestion> qs = asList(kindQ, ouQ, involvementQ, otherKindQ);
+
+        assertTrue(QuestionPredicateEvaluator.hasPredicates(qs));
+        assertEquals(
+                asList(kindQ, ouQ, involvementQ),
+                evaluator.eval(qs, APP_REF, facts, emptyMap()));
+    }
+
+
+    @Test
+    public void compiledPredicatesAreReusedAcrossSubjects() {
+        SurveyQuestion checkQ = mkQ(1L, "check", null);
+        SurveyQuestion dependentQ = mkQ(2L, "dependent", "isChecked('check')");
+        SurveyQuestion dittoQ = mkQ(3L, "ditto", "ditto('dependent')");
+
+        List<SurveyQuestion> qs = asList(checkQ, dependentQ, dittoQ);
+
+        Map<Long, SurveyQuestionResponse> checked = newHashMap(1L, mkBooleanResponse(1L, true));
+        Map<Long, SurveyQuestionResponse> unchecked = newHashMap(1L, mkBooleanResponse(1L, false));
+
+        assertEquals(qs, evaluator.eval(qs, APP_REF, null, checked));
+        assertEquals(asList(checkQ), evaluator.eval(qs, mkRef(EntityKind.APPLICATION, 2L), null, unchecked));
+    }
+
+
+    // -- helpers
+
+    private static SurveyQuestion mkQ(Long id, String extId, String predicate) {
+        return ImmutableSurveyQuestion.builder()
+                .id(id)
+                .externalId(extId)
+                .surveyTemplateId(1L)
+                .questionText(extId)
+                .fieldType(SurveyQuestionFieldType.BOOLEAN)
+                .inclusionPredicate(Optional.ofNullable(predicate))
+                .build();
+    }
+
+
+    private static SurveyQuestionResponse mkBooleanResponse(Long questionId, boolean value) {
+        return ImmutableSurveyQuestionResponse.builder()
+                .questionId(questionId)
+                .booleanResponse(value)
+                .build();
+    }
+
+}
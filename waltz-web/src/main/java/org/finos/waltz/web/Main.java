@@ -24,6 +24,7 @@ import org.finos.waltz.service.settings.SettingsService;
 import org.finos.waltz.web.endpoints.Endpoint;
 import org.finos.waltz.web.endpoints.api.StaticResourcesEndpoint;
 import org.finos.waltz.web.endpoints.extracts.DataExtractor;
+import org.finos.waltz.web.endpoints.extracts.ExtractorUtilities;
 import org.finos.waltz.common.LoggingUtilities;
 import org.finos.waltz.common.exception.DuplicateKeyException;
 import org.finos.waltz.common.exception.InsufficientPrivelegeException;
@@ -108,6 +109,8 @@ public class Main {
         LoggingUtilities.configureLogging();
 
         ctx = new AnnotationConfigApplicationContext(DIConfiguration.class);
+        // ensures queued writes (access log etc.) are flushed when the jvm exits
+        ctx.registerShutdownHook();
 
         Map<String, Endpoint> endpoints = ctx.getBeansOfType(Endpoint.class);
         endpoints.forEach((name, endpoint) -> {
@@ -115,13 +118,26 @@ public class Main {
             endpoint.register();
         });
 
+        ExtractorUtilities.setMaxConcurrentStreams(ctx
+                .getEnvironment()
+                .getProperty(
+                        ExtractorUtilities.MAX_CONCURRENT_STREAMS_PROPERTY,
+                        Integer.class,
+                        ExtractorUtilities.DEFAULT_MAX_CONCURRENT_STREAMS));
+
         Map<String, DataExtractor> extractors = ctx.getBeansOfType(DataExtractor.class);
         extractors.forEach((name, extractor) -> {
             LOG.info("Registering Extractor: {}", name);
             extractor.register();
         });
 
-        new StaticResourcesEndpoint().register();
+        Long staticCacheMaxBytes = ctx
+                .getEnvironment()
+                .getProperty(
+                        StaticResourcesEndpoint.CACHE_MAX_BYTES_PROPERTY,
+                        Long.class,
+                        StaticResourcesEndpoint.DEFAULT_CACHE_MAX_BYTES);
+        new StaticResourcesEndpoint(staticCacheMaxBytes).register();
 
         LOG.info("Completed endpoint registration");
 
@@ -248,6 +264,8 @@ public class Main {
                 }
             }));
 
+            StreamingJsonWriter.setGzipEnabled(true);
+
             LOG.info("Enabled GZIP (size: " + minimumLength + ")");
 
         } else {
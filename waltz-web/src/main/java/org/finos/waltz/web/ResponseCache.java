@@ -0,0 +1,294 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.web;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
+import org.finos.waltz.model.changelog.ChangeLog;
+import org.finos.waltz.service.changelog.ChangeLogEvent;
+import org.finos.waltz.service.client_cache_key.ClientCacheKeyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import spark.Request;
+import spark.Route;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toSet;
+import static org.finos.waltz.common.Checks.checkNotNull;
+import static org.finos.waltz.common.StringUtilities.isEmpty;
+import static org.finos.waltz.web.WebUtilities.TYPE_JSON;
+
+/**
+ * Server side cache of rendered json responses for read-only routes whose results
+ * do not depend on the requesting user (e.g. measurables, data types, org units).
+ *
+ * Entries are keyed on the request (method, path, query string and body) together with
+ * the current guids of the client cache keys the route depends upon.  When one of those
+ * keys is updated (on any node, see {@link ClientCacheKeyService#getCachedGuid(String)})
+ * subsequent requests naturally miss and stale entries age out via the LRU eviction.
+ *
+ * Responses carry a strong ETag so clients revalidating with <code>If-None-Match</code>
+ * receive a 304 without the body being resent.
+ *
+ * When gzip is enabled (<code>server.gzip.enabled</code>) a compressed copy is cached
+ * alongside the body and served, with its own ETag, to clients which accept it.  The
+ * bytes are written directly to the response (as {@link StreamingJsonWriter} does) as
+ * spark only compresses String results.
+ */
+@Service
+public class ResponseCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResponseCache.class);
+
+    private static final ObjectWriter writer = WebUtilities.mkJsonMapper().writer();
+
+    private static class CachedResponse {
+        private final byte[] body;
+        private final byte[] gzippedBody;
+        private final String etag;
+        private final String gzipEtag;
+        private final long createdAt = System.currentTimeMillis();
+
+        private CachedResponse(byte[] body, byte[] gzippedBody) {
+            String hash = hash(body);
+            this.body = body;
+            this.gzippedBody = gzippedBody;
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "--gzip\"";
+        }
+
+        private int size() {
+            return body.length + (gzippedBody == null ? 0 : gzippedBody.length);
+        }
+    }
+
+
+    private final ClientCacheKeyService clientCacheKeyService;
+
+    // guarded by 'this'
+    private final LinkedHashMap<String, CachedResponse> responsesByKey = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+
+    // client cache keys which at least one cached route depends upon
+    private final Set<String> registeredKeys = ConcurrentHashMap.newKeySet();
+
+    @Value("${web.response.cache.max.bytes:33554432}")
+    private long maxBytes;
+
+    @Value("${web.response.cache.ttl.seconds:300}")
+    private long ttlSeconds;
+
+
+    @Autowired
+    public ResponseCache(ClientCacheKeyService clientCacheKeyService) {
+        checkNotNull(clientCacheKeyService, "clientCacheKeyService cannot be null");
+        this.clientCacheKeyService = clientCacheKeyService;
+    }
+
+
+    /**
+     * Wraps a route so its (json) result is served from the cache while the given
+     * client cache keys are unchanged.
+     *
+     * @param route - the underlying route, only invoked on a cache miss
+     * @param clientCacheKeys - keys which are updated whenever the data behind the route changes
+     * @return route which writes the json (or gzipped json) bytes of the response
+     */
+    public Route wrap(Route route, String... clientCacheKeys) {
+        checkNotNull(route, "route cannot be null");
+
+        List<String> keys = Arrays.asList(clientCacheKeys);
+        registeredKeys.addAll(keys);
+
+        return (request, response) -> {
+            response.type(TYPE_JSON);
+
+            if (ttlSeconds <= 0) {
+                StreamingJsonWriter.write(request, response, route.handle(request, response));
+                return ""; // response is already committed
+            }
+
+            String cacheKey = mkCacheKey(request, keys);
+            CachedResponse cached = get(cacheKey);
+
+            if (cached == null) {
+                byte[] body = writer.writeValueAsBytes(route.handle(request, response));
+                cached = new CachedResponse(
+                        body,
+                        StreamingJsonWriter.isGzipEnabled()
+                                ? StreamingJsonWriter.gzip(body)
+                                : null);
+                put(cacheKey, cached);
+            }
+
+            boolean gzip = cached.gzippedBody != null && StreamingJsonWriter.shouldGzip(request);
+            String etag = gzip ? cached.gzipEtag : cached.etag;
+
+            response.header(HttpHeader.ETAG.toString(), etag);
+            response.header(HttpHeader.CACHE_CONTROL.toString(), "no-cache");
+
+            if (isMatch(request.headers(HttpHeader.IF_NONE_MATCH.toString()), etag)) {
+                response.status(HttpStatus.NOT_MODIFIED_304);
+                return new byte[0];
+            }
+
+            StreamingJsonWriter.writeEncoded(
+                    response,
+                    gzip ? cached.gzippedBody : cached.body,
+                    gzip);
+            return ""; // response is already committed
+        };
+    }
+
+
+    /**
+     * Updates the client cache key, causing all routes which depend upon it (on every node)
+     * to recompute their responses.
+     */
+    public void invalidate(String clientCacheKey) {
+        checkNotNull(clientCacheKey, "clientCacheKey cannot be null");
+        clientCacheKeyService.createOrUpdate(clientCacheKey);
+    }
+
+
+    /**
+     * Changes logged against an entity kind used as a client cache key (e.g. <code>ORG_UNIT</code>)
+     * update that key.  Only the parent kind is considered as child kinds typically describe
+     * relationships (e.g. an application's measurable ratings) rather than the entity itself.
+     */
+    @EventListener
+    public void onChangeLog(ChangeLogEvent event) {
+        if (registeredKeys.isEmpty()) {
+            return;
+        }
+
+        event.changeLogs()
+                .stream()
+                .map(ChangeLog::parentReference)
+                .map(ref -> ref.kind().name())
+                .filter(registeredKeys::contains)
+                .collect(toSet())
+                .forEach(this::invalidate);
+    }
+
+
+    // --- helpers ---
+
+    private String mkCacheKey(Request request, List<String> clientCacheKeys) {
+        StringBuilder sb = new StringBuilder()
+                .append(request.requestMethod())
+                .append(' ')
+                .append(request.pathInfo());
+
+        if (! isEmpty(request.queryString())) {
+            sb.append('?').append(request.queryString());
+        }
+
+        byte[] body = request.bodyAsBytes();
+        if (body != null && body.length > 0) {
+            sb.append(" body:").append(hash(body));
+        }
+
+        for (String key : clientCacheKeys) {
+            sb.append(' ')
+                    .append(key)
+                    .append('=')
+                    .append(clientCacheKeyService.getCachedGuid(key));
+        }
+
+        return sb.toString();
+    }
+
+
+    private synchronized CachedResponse get(String cacheKey) {
+        CachedResponse cached = responsesByKey.get(cacheKey);
+        if (cached != null && System.currentTimeMillis() - cached.createdAt > TimeUnit.SECONDS.toMillis(ttlSeconds)) {
+            remove(cacheKey);
+            return null;
+        }
+        return cached;
+    }
+
+
+    private synchronized void put(String cacheKey, CachedResponse cached) {
+        if (cached.size() > maxBytes) {
+            LOG.debug("Not caching response for {}, size: {} exceeds cache size", cacheKey, cached.size());
+            return;
+        }
+
+        remove(cacheKey);
+        responsesByKey.put(cacheKey, cached);
+        totalBytes += cached.size();
+
+        Iterator<Map.Entry<String, CachedResponse>> eldest = responsesByKey.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().size();
+            eldest.remove();
+        }
+    }
+
+
+    private void remove(String cacheKey) {
+        CachedResponse removed = responsesByKey.remove(cacheKey);
+        if (removed != null) {
+            totalBytes -= removed.size();
+        }
+    }
+
+
+    private static boolean isMatch(String ifNoneMatch, String etag) {
+        if (isEmpty(ifNoneMatch)) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private static String hash(byte[] bytes) {
+        try {
+            return Base64
+                    .getUrlEncoder()
+                    .withoutPadding()
+                    .encodeToString(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+}
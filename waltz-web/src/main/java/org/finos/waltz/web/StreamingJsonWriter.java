@@ -0,0 +1,146 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.eclipse.jetty.http.HttpHeader;
+import spark.Request;
+import spark.Response;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.finos.waltz.common.StringUtilities.lower;
+import static org.finos.waltz.web.WebUtilities.TYPE_JSON;
+
+/**
+ * Serializes route results straight to the servlet output stream, rather than
+ * rendering them to an intermediate String as {@link WebUtilities#transformer}
+ * does.  Intended for routes which may return large payloads, see
+ * <code>EndpointUtilities.postForListStreamed</code> etc.
+ *
+ * If gzip has been enabled (<code>server.gzip.enabled</code>) and the client
+ * accepts it the output is compressed as it is written.
+ */
+public class StreamingJsonWriter {
+
+    private static final int GZIP_BUFFER_SIZE = 16 * 1024;
+
+    private static final ObjectWriter writer = WebUtilities
+            .mkJsonMapper()
+            .registerModule(new AfterburnerModule())
+            .writer()
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private static volatile boolean gzipEnabled = false;
+
+
+    public static void setGzipEnabled(boolean enabled) {
+        gzipEnabled = enabled;
+    }
+
+
+    /**
+     * Writes the value as json and commits the response.  Once this has been called
+     * nothing further should be written to the response.
+     */
+    public static void write(Request request,
+                             Response response,
+                             Object value) throws IOException {
+        boolean gzip = shouldGzip(request);
+        HttpServletResponse rawResponse = prepare(response, gzip);
+
+        writeTo(rawResponse.getOutputStream(), value, gzip);
+        rawResponse.flushBuffer();
+    }
+
+
+    /**
+     * Writes json which has already been serialized (and, if <code>gzipped</code>,
+     * compressed via {@link #gzip(byte[])}) and commits the response.
+     */
+    static void writeEncoded(Response response,
+                             byte[] body,
+                             boolean gzipped) throws IOException {
+        HttpServletResponse rawResponse = prepare(response, gzipped);
+        rawResponse.setContentLength(body.length);
+        rawResponse.getOutputStream().write(body);
+        rawResponse.flushBuffer();
+    }
+
+
+    static boolean isGzipEnabled() {
+        return gzipEnabled;
+    }
+
+
+    static boolean shouldGzip(Request request) {
+        return gzipEnabled && acceptsGzip(request);
+    }
+
+
+    static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        GZIPOutputStream gzipStream = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+        gzipStream.write(bytes);
+        gzipStream.finish();
+        return out.toByteArray();
+    }
+
+
+    /**
+     * Writes the value as json to the given stream, compressing it if <code>gzip</code>
+     * is set.  The stream is not closed.
+     */
+    public static void writeTo(OutputStream out,
+                               Object value,
+                               boolean gzip) throws IOException {
+        if (gzip) {
+            GZIPOutputStream gzipStream = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+            writer.writeValue(gzipStream, value);
+            gzipStream.finish();
+        } else {
+            writer.writeValue(out, value);
+        }
+    }
+
+
+    private static HttpServletResponse prepare(Response response, boolean gzip) {
+        HttpServletResponse rawResponse = response.raw();
+        rawResponse.setContentType(TYPE_JSON);
+
+        if (gzip) {
+            rawResponse.setHeader(HttpHeader.CONTENT_ENCODING.toString(), "gzip");
+            rawResponse.addHeader(HttpHeader.VARY.toString(), HttpHeader.ACCEPT_ENCODING.toString());
+        }
+        return rawResponse;
+    }
+
+
+    private static boolean acceptsGzip(Request request) {
+        String acceptEncoding = request.headers(HttpHeader.ACCEPT_ENCODING.toString());
+        return acceptEncoding != null && lower(acceptEncoding).contains("gzip");
+    }
+
+}
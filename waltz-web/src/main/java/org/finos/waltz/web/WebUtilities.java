@@ -64,13 +64,7 @@ public class WebUtilities {
     private static final ObjectMapper mapper;
 
     static {
-        mapper = new ObjectMapper();
-        mapper.registerModule(new JSR310Module()); // DateTime etc
-        mapper.registerModule(new Jdk8Module()); // Optional etc
-
-        // Force timestamps to be sent as ISO-8601 formatted strings
-        mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
-
+        mapper = mkJsonMapper();
         mimeTypes.addMimeMapping("ttf", "application/x-font-ttf");
     }
 
@@ -78,6 +72,21 @@ public class WebUtilities {
     public static final ResponseTransformer transformer = mapper::writeValueAsString;
 
 
+    /**
+     * Creates a mapper configured the way the Waltz api expects (ISO-8601 dates,
+     * Optional support etc).
+     */
+    static ObjectMapper mkJsonMapper() {
+        ObjectMapper jsonMapper = new ObjectMapper();
+        jsonMapper.registerModule(new JSR310Module()); // DateTime etc
+        jsonMapper.registerModule(new Jdk8Module()); // Optional etc
+
+        // Force timestamps to be sent as ISO-8601 formatted strings
+        jsonMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        return jsonMapper;
+    }
+
+
     /**
      * @see StringUtilities
      */
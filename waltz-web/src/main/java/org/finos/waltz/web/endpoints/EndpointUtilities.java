@@ -20,6 +20,8 @@ package org.finos.waltz.web.endpoints;
 
 import org.finos.waltz.web.DatumRoute;
 import org.finos.waltz.web.ListRoute;
+import org.finos.waltz.web.ResponseCache;
+import org.finos.waltz.web.StreamingJsonWriter;
 import org.finos.waltz.web.WebUtilities;
 import spark.*;
 
@@ -79,6 +81,54 @@ public class EndpointUtilities {
         Spark.put(path, wrapListHandler(handler), transformer);
     }
 
+    /**
+     * Variant of {@link #getForList(String, ListRoute)} which serializes the result
+     * directly to the response stream (see {@link StreamingJsonWriter}).  Use for
+     * routes which may return large lists.
+     * @param path
+     * @param handler
+     * @param <T>
+     */
+    public static <T> void getForListStreamed(String path, ListRoute<T> handler) {
+        Spark.get(path, wrapStreamingHandler(handler::apply));
+    }
+
+    public static <T> void postForListStreamed(String path, ListRoute<T> handler) {
+        Spark.post(path, wrapStreamingHandler(handler::apply));
+    }
+
+    public static <T> void getForDatumStreamed(String path, DatumRoute<T> handler) {
+        Spark.get(path, wrapStreamingHandler(handler::apply));
+    }
+
+    public static <T> void postForDatumStreamed(String path, DatumRoute<T> handler) {
+        Spark.post(path, wrapStreamingHandler(handler::apply));
+    }
+
+    /**
+     * Variant of {@link #getForList(String, ListRoute)} where the rendered response
+     * is held in the given cache until one of the client cache keys changes.  Only
+     * use for routes whose result does not depend on the requesting user.
+     * @param path
+     * @param handler
+     * @param cache
+     * @param clientCacheKeys - keys updated whenever the data behind the route changes
+     * @param <T>
+     */
+    public static <T> void getForListCached(String path,
+                                            ListRoute<T> handler,
+                                            ResponseCache cache,
+                                            String... clientCacheKeys) {
+        Spark.get(path, cache.wrap(handler::apply, clientCacheKeys));
+    }
+
+    public static <T> void postForListCached(String path,
+                                             ListRoute<T> handler,
+                                             ResponseCache cache,
+                                             String... clientCacheKeys) {
+        Spark.post(path, cache.wrap(handler::apply, clientCacheKeys));
+    }
+
     public static <T extends Exception> void addExceptionHandler(Class<T> exceptionClass, ExceptionHandler<T> handler) {
         Spark.exception(exceptionClass, handler);
 
@@ -108,4 +158,12 @@ public class EndpointUtilities {
         };
     }
 
+    private static Route wrapStreamingHandler(Route handler) {
+        return (request, response) -> {
+            Object result = handler.handle(request, response);
+            StreamingJsonWriter.write(request, response, result);
+            return ""; // response is already committed, spark will not write this
+        };
+    }
+
 }
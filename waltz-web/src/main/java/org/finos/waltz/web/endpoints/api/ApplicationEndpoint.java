@@ -32,6 +32,7 @@ import org.finos.waltz.model.application.AppRegistrationRequest;
 import org.finos.waltz.model.application.AppRegistrationResponse;
 import org.finos.waltz.model.application.Application;
 import org.finos.waltz.model.application.AssetCodeRelationshipKind;
+import org.finos.waltz.model.changelog.ChangeLog;
 import org.finos.waltz.model.changelog.ImmutableChangeLog;
 import org.finos.waltz.model.external_identifier.ExternalIdValue;
 import org.finos.waltz.model.tally.Tally;
@@ -43,6 +44,7 @@ import org.springframework.stereotype.Service;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.finos.waltz.web.WebUtilities.*;
 import static org.finos.waltz.web.endpoints.EndpointUtilities.*;
@@ -97,17 +99,18 @@ public class ApplicationEndpoint implements Endpoint {
                     .id(appId)
                     .build();
 
-            appChange.changes()
-                    .forEach(c -> {
-                        changeLogService.write(
-                                ImmutableChangeLog.builder()
-                                        .message(c.toDescription())
-                                        .severity(Severity.INFORMATION)
-                                        .userId(username)
-                                        .parentReference(ref)
-                                        .operation(Operation.UPDATE)
-                                        .build());
-                    });
+            List<ChangeLog> changeLogs = appChange.changes()
+                    .stream()
+                    .map(c -> (ChangeLog) ImmutableChangeLog.builder()
+                            .message(c.toDescription())
+                            .severity(Severity.INFORMATION)
+                            .userId(username)
+                            .parentReference(ref)
+                            .operation(Operation.UPDATE)
+                            .build())
+                    .collect(Collectors.toList());
+
+            changeLogService.write(changeLogs);
 
             appService.update(appChange.app());
             return true;
@@ -30,6 +30,7 @@ import org.finos.waltz.model.attestation.AttestationCreateSummary;
 import org.finos.waltz.model.attestation.AttestationRun;
 import org.finos.waltz.model.attestation.AttestationRunCreateCommand;
 import org.finos.waltz.model.attestation.AttestationRunResponseSummary;
+import org.finos.waltz.model.issuance.RunIssuanceProgress;
 import org.finos.waltz.model.user.SystemRole;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -67,6 +68,7 @@ public class AttestationRunEndpoint implements Endpoint {
         String findBySelectorPath = mkPath(BASE_URL, "selector");
         String findResponseSummariesPath = mkPath(BASE_URL, "summary", "response");
         String getCreateSummaryPath = mkPath(BASE_URL, "create-summary");
+        String getIssuanceProgressPath = mkPath(BASE_URL, "id", ":id", "issuance-progress");
 
 
         DatumRoute<AttestationRun> getByIdRoute = (req, res) ->
@@ -92,6 +94,11 @@ public class AttestationRunEndpoint implements Endpoint {
                 attestationRunService
                         .getCreateSummary(readCreateCommand(req));
 
+        DatumRoute<RunIssuanceProgress> getIssuanceProgressRoute = (req, res) ->
+                attestationRunService
+                        .getIssuanceProgress(getId(req))
+                        .orElse(null);
+
         DatumRoute<IdCommandResponse> attestationRunCreateRoute = (req, res) -> {
             if(!readCreateCommand(req).selectionOptions().entityReference().kind().equals(EntityKind.APPLICATION)) {
                 ensureUserHasAttestationAdminRights(req);
@@ -111,6 +118,7 @@ public class AttestationRunEndpoint implements Endpoint {
         postForList(findBySelectorPath, findBySelectorRoute);
         postForDatum(BASE_URL, attestationRunCreateRoute);
         postForDatum(getCreateSummaryPath, getCreateSummaryRoute);
+        getForDatum(getIssuanceProgressPath, getIssuanceProgressRoute);
     }
 
 
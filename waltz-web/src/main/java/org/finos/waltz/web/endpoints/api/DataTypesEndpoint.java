@@ -21,6 +21,7 @@ package org.finos.waltz.web.endpoints.api;
 import org.finos.waltz.service.data_type.DataTypeService;
 import org.finos.waltz.web.DatumRoute;
 import org.finos.waltz.web.ListRoute;
+import org.finos.waltz.web.ResponseCache;
 import org.finos.waltz.web.WebUtilities;
 import org.finos.waltz.web.endpoints.Endpoint;
 import org.finos.waltz.model.EntityKind;
@@ -42,11 +43,15 @@ public class DataTypesEndpoint implements Endpoint {
     private static final String BASE_URL = WebUtilities.mkPath("api", "data-types");
 
     private final DataTypeService service;
+    private final ResponseCache responseCache;
 
     @Autowired
-    public DataTypesEndpoint(DataTypeService service) {
+    public DataTypesEndpoint(DataTypeService service,
+                             ResponseCache responseCache) {
         checkNotNull(service, "service must not be null");
+        checkNotNull(responseCache, "responseCache must not be null");
         this.service = service;
+        this.responseCache = responseCache;
     }
 
 
@@ -66,7 +71,7 @@ public class DataTypesEndpoint implements Endpoint {
         DatumRoute<DataType> getDataTypeByCodeRoute = (request, response) ->
                 service.getDataTypeByCode(request.params("code"));
 
-        getForList(BASE_URL, (request, response) -> service.findAll());
+        getForListCached(BASE_URL, (request, response) -> service.findAll(), responseCache, "TAXONOMY", EntityKind.DATA_TYPE.name());
         postForList(searchPath, searchRoute);
         getForDatum(getDataTypeByIdPath, getDataTypeByIdRoute);
         getForDatum(getDataTypeByCodePath, getDataTypeByCodeRoute);
@@ -0,0 +1,69 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.web.endpoints.api;
+
+import org.finos.waltz.model.EntityReference;
+import org.finos.waltz.model.lineage.FlowLineage;
+import org.finos.waltz.model.lineage.LineageDirection;
+import org.finos.waltz.model.lineage.LineageOptions;
+import org.finos.waltz.service.lineage.FlowLineageService;
+import org.finos.waltz.web.DatumRoute;
+import org.finos.waltz.web.endpoints.Endpoint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import static org.finos.waltz.common.Checks.checkNotNull;
+import static org.finos.waltz.web.WebUtilities.*;
+import static org.finos.waltz.web.endpoints.EndpointUtilities.postForDatum;
+
+
+@Service
+public class FlowLineageEndpoint implements Endpoint {
+
+    private static final String BASE_URL = mkPath("api", "flow-lineage");
+
+    private final FlowLineageService flowLineageService;
+
+
+    @Autowired
+    public FlowLineageEndpoint(FlowLineageService flowLineageService) {
+        checkNotNull(flowLineageService, "flowLineageService cannot be null");
+        this.flowLineageService = flowLineageService;
+    }
+
+
+    @Override
+    public void register() {
+        String lineagePath = mkPath(BASE_URL, ":kind", ":id", ":direction");
+
+        DatumRoute<FlowLineage> lineageRoute = (request, response) -> {
+            EntityReference ref = getEntityReference(request);
+            LineageDirection direction = readEnum(
+                    request,
+                    "direction",
+                    LineageDirection.class,
+                    s -> LineageDirection.DOWNSTREAM);
+            LineageOptions options = readBody(request, LineageOptions.class);
+            return flowLineageService.getLineage(ref, direction, options);
+        };
+
+        postForDatum(lineagePath, lineageRoute);
+    }
+
+}
@@ -21,7 +21,9 @@ package org.finos.waltz.web.endpoints.api;
 import org.finos.waltz.service.measurable.MeasurableService;
 import org.finos.waltz.web.DatumRoute;
 import org.finos.waltz.web.ListRoute;
+import org.finos.waltz.web.ResponseCache;
 import org.finos.waltz.web.endpoints.Endpoint;
+import org.finos.waltz.model.EntityKind;
 import org.finos.waltz.model.measurable.Measurable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -36,11 +38,14 @@ public class MeasurableEndpoint implements Endpoint {
     private static final String BASE_URL = mkPath("api", "measurable");
 
     private final MeasurableService measurableService;
+    private final ResponseCache responseCache;
 
 
     @Autowired
-    public MeasurableEndpoint(MeasurableService measurableService) {
+    public MeasurableEndpoint(MeasurableService measurableService,
+                              ResponseCache responseCache) {
         this.measurableService = measurableService;
+        this.responseCache = responseCache;
     }
 
 
@@ -74,7 +79,7 @@ public class MeasurableEndpoint implements Endpoint {
                 -> measurableService.findByOrgUnitId(getId(request));
 
 
-        getForList(findAllPath, findAllRoute);
+        getForListCached(findAllPath, findAllRoute, responseCache, "TAXONOMY", EntityKind.MEASURABLE.name());
         getForList(findByExternalIdPath, findByExternalIdRoute);
         postForList(findByMeasurableIdSelectorPath, findByMeasurableIdSelectorRoute);
         getForDatum(getByIdPath, getByIdRoute);
@@ -23,7 +23,9 @@ import org.finos.waltz.service.orgunit.OrganisationalUnitService;
 import org.finos.waltz.service.user.UserRoleService;
 import org.finos.waltz.web.DatumRoute;
 import org.finos.waltz.web.ListRoute;
+import org.finos.waltz.web.ResponseCache;
 import org.finos.waltz.web.endpoints.Endpoint;
+import org.finos.waltz.model.EntityKind;
 import org.finos.waltz.model.orgunit.OrganisationalUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,19 +46,23 @@ public class OrganisationUnitEndpoint implements Endpoint {
     private final OrganisationalUnitService service;
     private final ChangeLogService changeLogService;
     private final UserRoleService userRoleService;
+    private final ResponseCache responseCache;
 
 
     @Autowired
     public OrganisationUnitEndpoint(OrganisationalUnitService service,
                                     ChangeLogService changeLogService,
-                                    UserRoleService userRoleService) {
+                                    UserRoleService userRoleService,
+                                    ResponseCache responseCache) {
         checkNotNull(service, "service must not be null");
         checkNotNull(changeLogService, "changeLogService must not be null");
         checkNotNull(userRoleService, "userRoleService must not be null");
+        checkNotNull(responseCache, "responseCache must not be null");
 
         this.service = service;
         this.changeLogService = changeLogService;
         this.userRoleService = userRoleService;
+        this.responseCache = responseCache;
     }
 
 
@@ -78,7 +84,7 @@ public class OrganisationUnitEndpoint implements Endpoint {
 
         DatumRoute<OrganisationalUnit> getByIdRoute = (request, response) -> service.getById(getId(request));
 
-        getForList(findAllPath, findAllRoute);
+        getForListCached(findAllPath, findAllRoute, responseCache, EntityKind.ORG_UNIT.name());
         getForList(searchPath, searchRoute);
         getForList(findDescendantsPath, findDescendantsRoute);
         postForList(findByIdsPath, findByIdsRoute);
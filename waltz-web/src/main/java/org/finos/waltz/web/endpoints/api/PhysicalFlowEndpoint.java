@@ -154,6 +154,17 @@ public class PhysicalFlowEndpoint implements Endpoint {
                 BASE_URL,
                 "upload");
 
+        String submitUploadPath = WebUtilities.mkPath(
+                BASE_URL,
+                "upload",
+                "submit");
+
+        String getUploadJobPath = WebUtilities.mkPath(
+                BASE_URL,
+                "upload",
+                "job",
+                ":jobId");
+
         String cleanupOrphansPath = WebUtilities.mkPath(BASE_URL, "cleanup-orphans");
 
 
@@ -208,6 +219,8 @@ public class PhysicalFlowEndpoint implements Endpoint {
         EndpointUtilities.postForDatum(updateAttributePath, this::updateAttribute);
         EndpointUtilities.postForDatum(validateUploadPath, this::validateUpload);
         EndpointUtilities.postForDatum(uploadPath, this::upload);
+        EndpointUtilities.postForDatum(submitUploadPath, this::submitUpload);
+        EndpointUtilities.getForDatum(getUploadJobPath, this::getUploadJob);
 
         EndpointUtilities.deleteForDatum(deletePath, this::deleteFlow);
         EndpointUtilities.getForDatum(cleanupOrphansPath, this::cleanupOrphansRoute);
@@ -298,6 +311,26 @@ public class PhysicalFlowEndpoint implements Endpoint {
     }
 
 
+    private PhysicalFlowUploadJob submitUpload(Request request, Response response) throws IOException {
+        WebUtilities.requireRole(userRoleService, request, SystemRole.LOGICAL_DATA_FLOW_EDITOR);
+        List<PhysicalFlowUploadCommand> commands = Arrays.asList(WebUtilities.readBody(request, PhysicalFlowUploadCommand[].class));
+        String username = WebUtilities.getUsername(request);
+
+        return physicalFlowUploadService.submitUpload(username, commands);
+    }
+
+
+    private PhysicalFlowUploadJob getUploadJob(Request request, Response response) {
+        WebUtilities.requireRole(userRoleService, request, SystemRole.LOGICAL_DATA_FLOW_EDITOR);
+        String username = WebUtilities.getUsername(request);
+
+        return physicalFlowUploadService
+                .getUploadJob(request.params("jobId"))
+                .filter(job -> job.userId().equals(username))
+                .orElse(null);
+    }
+
+
     private Integer cleanupOrphansRoute(Request request, Response response) throws IOException {
         WebUtilities.requireRole(userRoleService, request, SystemRole.ADMIN);
 
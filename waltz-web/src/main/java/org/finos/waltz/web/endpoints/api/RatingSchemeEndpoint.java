@@ -21,6 +21,7 @@ package org.finos.waltz.web.endpoints.api;
 import org.finos.waltz.service.rating_scheme.RatingSchemeService;
 import org.finos.waltz.service.user.UserRoleService;
 import org.finos.waltz.web.ListRoute;
+import org.finos.waltz.web.ResponseCache;
 import org.finos.waltz.web.endpoints.Endpoint;
 import org.finos.waltz.model.EntityReference;
 import org.finos.waltz.model.rating.RatingScheme;
@@ -42,17 +43,23 @@ import static org.finos.waltz.common.Checks.checkNotNull;
 public class RatingSchemeEndpoint implements Endpoint {
 
     private static final String BASE_URL = mkPath("api", "rating-scheme");
+    // rating schemes are not an entity kind, so edits here update this key explicitly
+    public static final String CACHE_KEY = "RATING_SCHEMES";
 
     private final RatingSchemeService ratingSchemeService;
     private final UserRoleService userRoleService;
+    private final ResponseCache responseCache;
 
 
     @Autowired
     public RatingSchemeEndpoint(RatingSchemeService ratingSchemeService,
-                                UserRoleService userRoleService) {
+                                UserRoleService userRoleService,
+                                ResponseCache responseCache) {
         checkNotNull(ratingSchemeService, "ratingSchemeService cannot be null");
+        checkNotNull(responseCache, "responseCache cannot be null");
         this.ratingSchemeService = ratingSchemeService;
         this.userRoleService = userRoleService;
+        this.responseCache = responseCache;
     }
 
 
@@ -77,7 +84,7 @@ public class RatingSchemeEndpoint implements Endpoint {
             return ratingSchemeService.findRatingSchemeItemsForEntityAndCategory(ref, categoryId);
         };
 
-        getForList(findAllPath, (req, resp) -> ratingSchemeService.findAll());
+        getForListCached(findAllPath, (req, resp) -> ratingSchemeService.findAll(), responseCache, CACHE_KEY);
         getForList(findRatingSchemeItemsForEntityAndCategoryPath, findRatingSchemeItemsForEntityAndCategoryRoute);
         getForList(findRatingSchemeItemsPath, (req, resp) -> ratingSchemeService.findRatingSchemeItemsByAssessmentDefinition(getId(req)));
         getForDatum(getByIdPath, (req, resp) -> ratingSchemeService.getById(getId(req)));
@@ -91,28 +98,36 @@ public class RatingSchemeEndpoint implements Endpoint {
 
     private Boolean removeRatingScheme(Request request, Response response) {
         ensureUserHasEditRights(request);
-        return ratingSchemeService.removeRatingScheme(getId(request));
+        Boolean result = ratingSchemeService.removeRatingScheme(getId(request));
+        responseCache.invalidate(CACHE_KEY);
+        return result;
     }
 
 
     private Boolean removeRatingItem(Request request, Response response) {
         ensureUserHasEditRights(request);
-        return ratingSchemeService.removeRatingItem(getId(request));
+        Boolean result = ratingSchemeService.removeRatingItem(getId(request));
+        responseCache.invalidate(CACHE_KEY);
+        return result;
     }
 
 
     private Long saveRatingItem(Request request, Response response) throws IOException {
         ensureUserHasEditRights(request);
         long schemeId = getId(request);
-        return ratingSchemeService.saveRatingItem(
+        Long result = ratingSchemeService.saveRatingItem(
                 schemeId,
                 readBody(request, RatingSchemeItem.class));
+        responseCache.invalidate(CACHE_KEY);
+        return result;
     }
 
 
     private Boolean saveScheme(Request request, Response response) throws IOException {
         ensureUserHasEditRights(request);
-        return ratingSchemeService.save(readBody(request, RatingScheme.class));
+        Boolean result = ratingSchemeService.save(readBody(request, RatingScheme.class));
+        responseCache.invalidate(CACHE_KEY);
+        return result;
     }
 
     private void ensureUserHasEditRights(Request request) {
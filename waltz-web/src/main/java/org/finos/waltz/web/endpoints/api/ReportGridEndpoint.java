@@ -62,7 +62,7 @@ public class ReportGridEndpoint implements Endpoint {
         getForDatum(findAllPath, (req, resp) -> reportGridService.findAll());
         getForList(findForUserPath, (req, resp) -> reportGridService.findForUser(getUsername(req)));
         getForList(findForOwnerPath, this::findForOwnerRoute);
-        postForDatum(getViewByIdPath, this::getViewByIdRoute);
+        postForDatumStreamed(getViewByIdPath, this::getViewByIdRoute);
         postForDatum(updateColumnDefsPath, this::updateColumnDefsRoute);
         postForDatum(createPath, this::createRoute);
         postForDatum(updatePath, this::updateRoute);
@@ -78,8 +78,8 @@ public class ReportGridEndpoint implements Endpoint {
     }
 
 
-    public ReportGrid getViewByIdRoute(Request req,
-                                                 Response resp) throws IOException {
+    public ColumnarReportGrid getViewByIdRoute(Request req,
+                                               Response resp) throws IOException {
         return reportGridService.getByIdAndSelectionOptions(
                 getId(req),
                 readIdSelectionOptionsFromBody(req))
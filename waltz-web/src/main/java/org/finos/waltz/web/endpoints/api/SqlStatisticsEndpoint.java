@@ -0,0 +1,79 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.web.endpoints.api;
+
+import org.finos.waltz.model.sql_stats.SqlStatistic;
+import org.finos.waltz.model.user.SystemRole;
+import org.finos.waltz.service.sql_stats.SqlStatisticsService;
+import org.finos.waltz.service.user.UserRoleService;
+import org.finos.waltz.web.DatumRoute;
+import org.finos.waltz.web.ListRoute;
+import org.finos.waltz.web.endpoints.Endpoint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import static org.finos.waltz.common.Checks.checkNotNull;
+import static org.finos.waltz.web.WebUtilities.*;
+import static org.finos.waltz.web.endpoints.EndpointUtilities.getForList;
+import static org.finos.waltz.web.endpoints.EndpointUtilities.postForDatum;
+
+
+@Service
+public class SqlStatisticsEndpoint implements Endpoint {
+
+    private static final String BASE_URL = mkPath("api", "sys", "sql-stats");
+
+    private final SqlStatisticsService sqlStatisticsService;
+    private final UserRoleService userRoleService;
+
+
+    @Autowired
+    public SqlStatisticsEndpoint(SqlStatisticsService sqlStatisticsService,
+                                 UserRoleService userRoleService) {
+        checkNotNull(sqlStatisticsService, "sqlStatisticsService cannot be null");
+        checkNotNull(userRoleService, "userRoleService cannot be null");
+
+        this.sqlStatisticsService = sqlStatisticsService;
+        this.userRoleService = userRoleService;
+    }
+
+
+    @Override
+    public void register() {
+        String findAllPath = mkPath(BASE_URL);
+        String resetPath = mkPath(BASE_URL, "reset");
+
+        ListRoute<SqlStatistic> findAllRoute = (request, response) -> {
+            requireRole(userRoleService, request, SystemRole.ADMIN);
+            return getLimit(request)
+                    .map(sqlStatisticsService::findTop)
+                    .orElseGet(sqlStatisticsService::findAll);
+        };
+
+        DatumRoute<Boolean> resetRoute = (request, response) -> {
+            requireRole(userRoleService, request, SystemRole.ADMIN);
+            sqlStatisticsService.reset();
+            return true;
+        };
+
+        getForList(findAllPath, findAllRoute);
+        postForDatum(resetPath, resetRoute);
+    }
+
+}
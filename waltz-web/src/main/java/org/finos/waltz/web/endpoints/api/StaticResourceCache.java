@@ -0,0 +1,271 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.web.endpoints.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.zip.GZIPOutputStream;
+
+import static org.finos.waltz.common.Checks.checkNotNull;
+import static org.finos.waltz.common.StringUtilities.isEmpty;
+
+/**
+ * Holds the bundled UI resources in memory, along with a pre-gzipped variant (where
+ * compression is worthwhile) and a strong ETag for each.  Resources are loaded on first
+ * request and retained up to the configured size cap (<code>web.static.cache.max.bytes</code>,
+ * default 64MB).  Once the cap is reached the least recently used resources are evicted to make
+ * room, so the resources actually in use stay cached.  Only a resource which is larger than the
+ * cap on its own is served without being retained.
+ */
+class StaticResourceCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StaticResourceCache.class);
+
+    static final String MAX_BYTES_PROPERTY = "web.static.cache.max.bytes";
+    static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final int MIN_COMPRESSIBLE_BYTES = 1024;
+    private static final double MIN_COMPRESSION_RATIO = 0.9;
+
+    // access ordered, so iteration starts with the least recently used entry. Guarded by 'this'
+    private final LinkedHashMap<String, CachedResource> resourcesByKey = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes = 0;
+    private final long maxBytes;
+
+
+    StaticResourceCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+
+    /**
+     * Returns the cached resource for the given key, using the loader to obtain its content
+     * if it has not been seen before.
+     *
+     * @param key - identifies the resource (and any request specific variation of it)
+     * @param mimeType - the content type the resource should be served as
+     * @param loader - provides the raw content, or null if the resource does not exist
+     * @return the resource or null if the loader could not find it
+     */
+    CachedResource get(String key,
+                       String mimeType,
+                       Callable<byte[]> loader) throws Exception {
+        checkNotNull(key, "key cannot be null");
+
+        synchronized (this) {
+            CachedResource existing = resourcesByKey.get(key);
+            if (existing != null) {
+                return existing;
+            }
+        }
+
+        // load outside the lock, a concurrent load of the same key is resolved below
+        byte[] content = loader.call();
+        if (content == null) {
+            return null;
+        }
+
+        CachedResource resource = CachedResource.mk(mimeType, content);
+
+        if (resource.size() > maxBytes) {
+            LOG.debug("Static resource {} ({} bytes) exceeds the cache size, serving without caching", key, resource.size());
+            return resource;
+        }
+
+        synchronized (this) {
+            CachedResource prior = resourcesByKey.putIfAbsent(key, resource);
+            if (prior != null) {
+                return prior;
+            }
+            cachedBytes += resource.size();
+            LOG.debug("Cached static resource: {} ({} bytes)", key, resource.size());
+            evictUntilWithinCap();
+        }
+
+        return resource;
+    }
+
+
+    synchronized long cachedBytes() {
+        return cachedBytes;
+    }
+
+
+    synchronized boolean contains(String key) {
+        return resourcesByKey.containsKey(key);
+    }
+
+
+    private void evictUntilWithinCap() {
+        Iterator<Map.Entry<String, CachedResource>> leastRecentlyUsed = resourcesByKey.entrySet().iterator();
+        while (cachedBytes > maxBytes && leastRecentlyUsed.hasNext()) {
+            Map.Entry<String, CachedResource> entry = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            cachedBytes -= entry.getValue().size();
+            LOG.debug("Evicted static resource: {} ({} bytes)", entry.getKey(), entry.getValue().size());
+        }
+    }
+
+
+    static class CachedResource {
+
+        private final String mimeType;
+        private final byte[] content;
+        private final byte[] gzippedContent;
+        private final String etag;
+        private final String gzippedEtag;
+
+
+        private CachedResource(String mimeType,
+                               byte[] content,
+                               byte[] gzippedContent,
+                               String etag,
+                               String gzippedEtag) {
+            this.mimeType = mimeType;
+            this.content = content;
+            this.gzippedContent = gzippedContent;
+            this.etag = etag;
+            this.gzippedEtag = gzippedEtag;
+        }
+
+
+        static CachedResource mk(String mimeType, byte[] content) throws IOException {
+            String hash = hash(content);
+            byte[] gzipped = gzipIfWorthwhile(content);
+
+            return new CachedResource(
+                    mimeType,
+                    content,
+                    gzipped,
+                    "\"" + hash + "\"",
+                    "\"" + hash + "-gz\"");
+        }
+
+
+        String mimeType() {
+            return mimeType;
+        }
+
+
+        boolean hasGzippedContent() {
+            return gzippedContent != null;
+        }
+
+
+        /**
+         * @return a fresh read-only view over the content, callers may consume it freely
+         */
+        ByteBuffer content(boolean gzipped) {
+            return ByteBuffer
+                    .wrap(bytes(gzipped))
+                    .asReadOnlyBuffer();
+        }
+
+
+        /**
+         * @return the shared backing array, callers must not modify it
+         */
+        byte[] bytes(boolean gzipped) {
+            return gzipped
+                    ? gzippedContent
+                    : content;
+        }
+
+
+        String etag(boolean gzipped) {
+            return gzipped
+                    ? gzippedEtag
+                    : etag;
+        }
+
+
+        /**
+         * Checks an If-None-Match header against either representation of this resource.
+         * As per RFC 7232 the comparison is weak, so a <code>W/</code> prefix is ignored.
+         */
+        boolean isMatchedBy(String ifNoneMatch) {
+            if (isEmpty(ifNoneMatch)) {
+                return false;
+            }
+
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag) || tag.equals(gzippedEtag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+
+        private int size() {
+            return content.length + (gzippedContent == null ? 0 : gzippedContent.length);
+        }
+
+
+        private static String hash(byte[] content) {
+            try {
+                byte[] digest = MessageDigest
+                        .getInstance("SHA-256")
+                        .digest(content);
+                return Base64
+                        .getUrlEncoder()
+                        .withoutPadding()
+                        .encodeToString(digest);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+
+
+        /**
+         * Already compressed formats (images, fonts etc) do not shrink much, so only keep
+         * the gzipped variant if it offers a real saving.
+         */
+        private static byte[] gzipIfWorthwhile(byte[] content) throws IOException {
+            if (content.length < MIN_COMPRESSIBLE_BYTES) {
+                return null;
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length / 2);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+                gzip.write(content);
+            }
+
+            return bytes.size() < content.length * MIN_COMPRESSION_RATIO
+                    ? bytes.toByteArray()
+                    : null;
+        }
+    }
+
+}
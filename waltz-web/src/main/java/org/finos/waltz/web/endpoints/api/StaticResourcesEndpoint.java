@@ -19,20 +19,26 @@
 package org.finos.waltz.web.endpoints.api;
 
 import org.finos.waltz.web.endpoints.Endpoint;
+import org.finos.waltz.web.endpoints.api.StaticResourceCache.CachedResource;
 import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.server.HttpOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import spark.Request;
 import spark.Response;
 import spark.Spark;
 
+import javax.servlet.http.HttpServletResponse;
 import java.io.*;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 import static org.finos.waltz.web.WebUtilities.getMimeType;
-import static java.lang.String.format;
 import static org.finos.waltz.common.IOUtilities.copyStream;
 import static org.finos.waltz.common.IOUtilities.readLines;
 import static org.finos.waltz.common.StringUtilities.lower;
@@ -42,11 +48,37 @@ public class StaticResourcesEndpoint implements Endpoint {
 
     private static final Logger LOG = LoggerFactory.getLogger(StaticResourcesEndpoint.class);
     private static final String CACHE_MAX_AGE_VALUE = "max-age=" + TimeUnit.DAYS.toSeconds(30);
+    private static final int MAX_RESOLVED_PATHS = 10_000;
+
+    public static final String CACHE_MAX_BYTES_PROPERTY = StaticResourceCache.MAX_BYTES_PROPERTY;
+    public static final long DEFAULT_CACHE_MAX_BYTES = StaticResourceCache.DEFAULT_MAX_BYTES;
+
+
+    private static final boolean JETTY_OUTPUT_AVAILABLE = isClassAvailable("org.eclipse.jetty.server.HttpOutput");
 
 
     private final ClassLoader classLoader = StaticResourcesEndpoint.class
             .getClassLoader();
 
+    private final StaticResourceCache cache;
+
+    // resolving a path against the classpath is relatively costly, so remember the outcome per request path
+    private final ConcurrentMap<String, String> resolvedPathsByRequestPath = new ConcurrentHashMap<>();
+
+
+    public StaticResourcesEndpoint() {
+        this(DEFAULT_CACHE_MAX_BYTES);
+    }
+
+
+    /**
+     * @param maxCacheBytes  cap on the size of resources held in memory
+     *                       (<code>web.static.cache.max.bytes</code>)
+     */
+    public StaticResourcesEndpoint(long maxCacheBytes) {
+        this.cache = new StaticResourceCache(maxCacheBytes);
+    }
+
 
     @Override
     public void register() {
@@ -60,28 +92,38 @@ public class StaticResourcesEndpoint implements Endpoint {
                 return null;
             }
 
-            try (
-                InputStream resourceAsStream = classLoader.getResourceAsStream(resolvedPath)
-            ) {
-                if (resourceAsStream == null) {
+            try {
+                CachedResource resource = cache.get(
+                        mkCacheKey(request, resolvedPath),
+                        getMimeType(resolvedPath),
+                        () -> loadContent(request, resolvedPath));
+
+                if (resource == null) {
                     return null;
                 } else {
-                    String message = format(
-                            "Serving %s in response to request for %s",
-                            resolvedPath,
-                            request.pathInfo());
-                    LOG.info(message);
+                    LOG.debug("Serving {} in response to request for {}", resolvedPath, request.pathInfo());
 
-                    response.type(getMimeType(resolvedPath));
+                    boolean gzipped = resource.hasGzippedContent() && acceptsGzip(request);
 
+                    response.type(resource.mimeType());
+                    response.header(HttpHeader.ETAG.toString(), resource.etag(gzipped));
+                    response.header(HttpHeader.VARY.toString(), HttpHeader.ACCEPT_ENCODING.toString());
                     addCacheHeadersIfNeeded(response, resolvedPath);
-                    InputStream modifiedStream = modifyIndexBaseTagIfNeeded(request, resolvedPath, resourceAsStream);
 
-                    OutputStream out = response
-                            .raw()
-                            .getOutputStream();
-                    copyStream(modifiedStream, out);
-                    out.flush();
+                    HttpServletResponse rawResponse = response.raw();
+
+                    if (resource.isMatchedBy(request.headers(HttpHeader.IF_NONE_MATCH.toString()))) {
+                        rawResponse.setStatus(HttpStatus.NOT_MODIFIED_304);
+                        rawResponse.flushBuffer();
+                        return new Object(); // indicate we have handled the request
+                    }
+
+                    if (gzipped) {
+                        response.header(HttpHeader.CONTENT_ENCODING.toString(), "gzip");
+                    }
+
+                    rawResponse.setContentLength(resource.bytes(gzipped).length);
+                    write(rawResponse.getOutputStream(), resource, gzipped);
 
                     return new Object(); // indicate we have handled the request
                 }
@@ -93,6 +135,64 @@ public class StaticResourcesEndpoint implements Endpoint {
     }
 
 
+    /**
+     * index.html is rewritten based on the context path (see
+     * <code>modifyIndexBaseTagIfNeeded</code>) so the context path forms part of the key.
+     */
+    private String mkCacheKey(Request request, String resolvedPath) {
+        return request.contextPath() + "/" + resolvedPath;
+    }
+
+
+    private byte[] loadContent(Request request, String resolvedPath) throws IOException {
+        try (
+            InputStream resourceAsStream = classLoader.getResourceAsStream(resolvedPath)
+        ) {
+            if (resourceAsStream == null) {
+                return null;
+            }
+
+            InputStream modifiedStream = modifyIndexBaseTagIfNeeded(request, resolvedPath, resourceAsStream);
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            copyStream(modifiedStream, content);
+            return content.toByteArray();
+        }
+    }
+
+
+    private boolean acceptsGzip(Request request) {
+        String acceptEncoding = request.headers(HttpHeader.ACCEPT_ENCODING.toString());
+        return acceptEncoding != null && lower(acceptEncoding).contains("gzip");
+    }
+
+
+    /**
+     * When running on Jetty a read-only buffer is handed straight to the connector,
+     * avoiding the copy into the servlet output buffer.  Other containers get a single
+     * write of the backing array.
+     */
+    private static void write(OutputStream out,
+                              CachedResource resource,
+                              boolean gzipped) throws IOException {
+        if (JETTY_OUTPUT_AVAILABLE && JettyOutput.isJettyOutput(out)) {
+            JettyOutput.send(out, resource.content(gzipped));
+        } else {
+            out.write(resource.bytes(gzipped));
+            out.flush();
+        }
+    }
+
+
+    private static boolean isClassAvailable(String className) {
+        try {
+            Class.forName(className, false, StaticResourcesEndpoint.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+
     /**
      * We want to add a cache-control: max-age value to all resources except html.
      * This is because the html resources have references to 'cache-busted' js files
@@ -163,8 +263,23 @@ public class StaticResourcesEndpoint implements Endpoint {
 
 
     private String resolvePath(Request request) {
+        String pathInfo = request.pathInfo();
+        String resolved = resolvedPathsByRequestPath.get(pathInfo);
+        if (resolved == null) {
+            resolved = resolvePath(pathInfo);
+            if (resolvedPathsByRequestPath.size() >= MAX_RESOLVED_PATHS) {
+                // unknown paths resolve to index.html, don't let arbitrary requests grow the map unbounded
+                resolvedPathsByRequestPath.clear();
+            }
+            resolvedPathsByRequestPath.put(pathInfo, resolved);
+        }
+        return resolved;
+    }
+
+
+    private String resolvePath(String pathInfo) {
         final String indexPath = "static/index.html";
-        String path = request.pathInfo().replaceFirst("/", "");
+        String path = pathInfo.replaceFirst("/", "");
         String resourcePath = path.length() > 0 ? ("static/" + path) : indexPath;
 
         URL resource = classLoader.getResource(resourcePath);
@@ -184,4 +299,21 @@ public class StaticResourcesEndpoint implements Endpoint {
                 : resourcePath;
     }
 
+
+
+    /**
+     * Kept separate so Jetty classes are only loaded when Jetty is the container.
+     */
+    private static class JettyOutput {
+
+        private static boolean isJettyOutput(OutputStream out) {
+            return out instanceof HttpOutput;
+        }
+
+
+        private static void send(OutputStream out, ByteBuffer content) throws IOException {
+            ((HttpOutput) out).sendContent(content);
+        }
+    }
+
 }
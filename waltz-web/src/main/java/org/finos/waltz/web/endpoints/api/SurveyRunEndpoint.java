@@ -25,6 +25,7 @@ import org.finos.waltz.web.ListRoute;
 import org.finos.waltz.web.endpoints.Endpoint;
 import org.finos.waltz.model.DateChangeCommand;
 import org.finos.waltz.model.IdCommandResponse;
+import org.finos.waltz.model.issuance.RunIssuanceProgress;
 import org.finos.waltz.model.survey.*;
 import org.finos.waltz.model.user.SystemRole;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -75,6 +76,7 @@ public class SurveyRunEndpoint implements Endpoint {
         String updateSurveyRunApprovalDueDatePath = mkPath(BASE_URL, ":id", "approval-due-date");
         String updateOwningRolePath = mkPath(BASE_URL, ":id", "role");
         String getSurveyRunCompletionRate = mkPath(BASE_URL, ":id", "completion-rate");
+        String getIssuanceProgressPath = mkPath(BASE_URL, ":id", "issuance-progress");
 
         DatumRoute<SurveyRun> getByIdRoute = (req, res) ->
                 surveyRunService.getById(getId(req));
@@ -178,6 +180,9 @@ public class SurveyRunEndpoint implements Endpoint {
         DatumRoute<SurveyRunCompletionRate> getSurveyRunCompletionRateRoute = (request, response)
                 -> surveyRunService.getCompletionRate(getId(request));
 
+        DatumRoute<RunIssuanceProgress> getIssuanceProgressRoute = (request, response)
+                -> surveyRunService.getIssuanceProgress(getId(request)).orElse(null);
+
         getForDatum(getByIdPath, getByIdRoute);
         getForList(findByTemplateIdPath, findByTemplateIdRoute);
         getForList(findByEntityRefPath, findByEntityRoute);
@@ -194,6 +199,7 @@ public class SurveyRunEndpoint implements Endpoint {
         putForDatum(updateSurveyRunApprovalDueDatePath, surveyRunUpdateApprovalDueDateRoute);
         putForDatum(updateOwningRolePath, surveyRunUpdateOwningRolesRoute);
         getForDatum(getSurveyRunCompletionRate, getSurveyRunCompletionRateRoute);
+        getForDatum(getIssuanceProgressPath, getIssuanceProgressRoute);
     }
 
 
@@ -65,7 +65,7 @@ public class UserAgentInfoEndpoint implements Endpoint {
             return userAgentInfoService.findLoginsForUser(userName, limit);
         });
 
-        DatumRoute<Integer> recordLoginRoute = (request, response) -> {
+        DatumRoute<Boolean> recordLoginRoute = (request, response) -> {
             BrowserInfo browserInfo = WebUtilities.readBody(request, BrowserInfo.class);
             UserAgentInfo userAgentInfo = ImmutableUserAgentInfo.builder()
                     .userName(WebUtilities.getUsername(request))
@@ -76,7 +76,8 @@ public class UserAgentInfoEndpoint implements Endpoint {
                     .ipAddress(request.ip())
                     .build();
 
-            return userAgentInfoService.save(userAgentInfo);
+            userAgentInfoService.save(userAgentInfo);
+            return true;
         };
 
         EndpointUtilities.getForList(findForUserPath, findForUserRoute);
@@ -24,65 +24,135 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.xssf.streaming.SXSSFSheet;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.finos.waltz.web.endpoints.extracts.ExtractorUtilities.ExtractRowConsumer;
 import org.jooq.lambda.tuple.Tuple3;
 import org.springframework.stereotype.Service;
 import org.supercsv.io.CsvListWriter;
 import org.supercsv.prefs.CsvPreference;
+import spark.Response;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.finos.waltz.common.ListUtilities.map;
-import static org.finos.waltz.web.endpoints.extracts.ExtractorUtilities.convertExcelToByteArray;
+import static org.finos.waltz.web.endpoints.extracts.ExtractorUtilities.logExtractStats;
 import static org.finos.waltz.web.endpoints.extracts.ExtractorUtilities.sanitizeSheetName;
-import static org.jooq.lambda.fi.util.function.CheckedConsumer.unchecked;
 import static org.jooq.lambda.tuple.Tuple.tuple;
 
 
 @Service
 public abstract class CustomDataExtractor implements DataExtractor {
 
+    /**
+     * Supplies report rows, one at a time, to the given consumer.
+     * Implementations typically read from a lazy cursor (see
+     * <code>ExtractorUtilities.forEachRecord</code>) and return the number of rows supplied.
+     */
+    @FunctionalInterface
+    public interface ReportRowSource {
+        long writeRows(ExtractRowConsumer<List<Object>> rowConsumer) throws IOException;
+    }
+
+
+    /**
+     * Streams the report rows directly to the response in the requested format.
+     */
+    public Object writeReport(Response response,
+                              ExtractFormat format,
+                              String reportName,
+                              List<String> headers,
+                              ReportRowSource rowSource) throws IOException {
+        long start = System.currentTimeMillis();
+        return writeStreamedReportResults(
+                response,
+                format,
+                reportName,
+                out -> {
+                    long rowCount = writeReport(format, reportName, headers, rowSource, out);
+                    logExtractStats(reportName, format, rowCount, start);
+                });
+    }
+
+
     public Tuple3<ExtractFormat, String, byte[]> formatReport(ExtractFormat format,
                                                                String reportName,
                                                                List<List<Object>> reportRows,
                                                                List<String> headers) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeReport(
+                format,
+                reportName,
+                headers,
+                rowConsumer -> {
+                    for (List<Object> row : reportRows) {
+                        rowConsumer.accept(row);
+                    }
+                    return reportRows.size();
+                },
+                out);
+        return tuple(format, reportName, out.toByteArray());
+    }
+
+
+    private long writeReport(ExtractFormat format,
+                             String reportName,
+                             List<String> headers,
+                             ReportRowSource rowSource,
+                             OutputStream out) throws IOException {
         switch (format) {
             case XLSX:
-                return tuple(format, reportName, mkExcelReport(reportName, reportRows, headers));
+                return writeExcelReport(reportName, rowSource, headers, out);
             case CSV:
-                return tuple(format, reportName, mkCSVReport(reportRows, headers));
+                return writeCSVReport(rowSource, headers, out);
             default:
                 throw new UnsupportedOperationException("This report does not support export format: " + format);
         }
     }
 
-    private byte[] mkCSVReport(List<List<Object>> reportRows, List<String> headers) throws IOException {
-        StringWriter writer = new StringWriter();
-        CsvListWriter csvWriter = new CsvListWriter(writer, CsvPreference.EXCEL_PREFERENCE);
+
+    private long writeCSVReport(ReportRowSource rowSource,
+                                List<String> headers,
+                                OutputStream out) throws IOException {
+        CsvListWriter csvWriter = new CsvListWriter(
+                new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)),
+                CsvPreference.EXCEL_PREFERENCE);
 
         csvWriter.write(headers);
-        reportRows.forEach(unchecked(row -> csvWriter.write(simplify(row))));
+        long rowCount = rowSource.writeRows(row -> csvWriter.write(simplify(row)));
         csvWriter.flush();
 
-        return writer.toString().getBytes();
+        return rowCount;
     }
 
 
-    private byte[] mkExcelReport(String reportName, List<List<Object>> reportRows, List<String> headers) throws IOException {
+    private long writeExcelReport(String reportName,
+                                  ReportRowSource rowSource,
+                                  List<String> headers,
+                                  OutputStream out) throws IOException {
         SXSSFWorkbook workbook = new SXSSFWorkbook(2000);
-        SXSSFSheet sheet = workbook.createSheet(sanitizeSheetName(reportName));
+        try {
+            SXSSFSheet sheet = workbook.createSheet(sanitizeSheetName(reportName));
 
-        int colCount = writeExcelHeader(sheet, headers);
-        writeExcelBody(reportRows, sheet);
+            int colCount = writeExcelHeader(sheet, headers);
+            long rowCount = writeExcelBody(rowSource, sheet);
 
-        sheet.setAutoFilter(new CellRangeAddress(0, 0, 0, colCount));
-        sheet.createFreezePane(0, 1);
+            sheet.setAutoFilter(new CellRangeAddress(0, 0, 0, colCount));
+            sheet.createFreezePane(0, 1);
 
-        return convertExcelToByteArray(workbook);
+            workbook.write(out);
+            return rowCount;
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
     }
 
 
@@ -100,9 +170,9 @@ public abstract class CustomDataExtractor implements DataExtractor {
         cell.setCellValue(text);
     }
 
-    private int writeExcelBody(List<List<Object>> reportRows, SXSSFSheet sheet) {
+    private long writeExcelBody(ReportRowSource rowSource, SXSSFSheet sheet) throws IOException {
         AtomicInteger rowNum = new AtomicInteger(1);
-        reportRows.forEach(values -> {
+        return rowSource.writeRows(values -> {
             Row row = sheet.createRow(rowNum.getAndIncrement());
             AtomicInteger colNum = new AtomicInteger(0);
             for (Object value : values) {
@@ -124,7 +194,6 @@ public abstract class CustomDataExtractor implements DataExtractor {
 
             }
         });
-        return rowNum.get();
     }
 
     private List<Object> simplify(List<Object> row) {
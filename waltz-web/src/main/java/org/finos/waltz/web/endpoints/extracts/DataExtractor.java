@@ -7,6 +7,7 @@ import spark.Response;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStream;
 
 import static org.finos.waltz.common.EnumUtilities.readEnum;
 
@@ -36,11 +37,48 @@ public interface DataExtractor {
 
 
     default Object writeReportResults(Response response, Tuple3<ExtractFormat, String, byte[]> reportResult) throws IOException {
-        String templateName = reportResult.v2;
+        HttpServletResponse httpResponse = response.raw();
+        setReportHeaders(response, reportResult.v1, reportResult.v2);
+
+        byte[] bytes = reportResult.v3;
+        httpResponse.setContentLength(bytes.length);
+        httpResponse.getOutputStream().write(bytes);
+        httpResponse.getOutputStream().flush();
+        httpResponse.getOutputStream().close();
+        return httpResponse;
+    }
+
+
+    /**
+     * Streams the report directly to the response output stream.  No content length
+     * is set so the container will use chunked transfer encoding, allowing the
+     * first bytes to be sent before the full report has been generated.
+     *
+     * @param response  web response
+     * @param format  format of the report, used to determine the response headers
+     * @param reportName  name of the report, used as the suggested filename
+     * @param writer  writes the report body to the given output stream
+     * @return the raw http response
+     */
+    default Object writeStreamedReportResults(Response response,
+                                              ExtractFormat format,
+                                              String reportName,
+                                              ExtractStreamWriter writer) throws IOException {
+        HttpServletResponse httpResponse = response.raw();
+        setReportHeaders(response, format, reportName);
 
+        OutputStream out = httpResponse.getOutputStream();
+        writer.write(out);
+        out.flush();
+        out.close();
+        return httpResponse;
+    }
+
+
+    default void setReportHeaders(Response response, ExtractFormat format, String templateName) {
         HttpServletResponse httpResponse = response.raw();
 
-        switch (reportResult.v1) {
+        switch (format) {
             case CSV:
                 response.type(MimeTypes.Type.TEXT_PLAIN.name());
                 response.header("Content-disposition", "attachment; filename=" + templateName + ".csv");
@@ -56,13 +94,6 @@ public interface DataExtractor {
             default:
                 break;
         }
-
-        byte[] bytes = reportResult.v3;
-        httpResponse.setContentLength(bytes.length);
-        httpResponse.getOutputStream().write(bytes);
-        httpResponse.getOutputStream().flush();
-        httpResponse.getOutputStream().close();
-        return httpResponse;
     }
 
 
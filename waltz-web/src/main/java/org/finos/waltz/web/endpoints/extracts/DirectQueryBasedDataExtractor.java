@@ -24,9 +24,8 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.xssf.streaming.SXSSFSheet;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
-import org.eclipse.jetty.http.MimeTypes;
 import org.jooq.DSLContext;
-import org.jooq.Result;
+import org.jooq.ResultQuery;
 import org.jooq.Select;
 import org.jooq.lambda.Unchecked;
 import org.jooq.lambda.tuple.Tuple2;
@@ -34,14 +33,30 @@ import spark.Request;
 import spark.Response;
 
 import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.finos.waltz.common.Checks.checkNotNull;
 import static org.finos.waltz.common.FunctionUtilities.time;
+import static org.finos.waltz.web.endpoints.extracts.ExtractorUtilities.forEachRecord;
+import static org.finos.waltz.web.endpoints.extracts.ExtractorUtilities.logExtractStats;
+import static org.finos.waltz.web.endpoints.extracts.ExtractorUtilities.writeCsv;
 
 
+/**
+ * Base class for extracts which are the direct output of a query.
+ *
+ * Rows are read via a lazy cursor and written straight to the response
+ * output stream, so memory use is bounded regardless of the extract size.
+ * Blocking writes to the response stream mean the query is only read as
+ * fast as the client can consume the output.
+ */
 public abstract class DirectQueryBasedDataExtractor implements DataExtractor {
 
     protected DSLContext dsl;
@@ -60,7 +75,7 @@ public abstract class DirectQueryBasedDataExtractor implements DataExtractor {
         ExtractFormat format = parseExtractFormat(request);
         switch (format) {
             case XLSX:
-                return writeAsExcel(suggestedFilenameStem, qry, response);
+                return writeAsExcel(dsl, suggestedFilenameStem, qry, response);
             case CSV:
                 return writeAsCSV(suggestedFilenameStem, qry, response);
             default:
@@ -74,13 +89,19 @@ public abstract class DirectQueryBasedDataExtractor implements DataExtractor {
                                                 String suggestedFilenameStem,
                                                 Response response,
                                                 Tuple2<String, Select<?>>... sheetDefinitions) {
+        long start = System.currentTimeMillis();
         SXSSFWorkbook workbook = new SXSSFWorkbook(2000);
+        long rowCount = 0;
 
         for (Tuple2<String, Select<?>> sheetDef : sheetDefinitions) {
-            time("preparing excel sheet: " + sheetDef.v1, () -> {
+            rowCount += time("preparing excel sheet: " + sheetDef.v1, () -> {
                 SXSSFSheet sheet = workbook.createSheet(ExtractorUtilities.sanitizeSheetName(sheetDef.v1));
                 writeExcelHeader(sheetDef.v2, sheet);
-                time("writing body", () -> writeExcelBody(sheetDef.v2, sheet, dsl));
+                long sheetRowCount = time("writing body", () -> writeExcelBody(
+                        dsl,
+                        dsl.resultQuery(dsl.renderInlined(sheetDef.v2)),
+                        sheetDef.v2.fields().length,
+                        sheet));
 
                 int endFilterColumnIndex = sheetDef.v2.fields().length == 0
                         ? 0
@@ -88,24 +109,30 @@ public abstract class DirectQueryBasedDataExtractor implements DataExtractor {
 
                 sheet.setAutoFilter(new CellRangeAddress(0, 0, 0, endFilterColumnIndex));
                 sheet.createFreezePane(0, 1);
+                return sheetRowCount;
             });
         }
 
-        return time("writing excel", Unchecked.supplier(() -> writeExcelToResponse(
+        Object result = time("writing excel", Unchecked.supplier(() -> writeExcelToResponse(
                 suggestedFilenameStem,
                 response,
                 workbook)));
+
+        logExtractStats(suggestedFilenameStem, ExtractFormat.XLSX, rowCount, start);
+        return result;
     }
 
 
-    private static Object writeAsExcel(String suggestedFilenameStem,
+    private static Object writeAsExcel(DSLContext dsl,
+                                       String suggestedFilenameStem,
                                        Select<?> qry,
                                        Response response) throws IOException {
+        long start = System.currentTimeMillis();
         SXSSFWorkbook workbook = new SXSSFWorkbook(2000);
         SXSSFSheet sheet = workbook.createSheet(ExtractorUtilities.sanitizeSheetName(suggestedFilenameStem));
 
         writeExcelHeader(qry, sheet);
-        writeExcelBody(qry, sheet, null);
+        long rowCount = writeExcelBody(dsl, qry, qry.fields().length, sheet);
 
         int endFilterColumnIndex = qry.fields().length == 0
                 ? 0
@@ -114,61 +141,79 @@ public abstract class DirectQueryBasedDataExtractor implements DataExtractor {
         sheet.setAutoFilter(new CellRangeAddress(0, 0, 0, endFilterColumnIndex));
         sheet.createFreezePane(0, 1);
 
-        return writeExcelToResponse(suggestedFilenameStem, response, workbook);
+        HttpServletResponse httpResponse = writeExcelToResponse(suggestedFilenameStem, response, workbook);
+        logExtractStats(suggestedFilenameStem, ExtractFormat.XLSX, rowCount, start);
+        return httpResponse;
     }
 
 
+    /**
+     * Writes the workbook directly to the response.  As an xlsx file is a zip
+     * this can only happen once all rows have been added, however rows outside
+     * the workbook window have already been flushed to a temporary file.
+     */
     private static HttpServletResponse writeExcelToResponse(String suggestedFilenameStem,
                                                             Response response,
                                                             SXSSFWorkbook workbook) throws IOException {
-        byte[] bytes = ExtractorUtilities.convertExcelToByteArray(workbook);
-
         HttpServletResponse httpResponse = response.raw();
 
         httpResponse.setHeader("Content-Type", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
         httpResponse.setHeader("Content-Disposition", "attachment; filename=" + suggestedFilenameStem + ".xlsx");
         httpResponse.setHeader("Content-Transfer-Encoding", "7bit");
 
-        httpResponse.setContentLength(bytes.length);
-        httpResponse.getOutputStream().write(bytes);
-        httpResponse.getOutputStream().flush();
-        httpResponse.getOutputStream().close();
+        try {
+            OutputStream out = httpResponse.getOutputStream();
+            workbook.write(out);
+            out.flush();
+            out.close();
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
 
         return httpResponse;
     }
 
 
+    /**
+     * Writes the results as csv, in the same format as jOOQ's <code>formatCSV</code>,
+     * straight to the response stream.
+     */
     private Object writeAsCSV(String suggestedFilenameStem,
                               Select<?> qry,
-                              Response response) {
-        String csv = qry.fetch().formatCSV();
-        response.type(MimeTypes.Type.TEXT_PLAIN.name());
-        response.header("Content-disposition", "attachment; filename=" + suggestedFilenameStem + ".csv");
-        return csv;
+                              Response response) throws IOException {
+        long start = System.currentTimeMillis();
+
+        return writeStreamedReportResults(
+                response,
+                ExtractFormat.CSV,
+                suggestedFilenameStem,
+                out -> {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                    long rowCount = writeCsv(dsl, qry, writer);
+                    writer.flush();
+
+                    logExtractStats(suggestedFilenameStem, ExtractFormat.CSV, rowCount, start);
+                });
     }
 
 
-    private static void writeExcelBody(Select<?> qry,
-                                       SXSSFSheet sheet,
-                                       DSLContext dsl) {
+    private static long writeExcelBody(DSLContext dsl,
+                                       ResultQuery<?> qry,
+                                       int colCount,
+                                       SXSSFSheet sheet) {
         AtomicInteger rowCounter = new AtomicInteger(1);
-        Result<?> records = dsl == null
-                ? qry.fetch()
-                : time("fetch", () -> dsl.fetch(dsl.renderInlined(qry)));
-
-        time("record chomper", () -> {
-            int colCount = qry.fields().length;
-            records.forEach(r -> {
-                int rowNum = rowCounter.getAndIncrement();
-                Row row = sheet.createRow(rowNum);
-                for (int col = 0; col < colCount; col++) {
-                    Cell cell = row.createCell(col);
-                    Object val = r.get(col);
-                    if (val != null) {
-                        cell.setCellValue(val.toString());
-                    }
+
+        return forEachRecord(dsl, qry, r -> {
+            int rowNum = rowCounter.getAndIncrement();
+            Row row = sheet.createRow(rowNum);
+            for (int col = 0; col < colCount; col++) {
+                Cell cell = row.createCell(col);
+                Object val = r.get(col);
+                if (val != null) {
+                    cell.setCellValue(val.toString());
                 }
-            });
+            }
         });
     }
 
@@ -0,0 +1,16 @@
+
+package org.finos.waltz.web.endpoints.extracts;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes an extract directly to an output stream (typically the
+ * servlet response) rather than returning the complete payload.
+ */
+@FunctionalInterface
+public interface ExtractStreamWriter {
+
+    void write(OutputStream out) throws IOException;
+
+}
@@ -2,17 +2,191 @@ package org.finos.waltz.web.endpoints.extracts;
 
 
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.jooq.Cursor;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.ResultQuery;
+import org.jooq.impl.DefaultConnectionProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import spark.Request;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+import static org.finos.waltz.common.Checks.checkTrue;
 import static org.finos.waltz.common.EnumUtilities.readEnum;
 import static org.finos.waltz.common.StringUtilities.mkSafe;
 
 
 public class ExtractorUtilities {
 
+    private static final Logger LOG = LoggerFactory.getLogger(ExtractorUtilities.class);
+
+    /**
+     * Number of rows the jdbc driver should fetch per round trip when streaming extracts
+     */
+    public static final int EXTRACT_FETCH_SIZE = 2_000;
+
+    public static final String MAX_CONCURRENT_STREAMS_PROPERTY = "web.extract.streaming.max.concurrent";
+    public static final int DEFAULT_MAX_CONCURRENT_STREAMS = 4;
+
+    /**
+     * How long an extract will wait for one of the streaming slots before failing
+     */
+    private static final long STREAM_PERMIT_WAIT_SECONDS = 30;
+
+    private static volatile Semaphore streamPermits = new Semaphore(DEFAULT_MAX_CONCURRENT_STREAMS, true);
+
+
+    @FunctionalInterface
+    public interface ExtractRowConsumer<T> {
+        void accept(T row) throws IOException;
+    }
+
+
+    @FunctionalInterface
+    private interface CursorReader<R extends Record> {
+        long read(Cursor<R> cursor) throws IOException;
+    }
+
+
+    /**
+     * Limits how many extracts may be streamed at once.  Each streamed extract
+     * holds a database connection until the client has read the whole download,
+     * so this bounds how much of the connection pool slow downloads can take.
+     */
+    public static void setMaxConcurrentStreams(int maxConcurrentStreams) {
+        checkTrue(maxConcurrentStreams > 0, "maxConcurrentStreams must be positive");
+        streamPermits = new Semaphore(maxConcurrentStreams, true);
+    }
+
+
+    /**
+     * Executes the query using a lazy cursor, passing each record to the consumer
+     * as it is read.  At most <code>EXTRACT_FETCH_SIZE</code> records are held in
+     * memory at any time.
+     *
+     * See {@link #withCursor(DSLContext, ResultQuery, CursorReader)} for how the
+     * connection is used whilst the records are consumed.
+     *
+     * @param dsl  context used to execute the query
+     * @param qry  query to execute
+     * @param consumer  called with each record, typically writing to the response
+     * @return number of records consumed
+     */
+    public static <R extends Record> long forEachRecord(DSLContext dsl,
+                                                        ResultQuery<R> qry,
+                                                        ExtractRowConsumer<? super R> consumer) {
+        return withCursor(dsl, qry, cursor -> {
+            long count = 0;
+            for (R record : cursor) {
+                consumer.accept(record);
+                count++;
+            }
+            return count;
+        });
+    }
+
+
+    /**
+     * Writes the query results as csv, reading <code>EXTRACT_FETCH_SIZE</code>
+     * records at a time.  Each chunk is rendered by jOOQ's <code>formatCSV</code>
+     * (only the first with a header row) so the output is identical to calling
+     * <code>qry.fetch().formatCSV()</code> on the whole result.
+     *
+     * @return number of records written
+     */
+    public static long writeCsv(DSLContext dsl,
+                                ResultQuery<?> qry,
+                                Writer writer) {
+        return withCursor(dsl, qry, cursor -> {
+            long count = 0;
+            boolean first = true;
+            while (first || cursor.hasNext()) {
+                Result<?> chunk = cursor.fetchNext(EXTRACT_FETCH_SIZE);
+                chunk.formatCSV(writer, first);
+                count += chunk.size();
+                first = false;
+            }
+            return count;
+        });
+    }
+
+
+    /**
+     * Opens a lazy cursor over the query and hands it to the reader.
+     *
+     * The cursor is read on its own connection, marked read-only with
+     * auto-commit disabled, as some drivers (e.g. Postgres) will only honour the
+     * fetch size when auto-commit is off.  The connection is held until the reader
+     * completes, which for a download is when the client has received the last
+     * chunk, therefore the number of concurrent streams is capped (see
+     * {@link #setMaxConcurrentStreams(int)}) and callers wait at most
+     * <code>STREAM_PERMIT_WAIT_SECONDS</code> for a slot.
+     */
+    private static <R extends Record> long withCursor(DSLContext dsl,
+                                                      ResultQuery<R> qry,
+                                                      CursorReader<R> reader) {
+        Semaphore permits = streamPermits;
+        acquire(permits);
+        try {
+            return dsl.connectionResult(conn -> {
+                boolean wasAutoCommit = conn.getAutoCommit();
+                boolean wasReadOnly = conn.isReadOnly();
+                conn.setReadOnly(true);
+                conn.setAutoCommit(false);
+                try (Cursor<R> cursor = dsl
+                        .configuration()
+                        .derive(new DefaultConnectionProvider(conn))
+                        .dsl()
+                        .fetchLazy(qry.fetchSize(EXTRACT_FETCH_SIZE))) {
+                    return reader.read(cursor);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    conn.rollback();  // nothing to commit, ends the read-only transaction
+                    conn.setAutoCommit(wasAutoCommit);
+                    conn.setReadOnly(wasReadOnly);
+                }
+            });
+        } finally {
+            permits.release();
+        }
+    }
+
+
+    private static void acquire(Semaphore permits) {
+        try {
+            if (! permits.tryAcquire(STREAM_PERMIT_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Too many extracts are currently being downloaded, please try again shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted whilst waiting to start extract", e);
+        }
+    }
+
+
+    public static void logExtractStats(String extractName,
+                                       ExtractFormat format,
+                                       long rowCount,
+                                       long startTime) {
+        long elapsed = System.currentTimeMillis() - startTime;
+        LOG.info(
+                "Extract [{}] ({}): wrote {} rows in {}ms ({} rows/sec)",
+                extractName,
+                format,
+                rowCount,
+                elapsed,
+                elapsed == 0 ? rowCount : rowCount * 1000 / elapsed);
+    }
+
 
     public static byte[] convertExcelToByteArray(SXSSFWorkbook workbook) throws IOException {
         ByteArrayOutputStream outByteStream = new ByteArrayOutputStream();
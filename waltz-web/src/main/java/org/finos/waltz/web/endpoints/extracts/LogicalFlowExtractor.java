@@ -26,9 +26,9 @@ import org.finos.waltz.model.IdSelectionOptions;
 import org.finos.waltz.web.WebUtilities;
 import org.jooq.*;
 import org.jooq.impl.DSL;
-import org.jooq.lambda.tuple.Tuple3;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import spark.Response;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -39,11 +39,11 @@ import static org.finos.waltz.schema.Tables.*;
 import static org.finos.waltz.schema.tables.Application.APPLICATION;
 import static org.finos.waltz.schema.tables.LogicalFlow.LOGICAL_FLOW;
 import static org.finos.waltz.schema.tables.OrganisationalUnit.ORGANISATIONAL_UNIT;
-import static java.util.stream.Collectors.toList;
 import static org.finos.waltz.common.ListUtilities.isEmpty;
 import static org.finos.waltz.common.ListUtilities.newArrayList;
 import static org.finos.waltz.data.InlineSelectFieldFactory.mkNameField;
 import static org.finos.waltz.model.EntityLifecycleStatus.REMOVED;
+import static org.finos.waltz.web.endpoints.extracts.ExtractorUtilities.forEachRecord;
 import static spark.Spark.post;
 
 
@@ -86,13 +86,12 @@ public class LogicalFlowExtractor extends CustomDataExtractor {
         post(WebUtilities.mkPath("data-extract", "logical-flows"), (request, response) -> {
             IdSelectionOptions options = WebUtilities.readIdSelectionOptionsFromBody(request);
 
-            return writeReportResults(
+            return writeFlows(
                     response,
-                    prepareFlows(
-                            prepareQuery(dsl, options),
-                            parseExtractFormat(request),
-                            "logical-flows",
-                            getTagsMap()));
+                    prepareQuery(dsl, options),
+                    parseExtractFormat(request),
+                    "logical-flows",
+                    getTagsMap());
         });
     }
 
@@ -180,39 +179,35 @@ public class LogicalFlowExtractor extends CustomDataExtractor {
                         .or(targetFlowId.isNotNull()));
     }
 
-    private Tuple3<ExtractFormat, String, byte[]> prepareFlows(SelectConditionStep<Record> query,
-                                                               ExtractFormat format,
-                                                               String reportName,
-                                                               Map<Long, List<String>> tags) throws IOException {
+    private Object writeFlows(Response response,
+                              SelectConditionStep<Record> query,
+                              ExtractFormat format,
+                              String reportName,
+                              Map<Long, List<String>> tags) throws IOException {
 
-        List<List<Object>> reportRows = prepareReportRows(query, tags);
-        return formatReport(
+        return writeReport(
+                response,
                 format,
                 reportName,
-                reportRows,
-                ListUtilities.append(staticHeaders, "Tags")
-        );
+                ListUtilities.append(staticHeaders, "Tags"),
+                rowConsumer -> forEachRecord(
+                        dsl,
+                        query,
+                        row -> rowConsumer.accept(mkReportRow(row, tags))));
     }
 
-    private List<List<Object>> prepareReportRows(SelectConditionStep<Record> qry,
-                                                 Map<Long, List<String>> tags) {
-        Result<Record> results = qry.fetch();
-
-        return results
-                .stream()
-                .map(row -> {
-                    ArrayList<Object> reportRow = new ArrayList<>();
-                    staticHeaders.forEach(h -> reportRow.add(row.get(h)));
-
-                    Long logicalFlowId = row.get(LOGICAL_FLOW.ID);
-                    List<String> logicalFlowTags = tags.get(logicalFlowId);
-                    reportRow.add(isEmpty(logicalFlowTags)
-                            ? ""
-                            : String.join(",", logicalFlowTags));
-
-                    return reportRow;
-                })
-                .collect(toList());
+    private List<Object> mkReportRow(Record row,
+                                     Map<Long, List<String>> tags) {
+        ArrayList<Object> reportRow = new ArrayList<>();
+        staticHeaders.forEach(h -> reportRow.add(row.get(h)));
+
+        Long logicalFlowId = row.get(LOGICAL_FLOW.ID);
+        List<String> logicalFlowTags = tags.get(logicalFlowId);
+        reportRow.add(isEmpty(logicalFlowTags)
+                ? ""
+                : String.join(",", logicalFlowTags));
+
+        return reportRow;
     }
 
     private Map<Long, List<String>> getTagsMap() {
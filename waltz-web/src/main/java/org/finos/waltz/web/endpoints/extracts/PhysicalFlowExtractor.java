@@ -30,9 +30,9 @@ import org.finos.waltz.model.IdSelectionOptions;
 import org.finos.waltz.web.WebUtilities;
 import org.jooq.*;
 import org.jooq.impl.DSL;
-import org.jooq.lambda.tuple.Tuple3;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import spark.Response;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -43,12 +43,12 @@ import static org.finos.waltz.schema.Tables.*;
 import static org.finos.waltz.schema.tables.Application.APPLICATION;
 import static org.finos.waltz.schema.tables.LogicalFlow.LOGICAL_FLOW;
 import static org.finos.waltz.schema.tables.PhysicalSpecification.PHYSICAL_SPECIFICATION;
-import static java.util.stream.Collectors.toList;
 import static org.finos.waltz.common.ListUtilities.isEmpty;
 import static org.finos.waltz.common.ListUtilities.newArrayList;
 import static org.finos.waltz.data.logical_flow.LogicalFlowDao.LOGICAL_NOT_REMOVED;
 import static org.finos.waltz.data.logical_flow.LogicalFlowDao.SPEC_NOT_REMOVED;
 import static org.finos.waltz.data.physical_flow.PhysicalFlowDao.PHYSICAL_FLOW_NOT_REMOVED;
+import static org.finos.waltz.web.endpoints.extracts.ExtractorUtilities.forEachRecord;
 import static spark.Spark.post;
 
 
@@ -111,26 +111,24 @@ public class PhysicalFlowExtractor extends CustomDataExtractor {
         post(WebUtilities.mkPath("data-extract", "physical-flows", "all", ":kind", ":id"), (request, response) -> {
             EntityReference ref = WebUtilities.getEntityReference(request);
             String fileName = "physical-flows-all-" + ref.id();
-            return writeReportResults(
+            return writePhysicalFlows(
                     response,
-                    preparePhysicalFlows(
-                            prepareAllFlowsQuery(ref),
-                            parseExtractFormat(request),
-                            fileName,
-                            getTagsMap()));
+                    prepareAllFlowsQuery(ref),
+                    parseExtractFormat(request),
+                    fileName,
+                    getTagsMap());
         });
 
 
         post(WebUtilities.mkPath("data-extract", "physical-flows", "produces", ":kind", ":id"), (request, response) -> {
             EntityReference ref = WebUtilities.getEntityReference(request);
             String fileName = "physical-flows-produces-" + ref.id();
-            return writeReportResults(
+            return writePhysicalFlows(
                     response,
-                    preparePhysicalFlows(
-                            prepareProducesQuery(ref),
-                            parseExtractFormat(request),
-                            fileName,
-                            getTagsMap()));
+                    prepareProducesQuery(ref),
+                    parseExtractFormat(request),
+                    fileName,
+                    getTagsMap());
         });
 
         post(WebUtilities.mkPath("data-extract", "physical-flows", "consumes", ":kind", ":id"), (request, response) -> {
@@ -138,13 +136,12 @@ public class PhysicalFlowExtractor extends CustomDataExtractor {
             String fileName = "physical-flows-consumes-" + ref.id();
             SelectConditionStep<Record> qry = prepareConsumesQuery(ref);
             Map<Long, List<String>> tags = getTagsMap();
-            return writeReportResults(
+            return writePhysicalFlows(
                     response,
-                    preparePhysicalFlows(
-                            qry,
-                            parseExtractFormat(request),
-                            fileName,
-                            tags));
+                    qry,
+                    parseExtractFormat(request),
+                    fileName,
+                    tags);
         });
 
         post(WebUtilities.mkPath("data-extract", "physical-flows", "by-selector"), (request, response) -> {
@@ -160,13 +157,12 @@ public class PhysicalFlowExtractor extends CustomDataExtractor {
                     idSelectionOptions.entityReference().kind().name().toLowerCase(),
                     idSelectionOptions.entityReference().id());
 
-            return writeReportResults(
+            return writePhysicalFlows(
                     response,
-                    preparePhysicalFlows(
-                            qry,
-                            parseExtractFormat(request),
-                            fileName,
-                            tags));
+                    qry,
+                    parseExtractFormat(request),
+                    fileName,
+                    tags);
         });
     }
 
@@ -248,43 +244,39 @@ public class PhysicalFlowExtractor extends CustomDataExtractor {
                 .where(condition);
     }
 
-    private Tuple3<ExtractFormat, String, byte[]> preparePhysicalFlows(SelectConditionStep<Record> query,
-                                                                       ExtractFormat format,
-                                                                       String reportName,
-                                                                       Map<Long, List<String>> tags) throws IOException {
-
-        List<List<Object>> reportRows = prepareReportRows(query, tags);
+    private Object writePhysicalFlows(Response response,
+                                      SelectConditionStep<Record> query,
+                                      ExtractFormat format,
+                                      String reportName,
+                                      Map<Long, List<String>> tags) throws IOException {
 
         List<String> headers = ListUtilities.map(
                 query.getSelect(),
                 Field::getName);
 
-        return formatReport(
+        return writeReport(
+                response,
                 format,
                 reportName,
-                reportRows,
-                ListUtilities.append(headers, "Tags")
-        );
+                ListUtilities.append(headers, "Tags"),
+                rowConsumer -> forEachRecord(
+                        dsl,
+                        query,
+                        row -> rowConsumer.accept(mkReportRow(query, row, tags))));
     }
 
-    private List<List<Object>> prepareReportRows(SelectConditionStep<Record> qry,
-                                                 Map<Long, List<String>> tags) {
-        Result<Record> results = qry.fetch();
-
-        return results
-                .stream()
-                .map(row -> {
-                    List<Object> reportRow = ListUtilities.map(
-                            qry.getSelect(),
-                            row::get);
-                    Long physicalFlowId = row.get(PHYSICAL_FLOW.ID);
-                    List<String> physicalFlowTags = tags.get(physicalFlowId);
-                    reportRow.add(isEmpty(physicalFlowTags)
-                            ? ""
-                            : String.join(",", physicalFlowTags));
-
-                    return reportRow;
-                })
-                .collect(toList());
+    private List<Object> mkReportRow(SelectConditionStep<Record> qry,
+                                     Record row,
+                                     Map<Long, List<String>> tags) {
+        List<Object> reportRow = ListUtilities.map(
+                qry.getSelect(),
+                row::get);
+        Long physicalFlowId = row.get(PHYSICAL_FLOW.ID);
+        List<String> physicalFlowTags = tags.get(physicalFlowId);
+        reportRow.add(isEmpty(physicalFlowTags)
+                ? ""
+                : String.join(",", physicalFlowTags));
+
+        return reportRow;
     }
 }
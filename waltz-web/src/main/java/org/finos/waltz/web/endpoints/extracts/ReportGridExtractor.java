@@ -31,13 +31,12 @@ import org.finos.waltz.service.survey.SurveyQuestionService;
 import org.finos.waltz.web.WebUtilities;
 import org.finos.waltz.web.endpoints.extracts.reportgrid.DynamicCommaSeperatedValueFormatter;
 import org.finos.waltz.web.endpoints.extracts.reportgrid.DynamicExcelFormatter;
+import org.finos.waltz.web.endpoints.extracts.reportgrid.DynamicFormatter;
 import org.finos.waltz.web.endpoints.extracts.reportgrid.DynamicJSONFormatter;
 import org.jooq.lambda.tuple.Tuple2;
-import org.jooq.lambda.tuple.Tuple3;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
 import java.util.*;
 import java.util.function.LongFunction;
 
@@ -47,7 +46,6 @@ import static java.util.stream.Collectors.toSet;
 import static org.finos.waltz.common.MapUtilities.*;
 import static org.finos.waltz.model.utils.IdUtilities.getIdOrDefault;
 import static org.finos.waltz.model.utils.IdUtilities.indexById;
-import static org.jooq.lambda.fi.util.function.CheckedConsumer.unchecked;
 import static org.jooq.lambda.tuple.Tuple.tuple;
 import static spark.Spark.post;
 
@@ -91,41 +89,38 @@ public class ReportGridExtractor implements PublicDataExtractor {
             (request, response) -> {
                 long gridId = WebUtilities.getId(request);
                 IdSelectionOptions selectionOptions =  WebUtilities.readIdSelectionOptionsFromBody(request);
-                ReportGrid reportGrid = getById(gridId,selectionOptions)
+                ColumnarReportGrid reportGrid = getById(gridId,selectionOptions)
                         .orElseThrow(() -> notFoundException.apply(gridId));
-                return writeReportResults(
-                    response,
-                    prepareReport(reportGrid,
-                        parseExtractFormat(request),
-                        selectionOptions));
+
+                ExtractFormat format = parseExtractFormat(request);
+                DynamicFormatter formatter = determineFormatter(format);
+                String reportName = mkReportName(reportGrid.definition(), selectionOptions);
+
+                List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> colsWithCommentRequirement = enrichColsWithCommentRequirement(reportGrid);
+                Iterable<Tuple2<ReportSubject, ArrayList<Object>>> reportRows = prepareReportRows(colsWithCommentRequirement, reportGrid);
+
+                return writeStreamedReportResults(
+                        response,
+                        format,
+                        reportName,
+                        out -> formatter.format(
+                                reportName,
+                                reportGrid,
+                                colsWithCommentRequirement,
+                                reportRows,
+                                out));
             });
     }
 
 
-    private Tuple3<ExtractFormat, String, byte[]> prepareReport(ReportGrid reportGrid,
-                                                                ExtractFormat format,
-                                                                IdSelectionOptions selectionOptions) throws IOException {
-
-        List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> colsWithCommentRequirement = enrichColsWithCommentRequirement(reportGrid);
-
-        List<Tuple2<ReportSubject, ArrayList<Object>>> reportRows = prepareReportRows(colsWithCommentRequirement, reportGrid.instance());
-
-        return formatReport(
-                format,
-                reportGrid,
-                mkReportName(reportGrid.definition(), selectionOptions),
-                colsWithCommentRequirement,
-                reportRows);
-    }
-
-    private Optional<ReportGrid> getById(long gridId,
-                                         IdSelectionOptions selectionOptions){
+    private Optional<ColumnarReportGrid> getById(long gridId,
+                                                 IdSelectionOptions selectionOptions){
         return reportGridService.getByIdAndSelectionOptions(
                 gridId,
                 selectionOptions);
     }
 
-    private List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> enrichColsWithCommentRequirement(ReportGrid reportGrid) {
+    private List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> enrichColsWithCommentRequirement(ColumnarReportGrid reportGrid) {
         Set<Long> surveyQuestionsIds = reportGrid
                 .definition()
                 .columnDefinitions()
@@ -164,85 +159,105 @@ public class ReportGridExtractor implements PublicDataExtractor {
 
 
 
-    private List<Tuple2<ReportSubject, ArrayList<Object>>> prepareReportRows(List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> colsWithCommentRequirement,
-                                                                             ReportGridInstance reportGridInstance) {
-
-        Set<ReportGridCell> tableData = reportGridInstance.cellData();
+    /**
+     * Rows are produced lazily (in subject name order) as the formatter iterates,
+     * so only one row is materialized at a time.
+     */
+    private Iterable<Tuple2<ReportSubject, ArrayList<Object>>> prepareReportRows(List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> colsWithCommentRequirement,
+                                                                                ColumnarReportGrid reportGrid) {
 
-        Map<Long, ReportSubject> subjectsById = indexBy(reportGridInstance.subjects(), d -> d.entityReference().id());
-        Map<Long, RatingSchemeItem> ratingsById = indexById(reportGridInstance.ratingSchemeItems());
-
-        Map<Long, Collection<ReportGridCell>> tableDataBySubjectId = groupBy(
-                tableData,
-                ReportGridCell::subjectId);
+        ColumnarReportGridCells cells = reportGrid.cells();
+        Map<Long, RatingSchemeItem> ratingsById = indexById(reportGrid.ratingSchemeItems());
 
         boolean allowCostsExport = settingsService
                 .getValue(SettingsService.ALLOW_COST_EXPORTS_KEY)
                 .map(r -> StringUtilities.isEmpty(r) || Boolean.parseBoolean(r))
                 .orElse(true);
 
-        return tableDataBySubjectId
-                .entrySet()
+        // resolve each column definition to its position in the cell column dictionary once, up front
+        int[] cellColumnIdxs = colsWithCommentRequirement
                 .stream()
-                .map(r -> {
-                    Long subjectId = r.getKey();
-
-                    ReportSubject subject = subjectsById.getOrDefault(subjectId, null);
+                .mapToInt(t -> cells.findColumnIndex(
+                        t.v1.columnEntityKind(),
+                        t.v1.columnEntityId(),
+                        getIdOrDefault(t.v1.entityFieldReference(), null)))
+                .toArray();
 
-                    ArrayList<Object> reportRow = new ArrayList<>();
+        Map<Long, int[]> rowRangesBySubjectId = new HashMap<>();
+        cells.forEachSubject((subjectId, fromRow, toRow) -> rowRangesBySubjectId.put(subjectId, new int[]{fromRow, toRow}));
 
-                    Collection<ReportGridCell> cells = r.getValue();
+        List<ReportSubject> subjects = reportGrid
+                .subjects()
+                .stream()
+                .filter(s -> rowRangesBySubjectId.containsKey(s.entityReference().id()))
+                .sorted(Comparator.comparing(s -> s.entityReference().name().get()))
+                .collect(toList());
 
-                    Map<Tuple3<Long, EntityKind, Long>, ReportGridCell> cellValuesByColumnRefForSubject = indexBy(
+        return () -> subjects
+                .stream()
+                .map(subject -> {
+                    int[] rowRange = rowRangesBySubjectId.get(subject.entityReference().id());
+                    return tuple(subject, mkReportRow(
+                            colsWithCommentRequirement,
+                            cellColumnIdxs,
                             cells,
-                            k -> tuple(k.columnEntityId(), k.columnEntityKind(), k.entityFieldReferenceId()));
-
-                    //find data for columns
-                    colsWithCommentRequirement
-                            .forEach(t -> {
-                                ReportGridColumnDefinition colDef = t.v1;
-                                boolean isCostColumn = colDef.columnEntityKind().equals(EntityKind.COST_KIND);
-
-                                if (!allowCostsExport && isCostColumn) {
-                                    reportRow.add("REDACTED");
-                                } else {
-                                    ReportGridCell cell = cellValuesByColumnRefForSubject.getOrDefault(
-                                            tuple(
-                                                    colDef.columnEntityId(),
-                                                    colDef.columnEntityKind(),
-                                                    getIdOrDefault(colDef.entityFieldReference(), null)),
-                                            null);
-
-                                    reportRow.add(getValueFromReportCell(ratingsById, cell));
-                                    if (ColumnCommentary.HAS_COMMENTARY.equals(t.v2)) {
-                                        reportRow.add(getCommentFromCell(cell));
-                                    }
-                                }
-                            });
-
-                    return tuple(subject, reportRow);
+                            rowRange[0],
+                            rowRange[1],
+                            ratingsById,
+                            allowCostsExport));
                 })
-                .sorted(Comparator.comparing(t -> t.v1.entityReference().name().get()))
-                .collect(toList());
+                .iterator();
     }
 
 
-    private Object getCommentFromCell(ReportGridCell reportGridCell) {
-        if (reportGridCell == null) {
-            return null;
+    private ArrayList<Object> mkReportRow(List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> colsWithCommentRequirement,
+                                          int[] cellColumnIdxs,
+                                          ColumnarReportGridCells cells,
+                                          int fromRow,
+                                          int toRow,
+                                          Map<Long, RatingSchemeItem> ratingsById,
+                                          boolean allowCostsExport) {
+
+        int[] rowsByCellColumnIdx = new int[cells.columnCount()];
+        Arrays.fill(rowsByCellColumnIdx, -1);
+        for (int row = fromRow; row < toRow; row++) {
+            rowsByCellColumnIdx[cells.columnIndex(row)] = row;
+        }
+
+        ArrayList<Object> reportRow = new ArrayList<>();
+
+        //find data for columns
+        for (int i = 0; i < cellColumnIdxs.length; i++) {
+            Tuple2<ReportGridColumnDefinition, ColumnCommentary> t = colsWithCommentRequirement.get(i);
+            boolean isCostColumn = t.v1.columnEntityKind().equals(EntityKind.COST_KIND);
+
+            if (!allowCostsExport && isCostColumn) {
+                reportRow.add("REDACTED");
+            } else {
+                int row = cellColumnIdxs[i] == -1
+                        ? -1
+                        : rowsByCellColumnIdx[cellColumnIdxs[i]];
+
+                reportRow.add(getValueFromReportCell(ratingsById, cells, row));
+                if (ColumnCommentary.HAS_COMMENTARY.equals(t.v2)) {
+                    reportRow.add(row == -1 ? null : cells.comment(row));
+                }
+            }
         }
-        return reportGridCell.comment();
+
+        return reportRow;
     }
 
 
     private Object getValueFromReportCell(Map<Long, RatingSchemeItem> ratingsById,
-                                          ReportGridCell reportGridCell) {
-        if (reportGridCell == null) {
+                                          ColumnarReportGridCells cells,
+                                          int row) {
+        if (row == -1) {
             return null;
         }
-        switch (reportGridCell.columnEntityKind()) {
+        switch (cells.columnEntityKind(row)) {
             case COST_KIND:
-                return reportGridCell.value();
+                return cells.value(row);
             case INVOLVEMENT_KIND:
             case SURVEY_TEMPLATE:
             case APPLICATION:
@@ -250,33 +265,26 @@ public class ReportGridExtractor implements PublicDataExtractor {
             case SURVEY_QUESTION:
             case DATA_TYPE:
             case APP_GROUP:
-                return Optional.ofNullable(reportGridCell.text()).orElse("-");
+                return Optional.ofNullable(cells.text(row)).orElse("-");
             case MEASURABLE:
             case ASSESSMENT_DEFINITION:
-                return maybeGet(ratingsById, reportGridCell.ratingId())
+                return maybeGet(ratingsById, cells.ratingId(row))
                         .map(NameProvider::name)
                         .orElse(null);
             default:
-                throw new IllegalArgumentException("This report does not support export with column of type: " + reportGridCell.columnEntityKind().name());
+                throw new IllegalArgumentException("This report does not support export with column of type: " + cells.columnEntityKind(row).name());
         }
     }
 
 
-    private Tuple3<ExtractFormat, String, byte[]> formatReport(ExtractFormat format,
-                                                               ReportGrid reportGrid,
-                                                               String reportName,
-                                                               List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> columnDefinitions,
-                                                               List<Tuple2<ReportSubject, ArrayList<Object>>> reportRows) throws IOException {
+    private DynamicFormatter determineFormatter(ExtractFormat format) {
         switch (format) {
             case XLSX:
-                return tuple(format, reportName, dynamicExcelFormatter
-                        .format(reportName, reportGrid,columnDefinitions, reportRows));
+                return dynamicExcelFormatter;
             case CSV:
-                return tuple(format, reportName, dynamicCommaSeperatedValueFormatter
-                        .format(reportName,reportGrid,columnDefinitions, reportRows));
+                return dynamicCommaSeperatedValueFormatter;
             case JSON:
-                return tuple(format, reportName, dynamicJSONFormatter
-                        .format(reportName,reportGrid,columnDefinitions, reportRows));
+                return dynamicJSONFormatter;
             default:
                 throw new UnsupportedOperationException("This report does not support export format: " + format);
         }
@@ -18,7 +18,7 @@
 package org.finos.waltz.web.endpoints.extracts.reportgrid;
 
 import org.finos.waltz.model.application.LifecyclePhase;
-import org.finos.waltz.model.report_grid.ReportGrid;
+import org.finos.waltz.model.report_grid.ColumnarReportGrid;
 import org.finos.waltz.model.report_grid.ReportGridColumnDefinition;
 import org.finos.waltz.model.report_grid.ReportSubject;
 import org.finos.waltz.web.endpoints.extracts.ColumnCommentary;
@@ -29,14 +29,17 @@ import org.springframework.stereotype.Component;
 import org.supercsv.io.CsvListWriter;
 import org.supercsv.prefs.CsvPreference;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.finos.waltz.common.ListUtilities.*;
-import static org.jooq.lambda.fi.util.function.CheckedConsumer.unchecked;
 
 @Component
 public class DynamicCommaSeperatedValueFormatter implements DynamicFormatter {
@@ -50,31 +53,33 @@ public class DynamicCommaSeperatedValueFormatter implements DynamicFormatter {
 
 
     @Override
-    public byte[] format(String id,
-                         ReportGrid reportGrid,
-                         List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> columnDefinitions,
-                         List<Tuple2<ReportSubject, ArrayList<Object>>> reportRows) throws IOException{
+    public void format(String id,
+                       ColumnarReportGrid reportGrid,
+                       List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> columnDefinitions,
+                       Iterable<Tuple2<ReportSubject, ArrayList<Object>>> reportRows,
+                       OutputStream out) throws IOException{
         try {
             LOG.info("Generating CSV report {}",id);
-            return mkCSVReport(columnDefinitions,reportRows);
+            writeCSVReport(columnDefinitions, reportRows, out);
         } catch (IOException e) {
            LOG.warn("Encounter error when trying to generate CSV report.  Details:{}", e.getMessage());
            throw e;
         }
     }
 
-    private byte[] mkCSVReport(List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> columnDefinitions,
-                               List<Tuple2<ReportSubject, ArrayList<Object>>> reportRows) throws IOException {
+    private void writeCSVReport(List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> columnDefinitions,
+                                Iterable<Tuple2<ReportSubject, ArrayList<Object>>> reportRows,
+                                OutputStream out) throws IOException {
         List<String> headers = formatterUtils.mkHeaderStrings(columnDefinitions);
 
-        StringWriter writer = new StringWriter();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
         CsvListWriter csvWriter = new CsvListWriter(writer, CsvPreference.EXCEL_PREFERENCE);
 
         csvWriter.write(headers);
-        reportRows.forEach(unchecked(row -> csvWriter.write(simplify(row))));
+        for (Tuple2<ReportSubject, ArrayList<Object>> row : reportRows) {
+            csvWriter.write(simplify(row));
+        }
         csvWriter.flush();
-
-        return writer.toString().getBytes();
     }
 
 
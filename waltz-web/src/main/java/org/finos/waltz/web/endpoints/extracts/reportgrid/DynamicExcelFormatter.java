@@ -25,7 +25,7 @@ import org.apache.poi.xssf.streaming.SXSSFSheet;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.finos.waltz.model.application.LifecyclePhase;
 import org.finos.waltz.model.external_identifier.ExternalIdValue;
-import org.finos.waltz.model.report_grid.ReportGrid;
+import org.finos.waltz.model.report_grid.ColumnarReportGrid;
 import org.finos.waltz.model.report_grid.ReportGridColumnDefinition;
 import org.finos.waltz.model.report_grid.ReportSubject;
 import org.finos.waltz.web.endpoints.extracts.ColumnCommentary;
@@ -35,8 +35,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -64,13 +64,14 @@ public class DynamicExcelFormatter implements DynamicFormatter {
 
 
     @Override
-    public byte[] format(String id,
-                         ReportGrid reportGrid,
-                         List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> columnDefinitions,
-                         List<Tuple2<ReportSubject, ArrayList<Object>>> reportRows)  throws IOException{
+    public void format(String id,
+                       ColumnarReportGrid reportGrid,
+                       List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> columnDefinitions,
+                       Iterable<Tuple2<ReportSubject, ArrayList<Object>>> reportRows,
+                       OutputStream out)  throws IOException{
         try {
             LOG.info("Generating Excel report {}",id);
-            return mkExcelReport(id,columnDefinitions,reportRows);
+            writeExcelReport(id, columnDefinitions, reportRows, out);
         } catch (IOException e) {
            LOG.warn("Encounter error when trying to generate CSV report.  Details:{}", e.getMessage());
            throw e;
@@ -78,31 +79,31 @@ public class DynamicExcelFormatter implements DynamicFormatter {
     }
 
 
-    private byte[] mkExcelReport(String reportName,
-                                 List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> columnDefinitions,
-                                 List<Tuple2<ReportSubject, ArrayList<Object>>> reportRows) throws IOException {
+    private void writeExcelReport(String reportName,
+                                  List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> columnDefinitions,
+                                  Iterable<Tuple2<ReportSubject, ArrayList<Object>>> reportRows,
+                                  OutputStream out) throws IOException {
+        // rows beyond the window are flushed to a temp file, the workbook
+        // (a zip) can only be written out once all rows have been added
         SXSSFWorkbook workbook = new SXSSFWorkbook(2000);
-        SXSSFSheet sheet = workbook.createSheet(ExtractorUtilities.sanitizeSheetName(reportName));
-
-        int colCount = writeExcelHeader(columnDefinitions, sheet);
-        writeExcelBody(reportRows, sheet);
+        try {
+            SXSSFSheet sheet = workbook.createSheet(ExtractorUtilities.sanitizeSheetName(reportName));
 
-        sheet.setAutoFilter(new CellRangeAddress(0, 0, 0, colCount - 1));
-        sheet.createFreezePane(0, 1);
+            int colCount = writeExcelHeader(columnDefinitions, sheet);
+            writeExcelBody(reportRows, sheet);
 
-        return convertExcelToByteArray(workbook);
-    }
+            sheet.setAutoFilter(new CellRangeAddress(0, 0, 0, colCount - 1));
+            sheet.createFreezePane(0, 1);
 
-
-    private byte[] convertExcelToByteArray(SXSSFWorkbook workbook) throws IOException {
-        ByteArrayOutputStream outByteStream = new ByteArrayOutputStream();
-        workbook.write(outByteStream);
-        workbook.close();
-        return outByteStream.toByteArray();
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
     }
 
 
-    private int writeExcelBody(List<Tuple2<ReportSubject, ArrayList<Object>>> reportRows, SXSSFSheet sheet) {
+    private int writeExcelBody(Iterable<Tuple2<ReportSubject, ArrayList<Object>>> reportRows, SXSSFSheet sheet) {
         AtomicInteger rowNum = new AtomicInteger(1);
         int maxCellLength = 32767 - length(CELL_LIMIT_MESSAGE);
         reportRows.forEach(r -> {
@@ -17,20 +17,27 @@
  */
 package org.finos.waltz.web.endpoints.extracts.reportgrid;
 
-import org.finos.waltz.model.report_grid.ReportGrid;
+import org.finos.waltz.model.report_grid.ColumnarReportGrid;
 import org.finos.waltz.model.report_grid.ReportGridColumnDefinition;
 import org.finos.waltz.model.report_grid.ReportSubject;
 import org.finos.waltz.web.endpoints.extracts.ColumnCommentary;
 import org.jooq.lambda.tuple.Tuple2;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Formats report grid rows, writing them directly to the given output stream.
+ * Rows are supplied as an <code>Iterable</code> and should be consumed in a
+ * single pass without being retained.
+ */
 public interface DynamicFormatter {
 
-    byte[] format(String id,
-                  ReportGrid reportGrid,
-                  List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> columnDefinitions,
-                  List<Tuple2<ReportSubject, ArrayList<Object>>> reportRows)  throws IOException;
+    void format(String id,
+                ColumnarReportGrid reportGrid,
+                List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> columnDefinitions,
+                Iterable<Tuple2<ReportSubject, ArrayList<Object>>> reportRows,
+                OutputStream out) throws IOException;
 }
@@ -17,12 +17,14 @@
  */
 package org.finos.waltz.web.endpoints.extracts.reportgrid;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.finos.waltz.model.EntityReference;
-import org.finos.waltz.model.report_grid.ReportGrid;
+import org.finos.waltz.model.report_grid.ColumnarReportGrid;
 import org.finos.waltz.model.report_grid.ReportGridColumnDefinition;
 import org.finos.waltz.model.report_grid.ReportGridDefinition;
 import org.finos.waltz.model.report_grid.ReportSubject;
@@ -34,14 +36,28 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
 
+/**
+ * Writes the report grid in the {@link ReportGridJSON} shape, streaming each
+ * row through a <code>JsonGenerator</code> rather than building the complete
+ * document in memory.
+ */
 @Component
 public class DynamicJSONFormatter implements DynamicFormatter {
 
     private static final Logger LOG = LoggerFactory.getLogger(DynamicJSONFormatter.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new Jdk8Module())
+            .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+            .configure(SerializationFeature.FLUSH_AFTER_WRITE_VALUE, false)
+            .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+
     private final FormatterUtils formatterUtils;
 
     public DynamicJSONFormatter(FormatterUtils formatterUtils){
@@ -50,18 +66,18 @@ public class DynamicJSONFormatter implements DynamicFormatter {
 
 
     @Override
-    public byte[] format(String id,
-                         ReportGrid reportGrid,
-                         List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> columnDefinitions,
-                         List<Tuple2<ReportSubject, ArrayList<Object>>> reportRows)  throws IOException {
+    public void format(String id,
+                       ColumnarReportGrid reportGrid,
+                       List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> columnDefinitions,
+                       Iterable<Tuple2<ReportSubject, ArrayList<Object>>> reportRows,
+                       OutputStream out)  throws IOException {
         try {
             LOG.debug("Generating JSON data {}",id);
             long start = System.currentTimeMillis();
-            byte[] response = mkResponse(reportGrid,columnDefinitions,reportRows);
+            int rowCount = writeResponse(reportGrid, columnDefinitions, reportRows, out);
             long finish = System.currentTimeMillis();
-            LOG.info("Generated JSON data {} in {}ms response. response payload sz={}bytes",id,
-                    finish-start, response.length);
-            return response;
+            LOG.info("Generated JSON data {} in {}ms response. rows={}",id,
+                    finish-start, rowCount);
         } catch (IOException e) {
            String err = String
                    .format("Encountered error generating JSON response.Details:%s", e.getMessage());
@@ -69,66 +85,74 @@ public class DynamicJSONFormatter implements DynamicFormatter {
         }
     }
 
-    private byte[] mkResponse(ReportGrid reportGrid,
+    private int writeResponse(ColumnarReportGrid reportGrid,
                               List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> columnDefinitions,
-                              List<Tuple2<ReportSubject, ArrayList<Object>>> reportRows) throws IOException {
+                              Iterable<Tuple2<ReportSubject, ArrayList<Object>>> reportRows,
+                              OutputStream out) throws IOException {
 
         ReportGridDefinition reportGridDefinition = reportGrid.definition();
-        ReportGridJSON reportGridJSON =
-                ImmutableReportGridJSON.builder()
-                        .id(reportGridDefinition.externalId().orElseGet(()->""+reportGridDefinition.id()))
-                        .apiTypes(new ApiTypes())
-                        .name(reportGridDefinition.name())
-                        .grid(transform(columnDefinitions,reportRows))
-                        .build();
-
-        return createMapper()
-                .writeValueAsBytes(reportGridJSON);
-    }
+        List<String> columnHeadings = formatterUtils.mkColumnHeaders(columnDefinitions);
+        int rowCount = 0;
+
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField("type", ReportGridJSON.REPORT_GRID_TYPE);
+            generator.writeStringField("id", reportGridDefinition.externalId().orElseGet(() -> String.valueOf(reportGridDefinition.id().get())));
+            generator.writeStringField("name", reportGridDefinition.name());
+            generator.writeFieldName("apiTypes");
+            MAPPER.writeValue(generator, new ApiTypes());
+
+            generator.writeObjectFieldStart("grid");
+            generator.writeArrayFieldStart("rows");
+            for (Tuple2<ReportSubject, ArrayList<Object>> currentRow : reportRows) {
+                MAPPER.writeValue(generator, transform(columnHeadings, currentRow));
+                rowCount++;
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
 
+            generator.writeEndObject();
+        }
 
-    private Grid transform(List<Tuple2<ReportGridColumnDefinition, ColumnCommentary>> columnDefinitions,
-                           List<Tuple2<ReportSubject, ArrayList<Object>>> reportRows) {
+        return rowCount;
+    }
 
-        List<Row> data = new ArrayList<>(reportRows.size());
 
-        for (Tuple2<ReportSubject, ArrayList<Object>> currentRow : reportRows) {
-            ImmutableRow.Builder transformedRow = ImmutableRow.builder();
+    private Row transform(List<String> columnHeadings,
+                          Tuple2<ReportSubject, ArrayList<Object>> currentRow) {
 
-            List<CellValue> transformedRowValues = new ArrayList<>();
+        ImmutableRow.Builder transformedRow = ImmutableRow.builder();
 
-            transformedRow.id(createKeyElement(currentRow.v1.entityReference()));
-            List<String> columnHeadings = formatterUtils.mkColumnHeaders(columnDefinitions);
-            int maxColumns = columnHeadings.size();
+        List<CellValue> transformedRowValues = new ArrayList<>();
 
-            for (int idx = 0; idx < maxColumns; idx++) {
-                String formattedColumnName = columnHeadings.get(idx)!=null?columnHeadings.get(idx):"";
-                int prevCellAddedIdx= transformedRowValues.size() - 1;
-                boolean isComment = (formattedColumnName.contains("comment"));
-                Object currentCell = currentRow.v2.get(idx);
-                if (currentCell != null) {
-                    CellValue cell = ImmutableCellValue.builder()
-                            .name(formattedColumnName)
-                            .value(currentCell.toString())
-                            .build();
+        transformedRow.id(createKeyElement(currentRow.v1.entityReference()));
+        int maxColumns = columnHeadings.size();
 
-                    if (isComment && prevCellAddedIdx>-1 && transformedRowValues.get(prevCellAddedIdx) instanceof ImmutableCellValue) {
-                        CellValue previousColumnCell = transformedRowValues.get(prevCellAddedIdx);
-                        CellValue withComment = ImmutableCellValue.copyOf(previousColumnCell)
-                                .withComment(currentCell.toString());
-                        transformedRowValues.set(prevCellAddedIdx,withComment);
-                    }else{
-                        transformedRowValues.add(cell);
-                    }
+        for (int idx = 0; idx < maxColumns; idx++) {
+            String formattedColumnName = columnHeadings.get(idx)!=null?columnHeadings.get(idx):"";
+            int prevCellAddedIdx= transformedRowValues.size() - 1;
+            boolean isComment = (formattedColumnName.contains("comment"));
+            Object currentCell = currentRow.v2.get(idx);
+            if (currentCell != null) {
+                CellValue cell = ImmutableCellValue.builder()
+                        .name(formattedColumnName)
+                        .value(currentCell.toString())
+                        .build();
 
+                if (isComment && prevCellAddedIdx>-1 && transformedRowValues.get(prevCellAddedIdx) instanceof ImmutableCellValue) {
+                    CellValue previousColumnCell = transformedRowValues.get(prevCellAddedIdx);
+                    CellValue withComment = ImmutableCellValue.copyOf(previousColumnCell)
+                            .withComment(currentCell.toString());
+                    transformedRowValues.set(prevCellAddedIdx,withComment);
+                }else{
+                    transformedRowValues.add(cell);
                 }
+
             }
-            transformedRow.addAllCells(transformedRowValues);
-            data.add(transformedRow.build());
         }
 
-        return ImmutableGrid.builder()
-                .addAllRows(data)
+        return transformedRow
+                .addAllCells(transformedRowValues)
                 .build();
     }
 
@@ -138,14 +162,4 @@ public class DynamicJSONFormatter implements DynamicFormatter {
                 .fromRef(keyAttrib);
     }
 
-
-    private ObjectMapper createMapper() {
-        ObjectMapper mapper = new ObjectMapper();
-        return mapper
-                .registerModule(new JavaTimeModule())
-                .registerModule(new Jdk8Module())
-                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
-
-    }
-
 }
@@ -0,0 +1,83 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.web;
+
+import org.finos.waltz.common.IOUtilities;
+import org.finos.waltz.model.EntityKind;
+import org.finos.waltz.model.EntityReference;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StreamingJsonWriterTest {
+
+    private final List<EntityReference> refs = mkRefs(20_000);
+
+
+    @Test
+    public void writesSameJsonAsStringTransformer() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        StreamingJsonWriter.writeTo(out, refs, false);
+
+        assertEquals(
+                WebUtilities.transformer.render(refs),
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+
+    @Test
+    public void gzippedOutputDecompressesToSameJson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        StreamingJsonWriter.writeTo(out, refs, true);
+
+        byte[] bytes = out.toByteArray();
+        assertEquals((byte) 0x1f, bytes[0], "gzip magic number");
+        assertEquals((byte) 0x8b, bytes[1], "gzip magic number");
+
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        IOUtilities.copyStream(new GZIPInputStream(new ByteArrayInputStream(bytes)), decompressed);
+
+        assertEquals(
+                WebUtilities.transformer.render(refs),
+                new String(decompressed.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+
+    private static List<EntityReference> mkRefs(int count) {
+        return range(0, count)
+                .mapToObj(i -> EntityReference.mkRef(
+                        EntityKind.APPLICATION,
+                        i,
+                        "Application " + i,
+                        "Description of application " + i,
+                        "APP-" + i))
+                .collect(toList());
+    }
+
+}
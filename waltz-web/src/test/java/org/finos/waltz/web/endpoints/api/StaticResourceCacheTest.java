@@ -0,0 +1,102 @@
+/*
+ * Waltz - Enterprise Architecture
+ * Copyright (C) 2016, 2017, 2018, 2019 Waltz open source project
+ * See README.md for more information
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific
+ *
+ */
+
+package org.finos.waltz.web.endpoints.api;
+
+import org.finos.waltz.web.endpoints.api.StaticResourceCache.CachedResource;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StaticResourceCacheTest {
+
+    private static final String MIME_TYPE = "application/octet-stream";
+
+    // small enough to never be gzipped, so each resource occupies exactly its length
+    private static final int RESOURCE_BYTES = 100;
+
+
+    @Test
+    public void repeatRequestsAreServedFromTheCache() throws Exception {
+        StaticResourceCache cache = new StaticResourceCache(1000);
+        AtomicInteger loads = new AtomicInteger();
+
+        CachedResource first = cache.get("a", MIME_TYPE, () -> load(loads));
+        CachedResource second = cache.get("a", MIME_TYPE, () -> load(loads));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+
+    @Test
+    public void leastRecentlyUsedResourceIsEvictedOnceFull() throws Exception {
+        StaticResourceCache cache = new StaticResourceCache(3 * RESOURCE_BYTES);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("a", MIME_TYPE, () -> load(loads));
+        cache.get("b", MIME_TYPE, () -> load(loads));
+        cache.get("c", MIME_TYPE, () -> load(loads));
+        cache.get("a", MIME_TYPE, () -> load(loads)); // 'b' is now the least recently used
+        cache.get("d", MIME_TYPE, () -> load(loads));
+
+        assertEquals(4, loads.get());
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+        assertTrue(cache.contains("d"));
+        assertEquals(3 * RESOURCE_BYTES, cache.cachedBytes());
+
+        cache.get("d", MIME_TYPE, () -> load(loads));
+        assertEquals(4, loads.get(), "newly cached resources should be served without reloading");
+    }
+
+
+    @Test
+    public void resourceLargerThanTheCacheIsNotRetained() throws Exception {
+        StaticResourceCache cache = new StaticResourceCache(RESOURCE_BYTES - 1);
+        AtomicInteger loads = new AtomicInteger();
+
+        CachedResource resource = cache.get("a", MIME_TYPE, () -> load(loads));
+
+        assertEquals(RESOURCE_BYTES, resource.bytes(false).length);
+        assertFalse(cache.contains("a"));
+        assertEquals(0, cache.cachedBytes());
+    }
+
+
+    @Test
+    public void missingResourcesAreNotCached() throws Exception {
+        StaticResourceCache cache = new StaticResourceCache(1000);
+
+        assertEquals(null, cache.get("a", MIME_TYPE, () -> null));
+        assertFalse(cache.contains("a"));
+    }
+
+
+    private static byte[] load(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new byte[RESOURCE_BYTES];
+    }
+
+}